@@ -13,7 +13,10 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+        // Backs the paged "orders of a customer, newest first" query
+        @Index(name = "idx_orders_customer_order_date", columnList = "customer_id, order_date")
+})
 @EntityListeners(AuditingEntityListener.class)
 public class Order {
 
@@ -2,6 +2,8 @@ package be.vives.pizzastore.repository;
 
 import be.vives.pizzastore.domain.Order;
 import be.vives.pizzastore.domain.OrderStatus;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -13,6 +15,11 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
 
     List<Order> findByCustomerId(Long customerId);
 
+    // Filter and count in the database, both served by idx_orders_customer_order_date
+    @Query(value = "SELECT o FROM Order o WHERE o.customer.id = :customerId",
+            countQuery = "SELECT COUNT(o) FROM Order o WHERE o.customer.id = :customerId")
+    Page<Order> findByCustomerId(@Param("customerId") Long customerId, Pageable pageable);
+
     List<Order> findByStatus(OrderStatus status);
 
     Optional<Order> findByOrderNumber(String orderNumber);
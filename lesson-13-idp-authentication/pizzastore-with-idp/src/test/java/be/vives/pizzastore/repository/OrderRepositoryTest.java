@@ -6,10 +6,19 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
 
 import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -38,6 +47,36 @@ class OrderRepositoryTest {
     @Autowired
     private OrderRepository orderRepository;
 
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Bulk insert orders through JDBC, persisting 100k entities one by one would dominate the test
+    private void seedOrders(Long customerId, int count, int offset) {
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 12, 0);
+        List<Object[]> rows = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int number = offset + i + 1;
+            Timestamp orderDate = Timestamp.valueOf(start.plusMinutes(number));
+            rows.add(new Object[]{
+                    String.format("ORD-2024-%07d", number), orderDate, BigDecimal.valueOf(10), "DELIVERED", customerId, orderDate
+            });
+        }
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO orders (order_number, order_date, total_amount, status, customer_id, created_at) VALUES (?, ?, ?, ?, ?, ?)",
+                rows);
+    }
+
+    private long bestOfRuns(Runnable query) {
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < 20; i++) {
+            long start = System.nanoTime();
+            query.run();
+            best = Math.min(best, System.nanoTime() - start);
+            entityManager.clear();
+        }
+        return best;
+    }
+
     @Test
     void findByCustomerId_shouldReturnCustomerOrders() {
         // Arrange
@@ -63,6 +102,62 @@ class OrderRepositoryTest {
                 .containsExactlyInAnyOrder("ORD-2024-000001", "ORD-2024-000002");
     }
 
+    @Test
+    void findByCustomerIdPaged_shouldReturnOnlyCustomerOrdersWithCorrectTotal() {
+        // Arrange
+        Customer customer1 = createTestCustomer("John Doe", "john@example.com");
+        Customer customer2 = createTestCustomer("Jane Smith", "jane@example.com");
+        entityManager.persist(customer1);
+        entityManager.persist(customer2);
+        entityManager.flush();
+
+        seedOrders(customer2.getId(), 30, 0);
+        seedOrders(customer1.getId(), 5, 30);
+        seedOrders(customer2.getId(), 30, 35);
+
+        Pageable pageable = PageRequest.of(0, 3, Sort.by("orderDate").descending());
+
+        // Act
+        Page<Order> page = orderRepository.findByCustomerId(customer1.getId(), pageable);
+
+        // Assert
+        assertThat(page.getTotalElements()).isEqualTo(5);
+        assertThat(page.getTotalPages()).isEqualTo(2);
+        assertThat(page.getContent()).hasSize(3);
+        assertThat(page.getContent()).extracting(o -> o.getCustomer().getId())
+                .containsOnly(customer1.getId());
+        assertThat(page.getContent()).extracting(Order::getOrderNumber)
+                .containsExactly("ORD-2024-0000035", "ORD-2024-0000034", "ORD-2024-0000033");
+    }
+
+    @Test
+    void findByCustomerIdPaged_latencyShouldStayFlatAsOrdersTableGrows() {
+        // Arrange
+        Customer customer = createTestCustomer("John Doe", "john@example.com");
+        Customer otherCustomer = createTestCustomer("Jane Smith", "jane@example.com");
+        entityManager.persist(customer);
+        entityManager.persist(otherCustomer);
+        entityManager.flush();
+
+        seedOrders(customer.getId(), 50, 0);
+        seedOrders(otherCustomer.getId(), 10_000, 50);
+        Pageable pageable = PageRequest.of(0, 20, Sort.by("orderDate").descending());
+
+        long smallTableNanos = bestOfRuns(() -> orderRepository.findByCustomerId(customer.getId(), pageable));
+
+        seedOrders(otherCustomer.getId(), 90_000, 10_050);
+
+        // Act
+        long largeTableNanos = bestOfRuns(() -> orderRepository.findByCustomerId(customer.getId(), pageable));
+
+        // Assert
+        assertThat(orderRepository.count()).isEqualTo(100_050);
+        assertThat(orderRepository.findByCustomerId(customer.getId(), pageable).getTotalElements()).isEqualTo(50);
+        // Ten times more rows must not make the indexed lookup meaningfully slower
+        assertThat(largeTableNanos)
+                .isLessThan(Math.max(smallTableNanos * 5, TimeUnit.MILLISECONDS.toNanos(20)));
+    }
+
     @Test
     void findByStatus_shouldReturnOrdersWithStatus() {
         // Arrange
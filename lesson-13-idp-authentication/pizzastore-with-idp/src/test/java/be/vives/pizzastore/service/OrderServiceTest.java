@@ -93,7 +93,7 @@ class OrderServiceTest {
         OrderResponse response2 = new OrderResponse(2L, "ORD-2024-000002", 1L, "John Doe", 
                 List.of(), BigDecimal.valueOf(30.00), OrderStatus.PENDING, LocalDateTime.now());
 
-        when(orderRepository.findAll(pageable)).thenReturn(page);
+        when(orderRepository.findByCustomerId(1L, pageable)).thenReturn(page);
         when(orderMapper.toResponse(order1)).thenReturn(response1);
         when(orderMapper.toResponse(order2)).thenReturn(response2);
 
@@ -102,7 +102,8 @@ class OrderServiceTest {
 
         // Assert
         assertThat(result).hasSize(2);
-        verify(orderRepository).findAll(pageable);
+        verify(orderRepository).findByCustomerId(1L, pageable);
+        verify(orderRepository, never()).findAll(any(Pageable.class));
     }
 
     @Test
@@ -0,0 +1,30 @@
+package be.vives.pizzastore.archive;
+
+import be.vives.pizzastore.domain.OrderStatus;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+
+// What an archive report can group by. Values are encoded as longs while scanning and only turned
+// into text for the response.
+public enum ArchiveDimension {
+    DAY,
+    MONTH,
+    PIZZA,
+    CUSTOMER,
+    STATUS;
+
+    // PIZZA is a property of an order line, the others of the order
+    public boolean isLineLevel() {
+        return this == PIZZA;
+    }
+
+    public String format(long value) {
+        return switch (this) {
+            case DAY -> LocalDate.ofEpochDay(value).toString();
+            case MONTH -> YearMonth.of((int) (value / 12), (int) (value % 12) + 1).toString();
+            case PIZZA, CUSTOMER -> Long.toString(value);
+            case STATUS -> OrderStatus.values()[(int) value].name();
+        };
+    }
+}
@@ -0,0 +1,32 @@
+package be.vives.pizzastore.archive;
+
+import be.vives.pizzastore.domain.OrderStatus;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+// Filter and grouping of an archive scan. customerId, pizzaId and statuses are optional (null or empty
+// means no filter). Sums are always quantity and revenue, counts are orders and order lines.
+public record ArchiveQuery(
+        LocalDateTime from,
+        LocalDateTime to,
+        Long customerId,
+        Long pizzaId,
+        Set<OrderStatus> statuses,
+        List<ArchiveDimension> groupBy
+) {
+    public static final int MAX_GROUP_BY = 2;
+
+    public ArchiveQuery {
+        if (groupBy.isEmpty() || groupBy.size() > MAX_GROUP_BY) {
+            throw new IllegalArgumentException("Group by 1 to " + MAX_GROUP_BY + " dimensions");
+        }
+        statuses = statuses == null ? Set.of() : Set.copyOf(statuses);
+        groupBy = List.copyOf(groupBy);
+    }
+
+    boolean isLineLevel() {
+        return pizzaId != null || groupBy.stream().anyMatch(ArchiveDimension::isLineLevel);
+    }
+}
@@ -0,0 +1,273 @@
+package be.vives.pizzastore.archive;
+
+import be.vives.pizzastore.domain.OrderStatus;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+// Filter, group-by and sum/count over the archived order segments. Segments are pruned on their header
+// first, the remaining ones are split over a fork/join pool with one segment per leaf task. A leaf maps
+// the file, inflates only the columns the query needs and reads them as primitives by offset, so no
+// OrderResponse or boxed value is created per row. Partial results are merged on the way back up.
+@Component
+public class ArchiveScanner {
+
+    private static final Logger log = LoggerFactory.getLogger(ArchiveScanner.class);
+
+    // Indexes into the per-group accumulator
+    public static final int ORDERS = 0;
+    public static final int LINES = 1;
+    public static final int QUANTITY = 2;
+    public static final int REVENUE_CENTS = 3;
+
+    private static final long MICROS_PER_DAY = 86_400_000_000L;
+
+    private final OrderArchive orderArchive;
+    private final ForkJoinPool pool;
+
+    public ArchiveScanner(OrderArchive orderArchive,
+                          @Value("${order-archive.scan-parallelism:0}") int parallelism) {
+        this.orderArchive = orderArchive;
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    public record GroupKey(long first, long second) implements Comparable<GroupKey> {
+        @Override
+        public int compareTo(GroupKey other) {
+            int compare = Long.compare(first, other.first);
+            return compare != 0 ? compare : Long.compare(second, other.second);
+        }
+    }
+
+    // groups holds, per key, the counts and sums at the ORDERS, LINES, QUANTITY and REVENUE_CENTS indexes
+    public record Result(
+            int segmentsScanned,
+            long ordersScanned,
+            long linesScanned,
+            long elapsedNanos,
+            int parallelism,
+            Map<GroupKey, long[]> groups
+    ) {
+    }
+
+    public Result scan(ArchiveQuery query) {
+        List<OrderSegment.Summary> segments = orderArchive.segments().stream()
+                .filter(summary -> query.from() == null || !summary.maxOrderDate().isBefore(query.from()))
+                .filter(summary -> query.to() == null || !summary.minOrderDate().isAfter(query.to()))
+                .filter(summary -> query.customerId() == null || summary.containsCustomer(query.customerId()))
+                .toList();
+
+        long start = System.nanoTime();
+        Partial partial = segments.isEmpty() ? new Partial() : pool.invoke(new ScanTask(segments, 0, segments.size(), query));
+        long elapsed = System.nanoTime() - start;
+        log.debug("Scanned {} of {} archive segments ({} lines) in {} ms", segments.size(),
+                orderArchive.segments().size(), partial.lines, elapsed / 1_000_000);
+        return new Result(segments.size(), partial.orders, partial.lines, elapsed, pool.getParallelism(), partial.groups);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    private static final class ScanTask extends RecursiveTask<Partial> {
+
+        private final List<OrderSegment.Summary> segments;
+        private final int from;
+        private final int to;
+        private final ArchiveQuery query;
+
+        private ScanTask(List<OrderSegment.Summary> segments, int from, int to, ArchiveQuery query) {
+            this.segments = segments;
+            this.from = from;
+            this.to = to;
+            this.query = query;
+        }
+
+        @Override
+        protected Partial compute() {
+            if (to - from == 1) {
+                return scanSegment(segments.get(from), query);
+            }
+            int middle = (from + to) >>> 1;
+            ScanTask left = new ScanTask(segments, from, middle, query);
+            left.fork();
+            Partial right = new ScanTask(segments, middle, to, query).compute();
+            return left.join().merge(right);
+        }
+    }
+
+    static Partial scanSegment(OrderSegment.Summary summary, ArchiveQuery query) {
+        OrderSegment segment;
+        try {
+            segment = OrderSegment.open(summary.path());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read archive segment " + summary.path(), e);
+        }
+
+        int orderCount = summary.orderCount();
+        boolean lineLevel = query.isLineLevel();
+        List<ArchiveDimension> groupBy = query.groupBy();
+        boolean needsCustomer = query.customerId() != null || groupBy.contains(ArchiveDimension.CUSTOMER);
+        boolean needsStatus = !query.statuses().isEmpty() || groupBy.contains(ArchiveDimension.STATUS);
+
+        ByteBuffer dates = segment.column(OrderSegment.Column.ORDER_DATE);
+        ByteBuffer lineCounts = segment.column(OrderSegment.Column.LINE_COUNT);
+        ByteBuffer totals = lineLevel ? null : segment.column(OrderSegment.Column.TOTAL_CENTS);
+        ByteBuffer customers = needsCustomer ? segment.column(OrderSegment.Column.CUSTOMER_ID) : null;
+        int[] statuses = needsStatus ? decodeStatuses(segment.column(OrderSegment.Column.STATUS), orderCount) : null;
+        ByteBuffer pizzas = lineLevel ? segment.column(OrderSegment.Column.PIZZA_ID) : null;
+        ByteBuffer quantities = segment.column(OrderSegment.Column.QUANTITY);
+        ByteBuffer subtotals = lineLevel ? segment.column(OrderSegment.Column.SUBTOTAL_CENTS) : null;
+
+        long fromMicros = query.from() == null ? Long.MIN_VALUE : OrderSegment.toEpochMicros(query.from());
+        long toMicros = query.to() == null ? Long.MAX_VALUE : OrderSegment.toEpochMicros(query.to());
+        boolean filterCustomer = query.customerId() != null;
+        long wantedCustomer = filterCustomer ? query.customerId() : 0;
+        boolean filterPizza = query.pizzaId() != null;
+        long wantedPizza = filterPizza ? query.pizzaId() : 0;
+        boolean[] statusFilter = null;
+        if (!query.statuses().isEmpty()) {
+            statusFilter = new boolean[OrderStatus.values().length];
+            for (OrderStatus status : query.statuses()) {
+                statusFilter[status.ordinal()] = true;
+            }
+        }
+
+        Partial partial = new Partial();
+        MonthCache months = new MonthCache();
+        List<GroupKey> countedForOrder = new ArrayList<>(4);
+        int line = 0;
+        for (int row = 0; row < orderCount; row++) {
+            int lines = lineCounts.getInt(row * Integer.BYTES);
+            int firstLine = line;
+            line += lines;
+            partial.orders++;
+            partial.lines += lines;
+
+            long date = dates.getLong(row * Long.BYTES);
+            if (date < fromMicros || date > toMicros) {
+                continue;
+            }
+            long customerId = customers == null ? 0 : customers.getLong(row * Long.BYTES);
+            if (filterCustomer && customerId != wantedCustomer) {
+                continue;
+            }
+            int status = statuses == null ? 0 : statuses[row];
+            if (statusFilter != null && !statusFilter[status]) {
+                continue;
+            }
+
+            if (!lineLevel) {
+                long quantity = 0;
+                for (int i = firstLine; i < line; i++) {
+                    quantity += quantities.getInt(i * Integer.BYTES);
+                }
+                GroupKey key = key(groupBy, date, customerId, status, 0, months);
+                partial.add(key, 1, lines, quantity, totals.getLong(row * Long.BYTES));
+                continue;
+            }
+
+            countedForOrder.clear();
+            for (int i = firstLine; i < line; i++) {
+                long pizzaId = pizzas.getLong(i * Long.BYTES);
+                if (filterPizza && pizzaId != wantedPizza) {
+                    continue;
+                }
+                GroupKey key = key(groupBy, date, customerId, status, pizzaId, months);
+                // An order counts once per group, even with several lines in it
+                long orders = countedForOrder.contains(key) ? 0 : 1;
+                if (orders == 1) {
+                    countedForOrder.add(key);
+                }
+                partial.add(key, orders, 1, quantities.getInt(i * Integer.BYTES), subtotals.getLong(i * Long.BYTES));
+            }
+        }
+        return partial;
+    }
+
+    private static GroupKey key(List<ArchiveDimension> groupBy, long dateMicros, long customerId, int status,
+                                long pizzaId, MonthCache months) {
+        long first = value(groupBy.get(0), dateMicros, customerId, status, pizzaId, months);
+        long second = groupBy.size() > 1 ? value(groupBy.get(1), dateMicros, customerId, status, pizzaId, months) : 0;
+        return new GroupKey(first, second);
+    }
+
+    private static long value(ArchiveDimension dimension, long dateMicros, long customerId, int status,
+                              long pizzaId, MonthCache months) {
+        return switch (dimension) {
+            case DAY -> Math.floorDiv(dateMicros, MICROS_PER_DAY);
+            case MONTH -> months.monthOf(Math.floorDiv(dateMicros, MICROS_PER_DAY));
+            case PIZZA -> pizzaId;
+            case CUSTOMER -> customerId;
+            case STATUS -> status;
+        };
+    }
+
+    // Status is the only text column a scan may need, it is decoded once per segment into ordinals
+    private static int[] decodeStatuses(ByteBuffer column, int orderCount) {
+        int[] ordinals = new int[orderCount];
+        List<String> names = OrderSegment.readStrings(column, 0, orderCount);
+        for (int row = 0; row < orderCount; row++) {
+            ordinals[row] = OrderStatus.valueOf(names.get(row)).ordinal();
+        }
+        return ordinals;
+    }
+
+    // Orders in a segment are sorted by id and therefore mostly by date: remember the last conversion
+    private static final class MonthCache {
+        private long epochDay = Long.MIN_VALUE;
+        private long month;
+
+        private long monthOf(long day) {
+            if (day != epochDay) {
+                LocalDate date = LocalDate.ofEpochDay(day);
+                epochDay = day;
+                month = date.getYear() * 12L + date.getMonthValue() - 1;
+            }
+            return month;
+        }
+    }
+
+    static final class Partial {
+        private final Map<GroupKey, long[]> groups = new HashMap<>();
+        private long orders;
+        private long lines;
+
+        private void add(GroupKey key, long orders, long lines, long quantity, long revenueCents) {
+            long[] sums = groups.computeIfAbsent(key, k -> new long[4]);
+            sums[ORDERS] += orders;
+            sums[LINES] += lines;
+            sums[QUANTITY] += quantity;
+            sums[REVENUE_CENTS] += revenueCents;
+        }
+
+        private Partial merge(Partial other) {
+            Partial larger = groups.size() >= other.groups.size() ? this : other;
+            Partial smaller = larger == this ? other : this;
+            smaller.groups.forEach((key, sums) -> {
+                long[] target = larger.groups.computeIfAbsent(key, k -> new long[4]);
+                for (int i = 0; i < target.length; i++) {
+                    target[i] += sums[i];
+                }
+            });
+            larger.orders += smaller.orders;
+            larger.lines += smaller.lines;
+            return larger;
+        }
+
+        Map<GroupKey, long[]> groups() {
+            return groups;
+        }
+    }
+}
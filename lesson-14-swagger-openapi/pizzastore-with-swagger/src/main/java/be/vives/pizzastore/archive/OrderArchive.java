@@ -0,0 +1,152 @@
+package be.vives.pizzastore.archive;
+
+import be.vives.pizzastore.domain.ArchiveSegment;
+import be.vives.pizzastore.dto.response.OrderResponse;
+import be.vives.pizzastore.repository.ArchiveSegmentRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+
+// Append-only store of archived orders on local disk, one OrderSegment file per archived batch.
+// Only the segment summaries (id range, date range, customer ids) are kept in memory: they are the
+// index by id, customer and date, and a lookup opens just the segments whose summary matches.
+// The directory outlives the database: every segment is registered in order_archive_segments, and on load
+// files the current database does not know about are deleted, their order and customer ids belong to an
+// earlier database and would collide with the ids handed out now.
+@Component
+public class OrderArchive {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderArchive.class);
+
+    private static final String SEGMENT_PREFIX = "orders-";
+    private static final String SEGMENT_SUFFIX = ".seg";
+
+    private final Path directory;
+    private final ArchiveSegmentRepository archiveSegmentRepository;
+    private final List<OrderSegment.Summary> segments = new CopyOnWriteArrayList<>();
+    private long nextSegmentNumber = 1;
+
+    public OrderArchive(@Value("${order-archive.directory:archive/orders}") Path directory,
+                        ArchiveSegmentRepository archiveSegmentRepository) {
+        this.directory = directory;
+        this.archiveSegmentRepository = archiveSegmentRepository;
+    }
+
+    @PostConstruct
+    public synchronized void load() {
+        try {
+            Files.createDirectories(directory);
+            Set<String> registered = archiveSegmentRepository.findAll().stream()
+                    .map(ArchiveSegment::getFileName)
+                    .collect(Collectors.toSet());
+            List<OrderSegment.Summary> loaded = new ArrayList<>();
+            int dropped = 0;
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+                for (Path file : files) {
+                    if (!registered.contains(file.getFileName().toString())) {
+                        Files.delete(file);
+                        dropped++;
+                        continue;
+                    }
+                    loaded.add(OrderSegment.readSummary(file));
+                    nextSegmentNumber = Math.max(nextSegmentNumber, segmentNumber(file) + 1);
+                }
+            }
+            if (loaded.size() < registered.size()) {
+                log.warn("Order archive is missing {} registered segments in {}", registered.size() - loaded.size(),
+                        directory.toAbsolutePath());
+            }
+            loaded.sort(Comparator.comparing(summary -> summary.path().getFileName().toString()));
+            segments.clear();
+            segments.addAll(loaded);
+            log.info("Order archive loaded {} segments from {}, dropped {} unregistered segments",
+                    segments.size(), directory.toAbsolutePath(), dropped);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not load order archive from " + directory, e);
+        }
+    }
+
+    // Writes the orders as a new segment and makes them visible to lookups. The segment is registered in
+    // the caller's transaction, so it only survives a restart if the orders' removal commits with it.
+    public synchronized OrderSegment.Summary append(List<OrderResponse> orders) throws IOException {
+        String fileName = String.format("%s%012d%s", SEGMENT_PREFIX, nextSegmentNumber, SEGMENT_SUFFIX);
+        Path file = directory.resolve(fileName);
+        OrderSegment.Summary summary = OrderSegment.write(file, orders);
+        nextSegmentNumber++;
+        try {
+            archiveSegmentRepository.save(new ArchiveSegment(fileName, summary.orderCount(), LocalDateTime.now()));
+        } catch (RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+        segments.add(summary);
+        return summary;
+    }
+
+    // Undoes an append whose orders could not be removed from the hot tables
+    public synchronized void discard(OrderSegment.Summary summary) throws IOException {
+        segments.remove(summary);
+        Files.deleteIfExists(summary.path());
+    }
+
+    public Optional<OrderResponse> findById(long id) {
+        for (OrderSegment.Summary summary : segments) {
+            if (summary.mayContainId(id)) {
+                Optional<OrderResponse> order = open(summary).findById(id);
+                if (order.isPresent()) {
+                    return order;
+                }
+            }
+        }
+        return Optional.empty();
+    }
+
+    // Segments holding orders of the customer placed between from and to, without opening any file
+    public List<OrderSegment.Summary> findSegments(Long customerId, LocalDateTime from, LocalDateTime to) {
+        return segments.stream()
+                .filter(summary -> customerId == null || summary.containsCustomer(customerId))
+                .filter(summary -> summary.overlaps(from, to))
+                .toList();
+    }
+
+    // Decodes a whole segment, segments are bounded by the archiver batch size
+    public List<OrderResponse> readAll(OrderSegment.Summary summary) {
+        return open(summary).readAll();
+    }
+
+    public List<OrderSegment.Summary> segments() {
+        return List.copyOf(segments);
+    }
+
+    // Most recent order date in the archive, days up to this one are (partly) archived
+    public Optional<LocalDateTime> latestOrderDate() {
+        return segments.stream()
+                .map(OrderSegment.Summary::maxOrderDate)
+                .max(Comparator.naturalOrder());
+    }
+
+    private OrderSegment open(OrderSegment.Summary summary) {
+        try {
+            return OrderSegment.open(summary.path());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read archive segment " + summary.path(), e);
+        }
+    }
+
+    private static long segmentNumber(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+}
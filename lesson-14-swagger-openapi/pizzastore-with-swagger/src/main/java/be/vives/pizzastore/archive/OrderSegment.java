@@ -0,0 +1,413 @@
+package be.vives.pizzastore.archive;
+
+import be.vives.pizzastore.domain.Money;
+import be.vives.pizzastore.domain.OrderStatus;
+import be.vives.pizzastore.dto.response.OrderLineResponse;
+import be.vives.pizzastore.dto.response.OrderResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+// Immutable, column-oriented file holding a batch of archived orders, sorted by id.
+//
+// Layout: header | column directory | one deflated block per column.
+// The header is the segment's index: order count, id range, order date range and the sorted distinct
+// customer ids, so the archive can skip a segment without inflating anything. Every column is
+// compressed on its own, a reader only inflates the columns it needs.
+public final class OrderSegment {
+
+    static final int MAGIC = 0x505A5347; // "PZSG"
+    static final int VERSION = 1;
+
+    private static final LocalDateTime EPOCH = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    // Stored in this order in the directory: only ever append new columns
+    public enum Column {
+        // One value per order
+        ID, ORDER_NUMBER, CUSTOMER_ID, CUSTOMER_NAME, ORDER_DATE, STATUS, TOTAL_CENTS, LINE_COUNT,
+        // One value per order line, grouped per order in id order
+        LINE_ID, PIZZA_ID, PIZZA_NAME, QUANTITY, UNIT_PRICE_CENTS, SUBTOTAL_CENTS
+    }
+
+    public record Summary(
+            Path path,
+            int orderCount,
+            int lineCount,
+            long minId,
+            long maxId,
+            LocalDateTime minOrderDate,
+            LocalDateTime maxOrderDate,
+            long[] customerIds
+    ) {
+        public boolean mayContainId(long id) {
+            return id >= minId && id <= maxId;
+        }
+
+        public boolean containsCustomer(long customerId) {
+            return Arrays.binarySearch(customerIds, customerId) >= 0;
+        }
+
+        public boolean overlaps(LocalDateTime from, LocalDateTime to) {
+            return !maxOrderDate.isBefore(from) && !minOrderDate.isAfter(to);
+        }
+    }
+
+    private final Summary summary;
+    private final ByteBuffer file;
+    private final long[] offsets = new long[Column.values().length];
+    private final int[] compressedLengths = new int[Column.values().length];
+    private final int[] rawLengths = new int[Column.values().length];
+
+    private OrderSegment(Summary summary, ByteBuffer file) {
+        this.summary = summary;
+        this.file = file;
+        for (int i = 0; i < offsets.length; i++) {
+            offsets[i] = file.getLong();
+            compressedLengths[i] = file.getInt();
+            rawLengths[i] = file.getInt();
+        }
+    }
+
+    // Writes to a temporary file, forces it to disk and moves it into place, so a crash never leaves
+    // a partial segment under the final name
+    public static Summary write(Path target, List<OrderResponse> orders) throws IOException {
+        if (orders.isEmpty()) {
+            throw new IllegalArgumentException("A segment needs at least one order");
+        }
+        List<OrderResponse> sorted = orders.stream().sorted(Comparator.comparing(OrderResponse::id)).toList();
+
+        ColumnWriter[] columns = new ColumnWriter[Column.values().length];
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = new ColumnWriter();
+        }
+        TreeSet<Long> customerIds = new TreeSet<>();
+        LocalDateTime minOrderDate = sorted.get(0).orderDate();
+        LocalDateTime maxOrderDate = minOrderDate;
+        int lineCount = 0;
+        for (OrderResponse order : sorted) {
+            columns[Column.ID.ordinal()].out.writeLong(order.id());
+            columns[Column.ORDER_NUMBER.ordinal()].writeString(order.orderNumber());
+            columns[Column.CUSTOMER_ID.ordinal()].out.writeLong(order.customerId());
+            columns[Column.CUSTOMER_NAME.ordinal()].writeString(order.customerName());
+            columns[Column.ORDER_DATE.ordinal()].out.writeLong(toEpochMicros(order.orderDate()));
+            columns[Column.STATUS.ordinal()].writeString(order.status().name());
+            columns[Column.TOTAL_CENTS.ordinal()].out.writeLong(Money.of(order.totalAmount()).cents());
+            columns[Column.LINE_COUNT.ordinal()].out.writeInt(order.orderLines().size());
+            for (OrderLineResponse line : order.orderLines()) {
+                columns[Column.LINE_ID.ordinal()].out.writeLong(line.id());
+                columns[Column.PIZZA_ID.ordinal()].out.writeLong(line.pizzaId());
+                columns[Column.PIZZA_NAME.ordinal()].writeString(line.pizzaName());
+                columns[Column.QUANTITY.ordinal()].out.writeInt(line.quantity());
+                columns[Column.UNIT_PRICE_CENTS.ordinal()].out.writeLong(Money.of(line.unitPrice()).cents());
+                columns[Column.SUBTOTAL_CENTS.ordinal()].out.writeLong(Money.of(line.subtotal()).cents());
+                lineCount++;
+            }
+            customerIds.add(order.customerId());
+            if (order.orderDate().isBefore(minOrderDate)) {
+                minOrderDate = order.orderDate();
+            }
+            if (order.orderDate().isAfter(maxOrderDate)) {
+                maxOrderDate = order.orderDate();
+            }
+        }
+
+        byte[][] blocks = new byte[columns.length][];
+        byte[][] raw = new byte[columns.length][];
+        for (int i = 0; i < columns.length; i++) {
+            raw[i] = columns[i].bytes.toByteArray();
+            blocks[i] = deflate(raw[i]);
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(sorted.size());
+        out.writeInt(lineCount);
+        out.writeLong(sorted.get(0).id());
+        out.writeLong(sorted.get(sorted.size() - 1).id());
+        out.writeLong(toEpochMicros(minOrderDate));
+        out.writeLong(toEpochMicros(maxOrderDate));
+        out.writeInt(customerIds.size());
+        for (Long customerId : customerIds) {
+            out.writeLong(customerId);
+        }
+        long offset = out.size() + (long) columns.length * (Long.BYTES + 2 * Integer.BYTES);
+        for (int i = 0; i < columns.length; i++) {
+            out.writeLong(offset);
+            out.writeInt(blocks[i].length);
+            out.writeInt(raw[i].length);
+            offset += blocks[i].length;
+        }
+        for (byte[] block : blocks) {
+            out.write(block);
+        }
+        out.flush();
+
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+
+        return new Summary(target, sorted.size(), lineCount, sorted.get(0).id(), sorted.get(sorted.size() - 1).id(),
+                minOrderDate, maxOrderDate, customerIds.stream().mapToLong(Long::longValue).toArray());
+    }
+
+    // Maps the file read-only, the header and directory are parsed right away, columns on demand
+    public static OrderSegment open(Path path) throws IOException {
+        MappedByteBuffer file;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            file = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        return new OrderSegment(readSummary(path, file), file);
+    }
+
+    public Summary summary() {
+        return summary;
+    }
+
+    public Optional<OrderResponse> findById(long id) {
+        if (!summary.mayContainId(id)) {
+            return Optional.empty();
+        }
+        ByteBuffer ids = column(Column.ID);
+        int low = 0;
+        int high = summary.orderCount() - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            long midId = ids.getLong(mid * Long.BYTES);
+            if (midId < id) {
+                low = mid + 1;
+            } else if (midId > id) {
+                high = mid - 1;
+            } else {
+                return Optional.of(readOrder(mid));
+            }
+        }
+        return Optional.empty();
+    }
+
+    // Decodes every order in one pass over each column, for exports
+    public List<OrderResponse> readAll() {
+        int orderCount = summary.orderCount();
+        ByteBuffer ids = column(Column.ID);
+        List<String> orderNumbers = readStrings(column(Column.ORDER_NUMBER), 0, orderCount);
+        ByteBuffer customerIds = column(Column.CUSTOMER_ID);
+        List<String> customerNames = readStrings(column(Column.CUSTOMER_NAME), 0, orderCount);
+        ByteBuffer orderDates = column(Column.ORDER_DATE);
+        List<String> statuses = readStrings(column(Column.STATUS), 0, orderCount);
+        ByteBuffer totals = column(Column.TOTAL_CENTS);
+        ByteBuffer lineCounts = column(Column.LINE_COUNT);
+        ByteBuffer lineIds = column(Column.LINE_ID);
+        ByteBuffer pizzaIds = column(Column.PIZZA_ID);
+        List<String> pizzaNames = readStrings(column(Column.PIZZA_NAME), 0, summary.lineCount());
+        ByteBuffer quantities = column(Column.QUANTITY);
+        ByteBuffer unitPrices = column(Column.UNIT_PRICE_CENTS);
+        ByteBuffer subtotals = column(Column.SUBTOTAL_CENTS);
+
+        List<OrderResponse> orders = new ArrayList<>(orderCount);
+        int line = 0;
+        for (int row = 0; row < orderCount; row++) {
+            int lines = lineCounts.getInt(row * Integer.BYTES);
+            List<OrderLineResponse> orderLines = new ArrayList<>(lines);
+            for (int i = 0; i < lines; i++, line++) {
+                orderLines.add(new OrderLineResponse(
+                        lineIds.getLong(line * Long.BYTES),
+                        pizzaIds.getLong(line * Long.BYTES),
+                        pizzaNames.get(line),
+                        quantities.getInt(line * Integer.BYTES),
+                        Money.ofCents(unitPrices.getLong(line * Long.BYTES)).toBigDecimal(),
+                        Money.ofCents(subtotals.getLong(line * Long.BYTES)).toBigDecimal()));
+            }
+            orders.add(new OrderResponse(
+                    ids.getLong(row * Long.BYTES),
+                    orderNumbers.get(row),
+                    customerIds.getLong(row * Long.BYTES),
+                    customerNames.get(row),
+                    orderLines,
+                    Money.ofCents(totals.getLong(row * Long.BYTES)).toBigDecimal(),
+                    OrderStatus.valueOf(statuses.get(row)),
+                    fromEpochMicros(orderDates.getLong(row * Long.BYTES))));
+        }
+        return orders;
+    }
+
+    // Inflates one column into a heap buffer of fixed-width values or length-prefixed strings
+    public ByteBuffer column(Column column) {
+        int index = column.ordinal();
+        ByteBuffer block = file.slice((int) offsets[index], compressedLengths[index]);
+        byte[] raw = new byte[rawLengths[index]];
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(block);
+            int read = 0;
+            while (read < raw.length && !inflater.finished()) {
+                read += inflater.inflate(raw, read, raw.length - read);
+            }
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Corrupt column " + column + " in " + summary.path(), e);
+        } finally {
+            inflater.end();
+        }
+        return ByteBuffer.wrap(raw);
+    }
+
+    private OrderResponse readOrder(int row) {
+        ByteBuffer lineCounts = column(Column.LINE_COUNT);
+        int firstLine = 0;
+        for (int i = 0; i < row; i++) {
+            firstLine += lineCounts.getInt(i * Integer.BYTES);
+        }
+        int lines = lineCounts.getInt(row * Integer.BYTES);
+
+        ByteBuffer lineIds = column(Column.LINE_ID);
+        ByteBuffer pizzaIds = column(Column.PIZZA_ID);
+        List<String> pizzaNames = readStrings(column(Column.PIZZA_NAME), firstLine, lines);
+        ByteBuffer quantities = column(Column.QUANTITY);
+        ByteBuffer unitPrices = column(Column.UNIT_PRICE_CENTS);
+        ByteBuffer subtotals = column(Column.SUBTOTAL_CENTS);
+        List<OrderLineResponse> orderLines = new ArrayList<>(lines);
+        for (int i = 0; i < lines; i++) {
+            int line = firstLine + i;
+            orderLines.add(new OrderLineResponse(
+                    lineIds.getLong(line * Long.BYTES),
+                    pizzaIds.getLong(line * Long.BYTES),
+                    pizzaNames.get(i),
+                    quantities.getInt(line * Integer.BYTES),
+                    Money.ofCents(unitPrices.getLong(line * Long.BYTES)).toBigDecimal(),
+                    Money.ofCents(subtotals.getLong(line * Long.BYTES)).toBigDecimal()));
+        }
+
+        return new OrderResponse(
+                column(Column.ID).getLong(row * Long.BYTES),
+                readStrings(column(Column.ORDER_NUMBER), row, 1).get(0),
+                column(Column.CUSTOMER_ID).getLong(row * Long.BYTES),
+                readStrings(column(Column.CUSTOMER_NAME), row, 1).get(0),
+                orderLines,
+                Money.ofCents(column(Column.TOTAL_CENTS).getLong(row * Long.BYTES)).toBigDecimal(),
+                OrderStatus.valueOf(readStrings(column(Column.STATUS), row, 1).get(0)),
+                fromEpochMicros(column(Column.ORDER_DATE).getLong(row * Long.BYTES)));
+    }
+
+    public static Summary readSummary(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer fixed = ByteBuffer.allocate(4 * Integer.BYTES + 4 * Long.BYTES + Integer.BYTES);
+            readFully(channel, fixed, 0);
+            int customerCount = fixed.getInt(fixed.capacity() - Integer.BYTES);
+            ByteBuffer header = ByteBuffer.allocate(fixed.capacity() + customerCount * Long.BYTES);
+            readFully(channel, header, 0);
+            return readSummary(path, header);
+        }
+    }
+
+    private static Summary readSummary(Path path, ByteBuffer buffer) {
+        if (buffer.getInt() != MAGIC) {
+            throw new IllegalStateException(path + " is not an order segment");
+        }
+        int version = buffer.getInt();
+        if (version != VERSION) {
+            throw new IllegalStateException(path + " has unsupported segment version " + version);
+        }
+        int orderCount = buffer.getInt();
+        int lineCount = buffer.getInt();
+        long minId = buffer.getLong();
+        long maxId = buffer.getLong();
+        LocalDateTime minOrderDate = fromEpochMicros(buffer.getLong());
+        LocalDateTime maxOrderDate = fromEpochMicros(buffer.getLong());
+        long[] customerIds = new long[buffer.getInt()];
+        for (int i = 0; i < customerIds.length; i++) {
+            customerIds[i] = buffer.getLong();
+        }
+        return new Summary(path, orderCount, lineCount, minId, maxId, minOrderDate, maxOrderDate, customerIds);
+    }
+
+    // Skips to entry `from` of a length-prefixed string column and reads `count` entries
+    static List<String> readStrings(ByteBuffer column, int from, int count) {
+        int position = 0;
+        for (int i = 0; i < from; i++) {
+            int length = column.getInt(position);
+            position += Integer.BYTES + Math.max(length, 0);
+        }
+        List<String> values = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int length = column.getInt(position);
+            position += Integer.BYTES;
+            if (length < 0) {
+                values.add(null);
+            } else {
+                values.add(new String(column.array(), position, length, StandardCharsets.UTF_8));
+                position += length;
+            }
+        }
+        return values;
+    }
+
+    static long toEpochMicros(LocalDateTime dateTime) {
+        return ChronoUnit.MICROS.between(EPOCH, dateTime);
+    }
+
+    static LocalDateTime fromEpochMicros(long micros) {
+        return EPOCH.plus(micros, ChronoUnit.MICROS);
+    }
+
+    private static byte[] deflate(byte[] raw) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(raw);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, raw.length / 2));
+            byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of segment");
+            }
+        }
+        buffer.flip();
+    }
+
+    private static final class ColumnWriter {
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private final DataOutputStream out = new DataOutputStream(bytes);
+
+        private void writeString(String value) throws IOException {
+            if (value == null) {
+                out.writeInt(-1);
+                return;
+            }
+            byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(utf8.length);
+            out.write(utf8);
+        }
+    }
+}
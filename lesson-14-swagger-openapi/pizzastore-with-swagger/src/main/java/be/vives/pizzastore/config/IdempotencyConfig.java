@@ -0,0 +1,25 @@
+package be.vives.pizzastore.config;
+
+import be.vives.pizzastore.service.IdempotencyStore;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class IdempotencyConfig {
+
+    @Bean
+    public FilterRegistrationBean<IdempotencyFilter> idempotencyFilter(IdempotencyStore idempotencyStore,
+                                                                       ObjectMapper objectMapper,
+                                                                       @Value("${idempotency.max-body-bytes:1048576}") int maxBodyBytes) {
+        FilterRegistrationBean<IdempotencyFilter> registration =
+                new FilterRegistrationBean<>(new IdempotencyFilter(idempotencyStore, objectMapper, maxBodyBytes));
+        registration.addUrlPatterns("/api/*");
+        // Behind Spring Security: rejected requests never claim a key and the caller is known
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER + 1);
+        return registration;
+    }
+}
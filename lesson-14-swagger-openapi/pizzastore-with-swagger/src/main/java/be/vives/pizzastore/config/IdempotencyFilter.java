@@ -0,0 +1,249 @@
+package be.vives.pizzastore.config;
+
+import be.vives.pizzastore.dto.response.ErrorResponse;
+import be.vives.pizzastore.exception.BusinessException;
+import be.vives.pizzastore.exception.DuplicateResourceException;
+import be.vives.pizzastore.service.IdempotencyStore;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+
+// Makes writes safe to retry: a POST, PUT, PATCH or DELETE with an Idempotency-Key header runs once per
+// caller and key, repeats get the stored response back with an Idempotent-Replayed header.
+// Responses with a 5xx status are not kept, so the request can be retried with the same key.
+// Registered in IdempotencyConfig behind Spring Security, keys are scoped per authenticated user.
+// Multipart and form posts and /api/auth are passed through without a key: the container parses form
+// parts from the original stream, and login and register responses carry a token that must not be stored.
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    static final int MAX_KEY_LENGTH = 100;
+
+    private static final Set<String> WRITE_METHODS = Set.of("POST", "PUT", "PATCH", "DELETE");
+    private static final String AUTH_PATH = "/api/auth/";
+
+    private final IdempotencyStore idempotencyStore;
+    private final ObjectMapper objectMapper;
+    private final int maxBodyBytes;
+
+    public IdempotencyFilter(IdempotencyStore idempotencyStore, ObjectMapper objectMapper, int maxBodyBytes) {
+        if (maxBodyBytes < 0 || maxBodyBytes == Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("idempotency.max-body-bytes must be between 0 and " + (Integer.MAX_VALUE - 1));
+        }
+        this.idempotencyStore = idempotencyStore;
+        this.objectMapper = objectMapper;
+        this.maxBodyBytes = maxBodyBytes;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !WRITE_METHODS.contains(request.getMethod())
+                || request.getHeader(HEADER) == null
+                || request.getRequestURI().startsWith(request.getContextPath() + AUTH_PATH)
+                || isForm(request.getContentType());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+
+        String idempotencyKey = request.getHeader(HEADER);
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            writeError(request, response, HttpStatus.BAD_REQUEST,
+                    HEADER + " must be between 1 and " + MAX_KEY_LENGTH + " characters");
+            return;
+        }
+
+        // The body is held in memory for the fingerprint, larger requests are refused before and while reading
+        if (request.getContentLengthLong() > maxBodyBytes) {
+            writeBodyTooLarge(request, response);
+            return;
+        }
+        CachedBodyRequest cachedRequest = new CachedBodyRequest(request, maxBodyBytes + 1);
+        if (cachedRequest.body.length > maxBodyBytes) {
+            writeBodyTooLarge(request, response);
+            return;
+        }
+        String key = scope() + ":" + idempotencyKey;
+        String fingerprint = fingerprint(request, cachedRequest.body);
+
+        Optional<IdempotencyStore.StoredResponse> stored;
+        try {
+            stored = idempotencyStore.claim(key, fingerprint);
+        } catch (BusinessException e) {
+            writeError(request, response, HttpStatus.UNPROCESSABLE_ENTITY, e.getMessage());
+            return;
+        } catch (DuplicateResourceException e) {
+            writeError(request, response, HttpStatus.CONFLICT, e.getMessage());
+            return;
+        }
+        if (stored.isPresent()) {
+            replay(stored.get(), response);
+            return;
+        }
+
+        ContentCachingResponseWrapper cachedResponse = new ContentCachingResponseWrapper(response);
+        boolean completed = false;
+        try {
+            filterChain.doFilter(cachedRequest, cachedResponse);
+            if (cachedResponse.getStatus() < 500 && !cachedRequest.isAsyncStarted()) {
+                idempotencyStore.complete(key, fingerprint, cachedResponse.getStatus(), cachedResponse.getContentType(),
+                        cachedResponse.getHeader(HttpHeaders.LOCATION), cachedResponse.getContentAsByteArray());
+                completed = true;
+            }
+        } finally {
+            if (!completed) {
+                idempotencyStore.release(key);
+            }
+            cachedResponse.copyBodyToResponse();
+        }
+    }
+
+    private void replay(IdempotencyStore.StoredResponse stored, HttpServletResponse response) throws IOException {
+        response.setStatus(stored.status());
+        if (stored.contentType() != null) {
+            response.setContentType(stored.contentType());
+        }
+        if (stored.location() != null) {
+            response.setHeader(HttpHeaders.LOCATION, stored.location());
+        }
+        response.setHeader(REPLAYED_HEADER, "true");
+        response.setContentLength(stored.body().length);
+        response.getOutputStream().write(stored.body());
+    }
+
+    private void writeBodyTooLarge(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        writeError(request, response, HttpStatus.CONTENT_TOO_LARGE,
+                "Requests with an " + HEADER + " can have a body of at most " + maxBodyBytes + " bytes");
+    }
+
+    private void writeError(HttpServletRequest request, HttpServletResponse response, HttpStatus status, String message)
+            throws IOException {
+        ErrorResponse errorResponse = new ErrorResponse(
+                LocalDateTime.now(),
+                status.value(),
+                status.getReasonPhrase(),
+                message,
+                request.getRequestURI(),
+                null
+        );
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), errorResponse);
+    }
+
+    private static boolean isForm(String contentType) {
+        if (contentType == null) {
+            return false;
+        }
+        String type = contentType.toLowerCase(Locale.ROOT);
+        return type.startsWith("multipart/") || type.startsWith(MediaType.APPLICATION_FORM_URLENCODED_VALUE);
+    }
+
+    private static String scope() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication == null ? "anonymous" : authentication.getName();
+    }
+
+    // The same key sent with another method, path or body is a client bug, not a retry
+    static String fingerprint(HttpServletRequest request, byte[] body) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(request.getMethod().getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) ' ');
+            digest.update(request.getRequestURI().getBytes(StandardCharsets.UTF_8));
+            if (request.getQueryString() != null) {
+                digest.update((byte) '?');
+                digest.update(request.getQueryString().getBytes(StandardCharsets.UTF_8));
+            }
+            digest.update((byte) '\n');
+            digest.update(body);
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    // Reads the body once, so it can be fingerprinted and still be read by the controller.
+    // Stops after limit bytes, a body that long is refused anyway.
+    private static class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request, int limit) throws IOException {
+            super(request);
+            this.body = request.getInputStream().readNBytes(limit);
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                // The body is already buffered, so all of it is available right away
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    try {
+                        readListener.onDataAvailable();
+                        readListener.onAllDataRead();
+                    } catch (IOException e) {
+                        readListener.onError(e);
+                    }
+                }
+
+                @Override
+                public int read() {
+                    return in.read();
+                }
+
+                @Override
+                public int read(byte[] buffer, int offset, int length) {
+                    return in.read(buffer, offset, length);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding();
+            return new BufferedReader(new InputStreamReader(getInputStream(),
+                    encoding == null ? StandardCharsets.UTF_8 : Charset.forName(encoding)));
+        }
+    }
+}
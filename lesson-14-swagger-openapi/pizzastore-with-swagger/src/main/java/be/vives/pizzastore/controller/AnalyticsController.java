@@ -0,0 +1,159 @@
+package be.vives.pizzastore.controller;
+
+import be.vives.pizzastore.archive.ArchiveDimension;
+import be.vives.pizzastore.domain.OrderStatus;
+import be.vives.pizzastore.domain.SalesGranularity;
+import be.vives.pizzastore.dto.response.ArchiveReportResponse;
+import be.vives.pizzastore.dto.response.CustomerResponse;
+import be.vives.pizzastore.dto.response.CustomerStatsRepairResponse;
+import be.vives.pizzastore.dto.response.SalesReportResponse;
+import be.vives.pizzastore.dto.response.SalesRollupRebuildResponse;
+import be.vives.pizzastore.service.ArchiveReportService;
+import be.vives.pizzastore.service.CustomerStatsService;
+import be.vives.pizzastore.service.SalesRollupService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/analytics")
+@Tag(name = "Analytics", description = "APIs for sales and customer reporting")
+@SecurityRequirement(name = "bearerAuth")
+public class AnalyticsController {
+
+    private static final Logger log = LoggerFactory.getLogger(AnalyticsController.class);
+
+    private final SalesRollupService salesRollupService;
+    private final ArchiveReportService archiveReportService;
+    private final CustomerStatsService customerStatsService;
+
+    public AnalyticsController(SalesRollupService salesRollupService,
+                               ArchiveReportService archiveReportService,
+                               CustomerStatsService customerStatsService) {
+        this.salesRollupService = salesRollupService;
+        this.archiveReportService = archiveReportService;
+        this.customerStatsService = customerStatsService;
+    }
+
+    @GetMapping("/sales")
+    @Operation(
+            summary = "Get revenue per pizza per day or hour",
+            description = """
+                    Returns quantity and revenue per pizza for each day (or hour) between from and to, both inclusive. Requires ADMIN role.
+                    
+                    Defaults to the last 7 days by day. Read from the pre-aggregated sales rollups, cancelled orders are not counted.
+                    """
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Sales report"),
+            @ApiResponse(responseCode = "401", description = "Unauthorized - JWT token missing or invalid"),
+            @ApiResponse(responseCode = "403", description = "Forbidden - ADMIN role required"),
+            @ApiResponse(responseCode = "422", description = "Invalid date range")
+    })
+    public ResponseEntity<SalesReportResponse> getSales(
+            @Parameter(description = "First day (yyyy-MM-dd), defaults to 6 days before to")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @Parameter(description = "Last day (yyyy-MM-dd), defaults to today")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @Parameter(description = "DAY or HOUR")
+            @RequestParam(defaultValue = "DAY") SalesGranularity granularity) {
+        log.debug("GET /api/analytics/sales - from: {}, to: {}, granularity: {}", from, to, granularity);
+        return ResponseEntity.ok(salesRollupService.findSales(from, to, granularity));
+    }
+
+    @PostMapping("/sales/rebuild")
+    @Operation(
+            summary = "Rebuild the sales rollups",
+            description = "Recomputes every sales rollup from the raw orders. Requires ADMIN role. Run it in a quiet period, orders placed during the rebuild may be missed."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Rollups rebuilt"),
+            @ApiResponse(responseCode = "401", description = "Unauthorized - JWT token missing or invalid"),
+            @ApiResponse(responseCode = "403", description = "Forbidden - ADMIN role required")
+    })
+    public ResponseEntity<SalesRollupRebuildResponse> rebuildSales() {
+        log.debug("POST /api/analytics/sales/rebuild");
+        return ResponseEntity.ok(salesRollupService.rebuild());
+    }
+
+    @GetMapping("/archive")
+    @Operation(
+            summary = "Report over archived orders",
+            description = """
+                    Groups the archived orders by one or two dimensions and returns order and line counts, quantity and revenue per group. Requires ADMIN role.
+                    
+                    Examples: groupBy=PIZZA,MONTH for revenue per pizza per month, groupBy=CUSTOMER for customer lifetime value.
+                    Only archived orders are included, recent orders are in the sales report. The archive segment files are scanned in parallel.
+                    """
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Report rows, ordered by group"),
+            @ApiResponse(responseCode = "401", description = "Unauthorized - JWT token missing or invalid"),
+            @ApiResponse(responseCode = "403", description = "Forbidden - ADMIN role required"),
+            @ApiResponse(responseCode = "422", description = "Invalid grouping or date range")
+    })
+    public ResponseEntity<ArchiveReportResponse> getArchiveReport(
+            @Parameter(description = "One or two of DAY, MONTH, PIZZA, CUSTOMER, STATUS")
+            @RequestParam List<ArchiveDimension> groupBy,
+            @Parameter(description = "First day (yyyy-MM-dd)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @Parameter(description = "Last day (yyyy-MM-dd)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @Parameter(description = "Only orders of this customer")
+            @RequestParam(required = false) Long customerId,
+            @Parameter(description = "Only lines of this pizza")
+            @RequestParam(required = false) Long pizzaId,
+            @Parameter(description = "Only orders with these statuses (DELIVERED, CANCELLED)")
+            @RequestParam(required = false) List<OrderStatus> status) {
+        log.debug("GET /api/analytics/archive - groupBy: {}, from: {}, to: {}", groupBy, from, to);
+        return ResponseEntity.ok(archiveReportService.report(groupBy, from, to, customerId, pizzaId, status));
+    }
+
+    @GetMapping("/customers/top")
+    @Operation(
+            summary = "Get the best customers",
+            description = """
+                    Returns the customers with the highest total spent, most orders first on a tie. Requires ADMIN role.
+                    
+                    Read from the order statistics kept on each customer, cancelled orders are not counted and archived orders are.
+                    """
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Customers, best first"),
+            @ApiResponse(responseCode = "401", description = "Unauthorized - JWT token missing or invalid"),
+            @ApiResponse(responseCode = "403", description = "Forbidden - ADMIN role required"),
+            @ApiResponse(responseCode = "422", description = "Limit out of range")
+    })
+    public ResponseEntity<List<CustomerResponse>> getTopCustomers(
+            @Parameter(description = "Number of customers (1-100)")
+            @RequestParam(defaultValue = "10") int limit) {
+        log.debug("GET /api/analytics/customers/top - limit: {}", limit);
+        return ResponseEntity.ok(customerStatsService.findTop(limit));
+    }
+
+    @PostMapping("/customers/stats/repair")
+    @Operation(
+            summary = "Repair the customer order statistics",
+            description = "Recomputes the order count, total spent and last order date of every customer from the orders and the archive. Requires ADMIN role. Also runs nightly, orders placed during the repair may be missed."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Statistics repaired"),
+            @ApiResponse(responseCode = "401", description = "Unauthorized - JWT token missing or invalid"),
+            @ApiResponse(responseCode = "403", description = "Forbidden - ADMIN role required")
+    })
+    public ResponseEntity<CustomerStatsRepairResponse> repairCustomerStats() {
+        log.debug("POST /api/analytics/customers/stats/repair");
+        return ResponseEntity.ok(customerStatsService.repair());
+    }
+}
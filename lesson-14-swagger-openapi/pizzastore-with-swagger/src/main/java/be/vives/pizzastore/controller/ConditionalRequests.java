@@ -0,0 +1,27 @@
+package be.vives.pizzastore.controller;
+
+import be.vives.pizzastore.service.ResourceVersion;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.context.request.ServletWebRequest;
+
+// Conditional GET handling shared by the read endpoints. Checks If-None-Match / If-Modified-Since against
+// the validators and sets ETag, Last-Modified and Cache-Control on the response either way. When it
+// returns true the response is already a 304 and the handler returns null without building a body.
+final class ConditionalRequests {
+
+    // Clients may keep a copy but must revalidate it on every use
+    static final CacheControl PUBLIC = CacheControl.noCache();
+    static final CacheControl PRIVATE = CacheControl.noCache().cachePrivate();
+
+    private ConditionalRequests() {
+    }
+
+    static boolean notModified(ServletWebRequest request, ResourceVersion version, CacheControl cacheControl) {
+        // Set before the check, Spring Security only adds its no-store default when none is present
+        if (request.getResponse() != null) {
+            request.getResponse().setHeader(HttpHeaders.CACHE_CONTROL, cacheControl.getHeaderValue());
+        }
+        return request.checkNotModified(version.etag(), version.lastModifiedMillis());
+    }
+}
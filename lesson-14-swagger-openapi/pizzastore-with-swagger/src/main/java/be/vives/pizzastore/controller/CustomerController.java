@@ -54,7 +54,12 @@ public class CustomerController {
                     **Pagination parameters** (query params):
                     - `page`: Page number (0-indexed, default: 0)
                     - `size`: Items per page (default: 20)
-                    - `sort`: Sort field and direction (e.g., `id,asc` or `name,desc`)
+                    - `sort`: Sort field and direction (e.g., `id,asc` or `name,desc`), also on the order statistics
+                      `orderCount`, `totalSpent` and `lastOrderDate`
+                    
+                    **Cursor mode** (opt-in): pass `cursor` (empty for the first page) and `size`.
+                    Customers are returned by ascending id together with a `nextCursor` to pass on the next call.
+                    Deep pages cost the same as the first page and no count query is run.
                     """
     )
     @ApiResponses(value = {
@@ -65,9 +70,16 @@ public class CustomerController {
             ),
             @ApiResponse(responseCode = "401", description = "Unauthorized - JWT token missing or invalid")
     })
-    public ResponseEntity<Page<CustomerResponse>> getAllCustomers(
+    public ResponseEntity<?> getAllCustomers(
+            @Parameter(description = "Opaque cursor from a previous response (empty for the first page)") @RequestParam(required = false) String cursor,
             @ParameterObject Pageable pageable) {
-        log.debug("GET /api/customers");
+        log.debug("GET /api/customers - cursor: {}", cursor);
+
+        // Cursor mode: keyset pagination by id
+        if (cursor != null) {
+            return ResponseEntity.ok(customerService.findAllAfterCursor(cursor, pageable.getPageSize()));
+        }
+
         Page<CustomerResponse> customers = customerService.findAll(pageable);
         return ResponseEntity.ok(customers);
     }
@@ -0,0 +1,63 @@
+package be.vives.pizzastore.controller;
+
+import be.vives.pizzastore.domain.OrderStatus;
+import be.vives.pizzastore.dto.response.KitchenOrderResponse;
+import be.vives.pizzastore.service.KitchenQueue;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/kitchen")
+@Tag(name = "Kitchen", description = "APIs for the kitchen display")
+@SecurityRequirement(name = "bearerAuth")
+public class KitchenController {
+
+    private static final Logger log = LoggerFactory.getLogger(KitchenController.class);
+
+    private final KitchenQueue kitchenQueue;
+
+    public KitchenController(KitchenQueue kitchenQueue) {
+        this.kitchenQueue = kitchenQueue;
+    }
+
+    @GetMapping("/queue")
+    @Operation(
+            summary = "Get the kitchen work queue",
+            description = """
+                    Returns the orders the kitchen still has to handle, grouped by status and oldest first. Requires ADMIN role.
+                    
+                    Defaults to PENDING and PREPARING. Served from memory, the database is not queried.
+                    """
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Orders per status"),
+            @ApiResponse(responseCode = "401", description = "Unauthorized - JWT token missing or invalid"),
+            @ApiResponse(responseCode = "403", description = "Forbidden - ADMIN role required")
+    })
+    public ResponseEntity<Map<OrderStatus, List<KitchenOrderResponse>>> getQueue(
+            @Parameter(description = "Statuses to include (PENDING, CONFIRMED, PREPARING, READY)")
+            @RequestParam(defaultValue = "PENDING,PREPARING") List<OrderStatus> status) {
+        log.debug("GET /api/kitchen/queue - status: {}", status);
+
+        Map<OrderStatus, List<KitchenOrderResponse>> queue = new LinkedHashMap<>();
+        for (OrderStatus orderStatus : status) {
+            queue.put(orderStatus, kitchenQueue.findByStatus(orderStatus));
+        }
+        return ResponseEntity.ok(queue);
+    }
+}
@@ -1,10 +1,22 @@
 package be.vives.pizzastore.controller;
 
 import be.vives.pizzastore.domain.OrderStatus;
+import be.vives.pizzastore.dto.request.BulkUpdateOrderStatusRequest;
 import be.vives.pizzastore.dto.request.CreateOrderRequest;
 import be.vives.pizzastore.dto.request.UpdateOrderStatusRequest;
+import be.vives.pizzastore.dto.response.BatchOrderResponse;
+import be.vives.pizzastore.dto.response.BulkStatusUpdateResponse;
+import be.vives.pizzastore.dto.response.OrderIntakeResponse;
+import be.vives.pizzastore.dto.response.OrderIntakeStatsResponse;
 import be.vives.pizzastore.dto.response.OrderResponse;
+import be.vives.pizzastore.dto.response.OrderStatusEvent;
+import be.vives.pizzastore.exception.BusinessException;
+import be.vives.pizzastore.service.OrderBatchService;
+import be.vives.pizzastore.service.OrderExportService;
+import be.vives.pizzastore.service.OrderIntakeQueue;
 import be.vives.pizzastore.service.OrderService;
+import be.vives.pizzastore.service.OrderStatusStream;
+import be.vives.pizzastore.service.ResourceVersion;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -18,11 +30,24 @@ import org.slf4j.LoggerFactory;
 import org.springdoc.core.annotations.ParameterObject;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/api/orders")
@@ -33,9 +58,21 @@ public class OrderController {
     private static final Logger log = LoggerFactory.getLogger(OrderController.class);
 
     private final OrderService orderService;
+    private final OrderBatchService orderBatchService;
+    private final OrderIntakeQueue orderIntakeQueue;
+    private final OrderStatusStream orderStatusStream;
+    private final OrderExportService orderExportService;
 
-    public OrderController(OrderService orderService) {
+    public OrderController(OrderService orderService,
+                           OrderBatchService orderBatchService,
+                           OrderIntakeQueue orderIntakeQueue,
+                           OrderStatusStream orderStatusStream,
+                           OrderExportService orderExportService) {
         this.orderService = orderService;
+        this.orderBatchService = orderBatchService;
+        this.orderIntakeQueue = orderIntakeQueue;
+        this.orderStatusStream = orderStatusStream;
+        this.orderExportService = orderExportService;
     }
 
     @GetMapping
@@ -48,6 +85,13 @@ public class OrderController {
                     - `page`: Page number (0-indexed, default: 0)
                     - `size`: Items per page (default: 20)
                     - `sort`: Sort field and direction (e.g., `orderDate,desc`)
+                    
+                    When filtering by status, pass `count=false` to skip the total count query.
+                    The response is then a slice without `totalElements` and `totalPages`.
+                    
+                    **Cursor mode** (opt-in, without `customerId` or `status`, otherwise 422): pass `cursor` (empty for the first page) and `size`.
+                    Orders are returned newest first together with a `nextCursor` to pass on the next call.
+                    Deep pages cost the same as the first page and no count query is run.
                     """
     )
     @ApiResponses(value = {
@@ -57,20 +101,33 @@ public class OrderController {
                     content = @Content(schema = @Schema(implementation = Page.class))
             ),
             @ApiResponse(responseCode = "401", description = "Unauthorized - JWT token missing or invalid"),
-            @ApiResponse(responseCode = "403", description = "Forbidden - ADMIN role required")
+            @ApiResponse(responseCode = "403", description = "Forbidden - ADMIN role required"),
+            @ApiResponse(responseCode = "422", description = "cursor combined with customerId or status")
     })
-    public ResponseEntity<Page<OrderResponse>> getOrders(
+    public ResponseEntity<?> getOrders(
             @Parameter(description = "Filter by customer ID") @RequestParam(required = false) Long customerId,
             @Parameter(description = "Filter by order status") @RequestParam(required = false) OrderStatus status,
+            @Parameter(description = "Include total count when filtering by status") @RequestParam(defaultValue = "true") boolean count,
+            @Parameter(description = "Opaque cursor from a previous response (empty for the first page)") @RequestParam(required = false) String cursor,
             @ParameterObject Pageable pageable) {
 
-        log.debug("GET /api/orders - customerId: {}, status: {}, pageable: {}",
-                customerId, status, pageable);
+        log.debug("GET /api/orders - customerId: {}, status: {}, count: {}, cursor: {}, pageable: {}",
+                customerId, status, count, cursor, pageable);
 
-        Page<OrderResponse> orders;
+        // Cursor mode: keyset pagination over all orders, a filtered page would come back in another shape
+        if (cursor != null) {
+            if (customerId != null || status != null) {
+                throw new BusinessException("cursor can not be combined with customerId or status");
+            }
+            return ResponseEntity.ok(orderService.findAllAfterCursor(cursor, pageable.getPageSize()));
+        }
+
+        Slice<OrderResponse> orders;
 
         if (customerId != null) {
             orders = orderService.findByCustomerId(customerId, pageable);
+        } else if (status != null && !count) {
+            orders = orderService.findSliceByStatus(status, pageable);
         } else if (status != null) {
             orders = orderService.findByStatus(status, pageable);
         } else {
@@ -80,10 +137,104 @@ public class OrderController {
         return ResponseEntity.ok(orders);
     }
 
+    @GetMapping("/export")
+    @Operation(
+            summary = "Export orders as CSV or NDJSON",
+            description = """
+                    Streams every order placed from `from` up to and including `to`, archived orders included. Requires ADMIN role.
+                    
+                    `format=csv` (default) returns a header line and one line per order, `format=ndjson` one JSON object per line.
+                    Rows are written while they are read, so memory use stays flat however large the range.
+                    Pass `gzip=true` to receive the file gzip-compressed.
+                    """
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Export file streamed"),
+            @ApiResponse(responseCode = "400", description = "'from' or 'to' missing or not a date"),
+            @ApiResponse(responseCode = "401", description = "Unauthorized - JWT token missing or invalid"),
+            @ApiResponse(responseCode = "403", description = "Forbidden - ADMIN role required"),
+            @ApiResponse(responseCode = "422", description = "Unknown format or 'from' after 'to'")
+    })
+    public ResponseEntity<StreamingResponseBody> exportOrders(
+            @Parameter(description = "csv or ndjson") @RequestParam(defaultValue = "csv") String format,
+            @Parameter(description = "First order date (yyyy-MM-dd)", required = true) @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @Parameter(description = "Last order date, inclusive (yyyy-MM-dd)", required = true) @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @Parameter(description = "Compress the file with gzip") @RequestParam(defaultValue = "false") boolean gzip) {
+        log.debug("GET /api/orders/export - format: {}, from: {}, to: {}, gzip: {}", format, from, to, gzip);
+
+        OrderExportService.Format exportFormat = OrderExportService.Format.of(format);
+        orderExportService.validateRange(from, to);
+
+        String extension = exportFormat == OrderExportService.Format.CSV ? "csv" : "ndjson";
+        MediaType contentType = exportFormat == OrderExportService.Format.CSV
+                ? new MediaType("text", "csv", StandardCharsets.UTF_8)
+                : new MediaType("application", "x-ndjson");
+        String filename = "orders-" + from + "-to-" + to + "." + extension;
+        if (gzip) {
+            filename += ".gz";
+            contentType = new MediaType("application", "gzip");
+        }
+
+        StreamingResponseBody body = out -> {
+            if (gzip) {
+                GZIPOutputStream compressed = new GZIPOutputStream(out, 64 * 1024);
+                orderExportService.export(exportFormat, from, to, compressed);
+                compressed.finish();
+            } else {
+                orderExportService.export(exportFormat, from, to, out);
+            }
+        };
+
+        return ResponseEntity.ok()
+                .contentType(contentType)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(filename).build().toString())
+                .body(body);
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(
+            summary = "Stream status changes of all orders",
+            description = """
+                    Server-sent events for kitchen displays, replacing polling. Requires ADMIN role.
+                    
+                    Every created order and status change is sent as a `status` event with `orderId`, `status` and `changedAt`.
+                    A `heartbeat` comment keeps idle connections open; clients that fall too far behind are disconnected.
+                    """
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Event stream opened"),
+            @ApiResponse(responseCode = "401", description = "Unauthorized - JWT token missing or invalid"),
+            @ApiResponse(responseCode = "403", description = "Forbidden - ADMIN role required")
+    })
+    public SseEmitter streamOrders() {
+        log.debug("GET /api/orders/stream");
+        return orderStatusStream.subscribeAll();
+    }
+
+    @GetMapping(value = "/{id}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(
+            summary = "Stream status changes of one order",
+            description = "Server-sent events for the \"track my order\" page. The current status is sent first, then every change. Only the customer who placed the order or an ADMIN may watch it."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Event stream opened"),
+            @ApiResponse(responseCode = "401", description = "Unauthorized - JWT token missing or invalid"),
+            @ApiResponse(responseCode = "403", description = "Forbidden - order belongs to another customer"),
+            @ApiResponse(responseCode = "404", description = "Order not found")
+    })
+    public SseEmitter streamOrder(
+            @Parameter(description = "Order ID", required = true) @PathVariable Long id,
+            Authentication authentication) {
+        log.debug("GET /api/orders/{}/stream", id);
+
+        OrderStatusEvent current = orderService.findStatusForViewer(id, authentication.getName(), isAdmin(authentication));
+        return orderStatusStream.subscribe(current);
+    }
+
     @GetMapping("/{id}")
     @Operation(
             summary = "Get order by ID",
-            description = "Retrieves a single order by its unique identifier. Requires ADMIN role."
+            description = "Retrieves a single order by its unique identifier. Requires ADMIN role. Supports `If-None-Match` and `If-Modified-Since`."
     )
     @ApiResponses(value = {
             @ApiResponse(
@@ -91,24 +242,42 @@ public class OrderController {
                     description = "Order found",
                     content = @Content(schema = @Schema(implementation = OrderResponse.class))
             ),
+            @ApiResponse(responseCode = "304", description = "Order not modified since the given ETag or date"),
             @ApiResponse(responseCode = "401", description = "Unauthorized - JWT token missing or invalid"),
             @ApiResponse(responseCode = "403", description = "Forbidden - ADMIN role required"),
             @ApiResponse(responseCode = "404", description = "Order not found")
     })
     public ResponseEntity<OrderResponse> getOrder(
-            @Parameter(description = "Order ID", required = true) @PathVariable Long id) {
+            @Parameter(description = "Order ID", required = true) @PathVariable Long id,
+            ServletWebRequest webRequest) {
         log.debug("GET /api/orders/{}", id);
+        // Live orders are validated on their timestamps, before the order and its lines are loaded
+        ResourceVersion version = orderService.findVersion(id).orElse(null);
+        if (version != null && ConditionalRequests.notModified(webRequest, version, ConditionalRequests.PRIVATE)) {
+            return null;
+        }
         OrderResponse order = orderService.findById(id);
         if (order == null) {
             return ResponseEntity.notFound().build();
         }
+        // Archived orders never change, their content is the validator and a match still skips serialization
+        if (version == null && ConditionalRequests.notModified(webRequest, ResourceVersion.of(null, order),
+                ConditionalRequests.PRIVATE)) {
+            return null;
+        }
         return ResponseEntity.ok(order);
     }
 
     @PostMapping
     @Operation(
             summary = "Create a new order",
-            description = "Creates a new order. Requires CUSTOMER role. Order is created with status PENDING."
+            description = """
+                    Creates a new order. Requires CUSTOMER role. Order is created with status PENDING.
+                    
+                    Pass `async=true` to queue the order instead of saving it during the request.
+                    The response is then `202 Accepted` with a tracking id; poll `GET /api/orders/intake/{trackingId}` for the result.
+                    When the queue is full the response is `503 Service Unavailable` with a `Retry-After` header.
+                    """
     )
     @ApiResponses(value = {
             @ApiResponse(
@@ -116,13 +285,32 @@ public class OrderController {
                     description = "Order created successfully",
                     content = @Content(schema = @Schema(implementation = OrderResponse.class))
             ),
+            @ApiResponse(
+                    responseCode = "202",
+                    description = "Order queued (async mode)",
+                    content = @Content(schema = @Schema(implementation = OrderIntakeResponse.class))
+            ),
             @ApiResponse(responseCode = "400", description = "Invalid request data or business rule violation"),
             @ApiResponse(responseCode = "401", description = "Unauthorized - JWT token missing or invalid"),
             @ApiResponse(responseCode = "403", description = "Forbidden - CUSTOMER role required"),
-            @ApiResponse(responseCode = "404", description = "Customer or pizza not found")
+            @ApiResponse(responseCode = "404", description = "Customer or pizza not found"),
+            @ApiResponse(responseCode = "503", description = "Intake queue full (async mode), retry after the Retry-After delay")
     })
-    public ResponseEntity<OrderResponse> createOrder(@RequestBody CreateOrderRequest request) {
-        log.debug("POST /api/orders - {}", request);
+    public ResponseEntity<?> createOrder(
+            @Parameter(description = "Queue the order and return 202 Accepted with a tracking id") @RequestParam(defaultValue = "false") boolean async,
+            @RequestBody CreateOrderRequest request,
+            Authentication authentication) {
+        log.debug("POST /api/orders - async: {}, {}", async, request);
+
+        if (async) {
+            OrderIntakeResponse queued = orderIntakeQueue.submit(request, authentication.getName());
+            URI location = ServletUriComponentsBuilder
+                    .fromCurrentContextPath()
+                    .path("/api/orders/intake/{trackingId}")
+                    .buildAndExpand(queued.trackingId())
+                    .toUri();
+            return ResponseEntity.accepted().location(location).body(queued);
+        }
 
         OrderResponse created = orderService.create(request);
 
@@ -135,6 +323,75 @@ public class OrderController {
         return ResponseEntity.created(location).body(created);
     }
 
+    @GetMapping("/intake/{trackingId}")
+    @Operation(
+            summary = "Get the result of a queued order",
+            description = "Returns QUEUED while the order waits to be saved, then CREATED with the order or REJECTED with the reason. Only the user who queued the order or an ADMIN may see it."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Intake status found",
+                    content = @Content(schema = @Schema(implementation = OrderIntakeResponse.class))
+            ),
+            @ApiResponse(responseCode = "401", description = "Unauthorized - JWT token missing or invalid"),
+            @ApiResponse(responseCode = "404", description = "Unknown or expired tracking id, or queued by another user")
+    })
+    public ResponseEntity<OrderIntakeResponse> getIntakeStatus(
+            @Parameter(description = "Tracking id from the 202 response", required = true) @PathVariable String trackingId,
+            Authentication authentication) {
+        log.debug("GET /api/orders/intake/{}", trackingId);
+        return ResponseEntity.ok(orderIntakeQueue.findByTrackingId(
+                trackingId, authentication.getName(), isAdmin(authentication)));
+    }
+
+    @GetMapping("/intake")
+    @Operation(
+            summary = "Get intake queue metrics",
+            description = "Returns the current queue depth and flush latency of the async order intake. Requires ADMIN role."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Intake metrics",
+                    content = @Content(schema = @Schema(implementation = OrderIntakeStatsResponse.class))
+            ),
+            @ApiResponse(responseCode = "401", description = "Unauthorized - JWT token missing or invalid"),
+            @ApiResponse(responseCode = "403", description = "Forbidden - ADMIN role required")
+    })
+    public ResponseEntity<OrderIntakeStatsResponse> getIntakeStats() {
+        log.debug("GET /api/orders/intake");
+        return ResponseEntity.ok(orderIntakeQueue.stats());
+    }
+
+    @PostMapping("/batch")
+    @Operation(
+            summary = "Create orders in bulk",
+            description = """
+                    Creates up to 1000 orders in one call, for kiosks and call-centre integrations. Requires ADMIN role.
+                    
+                    Customers and pizzas are validated with one query per chunk and orders are saved in chunked transactions.
+                    Invalid orders are rejected individually and never roll back the other orders of the batch.
+                    The response holds one result per submitted order, in submission order.
+                    """
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Batch processed, see the per-order results",
+                    content = @Content(schema = @Schema(implementation = BatchOrderResponse.class))
+            ),
+            @ApiResponse(responseCode = "401", description = "Unauthorized - JWT token missing or invalid"),
+            @ApiResponse(responseCode = "403", description = "Forbidden - ADMIN role required"),
+            @ApiResponse(responseCode = "422", description = "Batch is empty or too large")
+    })
+    public ResponseEntity<BatchOrderResponse> createOrders(@RequestBody List<CreateOrderRequest> requests) {
+        log.debug("POST /api/orders/batch - {} orders", requests.size());
+
+        BatchOrderResponse response = orderBatchService.createAll(requests);
+        return ResponseEntity.ok(response);
+    }
+
     @PatchMapping("/{id}/status")
     @Operation(
             summary = "Update order status",
@@ -164,6 +421,33 @@ public class OrderController {
         return ResponseEntity.ok(updated);
     }
 
+    @PatchMapping("/status")
+    @Operation(
+            summary = "Update the status of many orders",
+            description = """
+                    Moves up to 500 orders to the same status in one call, e.g. marking a delivery run DELIVERED. Requires ADMIN role.
+                    
+                    Only orders whose current status allows the transition are updated, with one set-based conditional update.
+                    The response lists the updated ids and, for every other id, why it was rejected.
+                    """
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Updated and rejected order ids",
+                    content = @Content(schema = @Schema(implementation = BulkStatusUpdateResponse.class))
+            ),
+            @ApiResponse(responseCode = "401", description = "Unauthorized - JWT token missing or invalid"),
+            @ApiResponse(responseCode = "403", description = "Forbidden - ADMIN role required"),
+            @ApiResponse(responseCode = "422", description = "No ids, no status or too many ids")
+    })
+    public ResponseEntity<BulkStatusUpdateResponse> updateOrderStatuses(@RequestBody BulkUpdateOrderStatusRequest request) {
+        log.debug("PATCH /api/orders/status - {} orders to {}",
+                request.ids() == null ? 0 : request.ids().size(), request.status());
+
+        return ResponseEntity.ok(orderService.updateStatuses(request.ids(), request.status()));
+    }
+
     @DeleteMapping("/{id}")
     @Operation(
             summary = "Cancel an order",
@@ -182,4 +466,9 @@ public class OrderController {
         orderService.cancel(id);
         return ResponseEntity.noContent().build();
     }
+
+    private static boolean isAdmin(Authentication authentication) {
+        return authentication.getAuthorities().stream()
+                .anyMatch(authority -> authority.getAuthority().equals("ROLE_ADMIN"));
+    }
 }
@@ -1,9 +1,12 @@
 package be.vives.pizzastore.controller;
 
 import be.vives.pizzastore.dto.request.CreatePizzaRequest;
+import be.vives.pizzastore.dto.request.PizzaFilter;
 import be.vives.pizzastore.dto.request.UpdatePizzaRequest;
 import be.vives.pizzastore.dto.response.PizzaResponse;
+import be.vives.pizzastore.dto.response.PizzaSuggestionResponse;
 import be.vives.pizzastore.service.PizzaService;
+import be.vives.pizzastore.service.ResourceVersion;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -19,6 +22,7 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
@@ -43,12 +47,21 @@ public class PizzaController {
     @Operation(
             summary = "Get all pizzas",
             description = """
-                    Retrieves a list of all available pizzas. Supports filtering by price range and name, and pagination.
+                    Retrieves a page of pizzas. All filters are optional and can be combined, every filter that is set applies.
+                    
+                    **Filters** (query params, bounds are inclusive):
+                    - `minPrice`, `maxPrice`: Price range
+                    - `name`: Case-insensitive partial match on the name
+                    - `available`: Only available (`true`) or unavailable (`false`) pizzas
+                    - `minCalories`, `maxCalories`, `minProtein`, `maxCarbohydrates`, `maxFat`: Nutritional ranges, pizzas without nutritional info never match these
                     
                     **Pagination parameters** (query params):
                     - `page`: Page number (0-indexed, default: 0)
                     - `size`: Items per page (default: 20)
-                    - `sort`: Sort field and direction (e.g., `name,asc` or `price,desc`)
+                    - `sort`: Sort field and direction (e.g., `name,asc` or `price,desc`), default order is by id
+                    
+                    Responses carry an `ETag` and `Last-Modified` header. Send them back as `If-None-Match` /
+                    `If-Modified-Since` to get `304 Not Modified` without a body while the catalog is unchanged.
                     """
     )
     @ApiResponses(value = {
@@ -56,44 +69,86 @@ public class PizzaController {
                     responseCode = "200",
                     description = "Successfully retrieved pizzas",
                     content = @Content(schema = @Schema(implementation = Page.class))
-            )
+            ),
+            @ApiResponse(responseCode = "304", description = "Catalog not modified since the given ETag or date"),
+            @ApiResponse(responseCode = "422", description = "Sort on an unknown property")
     })
-    public ResponseEntity<?> getPizzas(
-            @Parameter(description = "Minimum price filter") @RequestParam(required = false) BigDecimal minPrice,
-            @Parameter(description = "Maximum price filter") @RequestParam(required = false) BigDecimal maxPrice,
+    public ResponseEntity<Page<PizzaResponse>> getPizzas(
+            @Parameter(description = "Minimum price") @RequestParam(required = false) BigDecimal minPrice,
+            @Parameter(description = "Maximum price") @RequestParam(required = false) BigDecimal maxPrice,
             @Parameter(description = "Name filter (case-insensitive partial match)") @RequestParam(required = false) String name,
-            @ParameterObject Pageable pageable) {
+            @Parameter(description = "Availability filter") @RequestParam(required = false) Boolean available,
+            @Parameter(description = "Minimum calories") @RequestParam(required = false) Integer minCalories,
+            @Parameter(description = "Maximum calories") @RequestParam(required = false) Integer maxCalories,
+            @Parameter(description = "Minimum protein (g)") @RequestParam(required = false) BigDecimal minProtein,
+            @Parameter(description = "Maximum carbohydrates (g)") @RequestParam(required = false) BigDecimal maxCarbohydrates,
+            @Parameter(description = "Maximum fat (g)") @RequestParam(required = false) BigDecimal maxFat,
+            @ParameterObject Pageable pageable,
+            ServletWebRequest webRequest) {
 
-        log.debug("GET /api/pizzas - minPrice: {}, maxPrice: {}, name: {}, pageable: {}",
-                minPrice, maxPrice, name, pageable);
+        PizzaFilter filter = new PizzaFilter(minPrice, maxPrice, name, available,
+                minCalories, maxCalories, minProtein, maxCarbohydrates, maxFat);
+        log.debug("GET /api/pizzas - filter: {}, pageable: {}", filter, pageable);
 
-        // If filtering by price range
-        if (minPrice != null && maxPrice != null) {
-            List<PizzaResponse> pizzas = pizzaService.findByPriceBetween(minPrice, maxPrice);
-            return ResponseEntity.ok(pizzas);
+        // Every filter and page comes from the same catalog, so one ETag covers them all
+        if (ConditionalRequests.notModified(webRequest, pizzaService.catalogVersion(), ConditionalRequests.PUBLIC)) {
+            return null;
         }
+        return ResponseEntity.ok(pizzaService.find(filter, pageable));
+    }
 
-        // If filtering by max price
-        if (maxPrice != null) {
-            List<PizzaResponse> pizzas = pizzaService.findByPriceLessThan(maxPrice);
-            return ResponseEntity.ok(pizzas);
-        }
+    @GetMapping("/search")
+    @Operation(
+            summary = "Search pizzas",
+            description = """
+                    Full-text search over pizza names and descriptions, best matches first.
 
-        // If filtering by name
-        if (name != null) {
-            List<PizzaResponse> pizzas = pizzaService.findByNameContaining(name);
-            return ResponseEntity.ok(pizzas);
+                    Matches on any of the words in `q`. Words in the name weigh more than words in the description,
+                    and misspelled or unfinished words (`margarita`, `pepp`) still find the closest pizzas.
+                    Supports `If-None-Match` and `If-Modified-Since` like the pizza list.
+                    """
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Matching pizzas, best match first"),
+            @ApiResponse(responseCode = "304", description = "Catalog not modified since the given ETag or date"),
+            @ApiResponse(responseCode = "422", description = "Empty query or limit out of range")
+    })
+    public ResponseEntity<List<PizzaResponse>> searchPizzas(
+            @Parameter(description = "Search words", required = true) @RequestParam String q,
+            @Parameter(description = "Maximum number of results (1-100)") @RequestParam(defaultValue = "20") int limit,
+            ServletWebRequest webRequest) {
+        log.debug("GET /api/pizzas/search - q: {}, limit: {}", q, limit);
+        if (ConditionalRequests.notModified(webRequest, pizzaService.catalogVersion(), ConditionalRequests.PUBLIC)) {
+            return null;
         }
+        return ResponseEntity.ok(pizzaService.search(q, limit));
+    }
 
-        // Default: return paginated pizzas
-        Page<PizzaResponse> pizzaPage = pizzaService.findAll(pageable);
-        return ResponseEntity.ok(pizzaPage);
+    @GetMapping("/suggest")
+    @Operation(
+            summary = "Suggest pizza names",
+            description = """
+                    Type-ahead for pizza names, meant to be called on every keystroke. Matches the start of the name
+                    or of any word in it, ignoring case and accents. Recent best sellers come first.
+                    
+                    Served from memory, unavailable pizzas are not suggested. An empty prefix returns an empty list.
+                    """
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Suggestions, most popular first"),
+            @ApiResponse(responseCode = "422", description = "Limit out of range")
+    })
+    public ResponseEntity<List<PizzaSuggestionResponse>> suggestPizzas(
+            @Parameter(description = "What the user typed so far") @RequestParam(defaultValue = "") String prefix,
+            @Parameter(description = "Maximum number of suggestions (1-20)") @RequestParam(defaultValue = "8") int limit) {
+        log.debug("GET /api/pizzas/suggest - prefix: {}, limit: {}", prefix, limit);
+        return ResponseEntity.ok(pizzaService.suggest(prefix, limit));
     }
 
     @GetMapping("/{id}")
     @Operation(
             summary = "Get pizza by ID",
-            description = "Retrieves a single pizza by its unique identifier"
+            description = "Retrieves a single pizza by its unique identifier. Supports `If-None-Match` and `If-Modified-Since`."
     )
     @ApiResponses(value = {
             @ApiResponse(
@@ -101,11 +156,17 @@ public class PizzaController {
                     description = "Pizza found",
                     content = @Content(schema = @Schema(implementation = PizzaResponse.class))
             ),
+            @ApiResponse(responseCode = "304", description = "Pizza not modified since the given ETag or date"),
             @ApiResponse(responseCode = "404", description = "Pizza not found")
     })
     public ResponseEntity<PizzaResponse> getPizza(
-            @Parameter(description = "Pizza ID", required = true) @PathVariable Long id) {
+            @Parameter(description = "Pizza ID", required = true) @PathVariable Long id,
+            ServletWebRequest webRequest) {
         log.debug("GET /api/pizzas/{}", id);
+        ResourceVersion version = pizzaService.findVersion(id).orElse(null);
+        if (version != null && ConditionalRequests.notModified(webRequest, version, ConditionalRequests.PUBLIC)) {
+            return null;
+        }
         return pizzaService.findById(id)
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
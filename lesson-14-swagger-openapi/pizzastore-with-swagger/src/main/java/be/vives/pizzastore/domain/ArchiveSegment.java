@@ -0,0 +1,77 @@
+package be.vives.pizzastore.domain;
+
+import jakarta.persistence.*;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+
+// Registers an order archive segment file in the database its orders were removed from. The row commits
+// together with the delete of the orders, so the archive only trusts segment files of this database: files
+// without a row are left over from an earlier (dropped) database or from a batch that never committed.
+@Entity
+@Table(name = "order_archive_segments")
+public class ArchiveSegment implements Persistable<String> {
+
+    // File name within the archive directory, e.g. "orders-000000000001.seg"
+    @Id
+    @Column(name = "file_name", length = 100)
+    private String fileName;
+
+    @Column(name = "order_count", nullable = false)
+    private Integer orderCount;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    // Names are assigned, without this save() would select the row first to decide between insert and update
+    @Transient
+    private boolean isNew = true;
+
+    // Constructors
+    public ArchiveSegment() {
+    }
+
+    public ArchiveSegment(String fileName, Integer orderCount, LocalDateTime createdAt) {
+        this.fileName = fileName;
+        this.orderCount = orderCount;
+        this.createdAt = createdAt;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.isNew = false;
+    }
+
+    // Getters
+    @Override
+    public String getId() {
+        return fileName;
+    }
+
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public Integer getOrderCount() {
+        return orderCount;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    @Override
+    public String toString() {
+        return "ArchiveSegment{" +
+                "fileName='" + fileName + '\'' +
+                ", orderCount=" + orderCount +
+                ", createdAt=" + createdAt +
+                '}';
+    }
+}
@@ -5,6 +5,7 @@ import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.HashSet;
@@ -12,8 +13,16 @@ import java.util.List;
 import java.util.Set;
 
 @Entity
-@Table(name = "customers")
+@Table(name = "customers", indexes = {
+        // Best customers ranking
+        @Index(name = "idx_customers_total_spent", columnList = "total_spent_cents")
+})
 @EntityListeners(AuditingEntityListener.class)
+// Fetch plans for the repository read paths, outer joins so customers without orders or favorites are still found
+@NamedEntityGraph(name = "Customer.withOrders", attributeNodes = @NamedAttributeNode("orders"))
+@NamedEntityGraph(name = "Customer.withFavorites",
+        attributeNodes = @NamedAttributeNode(value = "favoritePizzas", subgraph = "pizzas"),
+        subgraphs = @NamedSubgraph(name = "pizzas", attributeNodes = @NamedAttributeNode("nutritionalInfo")))
 public class Customer {
 
     @Id
@@ -39,6 +48,19 @@ public class Customer {
     @Column(nullable = false, length = 20)
     private Role role = Role.CUSTOMER;
 
+    // Order statistics, maintained by CustomerStatsService with set-based updates in the transaction of the
+    // order change. Not updatable from the entity, so saving a customer never overwrites a newer count.
+    // Count and spend exclude cancelled orders, the last order date is the latest order placed.
+    @Column(name = "order_count", nullable = false, updatable = false)
+    private long orderCount;
+
+    @Embedded
+    @AttributeOverride(name = "cents", column = @Column(name = "total_spent_cents", nullable = false, updatable = false))
+    private Money totalSpent = Money.ZERO;
+
+    @Column(name = "last_order_date", updatable = false)
+    private LocalDateTime lastOrderDate;
+
     @CreatedDate
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
@@ -147,6 +169,18 @@ public class Customer {
         this.favoritePizzas = favoritePizzas;
     }
 
+    public long getOrderCount() {
+        return orderCount;
+    }
+
+    public BigDecimal getTotalSpent() {
+        return totalSpent.toBigDecimal();
+    }
+
+    public LocalDateTime getLastOrderDate() {
+        return lastOrderDate;
+    }
+
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
@@ -0,0 +1,122 @@
+package be.vives.pizzastore.domain;
+
+import jakarta.persistence.*;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+
+// The stored response of a write sent with an Idempotency-Key header. A retry with the same key gets
+// this response back instead of running the write again, until the record expires.
+@Entity
+@Table(name = "idempotency_keys", indexes = {
+        // Backs the purge of expired keys
+        @Index(name = "idx_idempotency_keys_expires_at", columnList = "expires_at")
+})
+public class IdempotencyRecord implements Persistable<String> {
+
+    // Caller scope and header value, e.g. "jane@example.com:3f9c..."
+    @Id
+    @Column(name = "idempotency_key", length = 250)
+    private String key;
+
+    // SHA-256 of method, path and body, a reused key with a different request is rejected
+    @Column(nullable = false, length = 64)
+    private String fingerprint;
+
+    @Column(nullable = false)
+    private Integer status;
+
+    @Column(name = "content_type", length = 100)
+    private String contentType;
+
+    @Column(length = 500)
+    private String location;
+
+    @Lob
+    @Column(nullable = false)
+    private byte[] body;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    // Keys are assigned, without this save() would select the row first to decide between insert and update
+    @Transient
+    private boolean isNew = true;
+
+    // Constructors
+    public IdempotencyRecord() {
+    }
+
+    public IdempotencyRecord(String key, String fingerprint, Integer status, String contentType, String location,
+                             byte[] body, LocalDateTime createdAt, LocalDateTime expiresAt) {
+        this.key = key;
+        this.fingerprint = fingerprint;
+        this.status = status;
+        this.contentType = contentType;
+        this.location = location;
+        this.body = body;
+        this.createdAt = createdAt;
+        this.expiresAt = expiresAt;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.isNew = false;
+    }
+
+    // Getters
+    @Override
+    public String getId() {
+        return key;
+    }
+
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public String getFingerprint() {
+        return fingerprint;
+    }
+
+    public Integer getStatus() {
+        return status;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getLocation() {
+        return location;
+    }
+
+    public byte[] getBody() {
+        return body;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public LocalDateTime getExpiresAt() {
+        return expiresAt;
+    }
+
+    @Override
+    public String toString() {
+        return "IdempotencyRecord{" +
+                "key='" + key + '\'' +
+                ", status=" + status +
+                ", expiresAt=" + expiresAt +
+                '}';
+    }
+}
@@ -0,0 +1,49 @@
+package be.vives.pizzastore.domain;
+
+import jakarta.persistence.Embeddable;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+// Euro amount as a whole number of cents: adding and multiplying are plain long arithmetic
+// instead of BigDecimal allocations. Overflow throws instead of wrapping.
+@Embeddable
+public record Money(long cents) implements Comparable<Money> {
+
+    public static final Money ZERO = new Money(0);
+
+    public static Money ofCents(long cents) {
+        return cents == 0 ? ZERO : new Money(cents);
+    }
+
+    // Amounts with more than two decimals are rounded half up, like a DECIMAL(10,2) column would
+    public static Money of(BigDecimal amount) {
+        return ofCents(amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact());
+    }
+
+    public Money plus(Money other) {
+        return ofCents(Math.addExact(cents, other.cents));
+    }
+
+    public Money minus(Money other) {
+        return ofCents(Math.subtractExact(cents, other.cents));
+    }
+
+    public Money times(int quantity) {
+        return ofCents(Math.multiplyExact(cents, quantity));
+    }
+
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(cents, other.cents);
+    }
+
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString();
+    }
+}
@@ -13,12 +13,29 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+        // Backs the paged "orders of a customer, newest first" query
+        @Index(name = "idx_orders_customer_order_date", columnList = "customer_id, order_date"),
+        // Backs the paged "orders with a status" query used by the kitchen and admin dashboards
+        @Index(name = "idx_orders_status_order_date", columnList = "status, order_date"),
+        // Backs keyset pagination over all orders, newest first
+        @Index(name = "idx_orders_order_date_id", columnList = "order_date, id")
+})
 @EntityListeners(AuditingEntityListener.class)
+// Fetch plans for the repository read paths, outer joins so orders without lines are still found
+@NamedEntityGraph(name = "Order.withCustomer", attributeNodes = @NamedAttributeNode("customer"))
+@NamedEntityGraph(name = "Order.withLines",
+        attributeNodes = {
+                @NamedAttributeNode("customer"),
+                @NamedAttributeNode(value = "orderLines", subgraph = "lines")
+        },
+        subgraphs = @NamedSubgraph(name = "lines", attributeNodes = @NamedAttributeNode("pizza")))
 public class Order {
 
+    // Pooled sequence ids keep JDBC batching enabled, IDENTITY would force one insert per row
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "orders_seq")
+    @SequenceGenerator(name = "orders_seq", sequenceName = "orders_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "order_number", nullable = false, unique = true, length = 50)
@@ -27,8 +44,9 @@ public class Order {
     @Column(name = "order_date", nullable = false)
     private LocalDateTime orderDate;
 
-    @Column(name = "total_amount", nullable = false, precision = 10, scale = 2)
-    private BigDecimal totalAmount;
+    @Embedded
+    @AttributeOverride(name = "cents", column = @Column(name = "total_amount_cents", nullable = false))
+    private Money totalAmount = Money.ZERO;
 
     @Enumerated(EnumType.STRING)
     @Column(nullable = false, length = 20)
@@ -68,26 +86,34 @@ public class Order {
         this.customer = customer;
         this.status = status;
         this.orderDate = LocalDateTime.now();
-        this.totalAmount = BigDecimal.ZERO;
     }
 
     // Helper methods
+    // Adding or removing a line adjusts the running total, so building an order of n lines is O(n) instead of O(n²)
     public void addOrderLine(OrderLine orderLine) {
         orderLines.add(orderLine);
         orderLine.setOrder(this);
-        calculateTotalAmount();
+        adjustTotal(orderLine.subtotalMoney());
     }
 
     public void removeOrderLine(OrderLine orderLine) {
-        orderLines.remove(orderLine);
-        orderLine.setOrder(null);
-        calculateTotalAmount();
+        if (orderLines.remove(orderLine)) {
+            orderLine.setOrder(null);
+            adjustTotal(Money.ZERO.minus(orderLine.subtotalMoney()));
+        }
     }
 
+    // Full recompute, for when the lines list was replaced wholesale
     public void calculateTotalAmount() {
-        totalAmount = orderLines.stream()
-                .map(OrderLine::getSubtotal)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        Money total = Money.ZERO;
+        for (OrderLine orderLine : orderLines) {
+            total = total.plus(orderLine.subtotalMoney());
+        }
+        totalAmount = total;
+    }
+
+    void adjustTotal(Money delta) {
+        totalAmount = totalAmount.plus(delta);
     }
 
     // Getters and Setters
@@ -116,11 +142,11 @@ public class Order {
     }
 
     public BigDecimal getTotalAmount() {
-        return totalAmount;
+        return totalAmount.toBigDecimal();
     }
 
     public void setTotalAmount(BigDecimal totalAmount) {
-        this.totalAmount = totalAmount;
+        this.totalAmount = totalAmount == null ? Money.ZERO : Money.of(totalAmount);
     }
 
     public OrderStatus getStatus() {
@@ -145,6 +171,7 @@ public class Order {
 
     public void setOrderLines(List<OrderLine> orderLines) {
         this.orderLines = orderLines;
+        calculateTotalAmount();
     }
 
     public LocalDateTime getCreatedAt() {
@@ -8,8 +8,10 @@ import java.math.BigDecimal;
 @Table(name = "order_lines")
 public class OrderLine {
 
+    // Pooled sequence ids keep JDBC batching enabled, IDENTITY would force one insert per row
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_lines_seq")
+    @SequenceGenerator(name = "order_lines_seq", sequenceName = "order_lines_seq", allocationSize = 50)
     private Long id;
 
     // @ManyToOne: Many OrderLines belong to one Order
@@ -25,11 +27,13 @@ public class OrderLine {
     @Column(nullable = false)
     private Integer quantity;
 
-    @Column(name = "unit_price", nullable = false, precision = 10, scale = 2)
-    private BigDecimal unitPrice;
+    @Embedded
+    @AttributeOverride(name = "cents", column = @Column(name = "unit_price_cents", nullable = false))
+    private Money unitPrice;
 
-    @Column(nullable = false, precision = 10, scale = 2)
-    private BigDecimal subtotal;
+    @Embedded
+    @AttributeOverride(name = "cents", column = @Column(name = "subtotal_cents", nullable = false))
+    private Money subtotal;
 
     // Constructors
     public OrderLine() {
@@ -38,8 +42,8 @@ public class OrderLine {
     public OrderLine(Pizza pizza, Integer quantity) {
         this.pizza = pizza;
         this.quantity = quantity;
-        this.unitPrice = pizza.getPrice();
-        this.subtotal = unitPrice.multiply(BigDecimal.valueOf(quantity));
+        this.unitPrice = pizza.priceMoney();
+        this.subtotal = unitPrice.times(quantity);
     }
 
     // Getters and Setters
@@ -66,7 +70,7 @@ public class OrderLine {
     public void setPizza(Pizza pizza) {
         this.pizza = pizza;
         if (pizza != null) {
-            this.unitPrice = pizza.getPrice();
+            this.unitPrice = pizza.priceMoney();
             calculateSubtotal();
         }
     }
@@ -81,25 +85,39 @@ public class OrderLine {
     }
 
     public BigDecimal getUnitPrice() {
-        return unitPrice;
+        return unitPrice == null ? null : unitPrice.toBigDecimal();
     }
 
     public void setUnitPrice(BigDecimal unitPrice) {
-        this.unitPrice = unitPrice;
+        this.unitPrice = unitPrice == null ? null : Money.of(unitPrice);
         calculateSubtotal();
     }
 
     public BigDecimal getSubtotal() {
-        return subtotal;
+        return subtotal == null ? null : subtotal.toBigDecimal();
     }
 
     public void setSubtotal(BigDecimal subtotal) {
-        this.subtotal = subtotal;
+        changeSubtotal(subtotal == null ? null : Money.of(subtotal));
+    }
+
+    Money subtotalMoney() {
+        return subtotal == null ? Money.ZERO : subtotal;
     }
 
     private void calculateSubtotal() {
         if (unitPrice != null && quantity != null) {
-            this.subtotal = unitPrice.multiply(BigDecimal.valueOf(quantity));
+            changeSubtotal(unitPrice.times(quantity));
+        }
+    }
+
+    // The order keeps a running total, so an attached line reports the difference instead of
+    // letting the order re-add every line
+    private void changeSubtotal(Money newSubtotal) {
+        Money previous = subtotalMoney();
+        this.subtotal = newSubtotal;
+        if (order != null) {
+            order.adjustTotal(subtotalMoney().minus(previous));
         }
     }
 
@@ -1,10 +1,44 @@
 package be.vives.pizzastore.domain;
 
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
 public enum OrderStatus {
     PENDING,
     CONFIRMED,
     PREPARING,
     READY,
     DELIVERED,
-    CANCELLED
+    CANCELLED;
+
+    // Allowed transitions: PENDING -> (CONFIRMED ->) PREPARING -> READY -> DELIVERED,
+    // CANCELLED from every status that is not final yet
+    private static final Map<OrderStatus, Set<OrderStatus>> NEXT = new EnumMap<>(OrderStatus.class);
+    private static final Map<OrderStatus, Set<OrderStatus>> PREVIOUS = new EnumMap<>(OrderStatus.class);
+
+    static {
+        NEXT.put(PENDING, EnumSet.of(CONFIRMED, PREPARING, CANCELLED));
+        NEXT.put(CONFIRMED, EnumSet.of(PREPARING, CANCELLED));
+        NEXT.put(PREPARING, EnumSet.of(READY, CANCELLED));
+        NEXT.put(READY, EnumSet.of(DELIVERED, CANCELLED));
+        NEXT.put(DELIVERED, EnumSet.noneOf(OrderStatus.class));
+        NEXT.put(CANCELLED, EnumSet.noneOf(OrderStatus.class));
+
+        for (OrderStatus status : values()) {
+            PREVIOUS.put(status, EnumSet.noneOf(OrderStatus.class));
+        }
+        NEXT.forEach((from, targets) -> targets.forEach(to -> PREVIOUS.get(to).add(from)));
+    }
+
+    public boolean canTransitionTo(OrderStatus target) {
+        return NEXT.get(this).contains(target);
+    }
+
+    // Statuses an order may be in to move to this status
+    public Set<OrderStatus> previousStatuses() {
+        return Collections.unmodifiableSet(PREVIOUS.get(this));
+    }
 }
@@ -0,0 +1,6 @@
+package be.vives.pizzastore.domain;
+
+public enum SalesGranularity {
+    DAY,
+    HOUR
+}
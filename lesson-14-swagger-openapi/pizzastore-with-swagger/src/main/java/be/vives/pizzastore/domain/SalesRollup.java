@@ -0,0 +1,85 @@
+package be.vives.pizzastore.domain;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDate;
+
+// Quantity and revenue sold per pizza per hour, maintained in the same transaction as the orders that
+// change it. Cancelled orders are subtracted again, so the rollups only count orders that still stand.
+// Each hour and pizza is spread over a few slot rows, picked by order id, so concurrent orders for the
+// same pizza rarely wait on each other's row lock. Reports add the slots up.
+@Entity
+@Table(name = "sales_rollups", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_sales_rollups_bucket", columnNames = {"sales_date", "sales_hour", "pizza_id", "slot"})
+})
+public class SalesRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "sales_date", nullable = false)
+    private LocalDate salesDate;
+
+    @Column(name = "sales_hour", nullable = false)
+    private Integer salesHour;
+
+    // @ManyToOne: Many rollup rows belong to one Pizza
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "pizza_id", nullable = false)
+    private Pizza pizza;
+
+    @Column(nullable = false)
+    private Integer slot;
+
+    @Column(nullable = false)
+    private Long quantity;
+
+    @Embedded
+    @AttributeOverride(name = "cents", column = @Column(name = "revenue_cents", nullable = false))
+    private Money revenue = Money.ZERO;
+
+    // Constructors
+    public SalesRollup() {
+    }
+
+    // Getters
+    public Long getId() {
+        return id;
+    }
+
+    public LocalDate getSalesDate() {
+        return salesDate;
+    }
+
+    public Integer getSalesHour() {
+        return salesHour;
+    }
+
+    public Pizza getPizza() {
+        return pizza;
+    }
+
+    public Integer getSlot() {
+        return slot;
+    }
+
+    public Long getQuantity() {
+        return quantity;
+    }
+
+    public Money getRevenue() {
+        return revenue;
+    }
+
+    @Override
+    public String toString() {
+        return "SalesRollup{" +
+                "salesDate=" + salesDate +
+                ", salesHour=" + salesHour +
+                ", slot=" + slot +
+                ", quantity=" + quantity +
+                ", revenue=" + revenue +
+                '}';
+    }
+}
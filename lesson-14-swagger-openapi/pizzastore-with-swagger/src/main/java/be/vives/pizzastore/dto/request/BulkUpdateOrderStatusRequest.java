@@ -0,0 +1,11 @@
+package be.vives.pizzastore.dto.request;
+
+import be.vives.pizzastore.domain.OrderStatus;
+
+import java.util.List;
+
+public record BulkUpdateOrderStatusRequest(
+        List<Long> ids,
+        OrderStatus status
+) {
+}
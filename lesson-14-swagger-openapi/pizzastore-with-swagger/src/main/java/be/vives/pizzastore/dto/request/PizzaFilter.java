@@ -0,0 +1,65 @@
+package be.vives.pizzastore.dto.request;
+
+import be.vives.pizzastore.dto.response.NutritionalInfoResponse;
+import be.vives.pizzastore.dto.response.PizzaResponse;
+
+import java.math.BigDecimal;
+import java.util.Locale;
+
+// Filters of GET /api/pizzas, every criterion is optional and the set ones all apply. Bounds are inclusive.
+// A nutritional bound only matches pizzas that have nutritional info.
+public record PizzaFilter(
+        BigDecimal minPrice,
+        BigDecimal maxPrice,
+        String name,
+        Boolean available,
+        Integer minCalories,
+        Integer maxCalories,
+        BigDecimal minProtein,
+        BigDecimal maxCarbohydrates,
+        BigDecimal maxFat
+) {
+
+    public static final PizzaFilter NONE = new PizzaFilter(null, null, null, null, null, null, null, null, null);
+
+    // The name is matched case-insensitively, lower-case it once instead of per pizza
+    public PizzaFilter {
+        name = name == null || name.isEmpty() ? null : name.toLowerCase(Locale.ROOT);
+    }
+
+    public boolean hasPriceRange() {
+        return minPrice != null || maxPrice != null;
+    }
+
+    public boolean isEmpty() {
+        return equals(NONE);
+    }
+
+    // Everything except the price range, which the catalog narrows down with a binary search first
+    public boolean matches(PizzaResponse pizza, String lowerCaseName) {
+        if (name != null && !lowerCaseName.contains(name)) {
+            return false;
+        }
+        if (available != null && !available.equals(pizza.available())) {
+            return false;
+        }
+        if (minCalories == null && maxCalories == null && minProtein == null
+                && maxCarbohydrates == null && maxFat == null) {
+            return true;
+        }
+        NutritionalInfoResponse info = pizza.nutritionalInfo();
+        return info != null
+                && atLeast(info.calories(), minCalories) && atMost(info.calories(), maxCalories)
+                && atLeast(info.protein(), minProtein)
+                && atMost(info.carbohydrates(), maxCarbohydrates)
+                && atMost(info.fat(), maxFat);
+    }
+
+    private static <T extends Comparable<T>> boolean atLeast(T value, T bound) {
+        return bound == null || (value != null && value.compareTo(bound) >= 0);
+    }
+
+    private static <T extends Comparable<T>> boolean atMost(T value, T bound) {
+        return bound == null || (value != null && value.compareTo(bound) <= 0);
+    }
+}
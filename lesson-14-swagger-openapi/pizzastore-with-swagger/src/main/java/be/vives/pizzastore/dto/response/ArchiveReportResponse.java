@@ -0,0 +1,25 @@
+package be.vives.pizzastore.dto.response;
+
+import be.vives.pizzastore.archive.ArchiveDimension;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+public record ArchiveReportResponse(
+        List<ArchiveDimension> groupBy,
+        int segmentsScanned,
+        long ordersScanned,
+        long linesScanned,
+        long elapsedMillis,
+        List<Row> rows
+) {
+    // group holds one value per groupBy dimension, in the same order
+    public record Row(
+            List<String> group,
+            long orders,
+            long lines,
+            long quantity,
+            BigDecimal revenue
+    ) {
+    }
+}
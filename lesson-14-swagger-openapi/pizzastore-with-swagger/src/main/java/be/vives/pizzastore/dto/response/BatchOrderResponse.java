@@ -0,0 +1,19 @@
+package be.vives.pizzastore.dto.response;
+
+import java.util.List;
+
+public record BatchOrderResponse(
+        int total,
+        int created,
+        int rejected,
+        List<ItemResult> results
+) {
+    // One result per submitted order, in submission order
+    public record ItemResult(
+            int index,
+            boolean created,
+            OrderResponse order,
+            String error
+    ) {
+    }
+}
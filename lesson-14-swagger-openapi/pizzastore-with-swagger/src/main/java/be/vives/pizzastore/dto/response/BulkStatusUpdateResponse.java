@@ -0,0 +1,17 @@
+package be.vives.pizzastore.dto.response;
+
+import be.vives.pizzastore.domain.OrderStatus;
+
+import java.util.List;
+
+public record BulkStatusUpdateResponse(
+        OrderStatus status,
+        List<Long> updated,
+        List<Rejected> rejected
+) {
+    public record Rejected(
+            Long id,
+            String reason
+    ) {
+    }
+}
@@ -0,0 +1,11 @@
+package be.vives.pizzastore.dto.response;
+
+import java.util.List;
+
+public record CursorPageResponse<T>(
+        List<T> content,
+        int size,
+        boolean hasNext,
+        String nextCursor
+) {
+}
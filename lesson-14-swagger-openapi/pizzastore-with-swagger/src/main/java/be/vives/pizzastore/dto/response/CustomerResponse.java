@@ -1,11 +1,27 @@
 package be.vives.pizzastore.dto.response;
 
+import be.vives.pizzastore.domain.Money;
+import be.vives.pizzastore.domain.Role;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
 public record CustomerResponse(
         Long id,
         String name,
         String email,
         String phone,
         String address,
-        String role
+        String role,
+        Long orderCount,
+        BigDecimal totalSpent,
+        LocalDateTime lastOrderDate
 ) {
+
+    // Target of the list query constructor expressions
+    public CustomerResponse(Long id, String name, String email, String phone, String address, Role role,
+                            Long orderCount, Long totalSpentCents, LocalDateTime lastOrderDate) {
+        this(id, name, email, phone, address, role == null ? null : role.name(),
+                orderCount, Money.ofCents(totalSpentCents).toBigDecimal(), lastOrderDate);
+    }
 }
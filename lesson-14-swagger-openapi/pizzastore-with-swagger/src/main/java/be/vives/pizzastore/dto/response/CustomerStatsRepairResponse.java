@@ -0,0 +1,8 @@
+package be.vives.pizzastore.dto.response;
+
+public record CustomerStatsRepairResponse(
+        int customers,
+        int customersWithArchivedOrders,
+        long durationMillis
+) {
+}
@@ -0,0 +1,13 @@
+package be.vives.pizzastore.dto.response;
+
+import be.vives.pizzastore.domain.OrderStatus;
+
+import java.time.LocalDateTime;
+
+public record KitchenOrderResponse(
+        Long id,
+        String orderNumber,
+        OrderStatus status,
+        LocalDateTime orderDate
+) {
+}
@@ -0,0 +1,17 @@
+package be.vives.pizzastore.dto.response;
+
+import be.vives.pizzastore.domain.OrderStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+public record OrderExportRow(
+        Long id,
+        String orderNumber,
+        LocalDateTime orderDate,
+        Long customerId,
+        String customerName,
+        OrderStatus status,
+        BigDecimal totalAmount
+) {
+}
@@ -0,0 +1,17 @@
+package be.vives.pizzastore.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record OrderIntakeResponse(
+        String trackingId,
+        State state,
+        OrderResponse order,
+        String error
+) {
+    public enum State {
+        QUEUED,
+        CREATED,
+        REJECTED
+    }
+}
@@ -0,0 +1,13 @@
+package be.vives.pizzastore.dto.response;
+
+public record OrderIntakeStatsResponse(
+        int queueDepth,
+        int capacity,
+        long accepted,
+        long rejectedWhenFull,
+        long flushes,
+        long lastFlushMillis,
+        long maxFlushMillis,
+        double averageFlushMillis
+) {
+}
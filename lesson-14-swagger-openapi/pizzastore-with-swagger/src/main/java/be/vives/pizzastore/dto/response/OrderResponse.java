@@ -1,5 +1,6 @@
 package be.vives.pizzastore.dto.response;
 
+import be.vives.pizzastore.domain.Money;
 import be.vives.pizzastore.domain.OrderStatus;
 
 import java.math.BigDecimal;
@@ -16,4 +17,15 @@ public record OrderResponse(
         OrderStatus status,
         LocalDateTime orderDate
 ) {
+
+    // Target of the list query constructor expressions, the lines are read by a second query
+    public OrderResponse(Long id, String orderNumber, Long customerId, String customerName,
+                         Long totalAmountCents, OrderStatus status, LocalDateTime orderDate) {
+        this(id, orderNumber, customerId, customerName, List.of(),
+                Money.ofCents(totalAmountCents).toBigDecimal(), status, orderDate);
+    }
+
+    public OrderResponse withOrderLines(List<OrderLineResponse> orderLines) {
+        return new OrderResponse(id, orderNumber, customerId, customerName, orderLines, totalAmount, status, orderDate);
+    }
 }
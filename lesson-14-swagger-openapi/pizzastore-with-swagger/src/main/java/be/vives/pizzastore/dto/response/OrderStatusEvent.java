@@ -0,0 +1,20 @@
+package be.vives.pizzastore.dto.response;
+
+import be.vives.pizzastore.domain.OrderStatus;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.LocalDateTime;
+
+// orderNumber and orderDate are only known when the order is created, status updates leave them out
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record OrderStatusEvent(
+        Long orderId,
+        String orderNumber,
+        OrderStatus status,
+        LocalDateTime orderDate,
+        LocalDateTime changedAt
+) {
+    public OrderStatusEvent(Long orderId, OrderStatus status, LocalDateTime changedAt) {
+        this(orderId, null, status, null, changedAt);
+    }
+}
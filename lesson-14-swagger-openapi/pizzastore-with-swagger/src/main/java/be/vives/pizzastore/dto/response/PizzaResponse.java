@@ -1,5 +1,7 @@
 package be.vives.pizzastore.dto.response;
 
+import be.vives.pizzastore.domain.Money;
+
 import java.math.BigDecimal;
 
 public record PizzaResponse(
@@ -11,4 +13,11 @@ public record PizzaResponse(
         Boolean available,
         NutritionalInfoResponse nutritionalInfo
 ) {
+
+    // Target of the list query constructor expressions, nutritional info comes from a left join
+    public PizzaResponse(Long id, String name, Long priceCents, String description, String imageUrl, Boolean available,
+                         Long nutritionalInfoId, Integer calories, BigDecimal protein, BigDecimal carbohydrates, BigDecimal fat) {
+        this(id, name, Money.ofCents(priceCents).toBigDecimal(), description, imageUrl, available,
+                nutritionalInfoId == null ? null : new NutritionalInfoResponse(calories, protein, carbohydrates, fat));
+    }
 }
@@ -0,0 +1,10 @@
+package be.vives.pizzastore.dto.response;
+
+import java.math.BigDecimal;
+
+public record PizzaSuggestionResponse(
+        Long id,
+        String name,
+        BigDecimal price
+) {
+}
@@ -0,0 +1,29 @@
+package be.vives.pizzastore.dto.response;
+
+import be.vives.pizzastore.domain.SalesGranularity;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+public record SalesReportResponse(
+        LocalDate from,
+        LocalDate to,
+        SalesGranularity granularity,
+        long totalQuantity,
+        BigDecimal totalRevenue,
+        List<Bucket> buckets
+) {
+    // hour is only present for HOUR granularity
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public record Bucket(
+            LocalDate date,
+            Integer hour,
+            Long pizzaId,
+            String pizzaName,
+            long quantity,
+            BigDecimal revenue
+    ) {
+    }
+}
@@ -0,0 +1,7 @@
+package be.vives.pizzastore.dto.response;
+
+public record SalesRollupRebuildResponse(
+        int buckets,
+        long durationMillis
+) {
+}
@@ -0,0 +1,15 @@
+package be.vives.pizzastore.exception;
+
+public class ServiceUnavailableException extends PizzaStoreException {
+
+    private final long retryAfterSeconds;
+
+    public ServiceUnavailableException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,7 @@
+package be.vives.pizzastore.repository;
+
+import be.vives.pizzastore.domain.ArchiveSegment;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface ArchiveSegmentRepository extends JpaRepository<ArchiveSegment, String> {
+}
@@ -1,10 +1,17 @@
 package be.vives.pizzastore.repository;
 
 import be.vives.pizzastore.domain.Customer;
+import be.vives.pizzastore.dto.response.CustomerResponse;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface CustomerRepository extends JpaRepository<Customer, Long> {
@@ -13,10 +20,74 @@ public interface CustomerRepository extends JpaRepository<Customer, Long> {
 
     boolean existsByEmail(String email);
 
-    // JOIN FETCH to avoid N+1 problem
-    @Query("SELECT c FROM Customer c JOIN FETCH c.orders WHERE c.id = :id")
+    // Read model for the list endpoints: only the columns of CustomerResponse, no entities are loaded
+    String CUSTOMER_RESPONSE = "SELECT new be.vives.pizzastore.dto.response.CustomerResponse(" +
+            "c.id, c.name, c.email, c.phone, c.address, c.role, " +
+            "c.orderCount, c.totalSpent.cents, c.lastOrderDate) FROM Customer c ";
+
+    @Query(value = CUSTOMER_RESPONSE, countQuery = "SELECT COUNT(c) FROM Customer c")
+    Page<CustomerResponse> findAllResponses(Pageable pageable);
+
+    // Keyset pagination: seek past the last id instead of skipping OFFSET rows
+    @Query(CUSTOMER_RESPONSE + "WHERE c.id > :id ORDER BY c.id")
+    List<CustomerResponse> findKeysetResponsesAfter(@Param("id") Long id, Pageable limit);
+
+    // Best customers straight from the counters, served by the total_spent_cents index
+    @Query(CUSTOMER_RESPONSE + "WHERE c.orderCount > 0 ORDER BY c.totalSpent.cents DESC, c.orderCount DESC, c.id")
+    List<CustomerResponse> findTopResponses(Pageable limit);
+
+    // Adds (sign 1) or subtracts (sign -1) the given orders to the statistics of their customers in one
+    // statement, grouped per customer in the database. Only placing an order moves the last order date.
+    // Flushes first, so orders saved earlier in the same transaction are included.
+    @Modifying(flushAutomatically = true)
+    @Query(nativeQuery = true, value = """
+            MERGE INTO customers c
+            USING (SELECT o.customer_id AS customer_id,
+                          :sign * COUNT(*) AS order_count,
+                          :sign * SUM(o.total_amount_cents) AS total_spent_cents,
+                          MAX(o.order_date) AS last_order_date
+                   FROM orders o
+                   WHERE o.id IN (:orderIds)
+                   GROUP BY o.customer_id) s
+            ON (c.id = s.customer_id)
+            WHEN MATCHED THEN UPDATE SET order_count = c.order_count + s.order_count,
+                                         total_spent_cents = c.total_spent_cents + s.total_spent_cents,
+                                         last_order_date = CASE
+                                             WHEN :sign > 0 AND (c.last_order_date IS NULL OR c.last_order_date < s.last_order_date)
+                                             THEN s.last_order_date ELSE c.last_order_date END
+            """)
+    int mergeOrderStats(@Param("orderIds") Collection<Long> orderIds, @Param("sign") int sign);
+
+    // Recomputes the statistics of every customer from the orders table, cancelled orders excluded.
+    // Customers whose orders were all archived keep their last order date.
+    @Modifying
+    @Query(nativeQuery = true, value = """
+            UPDATE customers c SET
+                order_count = (SELECT COUNT(*) FROM orders o
+                               WHERE o.customer_id = c.id AND o.status <> 'CANCELLED'),
+                total_spent_cents = (SELECT COALESCE(SUM(o.total_amount_cents), 0) FROM orders o
+                                     WHERE o.customer_id = c.id AND o.status <> 'CANCELLED'),
+                last_order_date = COALESCE((SELECT MAX(o.order_date) FROM orders o WHERE o.customer_id = c.id),
+                                           c.last_order_date)
+            """)
+    int recomputeStatsFromOrders();
+
+    // Adds the totals of archived orders, which are no longer in the orders table, on top of a recompute
+    @Modifying
+    @Query(nativeQuery = true, value = """
+            UPDATE customers SET order_count = order_count + :orderCount,
+                                 total_spent_cents = total_spent_cents + :totalSpentCents
+            WHERE id = :id
+            """)
+    int addArchivedStats(@Param("id") Long id, @Param("orderCount") long orderCount,
+                         @Param("totalSpentCents") long totalSpentCents);
+
+    // Entity graphs fetch with outer joins, so a customer without orders or favorites is still found
+    @EntityGraph("Customer.withOrders")
+    @Query("SELECT c FROM Customer c WHERE c.id = :id")
     Optional<Customer> findByIdWithOrders(@Param("id") Long id);
 
-    @Query("SELECT c FROM Customer c JOIN FETCH c.favoritePizzas WHERE c.id = :id")
+    @EntityGraph("Customer.withFavorites")
+    @Query("SELECT c FROM Customer c WHERE c.id = :id")
     Optional<Customer> findByIdWithFavorites(@Param("id") Long id);
 }
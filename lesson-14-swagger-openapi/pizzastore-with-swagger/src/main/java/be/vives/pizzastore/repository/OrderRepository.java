@@ -2,12 +2,25 @@ package be.vives.pizzastore.repository;
 
 import be.vives.pizzastore.domain.Order;
 import be.vives.pizzastore.domain.OrderStatus;
+import be.vives.pizzastore.dto.response.KitchenOrderResponse;
+import be.vives.pizzastore.dto.response.OrderResponse;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface OrderRepository extends JpaRepository<Order, Long> {
 
@@ -17,10 +30,167 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
 
     Optional<Order> findByOrderNumber(String orderNumber);
 
-    // JOIN FETCH to avoid N+1 problem
-    @Query("SELECT o FROM Order o JOIN FETCH o.orderLines ol JOIN FETCH ol.pizza WHERE o.id = :id")
+    // Read model for the list endpoints: the order columns of OrderResponse in one query, no entities are loaded.
+    // The lines of a page are read afterwards with findLineRowsByOrderIdIn, two statements per page plus the count.
+    String ORDER_RESPONSE = "SELECT new be.vives.pizzastore.dto.response.OrderResponse(" +
+            "o.id, o.orderNumber, c.id, c.name, o.totalAmount.cents, o.status, o.orderDate) " +
+            "FROM Order o JOIN o.customer c ";
+
+    @Query(value = ORDER_RESPONSE,
+            countQuery = "SELECT COUNT(o) FROM Order o")
+    Page<OrderResponse> findAllResponses(Pageable pageable);
+
+    // Filter and count in the database, both served by idx_orders_customer_order_date
+    @Query(value = ORDER_RESPONSE + "WHERE c.id = :customerId",
+            countQuery = "SELECT COUNT(o) FROM Order o WHERE o.customer.id = :customerId")
+    Page<OrderResponse> findResponsesByCustomerId(@Param("customerId") Long customerId, Pageable pageable);
+
+    // Paged status lookup served by idx_orders_status_order_date
+    @Query(value = ORDER_RESPONSE + "WHERE o.status = :status",
+            countQuery = "SELECT COUNT(o) FROM Order o WHERE o.status = :status")
+    Page<OrderResponse> findResponsesByStatus(@Param("status") OrderStatus status, Pageable pageable);
+
+    // Same lookup without the count query, fetches one extra row to know if there is a next slice
+    @Query(ORDER_RESPONSE + "WHERE o.status = :status")
+    Slice<OrderResponse> findResponseSliceByStatus(@Param("status") OrderStatus status, Pageable pageable);
+
+    // Keyset pagination: seek past the last (orderDate, id) instead of skipping OFFSET rows
+    @Query(ORDER_RESPONSE + "ORDER BY o.orderDate DESC, o.id DESC")
+    List<OrderResponse> findFirstKeysetResponses(Pageable limit);
+
+    @Query(ORDER_RESPONSE +
+            "WHERE o.orderDate < :orderDate OR (o.orderDate = :orderDate AND o.id < :id) " +
+            "ORDER BY o.orderDate DESC, o.id DESC")
+    List<OrderResponse> findKeysetResponsesAfter(@Param("orderDate") LocalDateTime orderDate,
+                                                 @Param("id") Long id,
+                                                 Pageable limit);
+
+    @Query("SELECT ol.order.id AS orderId, ol.id AS id, p.id AS pizzaId, p.name AS pizzaName, ol.quantity AS quantity, " +
+            "ol.unitPrice.cents AS unitPriceCents, ol.subtotal.cents AS subtotalCents " +
+            "FROM OrderLine ol JOIN ol.pizza p WHERE ol.order.id IN :orderIds ORDER BY ol.id")
+    List<OrderLineRow> findLineRowsByOrderIdIn(@Param("orderIds") Collection<Long> orderIds);
+
+    interface OrderLineRow {
+        Long getOrderId();
+
+        Long getId();
+
+        Long getPizzaId();
+
+        String getPizzaName();
+
+        Integer getQuantity();
+
+        Long getUnitPriceCents();
+
+        Long getSubtotalCents();
+    }
+
+    // Compare-and-set: only matches while the order is still in one of the expected statuses,
+    // so concurrent transitions cannot overwrite each other. Returns the number of updated rows (0 or 1).
+    // Bulk updates bypass the auditing listener, the caller passes the audit columns.
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Order o SET o.status = :target, o.updatedAt = :updatedAt, o.updatedBy = :updatedBy " +
+            "WHERE o.id = :id AND o.status IN :expected")
+    int updateStatusIfIn(@Param("id") Long id,
+                         @Param("expected") Collection<OrderStatus> expected,
+                         @Param("target") OrderStatus target,
+                         @Param("updatedAt") LocalDateTime updatedAt,
+                         @Param("updatedBy") String updatedBy);
+
+    // Set-based variant for bulk transitions, every matching row moves in the same statement
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Order o SET o.status = :target, o.updatedAt = :updatedAt, o.updatedBy = :updatedBy " +
+            "WHERE o.id IN :ids AND o.status IN :expected")
+    int updateStatusesIfIn(@Param("ids") Collection<Long> ids,
+                           @Param("expected") Collection<OrderStatus> expected,
+                           @Param("target") OrderStatus target,
+                           @Param("updatedAt") LocalDateTime updatedAt,
+                           @Param("updatedBy") String updatedBy);
+
+    @Query("SELECT o.status FROM Order o WHERE o.id = :id")
+    Optional<OrderStatus> findStatusById(@Param("id") Long id);
+
+    // Reads only id and status, no entities are loaded
+    @Query("SELECT o.id AS id, o.status AS status FROM Order o WHERE o.id IN :ids")
+    List<IdAndStatus> findStatusesByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT o.status AS status, o.updatedAt AS updatedAt, c.email AS customerEmail " +
+            "FROM Order o JOIN o.customer c WHERE o.id = :id")
+    Optional<StatusAndOwner> findStatusAndOwnerById(@Param("id") Long id);
+
+    // Everything an order response is built from changes one of these timestamps: the order itself
+    // (status, total, lines), its customer (name) and its pizzas (names). One row, no entities.
+    @Query("SELECT o.updatedAt AS orderUpdatedAt, c.updatedAt AS customerUpdatedAt, " +
+            "(SELECT MAX(p.updatedAt) FROM OrderLine l JOIN l.pizza p WHERE l.order = o) AS pizzasUpdatedAt " +
+            "FROM Order o JOIN o.customer c WHERE o.id = :id")
+    Optional<Timestamps> findTimestampsById(@Param("id") Long id);
+
+    interface Timestamps {
+        LocalDateTime getOrderUpdatedAt();
+
+        LocalDateTime getCustomerUpdatedAt();
+
+        LocalDateTime getPizzasUpdatedAt();
+    }
+
+    interface StatusAndOwner {
+        OrderStatus getStatus();
+
+        LocalDateTime getUpdatedAt();
+
+        String getCustomerEmail();
+    }
+
+    interface IdAndStatus {
+        Long getId();
+
+        OrderStatus getStatus();
+    }
+
+    // Constructor projection for the kitchen queue, no entities are loaded
+    @Query("SELECT new be.vives.pizzastore.dto.response.KitchenOrderResponse(o.id, o.orderNumber, o.status, o.orderDate) " +
+            "FROM Order o WHERE o.status IN :statuses")
+    List<KitchenOrderResponse> findKitchenOrdersByStatusIn(@Param("statuses") Collection<OrderStatus> statuses);
+
+    @Query("SELECT new be.vives.pizzastore.dto.response.KitchenOrderResponse(o.id, o.orderNumber, o.status, o.orderDate) " +
+            "FROM Order o WHERE o.id = :id")
+    Optional<KitchenOrderResponse> findKitchenOrderById(@Param("id") Long id);
+
+    // Order with customer, lines and pizzas in one query, an order without lines is still found
+    @EntityGraph("Order.withLines")
+    @Query("SELECT o FROM Order o WHERE o.id = :id")
     Optional<Order> findByIdWithOrderLines(@Param("id") Long id);
 
-    @Query("SELECT o FROM Order o JOIN FETCH o.customer WHERE o.customer.id = :customerId")
+    @EntityGraph("Order.withCustomer")
+    @Query("SELECT o FROM Order o WHERE o.customer.id = :customerId")
     List<Order> findByCustomerIdWithCustomer(@Param("customerId") Long customerId);
+
+    // Finished orders placed before the cutoff, lowest ids first, for the archiver
+    @Query("SELECT o.id FROM Order o WHERE o.status IN :statuses AND o.orderDate < :before ORDER BY o.id")
+    List<Long> findArchivableIds(@Param("statuses") Collection<OrderStatus> statuses,
+                                 @Param("before") LocalDateTime before,
+                                 Pageable limit);
+
+    // Orders with customer, lines and pizzas in one query, for mapping a whole batch
+    @EntityGraph("Order.withLines")
+    @Query("SELECT o FROM Order o WHERE o.id IN :ids")
+    List<Order> findAllWithOrderLinesByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM OrderLine ol WHERE ol.order.id IN :orderIds")
+    int deleteOrderLinesByOrderIdIn(@Param("orderIds") Collection<Long> orderIds);
+
+    @Modifying(clearAutomatically = true)
+    @Query("DELETE FROM Order o WHERE o.id IN :ids")
+    int deleteAllByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Forward-only stream for exports: rows are fetched in blocks, the caller clears the persistence context
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @EntityGraph("Order.withCustomer")
+    @Query("SELECT o FROM Order o WHERE o.orderDate >= :from AND o.orderDate < :to ORDER BY o.orderDate, o.id")
+    Stream<Order> streamByOrderDateRange(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
 }
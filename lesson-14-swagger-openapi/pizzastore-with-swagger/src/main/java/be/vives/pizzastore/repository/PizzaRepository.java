@@ -1,32 +1,50 @@
 package be.vives.pizzastore.repository;
 
 import be.vives.pizzastore.domain.Pizza;
+import be.vives.pizzastore.dto.response.PizzaResponse;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
-import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 public interface PizzaRepository extends JpaRepository<Pizza, Long> {
 
-    // Derived query methods
+    // Derived query method, filtering on price and name is served by the in-memory catalog (PizzaService.find)
     Optional<Pizza> findByName(String name);
 
-    List<Pizza> findByPriceLessThan(BigDecimal maxPrice);
+    // Custom query with JPQL
+    @EntityGraph("Pizza.withNutrition")
+    @Query("SELECT p FROM Pizza p WHERE p.name LIKE %:keyword% OR p.description LIKE %:keyword%")
+    List<Pizza> searchByKeyword(@Param("keyword") String keyword);
 
-    List<Pizza> findByPriceGreaterThanEqual(BigDecimal minPrice);
+    // Read model for the catalog: pizza and nutritional info columns in one query. Loading entities would
+    // fire one extra select per pizza for the inverse one-to-one nutritionalInfo.
+    String PIZZA_RESPONSE = "SELECT new be.vives.pizzastore.dto.response.PizzaResponse(" +
+            "p.id, p.name, p.price.cents, p.description, p.imageUrl, p.available, " +
+            "n.id, n.calories, n.protein, n.carbohydrates, n.fat) " +
+            "FROM Pizza p LEFT JOIN p.nutritionalInfo n ";
 
-    List<Pizza> findByNameContainingIgnoreCase(String keyword);
+    // The whole catalog for the in-memory PizzaCatalog
+    @Query(PIZZA_RESPONSE + "ORDER BY p.id")
+    List<PizzaResponse> findCatalog();
 
-    List<Pizza> findByPriceBetween(BigDecimal minPrice, BigDecimal maxPrice);
+    // Last change of every pizza, the Last-Modified of a single pizza in the catalog
+    @Query("SELECT p.id AS id, p.updatedAt AS updatedAt FROM Pizza p")
+    List<IdAndUpdatedAt> findCatalogUpdatedAt();
 
-    // Custom query with JPQL
-    @Query("SELECT p FROM Pizza p WHERE p.name LIKE %:keyword% OR p.description LIKE %:keyword%")
-    List<Pizza> searchByKeyword(@Param("keyword") String keyword);
+    // Loads all pizzas of an order in one query, the entity graph avoids an extra select per pizza for nutritional info
+    @EntityGraph("Pizza.withNutrition")
+    @Query("SELECT p FROM Pizza p WHERE p.id IN :ids")
+    List<Pizza> findAllByIdWithNutritionalInfo(@Param("ids") Collection<Long> ids);
+
+    interface IdAndUpdatedAt {
+        Long getId();
 
-    // Query with JOIN FETCH to load nutritional info eagerly
-    @Query("SELECT p FROM Pizza p LEFT JOIN FETCH p.nutritionalInfo WHERE p.id = :id")
-    Optional<Pizza> findByIdWithNutritionalInfo(@Param("id") Long id);
+        LocalDateTime getUpdatedAt();
+    }
 }
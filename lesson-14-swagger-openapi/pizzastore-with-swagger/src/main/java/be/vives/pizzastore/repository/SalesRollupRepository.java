@@ -0,0 +1,100 @@
+package be.vives.pizzastore.repository;
+
+import be.vives.pizzastore.domain.SalesRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface SalesRollupRepository extends JpaRepository<SalesRollup, Long> {
+
+    @Modifying
+    @Query(nativeQuery = true, value = "DELETE FROM sales_rollups")
+    int deleteAllRollups();
+
+    // Recomputes every bucket from the raw orders, cancelled orders excluded, all in slot 0
+    @Modifying
+    @Query(nativeQuery = true, value = """
+            INSERT INTO sales_rollups (sales_date, sales_hour, pizza_id, slot, quantity, revenue_cents)
+            SELECT CAST(o.order_date AS DATE), EXTRACT(HOUR FROM o.order_date), l.pizza_id, 0,
+                   SUM(l.quantity), SUM(l.subtotal_cents)
+            FROM orders o JOIN order_lines l ON l.order_id = o.id
+            WHERE o.status <> 'CANCELLED'
+            GROUP BY CAST(o.order_date AS DATE), EXTRACT(HOUR FROM o.order_date), l.pizza_id
+            """)
+    int insertFromOrders();
+
+    @Modifying
+    @Query(nativeQuery = true, value = "DELETE FROM sales_rollups WHERE sales_date >= :from")
+    int deleteRollupsFrom(@Param("from") LocalDate from);
+
+    // Same as insertFromOrders, limited to the days from the given one on
+    @Modifying
+    @Query(nativeQuery = true, value = """
+            INSERT INTO sales_rollups (sales_date, sales_hour, pizza_id, slot, quantity, revenue_cents)
+            SELECT CAST(o.order_date AS DATE), EXTRACT(HOUR FROM o.order_date), l.pizza_id, 0,
+                   SUM(l.quantity), SUM(l.subtotal_cents)
+            FROM orders o JOIN order_lines l ON l.order_id = o.id
+            WHERE o.status <> 'CANCELLED' AND o.order_date >= :from
+            GROUP BY CAST(o.order_date AS DATE), EXTRACT(HOUR FROM o.order_date), l.pizza_id
+            """)
+    int insertFromOrdersFrom(@Param("from") LocalDateTime from);
+
+    // The slots of a bucket are added up, buckets emptied by cancellations are kept as zero rows and skipped here
+    @Query("""
+            SELECT r.salesDate AS salesDate, r.salesHour AS salesHour, p.id AS pizzaId, p.name AS pizzaName,
+                   SUM(r.quantity) AS quantity, SUM(r.revenue.cents) AS revenueCents
+            FROM SalesRollup r JOIN r.pizza p
+            WHERE r.salesDate BETWEEN :from AND :to
+            GROUP BY r.salesDate, r.salesHour, p.id, p.name
+            HAVING SUM(r.quantity) > 0
+            ORDER BY r.salesDate, r.salesHour, p.id
+            """)
+    List<HourlySales> findHourly(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Query("""
+            SELECT r.salesDate AS salesDate, p.id AS pizzaId, p.name AS pizzaName,
+                   SUM(r.quantity) AS quantity, SUM(r.revenue.cents) AS revenueCents
+            FROM SalesRollup r JOIN r.pizza p
+            WHERE r.salesDate BETWEEN :from AND :to
+            GROUP BY r.salesDate, p.id, p.name
+            HAVING SUM(r.quantity) > 0
+            ORDER BY r.salesDate, p.id
+            """)
+    List<DailySales> findDaily(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    // Units sold per pizza from the given day on, the popularity behind the name suggestions
+    @Query("""
+            SELECT r.pizza.id AS pizzaId, SUM(r.quantity) AS quantity
+            FROM SalesRollup r
+            WHERE r.salesDate >= :from
+            GROUP BY r.pizza.id
+            """)
+    List<PizzaQuantity> sumQuantityPerPizzaFrom(@Param("from") LocalDate from);
+
+    interface PizzaQuantity {
+        Long getPizzaId();
+
+        Long getQuantity();
+    }
+
+    interface DailySales {
+        LocalDate getSalesDate();
+
+        Long getPizzaId();
+
+        String getPizzaName();
+
+        Long getQuantity();
+
+        Long getRevenueCents();
+    }
+
+    interface HourlySales extends DailySales {
+        Integer getSalesHour();
+    }
+}
@@ -46,10 +46,18 @@ public class SecurityConfig {
                         // Customer endpoints - accessible by CUSTOMER and ADMIN
                         .requestMatchers("/api/customers/**").hasAnyRole("CUSTOMER", "ADMIN")
                         
-                        // Order endpoints - POST is for CUSTOMER, all other methods for ADMIN
+                        // Order endpoints - POST, intake polling and order streams are for CUSTOMER, all other methods for ADMIN
                         .requestMatchers(HttpMethod.POST, "/api/orders").hasRole("CUSTOMER")
+                        .requestMatchers(HttpMethod.GET, "/api/orders/intake/*").hasAnyRole("CUSTOMER", "ADMIN")
+                        .requestMatchers(HttpMethod.GET, "/api/orders/*/stream").hasAnyRole("CUSTOMER", "ADMIN")
                         .requestMatchers("/api/orders/**").hasRole("ADMIN")
                         
+                        // Kitchen endpoints - ADMIN only
+                        .requestMatchers("/api/kitchen/**").hasRole("ADMIN")
+                        
+                        // Analytics endpoints - ADMIN only
+                        .requestMatchers("/api/analytics/**").hasRole("ADMIN")
+                        
                         // All other requests require authentication
                         .anyRequest().authenticated()
                 )
@@ -0,0 +1,62 @@
+package be.vives.pizzastore.service;
+
+import be.vives.pizzastore.archive.ArchiveDimension;
+import be.vives.pizzastore.archive.ArchiveQuery;
+import be.vives.pizzastore.archive.ArchiveScanner;
+import be.vives.pizzastore.domain.Money;
+import be.vives.pizzastore.domain.OrderStatus;
+import be.vives.pizzastore.dto.response.ArchiveReportResponse;
+import be.vives.pizzastore.exception.BusinessException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.*;
+
+// Reports over the archived orders only: recent orders are covered by the sales rollups
+@Service
+public class ArchiveReportService {
+
+    private static final Logger log = LoggerFactory.getLogger(ArchiveReportService.class);
+
+    private final ArchiveScanner archiveScanner;
+
+    public ArchiveReportService(ArchiveScanner archiveScanner) {
+        this.archiveScanner = archiveScanner;
+    }
+
+    public ArchiveReportResponse report(List<ArchiveDimension> groupBy, LocalDate from, LocalDate to,
+                                        Long customerId, Long pizzaId, List<OrderStatus> statuses) {
+        if (groupBy == null || groupBy.isEmpty()) {
+            throw new BusinessException("At least one groupBy dimension is required");
+        }
+        if (groupBy.size() > ArchiveQuery.MAX_GROUP_BY || new HashSet<>(groupBy).size() != groupBy.size()) {
+            throw new BusinessException("Group by at most " + ArchiveQuery.MAX_GROUP_BY + " different dimensions");
+        }
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new BusinessException("'from' must not be after 'to'");
+        }
+        LocalDateTime start = from == null ? null : from.atStartOfDay();
+        LocalDateTime end = to == null ? null : to.atTime(LocalTime.MAX);
+        ArchiveQuery query = new ArchiveQuery(start, end, customerId, pizzaId,
+                statuses == null ? Set.of() : Set.copyOf(statuses), groupBy);
+        log.debug("Scanning archive: {}", query);
+
+        ArchiveScanner.Result result = archiveScanner.scan(query);
+        List<ArchiveReportResponse.Row> rows = new ArrayList<>(result.groups().size());
+        new TreeMap<>(result.groups()).forEach((key, sums) -> {
+            List<String> group = new ArrayList<>(groupBy.size());
+            group.add(groupBy.get(0).format(key.first()));
+            if (groupBy.size() > 1) {
+                group.add(groupBy.get(1).format(key.second()));
+            }
+            rows.add(new ArchiveReportResponse.Row(group, sums[ArchiveScanner.ORDERS], sums[ArchiveScanner.LINES],
+                    sums[ArchiveScanner.QUANTITY], Money.ofCents(sums[ArchiveScanner.REVENUE_CENTS]).toBigDecimal()));
+        });
+        return new ArchiveReportResponse(query.groupBy(), result.segmentsScanned(), result.ordersScanned(),
+                result.linesScanned(), result.elapsedNanos() / 1_000_000, rows);
+    }
+}
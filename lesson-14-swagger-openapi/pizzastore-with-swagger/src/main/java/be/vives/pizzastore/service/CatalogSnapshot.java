@@ -0,0 +1,257 @@
+package be.vives.pizzastore.service;
+
+import be.vives.pizzastore.domain.Money;
+import be.vives.pizzastore.dto.request.PizzaFilter;
+import be.vives.pizzastore.dto.response.PizzaResponse;
+import be.vives.pizzastore.exception.BusinessException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.time.Instant;
+import java.util.*;
+import java.util.function.Function;
+
+// Immutable, fully mapped copy of the pizza catalog. The pizzas are held in three orders: by id for
+// lookups and the default page order, by price for the price filters, and by name for sorted pages.
+// A change produces a new snapshot, so readers never lock and never see a half-applied update.
+// Each snapshot also carries the validators for conditional requests: an ETag over the whole catalog with
+// the time the snapshot was built as Last-Modified, and per pizza an ETag with the pizza's last change.
+public final class CatalogSnapshot {
+
+    private static final Comparator<PizzaResponse> BY_ID = Comparator.comparing(PizzaResponse::id);
+    private static final Comparator<PizzaResponse> BY_PRICE =
+            Comparator.comparing(PizzaResponse::price).thenComparing(BY_ID);
+    private static final Comparator<PizzaResponse> BY_NAME =
+            Comparator.comparing(PizzaResponse::name, Comparator.nullsFirst(Comparator.naturalOrder())).thenComparing(BY_ID);
+
+    public static final CatalogSnapshot EMPTY = of(List.of());
+
+    private final long[] ids;
+    private final PizzaResponse[] byId;
+    private final long[] priceCents;
+    private final PizzaResponse[] byPrice;
+    private final PizzaResponse[] byName;
+    // Lower-cased names in id order, for the case-insensitive name filter
+    private final String[] lowerNames;
+    // ETags of the pizzas in id order
+    private final String[] etags;
+    // Last change of the pizzas in id order, null when unknown
+    private final Instant[] modifiedAt;
+    private final ResourceVersion version;
+
+    private CatalogSnapshot(PizzaResponse[] byId, Instant[] modifiedAt) {
+        this.byId = byId;
+        this.modifiedAt = modifiedAt;
+        this.ids = new long[byId.length];
+        this.lowerNames = new String[byId.length];
+        this.etags = new String[byId.length];
+        Instant builtAt = Instant.now();
+        for (int i = 0; i < byId.length; i++) {
+            ids[i] = byId[i].id();
+            lowerNames[i] = byId[i].name() == null ? "" : byId[i].name().toLowerCase(Locale.ROOT);
+            etags[i] = ResourceVersion.of(builtAt, byId[i]).etag();
+        }
+        this.version = ResourceVersion.of(builtAt, (Object[]) etags);
+        this.byPrice = byId.clone();
+        Arrays.sort(byPrice, BY_PRICE);
+        this.priceCents = new long[byPrice.length];
+        for (int i = 0; i < byPrice.length; i++) {
+            priceCents[i] = Money.of(byPrice[i].price()).cents();
+        }
+        this.byName = byId.clone();
+        Arrays.sort(byName, BY_NAME);
+    }
+
+    public static CatalogSnapshot of(Collection<PizzaResponse> pizzas) {
+        return of(pizzas, Map.of());
+    }
+
+    // modifiedAt holds the last change per pizza id, pizzas without an entry get no Last-Modified
+    public static CatalogSnapshot of(Collection<PizzaResponse> pizzas, Map<Long, Instant> modifiedAt) {
+        PizzaResponse[] byId = pizzas.toArray(PizzaResponse[]::new);
+        Arrays.sort(byId, BY_ID);
+        Instant[] modified = new Instant[byId.length];
+        for (int i = 0; i < byId.length; i++) {
+            modified[i] = modifiedAt.get(byId[i].id());
+        }
+        return new CatalogSnapshot(byId, modified);
+    }
+
+    // Copy with the pizza added, or replaced when its id is already present
+    public CatalogSnapshot with(PizzaResponse pizza, Instant pizzaModifiedAt) {
+        int index = Arrays.binarySearch(ids, pizza.id());
+        PizzaResponse[] copy;
+        Instant[] modified;
+        if (index >= 0) {
+            copy = byId.clone();
+            copy[index] = pizza;
+            modified = modifiedAt.clone();
+            modified[index] = pizzaModifiedAt;
+        } else {
+            int insertAt = -index - 1;
+            copy = new PizzaResponse[byId.length + 1];
+            System.arraycopy(byId, 0, copy, 0, insertAt);
+            copy[insertAt] = pizza;
+            System.arraycopy(byId, insertAt, copy, insertAt + 1, byId.length - insertAt);
+            modified = new Instant[modifiedAt.length + 1];
+            System.arraycopy(modifiedAt, 0, modified, 0, insertAt);
+            modified[insertAt] = pizzaModifiedAt;
+            System.arraycopy(modifiedAt, insertAt, modified, insertAt + 1, modifiedAt.length - insertAt);
+        }
+        return new CatalogSnapshot(copy, modified);
+    }
+
+    public CatalogSnapshot without(Long id) {
+        int index = Arrays.binarySearch(ids, id);
+        if (index < 0) {
+            return this;
+        }
+        PizzaResponse[] copy = new PizzaResponse[byId.length - 1];
+        System.arraycopy(byId, 0, copy, 0, index);
+        System.arraycopy(byId, index + 1, copy, index, byId.length - index - 1);
+        Instant[] modified = new Instant[modifiedAt.length - 1];
+        System.arraycopy(modifiedAt, 0, modified, 0, index);
+        System.arraycopy(modifiedAt, index + 1, modified, index, modifiedAt.length - index - 1);
+        return new CatalogSnapshot(copy, modified);
+    }
+
+    public int size() {
+        return byId.length;
+    }
+
+    // Validators of the pizza list: every filter and page is read from the same snapshot
+    public ResourceVersion version() {
+        return version;
+    }
+
+    // Validators of a single pizza, empty when the id is not in the catalog
+    public Optional<ResourceVersion> version(Long id) {
+        int index = Arrays.binarySearch(ids, id);
+        return index >= 0 ? Optional.of(new ResourceVersion(etags[index], modifiedAt[index])) : Optional.empty();
+    }
+
+    public Optional<PizzaResponse> findById(Long id) {
+        int index = Arrays.binarySearch(ids, id);
+        return index >= 0 ? Optional.of(byId[index]) : Optional.empty();
+    }
+
+    // Sorting on id, name or price reads one of the prebuilt orders, other properties sort a copy
+    public Page<PizzaResponse> findAll(Pageable pageable) {
+        return page(sorted(pageable.getSort()), pageable);
+    }
+
+    // All set criteria of the filter apply. A price range is narrowed down with a binary search on the
+    // price order, the other criteria are checked on the remaining pizzas. Same default order and sort
+    // properties as findAll.
+    public Page<PizzaResponse> find(PizzaFilter filter, Pageable pageable) {
+        if (filter.isEmpty()) {
+            return findAll(pageable);
+        }
+        List<PizzaResponse> matches = new ArrayList<>();
+        if (filter.hasPriceRange()) {
+            int from = filter.minPrice() == null ? 0 : lowerBound(Money.of(filter.minPrice()).cents());
+            int to = filter.maxPrice() == null ? byPrice.length
+                    : lowerBound(Math.addExact(Money.of(filter.maxPrice()).cents(), 1));
+            for (int i = from; i < to; i++) {
+                PizzaResponse pizza = byPrice[i];
+                String lowerName = pizza.name() == null ? "" : pizza.name().toLowerCase(Locale.ROOT);
+                if (filter.matches(pizza, lowerName)) {
+                    matches.add(pizza);
+                }
+            }
+        } else {
+            for (int i = 0; i < byId.length; i++) {
+                if (filter.matches(byId[i], lowerNames[i])) {
+                    matches.add(byId[i]);
+                }
+            }
+        }
+        PizzaResponse[] found = matches.toArray(PizzaResponse[]::new);
+        if (pageable.getSort().isSorted()) {
+            Arrays.sort(found, comparator(pageable.getSort()));
+        } else if (filter.hasPriceRange()) {
+            Arrays.sort(found, BY_ID);
+        }
+        return page(found, pageable);
+    }
+
+    private static Page<PizzaResponse> page(PizzaResponse[] sorted, Pageable pageable) {
+        if (pageable.isUnpaged()) {
+            return new PageImpl<>(List.copyOf(Arrays.asList(sorted)));
+        }
+        long offset = pageable.getOffset();
+        int from = (int) Math.min(offset, sorted.length);
+        int to = (int) Math.min(offset + pageable.getPageSize(), sorted.length);
+        return new PageImpl<>(view(sorted, from, to), pageable, sorted.length);
+    }
+
+    private PizzaResponse[] sorted(Sort sort) {
+        if (sort.isUnsorted()) {
+            return byId;
+        }
+        List<Sort.Order> orders = sort.toList();
+        if (orders.size() == 1 && orders.get(0).isAscending()) {
+            PizzaResponse[] prebuilt = switch (orders.get(0).getProperty()) {
+                case "id" -> byId;
+                case "name" -> byName;
+                case "price" -> byPrice;
+                default -> null;
+            };
+            if (prebuilt != null) {
+                return prebuilt;
+            }
+        }
+        PizzaResponse[] copy = byId.clone();
+        Arrays.sort(copy, comparator(sort));
+        return copy;
+    }
+
+    // Ties are broken by id, so pages never overlap
+    private static Comparator<PizzaResponse> comparator(Sort sort) {
+        Comparator<PizzaResponse> comparator = null;
+        for (Sort.Order order : sort) {
+            Comparator<PizzaResponse> next = comparatorFor(order.getProperty());
+            next = order.isDescending() ? next.reversed() : next;
+            comparator = comparator == null ? next : comparator.thenComparing(next);
+        }
+        return comparator.thenComparing(BY_ID);
+    }
+
+    private static Comparator<PizzaResponse> comparatorFor(String property) {
+        return switch (property) {
+            case "id" -> BY_ID;
+            case "name" -> nullsFirst(PizzaResponse::name);
+            case "price" -> nullsFirst(PizzaResponse::price);
+            case "description" -> nullsFirst(PizzaResponse::description);
+            case "available" -> nullsFirst(PizzaResponse::available);
+            default -> throw new BusinessException("Cannot sort pizzas by '" + property + "'");
+        };
+    }
+
+    private static <T extends Comparable<? super T>> Comparator<PizzaResponse> nullsFirst(
+            Function<PizzaResponse, T> property) {
+        return Comparator.comparing(property, Comparator.nullsFirst(Comparator.naturalOrder()));
+    }
+
+    // First index in price order whose price is at least the given number of cents
+    private int lowerBound(long cents) {
+        int low = 0;
+        int high = priceCents.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (priceCents[mid] < cents) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // Read-only window on one of the arrays, nothing is copied
+    private static List<PizzaResponse> view(PizzaResponse[] pizzas, int from, int to) {
+        return Collections.unmodifiableList(Arrays.asList(pizzas).subList(from, to));
+    }
+}
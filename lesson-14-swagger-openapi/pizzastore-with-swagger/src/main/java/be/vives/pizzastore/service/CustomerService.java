@@ -4,6 +4,7 @@ import be.vives.pizzastore.domain.Customer;
 import be.vives.pizzastore.domain.Pizza;
 import be.vives.pizzastore.dto.request.CreateCustomerRequest;
 import be.vives.pizzastore.dto.request.UpdateCustomerRequest;
+import be.vives.pizzastore.dto.response.CursorPageResponse;
 import be.vives.pizzastore.dto.response.CustomerResponse;
 import be.vives.pizzastore.dto.response.PizzaResponse;
 import be.vives.pizzastore.exception.ResourceNotFoundException;
@@ -14,6 +15,7 @@ import be.vives.pizzastore.repository.PizzaRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -43,8 +45,19 @@ public class CustomerService {
 
     public Page<CustomerResponse> findAll(Pageable pageable) {
         log.debug("Finding all customers with pagination: {}", pageable);
-        Page<Customer> customerPage = customerRepository.findAll(pageable);
-        return customerPage.map(customerMapper::toResponse);
+        return customerRepository.findAllResponses(pageable);
+    }
+
+    public CursorPageResponse<CustomerResponse> findAllAfterCursor(String cursor, int size) {
+        log.debug("Finding customers after cursor: {} with size: {}", cursor, size);
+        Long afterId = KeysetCursor.isFirstPage(cursor) ? 0L : KeysetCursor.decodeId(cursor);
+        // Fetch one extra row to know whether there is a next page without counting
+        List<CustomerResponse> customers = customerRepository.findKeysetResponsesAfter(afterId, PageRequest.ofSize(size + 1));
+
+        boolean hasNext = customers.size() > size;
+        List<CustomerResponse> content = hasNext ? customers.subList(0, size) : customers;
+        String nextCursor = hasNext ? KeysetCursor.encode(content.get(content.size() - 1).id()) : null;
+        return new CursorPageResponse<>(content, size, hasNext, nextCursor);
     }
 
     public CustomerResponse findById(Long id) {
@@ -0,0 +1,85 @@
+package be.vives.pizzastore.service;
+
+import be.vives.pizzastore.archive.ArchiveDimension;
+import be.vives.pizzastore.archive.ArchiveQuery;
+import be.vives.pizzastore.archive.ArchiveScanner;
+import be.vives.pizzastore.domain.OrderStatus;
+import be.vives.pizzastore.dto.response.CustomerResponse;
+import be.vives.pizzastore.dto.response.CustomerStatsRepairResponse;
+import be.vives.pizzastore.exception.BusinessException;
+import be.vives.pizzastore.repository.CustomerRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Keeps the order count, total spent and last order date on each customer in step with the orders, the
+// same way SalesRollupService keeps the rollups: the record methods join the transaction of the caller,
+// so the counters commit or roll back together with the order change behind them. Archiving orders does
+// not touch the counters, they cover the whole history of a customer.
+@Service
+@Transactional
+public class CustomerStatsService {
+
+    private static final Logger log = LoggerFactory.getLogger(CustomerStatsService.class);
+
+    static final int MAX_TOP_CUSTOMERS = 100;
+
+    private final CustomerRepository customerRepository;
+    private final ArchiveScanner archiveScanner;
+
+    public CustomerStatsService(CustomerRepository customerRepository, ArchiveScanner archiveScanner) {
+        this.customerRepository = customerRepository;
+        this.archiveScanner = archiveScanner;
+    }
+
+    public void recordCreated(Collection<Long> orderIds) {
+        if (!orderIds.isEmpty()) {
+            customerRepository.mergeOrderStats(orderIds, 1);
+        }
+    }
+
+    public void recordCancelled(Collection<Long> orderIds) {
+        if (!orderIds.isEmpty()) {
+            customerRepository.mergeOrderStats(orderIds, -1);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public List<CustomerResponse> findTop(int limit) {
+        if (limit < 1 || limit > MAX_TOP_CUSTOMERS) {
+            throw new BusinessException("Limit must be between 1 and " + MAX_TOP_CUSTOMERS);
+        }
+        log.debug("Finding top {} customers", limit);
+        return customerRepository.findTopResponses(PageRequest.ofSize(limit));
+    }
+
+    // Recomputes the counters from the orders table and adds the delivered orders found in the archive,
+    // for after a data fix or when the counters are suspected to have drifted. Orders committed while the
+    // repair runs may be missed, which is why the scheduled run is at night.
+    @Scheduled(cron = "${customer-stats.repair-cron:0 0 4 * * *}")
+    public CustomerStatsRepairResponse repair() {
+        long start = System.nanoTime();
+        int customers = customerRepository.recomputeStatsFromOrders();
+
+        ArchiveScanner.Result archived = archiveScanner.scan(new ArchiveQuery(null, null, null, null,
+                Set.of(OrderStatus.DELIVERED), List.of(ArchiveDimension.CUSTOMER)));
+        for (Map.Entry<ArchiveScanner.GroupKey, long[]> group : archived.groups().entrySet()) {
+            long[] sums = group.getValue();
+            customerRepository.addArchivedStats(group.getKey().first(), sums[ArchiveScanner.ORDERS],
+                    sums[ArchiveScanner.REVENUE_CENTS]);
+        }
+
+        long durationMillis = (System.nanoTime() - start) / 1_000_000;
+        log.info("Repaired order statistics of {} customers ({} with archived orders) in {} ms",
+                customers, archived.groups().size(), durationMillis);
+        return new CustomerStatsRepairResponse(customers, archived.groups().size(), durationMillis);
+    }
+}
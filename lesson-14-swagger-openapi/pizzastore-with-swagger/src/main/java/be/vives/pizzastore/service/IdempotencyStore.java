@@ -0,0 +1,195 @@
+package be.vives.pizzastore.service;
+
+import be.vives.pizzastore.domain.IdempotencyRecord;
+import be.vives.pizzastore.exception.BusinessException;
+import be.vives.pizzastore.exception.DuplicateResourceException;
+import be.vives.pizzastore.repository.IdempotencyRecordRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+// Remembers the responses of writes sent with an Idempotency-Key header. Completed keys are kept in a
+// bounded LRU map in front of the idempotency_keys table, so a retry is usually answered from memory.
+// A key whose first request is still running is tracked as an in-flight future: duplicates arriving
+// meanwhile wait for its response instead of running the write a second time.
+@Service
+public class IdempotencyStore {
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyStore.class);
+
+    public record StoredResponse(
+            String fingerprint,
+            int status,
+            String contentType,
+            String location,
+            byte[] body,
+            LocalDateTime expiresAt
+    ) {
+    }
+
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final long ttlMinutes;
+    private final long waitTimeoutMillis;
+    private final Map<String, StoredResponse> cache;
+    private final Map<String, CompletableFuture<StoredResponse>> inFlight = new ConcurrentHashMap<>();
+
+    public IdempotencyStore(IdempotencyRecordRepository idempotencyRecordRepository,
+                            @Value("${idempotency.ttl-minutes:1440}") long ttlMinutes,
+                            @Value("${idempotency.cache-size:10000}") int cacheSize,
+                            @Value("${idempotency.wait-timeout-ms:10000}") long waitTimeoutMillis) {
+        if (ttlMinutes < 1 || cacheSize < 1) {
+            throw new IllegalArgumentException("idempotency.ttl-minutes and idempotency.cache-size must be at least 1");
+        }
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
+        this.ttlMinutes = ttlMinutes;
+        this.waitTimeoutMillis = waitTimeoutMillis;
+        // Access-ordered, the least recently used key is dropped once the map is full
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, StoredResponse> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    // Empty when the caller now owns the key and must run the request, then complete() or release() it.
+    // Otherwise the stored response to replay, after waiting for a first request that is still running.
+    public Optional<StoredResponse> claim(String key, String fingerprint) {
+        while (true) {
+            StoredResponse stored = find(key);
+            if (stored != null) {
+                return Optional.of(matching(stored, fingerprint));
+            }
+
+            CompletableFuture<StoredResponse> claim = new CompletableFuture<>();
+            CompletableFuture<StoredResponse> running = inFlight.putIfAbsent(key, claim);
+            if (running == null) {
+                // The previous owner may have completed between find and putIfAbsent
+                stored = cached(key);
+                if (stored != null) {
+                    inFlight.remove(key, claim);
+                    claim.complete(stored);
+                    return Optional.of(matching(stored, fingerprint));
+                }
+                return Optional.empty();
+            }
+
+            stored = await(running);
+            if (stored != null) {
+                return Optional.of(matching(stored, fingerprint));
+            }
+            // The first request ended without a response worth keeping, try to claim the key ourselves
+        }
+    }
+
+    public void complete(String key, String fingerprint, int status, String contentType, String location, byte[] body) {
+        LocalDateTime now = LocalDateTime.now();
+        StoredResponse stored = new StoredResponse(fingerprint, status, contentType, location, body, now.plusMinutes(ttlMinutes));
+        try {
+            idempotencyRecordRepository.save(new IdempotencyRecord(key, fingerprint, status, contentType, location, body,
+                    now, stored.expiresAt()));
+        } catch (DataAccessException e) {
+            // Still answer the waiting duplicates and later retries on this instance from memory
+            log.warn("Could not store idempotency key {}: {}", key, e.getMessage());
+        }
+        synchronized (cache) {
+            cache.put(key, stored);
+        }
+        CompletableFuture<StoredResponse> running = inFlight.remove(key);
+        if (running != null) {
+            running.complete(stored);
+        }
+    }
+
+    // Gives the key up after a failed request, a waiting duplicate then runs it instead
+    public void release(String key) {
+        CompletableFuture<StoredResponse> running = inFlight.remove(key);
+        if (running != null) {
+            running.complete(null);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${idempotency.purge-interval-ms:600000}")
+    @Transactional
+    public int purgeExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        synchronized (cache) {
+            cache.values().removeIf(stored -> stored.expiresAt().isBefore(now));
+        }
+        int purged = idempotencyRecordRepository.deleteExpired(now);
+        if (purged > 0) {
+            log.debug("Purged {} expired idempotency keys", purged);
+        }
+        return purged;
+    }
+
+    int cachedKeys() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    private StoredResponse find(String key) {
+        StoredResponse stored = cached(key);
+        if (stored != null) {
+            return stored;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        stored = idempotencyRecordRepository.findById(key)
+                .filter(record -> record.getExpiresAt().isAfter(now))
+                .map(record -> new StoredResponse(record.getFingerprint(), record.getStatus(), record.getContentType(),
+                        record.getLocation(), record.getBody(), record.getExpiresAt()))
+                .orElse(null);
+        if (stored != null) {
+            synchronized (cache) {
+                cache.put(key, stored);
+            }
+        }
+        return stored;
+    }
+
+    private StoredResponse cached(String key) {
+        synchronized (cache) {
+            StoredResponse stored = cache.get(key);
+            if (stored != null && stored.expiresAt().isBefore(LocalDateTime.now())) {
+                cache.remove(key);
+                return null;
+            }
+            return stored;
+        }
+    }
+
+    private static StoredResponse matching(StoredResponse stored, String fingerprint) {
+        if (!stored.fingerprint().equals(fingerprint)) {
+            throw new BusinessException("Idempotency-Key was already used for a different request");
+        }
+        return stored;
+    }
+
+    private StoredResponse await(CompletableFuture<StoredResponse> running) {
+        try {
+            return running.get(waitTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new DuplicateResourceException("A request with this Idempotency-Key is still in progress");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DuplicateResourceException("A request with this Idempotency-Key is still in progress");
+        } catch (ExecutionException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package be.vives.pizzastore.service;
+
+import be.vives.pizzastore.exception.BusinessException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+// Opaque cursor for keyset pagination: the sort key of the last row, Base64 encoded
+final class KeysetCursor {
+
+    private static final String SEPARATOR = "|";
+
+    record OrderKey(LocalDateTime orderDate, Long id) {
+    }
+
+    private KeysetCursor() {
+    }
+
+    static boolean isFirstPage(String cursor) {
+        return cursor == null || cursor.isBlank();
+    }
+
+    static String encode(LocalDateTime orderDate, Long id) {
+        return encode(orderDate + SEPARATOR + id);
+    }
+
+    static String encode(Long id) {
+        return encode(String.valueOf(id));
+    }
+
+    static OrderKey decodeOrderKey(String cursor) {
+        String value = decode(cursor);
+        int separator = value.indexOf(SEPARATOR);
+        if (separator < 0) {
+            throw new BusinessException("Invalid cursor: " + cursor);
+        }
+        try {
+            return new OrderKey(
+                    LocalDateTime.parse(value.substring(0, separator)),
+                    Long.valueOf(value.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            throw new BusinessException("Invalid cursor: " + cursor);
+        }
+    }
+
+    static Long decodeId(String cursor) {
+        try {
+            return Long.valueOf(decode(cursor));
+        } catch (NumberFormatException e) {
+            throw new BusinessException("Invalid cursor: " + cursor);
+        }
+    }
+
+    private static String encode(String value) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String decode(String cursor) {
+        try {
+            return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new BusinessException("Invalid cursor: " + cursor);
+        }
+    }
+}
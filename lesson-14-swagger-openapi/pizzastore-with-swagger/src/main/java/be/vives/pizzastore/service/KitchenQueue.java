@@ -0,0 +1,159 @@
+package be.vives.pizzastore.service;
+
+import be.vives.pizzastore.domain.OrderStatus;
+import be.vives.pizzastore.dto.response.KitchenOrderResponse;
+import be.vives.pizzastore.dto.response.OrderStatusEvent;
+import be.vives.pizzastore.repository.OrderRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// In-memory view of the orders the kitchen still has to handle, one skip list per status ordered by
+// orderDate. Seeded from the database at startup and kept up to date from committed OrderStatusEvents,
+// so reading the queue never touches the database. A scheduled check resyncs it if it ever drifts.
+@Component
+public class KitchenQueue {
+
+    private static final Logger log = LoggerFactory.getLogger(KitchenQueue.class);
+
+    // Every status that can still move on, so a transition never needs a database read
+    static final Set<OrderStatus> TRACKED = EnumSet.of(
+            OrderStatus.PENDING, OrderStatus.CONFIRMED, OrderStatus.PREPARING, OrderStatus.READY);
+
+    private static final Comparator<Key> BY_ORDER_DATE =
+            Comparator.comparing(Key::orderDate).thenComparing(Key::id);
+
+    private final OrderRepository orderRepository;
+    private final Map<Long, KitchenOrderResponse> byId = new ConcurrentHashMap<>();
+    private final Map<OrderStatus, ConcurrentNavigableMap<Key, KitchenOrderResponse>> byStatus =
+            new EnumMap<>(OrderStatus.class);
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public KitchenQueue(OrderRepository orderRepository) {
+        this.orderRepository = orderRepository;
+        for (OrderStatus status : TRACKED) {
+            byStatus.put(status, new ConcurrentSkipListMap<>(BY_ORDER_DATE));
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void seed() {
+        lock.writeLock().lock();
+        try {
+            List<KitchenOrderResponse> orders = orderRepository.findKitchenOrdersByStatusIn(TRACKED);
+            replaceAll(orders);
+            log.info("Kitchen queue seeded with {} orders", orders.size());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<KitchenOrderResponse> findByStatus(OrderStatus status) {
+        if (!TRACKED.contains(status)) {
+            return List.of();
+        }
+        return List.copyOf(byStatus.get(status).values());
+    }
+
+    public int size() {
+        return byId.size();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStatusChanged(OrderStatusEvent event) {
+        // An event without the order details for an order we do not know yet: read the row up front,
+        // never while holding the lock of the map
+        KitchenOrderResponse loaded = null;
+        if (event.orderDate() == null && TRACKED.contains(event.status()) && !byId.containsKey(event.orderId())) {
+            loaded = orderRepository.findKitchenOrderById(event.orderId()).orElse(null);
+        }
+        KitchenOrderResponse row = loaded;
+
+        // Events of different orders apply concurrently, a consistency check waits for them and holds them off
+        lock.readLock().lock();
+        try {
+            // compute serialises updates of one order, other orders are not blocked
+            byId.compute(event.orderId(), (id, current) -> {
+                if (current == null) {
+                    if (!TRACKED.contains(event.status())) {
+                        return null;
+                    }
+                    KitchenOrderResponse added = event.orderDate() != null
+                            ? new KitchenOrderResponse(id, event.orderNumber(), event.status(), event.orderDate())
+                            : row;
+                    if (added != null) {
+                        byStatus.get(added.status()).put(key(added), added);
+                    }
+                    return added;
+                }
+                // Events can arrive out of order after commit, only apply forward transitions
+                if (!current.status().canTransitionTo(event.status())) {
+                    return current;
+                }
+                byStatus.get(current.status()).remove(key(current));
+                if (!TRACKED.contains(event.status())) {
+                    return null;
+                }
+                KitchenOrderResponse moved = new KitchenOrderResponse(id, current.orderNumber(), event.status(), current.orderDate());
+                byStatus.get(moved.status()).put(key(moved), moved);
+                return moved;
+            });
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Compares the in-memory queue with the database and resyncs it when they differ. Read, compare and swap
+    // happen under the write lock, so no event can be applied in between and then overwritten by the snapshot;
+    // events committed meanwhile wait and are applied on top of it.
+    @Scheduled(fixedDelayString = "${kitchen-queue.check-interval-ms:60000}",
+            initialDelayString = "${kitchen-queue.check-interval-ms:60000}")
+    public boolean checkConsistency() {
+        lock.writeLock().lock();
+        try {
+            List<KitchenOrderResponse> orders = orderRepository.findKitchenOrdersByStatusIn(TRACKED);
+            Map<Long, OrderStatus> expected = new HashMap<>();
+            orders.forEach(order -> expected.put(order.id(), order.status()));
+            Map<Long, OrderStatus> actual = new HashMap<>();
+            byId.values().forEach(order -> actual.put(order.id(), order.status()));
+
+            if (expected.equals(actual)) {
+                return true;
+            }
+            log.warn("Kitchen queue out of sync ({} orders in memory, {} in database), reloading", actual.size(), expected.size());
+            replaceAll(orders);
+            return false;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Called with the write lock held
+    private void replaceAll(List<KitchenOrderResponse> orders) {
+        byId.clear();
+        byStatus.values().forEach(Map::clear);
+        for (KitchenOrderResponse order : orders) {
+            byId.put(order.id(), order);
+            byStatus.get(order.status()).put(key(order), order);
+        }
+    }
+
+    private Key key(KitchenOrderResponse order) {
+        return new Key(order.orderDate(), order.id());
+    }
+
+    private record Key(LocalDateTime orderDate, Long id) {
+    }
+}
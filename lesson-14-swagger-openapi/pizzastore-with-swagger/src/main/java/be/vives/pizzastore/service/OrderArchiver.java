@@ -0,0 +1,115 @@
+package be.vives.pizzastore.service;
+
+import be.vives.pizzastore.archive.OrderArchive;
+import be.vives.pizzastore.archive.OrderSegment;
+import be.vives.pizzastore.domain.OrderStatus;
+import be.vives.pizzastore.dto.response.OrderResponse;
+import be.vives.pizzastore.mapper.OrderMapper;
+import be.vives.pizzastore.repository.OrderRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Moves finished orders older than the retention period from the hot tables into the OrderArchive,
+// in bounded batches of one transaction each. A batch is written to its segment file first and only
+// then deleted from the database; if the delete does not commit, the segment is discarded again.
+@Component
+public class OrderArchiver {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderArchiver.class);
+
+    static final Set<OrderStatus> FINISHED = EnumSet.of(OrderStatus.DELIVERED, OrderStatus.CANCELLED);
+
+    private final OrderRepository orderRepository;
+    private final OrderMapper orderMapper;
+    private final OrderArchive orderArchive;
+    private final TransactionTemplate transactionTemplate;
+    private final int retentionDays;
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+
+    public OrderArchiver(OrderRepository orderRepository,
+                         OrderMapper orderMapper,
+                         OrderArchive orderArchive,
+                         PlatformTransactionManager transactionManager,
+                         @Value("${order-archive.retention-days:28}") int retentionDays,
+                         @Value("${order-archive.batch-size:500}") int batchSize,
+                         @Value("${order-archive.max-batches-per-run:200}") int maxBatchesPerRun) {
+        if (retentionDays < 1 || batchSize < 1 || maxBatchesPerRun < 1) {
+            throw new IllegalArgumentException("order-archive retention, batch size and batches per run must be at least 1");
+        }
+        this.orderRepository = orderRepository;
+        this.orderMapper = orderMapper;
+        this.orderArchive = orderArchive;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.retentionDays = retentionDays;
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+    }
+
+    // Returns the number of orders archived. The cutoff is a day boundary, so a day is either still
+    // fully in the hot tables or its finished orders are all archived.
+    @Scheduled(cron = "${order-archive.cron:0 30 3 * * *}")
+    public int archive() {
+        LocalDateTime cutoff = LocalDate.now().minusDays(retentionDays).atStartOfDay();
+        int archived = 0;
+        for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+            int count = archiveBatch(cutoff);
+            archived += count;
+            if (count < batchSize) {
+                break;
+            }
+        }
+        if (archived > 0) {
+            log.info("Archived {} orders placed before {}", archived, cutoff);
+        }
+        return archived;
+    }
+
+    int archiveBatch(LocalDateTime cutoff) {
+        AtomicReference<OrderSegment.Summary> written = new AtomicReference<>();
+        try {
+            Integer count = transactionTemplate.execute(status -> {
+                List<Long> ids = orderRepository.findArchivableIds(FINISHED, cutoff, PageRequest.ofSize(batchSize));
+                if (ids.isEmpty()) {
+                    return 0;
+                }
+                List<OrderResponse> orders = orderMapper.toResponseList(orderRepository.findAllWithOrderLinesByIdIn(ids));
+                try {
+                    written.set(orderArchive.append(orders));
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Could not write archive segment", e);
+                }
+                orderRepository.deleteOrderLinesByOrderIdIn(ids);
+                orderRepository.deleteAllByIdIn(ids);
+                return ids.size();
+            });
+            return count == null ? 0 : count;
+        } catch (RuntimeException e) {
+            // The orders are still in the hot tables, drop the segment so they are not archived twice
+            OrderSegment.Summary segment = written.get();
+            if (segment != null) {
+                try {
+                    orderArchive.discard(segment);
+                } catch (IOException discardFailure) {
+                    e.addSuppressed(discardFailure);
+                }
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package be.vives.pizzastore.service;
+
+import be.vives.pizzastore.domain.*;
+import be.vives.pizzastore.dto.request.CreateOrderRequest;
+import be.vives.pizzastore.dto.response.BatchOrderResponse;
+import be.vives.pizzastore.dto.response.OrderStatusEvent;
+import be.vives.pizzastore.exception.BusinessException;
+import be.vives.pizzastore.mapper.OrderMapper;
+import be.vives.pizzastore.repository.CustomerRepository;
+import be.vives.pizzastore.repository.OrderRepository;
+import be.vives.pizzastore.repository.PizzaRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+// Not @Transactional: every chunk commits on its own, so a bad order never rolls back the rest of the batch
+@Service
+public class OrderBatchService {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderBatchService.class);
+
+    static final int MAX_ORDERS_PER_BATCH = 1000;
+    static final int MAX_LINES_PER_ORDER = 20;
+
+    private final OrderRepository orderRepository;
+    private final CustomerRepository customerRepository;
+    private final PizzaRepository pizzaRepository;
+    private final OrderMapper orderMapper;
+    private final OrderNumberAllocator orderNumberAllocator;
+    private final ApplicationEventPublisher eventPublisher;
+    private final SalesRollupService salesRollupService;
+    private final CustomerStatsService customerStatsService;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+
+    public OrderBatchService(OrderRepository orderRepository,
+                             CustomerRepository customerRepository,
+                             PizzaRepository pizzaRepository,
+                             OrderMapper orderMapper,
+                             OrderNumberAllocator orderNumberAllocator,
+                             ApplicationEventPublisher eventPublisher,
+                             SalesRollupService salesRollupService,
+                             CustomerStatsService customerStatsService,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${order-batch.chunk-size:100}") int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("order-batch.chunk-size must be at least 1");
+        }
+        this.orderRepository = orderRepository;
+        this.customerRepository = customerRepository;
+        this.pizzaRepository = pizzaRepository;
+        this.orderMapper = orderMapper;
+        this.orderNumberAllocator = orderNumberAllocator;
+        this.eventPublisher = eventPublisher;
+        this.salesRollupService = salesRollupService;
+        this.customerStatsService = customerStatsService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+    }
+
+    public BatchOrderResponse createAll(List<CreateOrderRequest> requests) {
+        if (requests == null || requests.isEmpty()) {
+            throw new BusinessException("Batch must contain at least one order");
+        }
+        if (requests.size() > MAX_ORDERS_PER_BATCH) {
+            throw new BusinessException("Batch can contain at most " + MAX_ORDERS_PER_BATCH + " orders");
+        }
+        log.debug("Creating batch of {} orders in chunks of {}", requests.size(), chunkSize);
+
+        BatchOrderResponse.ItemResult[] results = new BatchOrderResponse.ItemResult[requests.size()];
+        for (int from = 0; from < requests.size(); from += chunkSize) {
+            int to = Math.min(from + chunkSize, requests.size());
+            createChunk(requests, IntStream.range(from, to).boxed().toList(), results);
+        }
+
+        List<BatchOrderResponse.ItemResult> resultList = Arrays.asList(results);
+        int created = (int) resultList.stream().filter(BatchOrderResponse.ItemResult::created).count();
+        log.info("Batch created {} of {} orders", created, requests.size());
+
+        return new BatchOrderResponse(requests.size(), created, requests.size() - created, resultList);
+    }
+
+    private void createChunk(List<CreateOrderRequest> requests, List<Integer> indexes,
+                             BatchOrderResponse.ItemResult[] results) {
+        try {
+            collect(transactionTemplate.execute(status -> persist(requests, indexes)), results);
+        } catch (DataAccessException | TransactionException e) {
+            // The database rejected the chunk as a whole, retry its orders one by one to isolate the culprit
+            log.warn("Batch chunk starting at index {} failed, retrying orders individually", indexes.get(0), e);
+            for (Integer index : indexes) {
+                try {
+                    collect(transactionTemplate.execute(status -> persist(requests, List.of(index))), results);
+                } catch (DataAccessException | TransactionException ex) {
+                    results[index] = rejected(index, "Order could not be saved");
+                }
+            }
+        }
+    }
+
+    private List<BatchOrderResponse.ItemResult> persist(List<CreateOrderRequest> requests, List<Integer> indexes) {
+        // Set-based lookups: one query for all customers and one for all pizzas of the chunk
+        Set<Long> customerIds = indexes.stream()
+                .map(index -> requests.get(index).customerId())
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Set<Long> pizzaIds = indexes.stream()
+                .map(requests::get)
+                .filter(request -> request.orderLines() != null)
+                .flatMap(request -> request.orderLines().stream())
+                .filter(line -> line != null && line.pizzaId() != null)
+                .map(CreateOrderRequest.OrderLineRequest::pizzaId)
+                .collect(Collectors.toSet());
+
+        Map<Long, Customer> customersById = customerIds.isEmpty() ? Map.of()
+                : customerRepository.findAllById(customerIds).stream()
+                        .collect(Collectors.toMap(Customer::getId, Function.identity()));
+        Map<Long, Pizza> pizzasById = pizzaIds.isEmpty() ? Map.of()
+                : pizzaRepository.findAllByIdWithNutritionalInfo(pizzaIds).stream()
+                        .collect(Collectors.toMap(Pizza::getId, Function.identity()));
+
+        List<BatchOrderResponse.ItemResult> results = new ArrayList<>();
+        Map<Integer, Order> ordersByIndex = new LinkedHashMap<>();
+        for (Integer index : indexes) {
+            CreateOrderRequest request = requests.get(index);
+            String error = validate(request, customersById, pizzasById);
+            if (error != null) {
+                results.add(rejected(index, error));
+                continue;
+            }
+
+            Order order = new Order(orderNumberAllocator.next(), customersById.get(request.customerId()), OrderStatus.PENDING);
+            for (CreateOrderRequest.OrderLineRequest lineRequest : request.orderLines()) {
+                order.addOrderLine(new OrderLine(pizzasById.get(lineRequest.pizzaId()), lineRequest.quantity()));
+            }
+            ordersByIndex.put(index, order);
+        }
+
+        // Inserts of the whole chunk go out as JDBC batches on flush
+        orderRepository.saveAll(ordersByIndex.values());
+        orderRepository.flush();
+        List<Long> orderIds = ordersByIndex.values().stream().map(Order::getId).toList();
+        salesRollupService.recordCreated(orderIds);
+        customerStatsService.recordCreated(orderIds);
+
+        LocalDateTime now = LocalDateTime.now();
+        ordersByIndex.forEach((index, order) -> {
+            results.add(new BatchOrderResponse.ItemResult(index, true, orderMapper.toResponse(order), null));
+            // Streamed once the chunk commits
+            eventPublisher.publishEvent(new OrderStatusEvent(order.getId(), order.getOrderNumber(),
+                    OrderStatus.PENDING, order.getOrderDate(), now));
+        });
+        return results;
+    }
+
+    // Same rules as a single order: request constraints first, then the business rules of OrderService.create
+    private String validate(CreateOrderRequest request, Map<Long, Customer> customersById, Map<Long, Pizza> pizzasById) {
+        if (request == null) {
+            return "Order is required";
+        }
+        if (request.customerId() == null) {
+            return "Customer ID is required";
+        }
+        if (request.orderLines() == null || request.orderLines().isEmpty()) {
+            return "Order must contain at least one pizza";
+        }
+        if (request.orderLines().size() > MAX_LINES_PER_ORDER) {
+            return "Order can contain between 1 and " + MAX_LINES_PER_ORDER + " pizzas";
+        }
+        if (!customersById.containsKey(request.customerId())) {
+            return "Customer with id " + request.customerId() + " not found";
+        }
+        for (CreateOrderRequest.OrderLineRequest line : request.orderLines()) {
+            if (line == null || line.pizzaId() == null) {
+                return "Pizza ID is required";
+            }
+            if (line.quantity() == null || line.quantity() < 1) {
+                return "Quantity must be at least 1";
+            }
+            Pizza pizza = pizzasById.get(line.pizzaId());
+            if (pizza == null) {
+                return "Pizza with id " + line.pizzaId() + " not found";
+            }
+            if (!pizza.getAvailable()) {
+                return "Pizza '" + pizza.getName() + "' is currently not available";
+            }
+        }
+        return null;
+    }
+
+    private void collect(List<BatchOrderResponse.ItemResult> chunkResults, BatchOrderResponse.ItemResult[] results) {
+        for (BatchOrderResponse.ItemResult result : chunkResults) {
+            results[result.index()] = result;
+        }
+    }
+
+    private BatchOrderResponse.ItemResult rejected(int index, String error) {
+        return new BatchOrderResponse.ItemResult(index, false, null, error);
+    }
+}
@@ -0,0 +1,167 @@
+package be.vives.pizzastore.service;
+
+import be.vives.pizzastore.archive.OrderArchive;
+import be.vives.pizzastore.archive.OrderSegment;
+import be.vives.pizzastore.domain.Order;
+import be.vives.pizzastore.dto.response.OrderExportRow;
+import be.vives.pizzastore.dto.response.OrderResponse;
+import be.vives.pizzastore.exception.BusinessException;
+import be.vives.pizzastore.repository.OrderRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+// Writes the orders placed in a date range as CSV or NDJSON while they are read, so memory use does not
+// grow with the number of orders. Live orders come from a forward-only database stream and the persistence
+// context is cleared every CLEAR_EVERY rows; archived orders are decoded one segment at a time.
+@Service
+public class OrderExportService {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderExportService.class);
+
+    static final int CLEAR_EVERY = 1000;
+    static final String CSV_HEADER = "id,orderNumber,orderDate,customerId,customerName,status,totalAmount";
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    public enum Format {
+        CSV, NDJSON;
+
+        public static Format of(String value) {
+            try {
+                return valueOf(value.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new BusinessException("Unknown export format '" + value + "', use csv or ndjson");
+            }
+        }
+    }
+
+    private final OrderRepository orderRepository;
+    private final OrderArchive orderArchive;
+    private final EntityManager entityManager;
+    private final ObjectWriter jsonWriter;
+
+    public OrderExportService(OrderRepository orderRepository,
+                              OrderArchive orderArchive,
+                              EntityManager entityManager,
+                              ObjectMapper objectMapper) {
+        this.orderRepository = orderRepository;
+        this.orderArchive = orderArchive;
+        this.entityManager = entityManager;
+        // One object per line, the global indent-output setting would spread it over several
+        this.jsonWriter = objectMapper.writer().without(SerializationFeature.INDENT_OUTPUT);
+    }
+
+    // Called before the response is committed, so a bad range still becomes a normal error response
+    public void validateRange(LocalDate from, LocalDate to) {
+        if (from == null || to == null) {
+            throw new BusinessException("'from' and 'to' are required");
+        }
+        if (from.isAfter(to)) {
+            throw new BusinessException("'from' must not be after 'to'");
+        }
+    }
+
+    // Exports the orders placed from 'from' up to and including 'to', archived orders first
+    @Transactional(readOnly = true)
+    public long export(Format format, LocalDate from, LocalDate to, OutputStream out) throws IOException {
+        validateRange(from, to);
+        LocalDateTime start = from.atStartOfDay();
+        LocalDateTime end = to.plusDays(1).atStartOfDay();
+        log.debug("Exporting orders from {} to {} as {}", from, to, format);
+
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        if (format == Format.CSV) {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        }
+
+        long rows = 0;
+        for (OrderSegment.Summary summary : orderArchive.findSegments(null, start, end)) {
+            Iterator<OrderResponse> orders = orderArchive.readAll(summary).stream()
+                    .filter(order -> !order.orderDate().isBefore(start) && order.orderDate().isBefore(end))
+                    .sorted(Comparator.comparing(OrderResponse::orderDate).thenComparing(OrderResponse::id))
+                    .iterator();
+            while (orders.hasNext()) {
+                write(writer, format, toRow(orders.next()));
+                rows++;
+            }
+        }
+
+        try (Stream<Order> orders = orderRepository.streamByOrderDateRange(start, end)) {
+            Iterator<Order> iterator = orders.iterator();
+            while (iterator.hasNext()) {
+                write(writer, format, toRow(iterator.next()));
+                rows++;
+                if (rows % CLEAR_EVERY == 0) {
+                    entityManager.clear();
+                }
+            }
+        }
+        writer.flush();
+
+        log.debug("Exported {} orders", rows);
+        return rows;
+    }
+
+    private void write(Writer writer, Format format, OrderExportRow row) throws IOException {
+        if (format == Format.NDJSON) {
+            writer.write(jsonWriter.writeValueAsString(row));
+        } else {
+            writer.write(String.valueOf(row.id()));
+            writer.write(',');
+            writer.write(csv(row.orderNumber()));
+            writer.write(',');
+            writer.write(DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(row.orderDate()));
+            writer.write(',');
+            writer.write(String.valueOf(row.customerId()));
+            writer.write(',');
+            writer.write(csv(row.customerName()));
+            writer.write(',');
+            writer.write(row.status().name());
+            writer.write(',');
+            writer.write(row.totalAmount().toPlainString());
+        }
+        writer.write('\n');
+    }
+
+    // RFC 4180: quote fields holding a separator, quote or line break and double the quotes inside
+    static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private static OrderExportRow toRow(Order order) {
+        return new OrderExportRow(order.getId(), order.getOrderNumber(), order.getOrderDate(),
+                order.getCustomer().getId(), order.getCustomer().getName(), order.getStatus(), order.getTotalAmount());
+    }
+
+    private static OrderExportRow toRow(OrderResponse order) {
+        return new OrderExportRow(order.id(), order.orderNumber(), order.orderDate(),
+                order.customerId(), order.customerName(), order.status(), order.totalAmount());
+    }
+}
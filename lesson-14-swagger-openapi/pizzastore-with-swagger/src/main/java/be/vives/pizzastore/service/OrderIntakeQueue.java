@@ -0,0 +1,203 @@
+package be.vives.pizzastore.service;
+
+import be.vives.pizzastore.dto.request.CreateOrderRequest;
+import be.vives.pizzastore.dto.response.BatchOrderResponse;
+import be.vives.pizzastore.dto.response.OrderIntakeResponse;
+import be.vives.pizzastore.dto.response.OrderIntakeStatsResponse;
+import be.vives.pizzastore.exception.BusinessException;
+import be.vives.pizzastore.exception.ResourceNotFoundException;
+import be.vives.pizzastore.exception.ServiceUnavailableException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Async intake for POST /api/orders?async=true: orders wait in a bounded buffer and a single writer thread
+// saves them in batches through OrderBatchService, so request latency no longer follows insert latency.
+// Results stay available for polling during order-intake.retention-seconds and are lost on restart.
+// Only the user who submitted an order, or an admin, can poll its result.
+@Component
+public class OrderIntakeQueue {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderIntakeQueue.class);
+
+    private final OrderBatchService orderBatchService;
+    private final BlockingQueue<Entry> buffer;
+    private final int capacity;
+    private final int maxBatchSize;
+    private final long retentionNanos;
+    private final long retryAfterSeconds;
+
+    private final Map<String, Tracked> tracked = new ConcurrentHashMap<>();
+
+    private final AtomicLong accepted = new AtomicLong();
+    private final AtomicLong rejectedWhenFull = new AtomicLong();
+    private final AtomicLong flushes = new AtomicLong();
+    private final AtomicLong totalFlushNanos = new AtomicLong();
+    private final AtomicLong lastFlushNanos = new AtomicLong();
+    private final AtomicLong maxFlushNanos = new AtomicLong();
+
+    private volatile boolean running;
+    private Thread writer;
+
+    public OrderIntakeQueue(OrderBatchService orderBatchService,
+                            @Value("${order-intake.capacity:1000}") int capacity,
+                            @Value("${order-intake.max-batch-size:100}") int maxBatchSize,
+                            @Value("${order-intake.retention-seconds:600}") long retentionSeconds,
+                            @Value("${order-intake.retry-after-seconds:1}") long retryAfterSeconds) {
+        if (capacity < 1 || maxBatchSize < 1 || maxBatchSize > OrderBatchService.MAX_ORDERS_PER_BATCH) {
+            throw new IllegalArgumentException("order-intake.capacity must be at least 1 and order-intake.max-batch-size between 1 and "
+                    + OrderBatchService.MAX_ORDERS_PER_BATCH);
+        }
+        this.orderBatchService = orderBatchService;
+        this.buffer = new ArrayBlockingQueue<>(capacity);
+        this.capacity = capacity;
+        this.maxBatchSize = maxBatchSize;
+        this.retentionNanos = TimeUnit.SECONDS.toNanos(retentionSeconds);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    @PostConstruct
+    void start() {
+        running = true;
+        writer = new Thread(this::writeLoop, "order-intake-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        writer.interrupt();
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+        // Save what was accepted but not yet written
+        while (flushQueued() > 0) {
+            log.debug("Flushed queued orders on shutdown");
+        }
+    }
+
+    public OrderIntakeResponse submit(CreateOrderRequest request, String submittedBy) {
+        // Cheap checks up front, customers and pizzas are validated by the writer
+        if (request.customerId() == null) {
+            throw new BusinessException("Customer ID is required");
+        }
+        if (request.orderLines() == null || request.orderLines().isEmpty()) {
+            throw new BusinessException("Order must contain at least one pizza");
+        }
+
+        String trackingId = UUID.randomUUID().toString();
+        OrderIntakeResponse queued = new OrderIntakeResponse(trackingId, OrderIntakeResponse.State.QUEUED, null, null);
+        tracked.put(trackingId, new Tracked(queued, submittedBy, 0));
+        if (!buffer.offer(new Entry(trackingId, request))) {
+            tracked.remove(trackingId);
+            rejectedWhenFull.incrementAndGet();
+            throw new ServiceUnavailableException("Order intake queue is full, please retry later", retryAfterSeconds);
+        }
+        accepted.incrementAndGet();
+        return queued;
+    }
+
+    // Someone else's tracking id is answered as unknown, so its order is not disclosed
+    public OrderIntakeResponse findByTrackingId(String trackingId, String viewer, boolean admin) {
+        Tracked entry = tracked.get(trackingId);
+        if (entry == null || (!admin && !entry.submittedBy().equals(viewer))) {
+            throw new ResourceNotFoundException("Order intake with tracking id " + trackingId + " not found");
+        }
+        return entry.response();
+    }
+
+    public OrderIntakeStatsResponse stats() {
+        long flushCount = flushes.get();
+        double averageFlushMillis = flushCount == 0 ? 0 : totalFlushNanos.get() / 1_000_000.0 / flushCount;
+        return new OrderIntakeStatsResponse(
+                buffer.size(),
+                capacity,
+                accepted.get(),
+                rejectedWhenFull.get(),
+                flushCount,
+                TimeUnit.NANOSECONDS.toMillis(lastFlushNanos.get()),
+                TimeUnit.NANOSECONDS.toMillis(maxFlushNanos.get()),
+                averageFlushMillis);
+    }
+
+    // Writes whatever is queued right now, without waiting for more
+    int flushQueued() {
+        List<Entry> batch = new ArrayList<>(maxBatchSize);
+        buffer.drainTo(batch, maxBatchSize);
+        if (!batch.isEmpty()) {
+            flush(batch);
+        }
+        return batch.size();
+    }
+
+    private void writeLoop() {
+        while (running) {
+            try {
+                List<Entry> batch = new ArrayList<>(maxBatchSize);
+                batch.add(buffer.take());
+                buffer.drainTo(batch, maxBatchSize - 1);
+                flush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void flush(List<Entry> batch) {
+        long start = System.nanoTime();
+        try {
+            BatchOrderResponse response = orderBatchService.createAll(batch.stream().map(Entry::request).toList());
+            for (BatchOrderResponse.ItemResult result : response.results()) {
+                String trackingId = batch.get(result.index()).trackingId();
+                OrderIntakeResponse.State state = result.created()
+                        ? OrderIntakeResponse.State.CREATED
+                        : OrderIntakeResponse.State.REJECTED;
+                complete(new OrderIntakeResponse(trackingId, state, result.order(), result.error()));
+            }
+        } catch (Throwable e) {
+            // Errors too: an escape would kill the writer and leave the batch QUEUED forever
+            log.error("Writing {} queued orders failed", batch.size(), e);
+            batch.forEach(entry -> complete(new OrderIntakeResponse(
+                    entry.trackingId(), OrderIntakeResponse.State.REJECTED, null, "Order could not be saved")));
+        }
+
+        long elapsed = System.nanoTime() - start;
+        flushes.incrementAndGet();
+        totalFlushNanos.addAndGet(elapsed);
+        lastFlushNanos.set(elapsed);
+        maxFlushNanos.accumulateAndGet(elapsed, Math::max);
+        log.debug("Wrote {} queued orders in {} ms", batch.size(), TimeUnit.NANOSECONDS.toMillis(elapsed));
+
+        evictExpired();
+    }
+
+    private void complete(OrderIntakeResponse response) {
+        tracked.computeIfPresent(response.trackingId(),
+                (trackingId, entry) -> new Tracked(response, entry.submittedBy(), System.nanoTime()));
+    }
+
+    private void evictExpired() {
+        long now = System.nanoTime();
+        tracked.values().removeIf(entry -> entry.completedAt() != 0 && now - entry.completedAt() > retentionNanos);
+    }
+
+    private record Entry(String trackingId, CreateOrderRequest request) {
+    }
+
+    // completedAt is 0 while the order is still queued
+    private record Tracked(OrderIntakeResponse response, String submittedBy, long completedAt) {
+    }
+}
@@ -0,0 +1,107 @@
+package be.vives.pizzastore.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Year;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Hi/lo order number allocation: one sequence call reserves a block of numbers that threads claim
+// with an atomic counter. Each year has its own sequence, so numbering restarts on January 1st.
+// Numbers left in a block at shutdown are skipped: order numbers are unique, not gapless.
+@Component
+public class OrderNumberAllocator {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderNumberAllocator.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate newTransaction;
+    private final int blockSize;
+    private final String nodeId;
+
+    private volatile Block block;
+
+    public OrderNumberAllocator(JdbcTemplate jdbcTemplate,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${order-number.block-size:50}") int blockSize,
+                                @Value("${order-number.node-id:}") String nodeId) {
+        if (blockSize < 1) {
+            throw new IllegalArgumentException("order-number.block-size must be at least 1");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.blockSize = blockSize;
+        this.nodeId = nodeId.isBlank() ? null : nodeId.trim();
+
+        // Sequence DDL must not commit (or roll back with) the caller's order transaction
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public String next() {
+        return next(Year.now().getValue());
+    }
+
+    String next(int year) {
+        while (true) {
+            Block current = block;
+            if (current != null && current.year == year) {
+                long number = current.claim();
+                if (number > 0) {
+                    return format(year, number);
+                }
+            }
+            refill(current, year);
+        }
+    }
+
+    private synchronized void refill(Block exhausted, int year) {
+        // Another thread already replaced the block while we were waiting for the lock
+        if (block != exhausted) {
+            return;
+        }
+        Long hi = newTransaction.execute(status -> nextHi(year));
+        long first = (hi - 1) * blockSize + 1;
+        block = new Block(year, first, blockSize);
+        log.debug("Reserved order numbers {} to {} for {}", first, first + blockSize - 1, year);
+    }
+
+    private Long nextHi(int year) {
+        String sequence = "order_number_seq_" + year;
+        jdbcTemplate.execute("CREATE SEQUENCE IF NOT EXISTS " + sequence);
+        return jdbcTemplate.queryForObject("SELECT NEXT VALUE FOR " + sequence, Long.class);
+    }
+
+    private String format(int year, long number) {
+        String sequencePart = String.format("%06d", number);
+        if (nodeId == null) {
+            return "ORD-" + year + "-" + sequencePart;
+        }
+        return "ORD-" + year + "-" + nodeId + "-" + sequencePart;
+    }
+
+    private static final class Block {
+
+        private final int year;
+        private final long first;
+        private final int size;
+        private final AtomicInteger next = new AtomicInteger();
+
+        private Block(int year, long first, int size) {
+            this.year = year;
+            this.first = first;
+            this.size = size;
+        }
+
+        // Returns the claimed number, or -1 when the block is used up
+        private long claim() {
+            int offset = next.getAndIncrement();
+            return offset < size ? first + offset : -1;
+        }
+    }
+}
@@ -1,22 +1,45 @@
 package be.vives.pizzastore.service;
 
+import be.vives.pizzastore.archive.OrderArchive;
 import be.vives.pizzastore.domain.*;
 import be.vives.pizzastore.dto.request.CreateOrderRequest;
+import be.vives.pizzastore.dto.response.BulkStatusUpdateResponse;
+import be.vives.pizzastore.dto.response.CursorPageResponse;
+import be.vives.pizzastore.dto.response.OrderLineResponse;
 import be.vives.pizzastore.dto.response.OrderResponse;
+import be.vives.pizzastore.dto.response.OrderStatusEvent;
 import be.vives.pizzastore.exception.BusinessException;
+import be.vives.pizzastore.exception.ResourceNotFoundException;
 import be.vives.pizzastore.mapper.OrderMapper;
 import be.vives.pizzastore.repository.CustomerRepository;
 import be.vives.pizzastore.repository.OrderRepository;
 import be.vives.pizzastore.repository.PizzaRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.AuditorAware;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @Transactional
@@ -24,54 +47,125 @@ public class OrderService {
 
     private static final Logger log = LoggerFactory.getLogger(OrderService.class);
 
+    static final int MAX_BULK_STATUS_UPDATES = 500;
+
     private final OrderRepository orderRepository;
     private final CustomerRepository customerRepository;
     private final PizzaRepository pizzaRepository;
     private final OrderMapper orderMapper;
+    private final OrderNumberAllocator orderNumberAllocator;
+    private final ApplicationEventPublisher eventPublisher;
+    private final SalesRollupService salesRollupService;
+    private final CustomerStatsService customerStatsService;
+    private final OrderArchive orderArchive;
+    private final AuditorAware<String> auditorAware;
 
     public OrderService(OrderRepository orderRepository,
                         CustomerRepository customerRepository,
                         PizzaRepository pizzaRepository,
-                        OrderMapper orderMapper) {
+                        OrderMapper orderMapper,
+                        OrderNumberAllocator orderNumberAllocator,
+                        ApplicationEventPublisher eventPublisher,
+                        SalesRollupService salesRollupService,
+                        CustomerStatsService customerStatsService,
+                        OrderArchive orderArchive,
+                        AuditorAware<String> auditorAware) {
         this.orderRepository = orderRepository;
         this.customerRepository = customerRepository;
         this.pizzaRepository = pizzaRepository;
         this.orderMapper = orderMapper;
+        this.orderNumberAllocator = orderNumberAllocator;
+        this.eventPublisher = eventPublisher;
+        this.salesRollupService = salesRollupService;
+        this.customerStatsService = customerStatsService;
+        this.orderArchive = orderArchive;
+        this.auditorAware = auditorAware;
     }
 
     public Page<OrderResponse> findAll(Pageable pageable) {
         log.debug("Finding all orders with pagination: {}", pageable);
-        Page<Order> orderPage = orderRepository.findAll(pageable);
-        return orderPage.map(orderMapper::toResponse);
+        Page<OrderResponse> orderPage = orderRepository.findAllResponses(pageable);
+        return orderPage.map(withOrderLines(orderPage.getContent()));
+    }
+
+    public CursorPageResponse<OrderResponse> findAllAfterCursor(String cursor, int size) {
+        log.debug("Finding orders after cursor: {} with size: {}", cursor, size);
+        // Fetch one extra row to know whether there is a next page without counting
+        Pageable limit = PageRequest.ofSize(size + 1);
+        List<OrderResponse> orders;
+        if (KeysetCursor.isFirstPage(cursor)) {
+            orders = orderRepository.findFirstKeysetResponses(limit);
+        } else {
+            KeysetCursor.OrderKey key = KeysetCursor.decodeOrderKey(cursor);
+            orders = orderRepository.findKeysetResponsesAfter(key.orderDate(), key.id(), limit);
+        }
+
+        boolean hasNext = orders.size() > size;
+        List<OrderResponse> content = hasNext ? orders.subList(0, size) : orders;
+        String nextCursor = null;
+        if (hasNext) {
+            OrderResponse last = content.get(content.size() - 1);
+            nextCursor = KeysetCursor.encode(last.orderDate(), last.id());
+        }
+        return new CursorPageResponse<>(content.stream().map(withOrderLines(content)).toList(), size, hasNext, nextCursor);
     }
 
     public Page<OrderResponse> findByCustomerId(Long customerId, Pageable pageable) {
         log.debug("Finding orders for customer: {}", customerId);
-        Page<Order> orderPage = orderRepository.findAll(pageable);
-        Page<Order> filteredOrders = orderPage
-                .map(order -> order.getCustomer().getId().equals(customerId) ? order : null)
-                .map(order -> order);
-        return filteredOrders.map(orderMapper::toResponse);
+        Page<OrderResponse> orderPage = orderRepository.findResponsesByCustomerId(customerId, pageable);
+        return orderPage.map(withOrderLines(orderPage.getContent()));
     }
 
     public Page<OrderResponse> findByStatus(OrderStatus status, Pageable pageable) {
-        log.debug("Finding orders with status: {}", status);
-        List<Order> orders = orderRepository.findByStatus(status);
-        return orderMapper.toResponseList(orders)
-                .stream()
-                .collect(java.util.stream.Collectors.collectingAndThen(
-                        java.util.stream.Collectors.toList(),
-                        list -> new org.springframework.data.domain.PageImpl<>(
-                                list, pageable, list.size()
-                        )
-                ));
+        log.debug("Finding orders with status: {} and pagination: {}", status, pageable);
+        Page<OrderResponse> orderPage = orderRepository.findResponsesByStatus(status, pageable);
+        return orderPage.map(withOrderLines(orderPage.getContent()));
+    }
+
+    public Slice<OrderResponse> findSliceByStatus(OrderStatus status, Pageable pageable) {
+        log.debug("Finding slice of orders with status: {} and pagination: {}", status, pageable);
+        Slice<OrderResponse> orderSlice = orderRepository.findResponseSliceByStatus(status, pageable);
+        return orderSlice.map(withOrderLines(orderSlice.getContent()));
+    }
+
+    // Reads the lines of all listed orders with one query and returns a function that attaches them
+    private Function<OrderResponse, OrderResponse> withOrderLines(List<OrderResponse> orders) {
+        if (orders.isEmpty()) {
+            return Function.identity();
+        }
+        List<Long> orderIds = orders.stream().map(OrderResponse::id).toList();
+        Map<Long, List<OrderLineResponse>> linesByOrderId = new HashMap<>();
+        for (OrderRepository.OrderLineRow line : orderRepository.findLineRowsByOrderIdIn(orderIds)) {
+            linesByOrderId.computeIfAbsent(line.getOrderId(), id -> new ArrayList<>()).add(new OrderLineResponse(
+                    line.getId(), line.getPizzaId(), line.getPizzaName(), line.getQuantity(),
+                    Money.ofCents(line.getUnitPriceCents()).toBigDecimal(),
+                    Money.ofCents(line.getSubtotalCents()).toBigDecimal()));
+        }
+        return order -> order.withOrderLines(linesByOrderId.getOrDefault(order.id(), List.of()));
+    }
+
+    // Validators of an order in the live table, from one projection query. Archived orders are not
+    // covered, they never change and are validated on their content instead.
+    @Transactional(readOnly = true)
+    public Optional<ResourceVersion> findVersion(Long id) {
+        return orderRepository.findTimestampsById(id).map(timestamps -> {
+            LocalDateTime latest = Stream.of(timestamps.getOrderUpdatedAt(), timestamps.getCustomerUpdatedAt(),
+                            timestamps.getPizzasUpdatedAt())
+                    .filter(Objects::nonNull)
+                    .max(Comparator.naturalOrder())
+                    .orElse(null);
+            return ResourceVersion.of(latest == null ? null : latest.atZone(ZoneId.systemDefault()).toInstant(),
+                    id, timestamps.getOrderUpdatedAt(), timestamps.getCustomerUpdatedAt(),
+                    timestamps.getPizzasUpdatedAt());
+        });
     }
 
     public OrderResponse findById(Long id) {
         log.debug("Finding order with id: {}", id);
         Order order = orderRepository.findByIdWithOrderLines(id).orElse(null);
         if (order == null) {
-            return null;
+            // Finished orders move to the archive after a few weeks
+            return orderArchive.findById(id).orElse(null);
         }
         return orderMapper.toResponse(order);
     }
@@ -84,11 +178,18 @@ public class OrderService {
             throw new BusinessException("Customer with id " + request.customerId() + " not found");
         }
 
-        String orderNumber = generateOrderNumber();
+        String orderNumber = orderNumberAllocator.next();
         Order order = new Order(orderNumber, customer, OrderStatus.PENDING);
 
+        // Load every pizza of the order in a single query and validate in memory
+        Set<Long> pizzaIds = request.orderLines().stream()
+                .map(CreateOrderRequest.OrderLineRequest::pizzaId)
+                .collect(Collectors.toSet());
+        Map<Long, Pizza> pizzasById = pizzaRepository.findAllByIdWithNutritionalInfo(pizzaIds).stream()
+                .collect(Collectors.toMap(Pizza::getId, Function.identity()));
+
         for (CreateOrderRequest.OrderLineRequest lineRequest : request.orderLines()) {
-            Pizza pizza = pizzaRepository.findById(lineRequest.pizzaId()).orElse(null);
+            Pizza pizza = pizzasById.get(lineRequest.pizzaId());
             if (pizza == null) {
                 throw new BusinessException("Pizza with id " + lineRequest.pizzaId() + " not found");
             }
@@ -103,48 +204,146 @@ public class OrderService {
         }
 
         Order savedOrder = orderRepository.save(order);
+        salesRollupService.recordCreated(List.of(savedOrder.getId()));
+        customerStatsService.recordCreated(List.of(savedOrder.getId()));
         log.info("Created order with id: {} and number: {}", savedOrder.getId(), savedOrder.getOrderNumber());
+        eventPublisher.publishEvent(new OrderStatusEvent(savedOrder.getId(), savedOrder.getOrderNumber(),
+                OrderStatus.PENDING, savedOrder.getOrderDate(), LocalDateTime.now()));
 
         return orderMapper.toResponse(savedOrder);
     }
 
     public OrderResponse updateStatus(Long id, OrderStatus status) {
         log.debug("Updating order {} status to: {}", id, status);
-        Order order = orderRepository.findById(id).orElse(null);
-        if (order == null) {
-            return null;
+        if (!compareAndSetStatus(id, status)) {
+            OrderStatus current = orderRepository.findStatusById(id).orElse(null);
+            if (current == null) {
+                return null;
+            }
+            throw new BusinessException("Cannot change order status from " + current + " to " + status);
         }
-        
-        order.setStatus(status);
-        Order updatedOrder = orderRepository.save(order);
+
         log.info("Updated order {} status to: {}", id, status);
-        return orderMapper.toResponse(updatedOrder);
+        if (status == OrderStatus.CANCELLED) {
+            salesRollupService.recordCancelled(List.of(id));
+            customerStatsService.recordCancelled(List.of(id));
+        }
+        publishStatus(id, status);
+        return orderRepository.findById(id).map(orderMapper::toResponse).orElse(null);
+    }
+
+    public BulkStatusUpdateResponse updateStatuses(List<Long> ids, OrderStatus status) {
+        log.debug("Updating status of {} orders to: {}", ids == null ? 0 : ids.size(), status);
+        if (status == null) {
+            throw new BusinessException("Status is required");
+        }
+        if (ids == null || ids.isEmpty()) {
+            throw new BusinessException("At least one order id is required");
+        }
+        Set<Long> requested = new LinkedHashSet<>(ids);
+        if (requested.size() > MAX_BULK_STATUS_UPDATES) {
+            throw new BusinessException("At most " + MAX_BULK_STATUS_UPDATES + " orders can be updated at once");
+        }
+
+        // Classify on one projection query, then move every eligible order with one conditional update
+        Map<Long, OrderStatus> current = orderRepository.findStatusesByIdIn(requested).stream()
+                .collect(Collectors.toMap(OrderRepository.IdAndStatus::getId, OrderRepository.IdAndStatus::getStatus));
+        Set<OrderStatus> expected = status.previousStatuses();
+
+        List<Long> eligible = new ArrayList<>();
+        List<BulkStatusUpdateResponse.Rejected> rejected = new ArrayList<>();
+        for (Long id : requested) {
+            OrderStatus currentStatus = current.get(id);
+            if (currentStatus == null) {
+                rejected.add(new BulkStatusUpdateResponse.Rejected(id, "Order not found"));
+            } else if (!expected.contains(currentStatus)) {
+                rejected.add(new BulkStatusUpdateResponse.Rejected(id,
+                        "Cannot change order status from " + currentStatus + " to " + status));
+            } else {
+                eligible.add(id);
+            }
+        }
+
+        List<Long> updated = eligible;
+        if (!eligible.isEmpty()) {
+            int count = orderRepository.updateStatusesIfIn(eligible, expected, status, LocalDateTime.now(), currentAuditor());
+            if (count < eligible.size()) {
+                // A concurrent update moved some orders in between: re-read those to report who won
+                updated = new ArrayList<>();
+                Map<Long, OrderStatus> after = orderRepository.findStatusesByIdIn(eligible).stream()
+                        .collect(Collectors.toMap(OrderRepository.IdAndStatus::getId, OrderRepository.IdAndStatus::getStatus));
+                for (Long id : eligible) {
+                    OrderStatus afterStatus = after.get(id);
+                    if (afterStatus == status) {
+                        updated.add(id);
+                    } else {
+                        rejected.add(new BulkStatusUpdateResponse.Rejected(id, afterStatus == null
+                                ? "Order not found"
+                                : "Cannot change order status from " + afterStatus + " to " + status));
+                    }
+                }
+            }
+        }
+
+        log.info("Updated {} of {} orders to status: {}", updated.size(), requested.size(), status);
+        if (status == OrderStatus.CANCELLED) {
+            salesRollupService.recordCancelled(updated);
+            customerStatsService.recordCancelled(updated);
+        }
+        updated.forEach(id -> publishStatus(id, status));
+        return new BulkStatusUpdateResponse(status, updated, rejected);
     }
 
     public void cancel(Long id) {
         log.debug("Cancelling order with id: {}", id);
-        Order order = orderRepository.findById(id).orElse(null);
-        if (order == null) {
-            throw new BusinessException("Order with id " + id + " not found");
+        if (!compareAndSetStatus(id, OrderStatus.CANCELLED)) {
+            // Only read the current status to explain why the update did not match
+            OrderStatus current = orderRepository.findStatusById(id)
+                    .orElseThrow(() -> new BusinessException("Order with id " + id + " not found"));
+
+            // Business rule: Cannot cancel already cancelled orders
+            if (current == OrderStatus.CANCELLED) {
+                throw new BusinessException("Order is already cancelled");
+            }
+
+            // Business rule: Cannot cancel delivered orders
+            throw new BusinessException("Cannot cancel order with status " + current);
         }
-        
-        // Business rule: Cannot cancel delivered orders
-        if (order.getStatus() == OrderStatus.DELIVERED) {
-            throw new BusinessException("Cannot cancel order with status " + order.getStatus());
+
+        log.info("Cancelled order with id: {}", id);
+        salesRollupService.recordCancelled(List.of(id));
+        customerStatsService.recordCancelled(List.of(id));
+        publishStatus(id, OrderStatus.CANCELLED);
+    }
+
+    // Current status of an order for its stream, only admins and the customer who placed it may watch
+    @Transactional(readOnly = true)
+    public OrderStatusEvent findStatusForViewer(Long id, String viewerEmail, boolean admin) {
+        OrderRepository.StatusAndOwner order = orderRepository.findStatusAndOwnerById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Order", id));
+        if (!admin && !order.getCustomerEmail().equals(viewerEmail)) {
+            throw new AccessDeniedException("Order " + id + " belongs to another customer");
         }
-        
-        // Business rule: Cannot cancel already cancelled orders
-        if (order.getStatus() == OrderStatus.CANCELLED) {
-            throw new BusinessException("Order is already cancelled");
+        return new OrderStatusEvent(id, order.getStatus(), order.getUpdatedAt());
+    }
+
+    // Delivered to OrderStatusStream after commit
+    private void publishStatus(Long id, OrderStatus status) {
+        eventPublisher.publishEvent(new OrderStatusEvent(id, status, LocalDateTime.now()));
+    }
+
+    // One conditional UPDATE instead of load, check and save: the transition table decides which
+    // current statuses may move to the target, and the database applies it atomically
+    private boolean compareAndSetStatus(Long id, OrderStatus target) {
+        Set<OrderStatus> expected = target.previousStatuses();
+        if (expected.isEmpty()) {
+            return false;
         }
-        
-        order.setStatus(OrderStatus.CANCELLED);
-        orderRepository.save(order);
-        log.info("Cancelled order with id: {}", id);
+        return orderRepository.updateStatusIfIn(id, expected, target, LocalDateTime.now(), currentAuditor()) == 1;
     }
 
-    private String generateOrderNumber() {
-        return "ORD-" + LocalDateTime.now().getYear() + "-" +
-                String.format("%06d", orderRepository.count() + 1);
+    // What @LastModifiedBy would have written, for the updates that bypass the entity
+    private String currentAuditor() {
+        return auditorAware.getCurrentAuditor().orElse(null);
     }
 }
@@ -0,0 +1,178 @@
+package be.vives.pizzastore.service;
+
+import be.vives.pizzastore.dto.response.OrderStatusEvent;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Fans order status changes out to SSE subscribers. Subscribers live in concurrent sets, so publishing never
+// takes a lock. Every subscriber has a bounded outbox drained on a virtual thread: a client that falls
+// order-stream.max-pending events behind is disconnected instead of slowing down the others.
+// Idle connections hold no thread, SseEmitter runs on servlet async and only heartbeats are written.
+@Component
+public class OrderStatusStream {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderStatusStream.class);
+
+    private final Set<Subscriber> allOrders = ConcurrentHashMap.newKeySet();
+    private final Map<Long, Set<Subscriber>> byOrder = new ConcurrentHashMap<>();
+    private final ExecutorService sender = Executors.newVirtualThreadPerTaskExecutor();
+    private final ScheduledExecutorService heartbeats;
+    private final long timeoutMillis;
+    private final int maxPending;
+
+    public OrderStatusStream(@Value("${order-stream.timeout-ms:1800000}") long timeoutMillis,
+                             @Value("${order-stream.heartbeat-seconds:15}") long heartbeatSeconds,
+                             @Value("${order-stream.max-pending:100}") int maxPending) {
+        if (maxPending < 1 || heartbeatSeconds < 1) {
+            throw new IllegalArgumentException("order-stream.max-pending and order-stream.heartbeat-seconds must be at least 1");
+        }
+        this.timeoutMillis = timeoutMillis;
+        this.maxPending = maxPending;
+        this.heartbeats = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("order-stream-heartbeat").daemon().factory());
+        this.heartbeats.scheduleAtFixedRate(this::sendHeartbeats, heartbeatSeconds, heartbeatSeconds, TimeUnit.SECONDS);
+    }
+
+    public SseEmitter subscribeAll() {
+        return register(new SseEmitter(timeoutMillis), null, null);
+    }
+
+    // The current status is sent first, so a screen has state before the first change arrives
+    public SseEmitter subscribe(OrderStatusEvent current) {
+        return register(new SseEmitter(timeoutMillis), current.orderId(), current);
+    }
+
+    // Runs after the order transaction commits, rolled back changes are never streamed
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStatusChanged(OrderStatusEvent event) {
+        allOrders.forEach(subscriber -> subscriber.enqueue(event));
+        Set<Subscriber> watchers = byOrder.get(event.orderId());
+        if (watchers != null) {
+            watchers.forEach(subscriber -> subscriber.enqueue(event));
+        }
+    }
+
+    public int subscriberCount() {
+        return allOrders.size() + byOrder.values().stream().mapToInt(Set::size).sum();
+    }
+
+    SseEmitter register(SseEmitter emitter, Long orderId, OrderStatusEvent current) {
+        Subscriber subscriber = new Subscriber(emitter, orderId);
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(() -> remove(subscriber));
+        emitter.onError(e -> remove(subscriber));
+
+        if (orderId == null) {
+            allOrders.add(subscriber);
+        } else {
+            byOrder.compute(orderId, (id, watchers) -> {
+                Set<Subscriber> set = watchers != null ? watchers : ConcurrentHashMap.newKeySet();
+                set.add(subscriber);
+                return set;
+            });
+        }
+        if (current != null) {
+            subscriber.enqueue(current);
+        }
+        return emitter;
+    }
+
+    void sendHeartbeats() {
+        allOrders.forEach(Subscriber::heartbeat);
+        byOrder.values().forEach(watchers -> watchers.forEach(Subscriber::heartbeat));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        heartbeats.shutdownNow();
+        allOrders.forEach(subscriber -> subscriber.emitter.complete());
+        byOrder.values().forEach(watchers -> watchers.forEach(subscriber -> subscriber.emitter.complete()));
+        sender.shutdown();
+    }
+
+    private void remove(Subscriber subscriber) {
+        if (subscriber.orderId == null) {
+            allOrders.remove(subscriber);
+        } else {
+            byOrder.computeIfPresent(subscriber.orderId, (id, watchers) -> {
+                watchers.remove(subscriber);
+                return watchers.isEmpty() ? null : watchers;
+            });
+        }
+    }
+
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final Long orderId;
+        private final BlockingQueue<OrderStatusEvent> outbox = new ArrayBlockingQueue<>(maxPending);
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private volatile boolean heartbeatDue;
+
+        private Subscriber(SseEmitter emitter, Long orderId) {
+            this.emitter = emitter;
+            this.orderId = orderId;
+        }
+
+        void enqueue(OrderStatusEvent event) {
+            if (!outbox.offer(event)) {
+                log.warn("Disconnecting slow order stream subscriber, {} events pending", maxPending);
+                remove(this);
+                emitter.complete();
+                return;
+            }
+            scheduleDrain();
+        }
+
+        void heartbeat() {
+            heartbeatDue = true;
+            scheduleDrain();
+        }
+
+        private void scheduleDrain() {
+            // At most one drain per subscriber, so events are sent in order
+            if (draining.compareAndSet(false, true)) {
+                sender.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                do {
+                    if (heartbeatDue) {
+                        heartbeatDue = false;
+                        emitter.send(SseEmitter.event().comment("heartbeat"));
+                    }
+                    OrderStatusEvent event;
+                    while ((event = outbox.poll()) != null) {
+                        emitter.send(SseEmitter.event().name("status").data(event));
+                    }
+                    draining.set(false);
+                    // Something may have been queued after the last poll, take the drain back if nobody else did
+                } while ((heartbeatDue || !outbox.isEmpty()) && draining.compareAndSet(false, true));
+            } catch (IOException | IllegalStateException e) {
+                log.debug("Order stream subscriber disconnected: {}", e.getMessage());
+                draining.set(false);
+                remove(this);
+                emitter.completeWithError(e);
+            }
+        }
+    }
+}
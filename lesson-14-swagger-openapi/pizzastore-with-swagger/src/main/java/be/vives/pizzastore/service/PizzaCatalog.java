@@ -0,0 +1,99 @@
+package be.vives.pizzastore.service;
+
+import be.vives.pizzastore.dto.response.PizzaResponse;
+import be.vives.pizzastore.repository.PizzaRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Holds the current CatalogSnapshot that the pizza reads are served from. Loaded from the database at
+// startup with one projection query, then kept up to date from the committed Changed events of
+// PizzaService by swapping in a new snapshot. A scheduled reload picks up changes made elsewhere,
+// for example by another instance or directly in the database. The search index follows the same
+// changes, and is always updated before the snapshot so a reader that sees a new ETag also sees the
+// matching search results.
+@Component
+public class PizzaCatalog {
+
+    private static final Logger log = LoggerFactory.getLogger(PizzaCatalog.class);
+
+    private final PizzaRepository pizzaRepository;
+    private volatile CatalogSnapshot snapshot = CatalogSnapshot.EMPTY;
+    private volatile PizzaSearchIndex searchIndex = new PizzaSearchIndex();
+    // Bumped on every applied change, so a reload that raced with a change does not overwrite it
+    private final AtomicLong changes = new AtomicLong();
+
+    public PizzaCatalog(PizzaRepository pizzaRepository) {
+        this.pizzaRepository = pizzaRepository;
+    }
+
+    // pizza is null when the pizza was deleted
+    public record Changed(Long pizzaId, PizzaResponse pizza) {
+    }
+
+    public CatalogSnapshot snapshot() {
+        return snapshot;
+    }
+
+    public PizzaSearchIndex searchIndex() {
+        return searchIndex;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void seed() {
+        reload();
+    }
+
+    // Returns whether a new snapshot was swapped in
+    @Scheduled(fixedDelayString = "${pizza-catalog.reload-interval-ms:300000}",
+            initialDelayString = "${pizza-catalog.reload-interval-ms:300000}")
+    public boolean reload() {
+        long before = changes.get();
+        List<PizzaResponse> pizzas = pizzaRepository.findCatalog();
+        Map<Long, Instant> modifiedAt = new HashMap<>();
+        for (PizzaRepository.IdAndUpdatedAt pizza : pizzaRepository.findCatalogUpdatedAt()) {
+            if (pizza.getUpdatedAt() != null) {
+                modifiedAt.put(pizza.getId(), pizza.getUpdatedAt().atZone(ZoneId.systemDefault()).toInstant());
+            }
+        }
+        synchronized (this) {
+            if (changes.get() != before) {
+                log.debug("Pizza catalog changed during reload, keeping the current snapshot");
+                return false;
+            }
+            CatalogSnapshot loaded = CatalogSnapshot.of(pizzas, modifiedAt);
+            // An unchanged catalog keeps its snapshot, so Last-Modified only moves when something changed
+            if (loaded.version().etag().equals(snapshot.version().etag())) {
+                log.debug("Pizza catalog unchanged, keeping the current snapshot");
+                return false;
+            }
+            searchIndex = PizzaSearchIndex.of(pizzas);
+            snapshot = loaded;
+        }
+        log.info("Pizza catalog loaded with {} pizzas", pizzas.size());
+        return true;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onPizzaChanged(Changed event) {
+        if (event.pizza() == null) {
+            searchIndex.remove(event.pizzaId());
+        } else {
+            searchIndex.put(event.pizza());
+        }
+        // Applied after commit, so now is at or after the updatedAt the change wrote
+        snapshot = event.pizza() == null ? snapshot.without(event.pizzaId()) : snapshot.with(event.pizza(), Instant.now());
+        changes.incrementAndGet();
+    }
+}
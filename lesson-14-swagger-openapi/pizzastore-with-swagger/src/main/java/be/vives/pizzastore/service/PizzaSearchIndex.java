@@ -0,0 +1,249 @@
+package be.vives.pizzastore.service;
+
+import be.vives.pizzastore.dto.response.PizzaResponse;
+
+import java.text.Normalizer;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+// Inverted index over the name and description of the pizzas, ranked with BM25. Terms are lower-cased,
+// stripped of accents and split on anything that is not a letter or digit; name terms count three times.
+// A query term that is not in the vocabulary is expanded to the terms it prefixes and to the terms within
+// a small edit distance, found through a trigram index over the vocabulary, so "margarita" and "pepp"
+// still match. Updated in place per pizza, searches run concurrently under a read lock.
+public final class PizzaSearchIndex {
+
+    static final double K1 = 1.2;
+    static final double B = 0.75;
+    static final int NAME_BOOST = 3;
+    static final int MIN_FUZZY_LENGTH = 4;
+    static final int MAX_EXPANSIONS = 20;
+    // Expanded terms score lower than an exact hit
+    static final double PREFIX_WEIGHT = 0.8;
+    static final double FUZZY_WEIGHT = 0.5;
+
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Set<String> STOP_WORDS = Set.of("a", "an", "and", "the", "of", "with", "in", "on", "or");
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Document> documents = new HashMap<>();
+    // Sorted so the terms with a given prefix are one sub map
+    private final NavigableMap<String, Map<Long, Integer>> postings = new TreeMap<>();
+    private final Map<String, Set<String>> termsByTrigram = new HashMap<>();
+    private long totalLength;
+
+    private record Document(PizzaResponse pizza, Map<String, Integer> frequencies, int length) {
+    }
+
+    private record Hit(PizzaResponse pizza, double score) {
+    }
+
+    public static PizzaSearchIndex of(Collection<PizzaResponse> pizzas) {
+        PizzaSearchIndex index = new PizzaSearchIndex();
+        for (PizzaResponse pizza : pizzas) {
+            index.put(pizza);
+        }
+        return index;
+    }
+
+    // Adds the pizza, or replaces the indexed version with the same id
+    public void put(PizzaResponse pizza) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        for (String term : tokenize(pizza.name())) {
+            frequencies.merge(term, NAME_BOOST, Integer::sum);
+        }
+        for (String term : tokenize(pizza.description())) {
+            frequencies.merge(term, 1, Integer::sum);
+        }
+        int length = frequencies.values().stream().mapToInt(Integer::intValue).sum();
+
+        lock.writeLock().lock();
+        try {
+            removeDocument(pizza.id());
+            documents.put(pizza.id(), new Document(pizza, frequencies, length));
+            totalLength += length;
+            for (Map.Entry<String, Integer> entry : frequencies.entrySet()) {
+                Map<Long, Integer> posting = postings.computeIfAbsent(entry.getKey(), term -> {
+                    for (String trigram : trigrams(term)) {
+                        termsByTrigram.computeIfAbsent(trigram, key -> new HashSet<>()).add(term);
+                    }
+                    return new HashMap<>();
+                });
+                posting.put(pizza.id(), entry.getValue());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long id) {
+        lock.writeLock().lock();
+        try {
+            removeDocument(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Best matches first, equal scores by id. Pizzas match when they contain any of the query terms.
+    public List<PizzaResponse> search(String query, int limit) {
+        List<String> queryTerms = tokenize(query);
+        lock.readLock().lock();
+        try {
+            if (documents.isEmpty() || queryTerms.isEmpty()) {
+                return List.of();
+            }
+            double averageLength = (double) totalLength / documents.size();
+            Map<Long, Double> scores = new HashMap<>();
+            for (String queryTerm : queryTerms) {
+                for (Map.Entry<String, Double> expansion : expand(queryTerm).entrySet()) {
+                    Map<Long, Integer> posting = postings.get(expansion.getKey());
+                    double idf = Math.log(1 + (documents.size() - posting.size() + 0.5) / (posting.size() + 0.5));
+                    for (Map.Entry<Long, Integer> hit : posting.entrySet()) {
+                        int length = documents.get(hit.getKey()).length();
+                        double frequency = hit.getValue();
+                        double score = idf * frequency * (K1 + 1)
+                                / (frequency + K1 * (1 - B + B * length / averageLength));
+                        scores.merge(hit.getKey(), expansion.getValue() * score, Double::sum);
+                    }
+                }
+            }
+            return scores.entrySet().stream()
+                    .map(entry -> new Hit(documents.get(entry.getKey()).pizza(), entry.getValue()))
+                    .sorted(Comparator.comparingDouble(Hit::score).reversed()
+                            .thenComparing(hit -> hit.pizza().id()))
+                    .limit(limit)
+                    .map(Hit::pizza)
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Vocabulary terms a query term stands for, with their weight. An exact hit is used on its own.
+    private Map<String, Double> expand(String queryTerm) {
+        if (postings.containsKey(queryTerm)) {
+            return Map.of(queryTerm, 1.0);
+        }
+        Map<String, Double> expansions = new HashMap<>();
+        if (queryTerm.length() >= 3) {
+            for (String term : postings.subMap(queryTerm, true, queryTerm + Character.MAX_VALUE, false).keySet()) {
+                if (expansions.size() == MAX_EXPANSIONS) {
+                    break;
+                }
+                expansions.put(term, PREFIX_WEIGHT);
+            }
+        }
+        if (queryTerm.length() >= MIN_FUZZY_LENGTH) {
+            int maxDistance = queryTerm.length() <= 5 ? 1 : 2;
+            Set<String> queryTrigrams = trigrams(queryTerm);
+            Map<String, Integer> shared = new HashMap<>();
+            for (String trigram : queryTrigrams) {
+                for (String term : termsByTrigram.getOrDefault(trigram, Set.of())) {
+                    shared.merge(term, 1, Integer::sum);
+                }
+            }
+            // Each edit breaks at most three trigrams, terms sharing fewer can not be close enough
+            int minShared = queryTrigrams.size() - 3 * maxDistance;
+            shared.entrySet().stream()
+                    .filter(entry -> entry.getValue() >= minShared)
+                    .map(Map.Entry::getKey)
+                    .filter(term -> Math.abs(term.length() - queryTerm.length()) <= maxDistance)
+                    .filter(term -> distance(queryTerm, term, maxDistance) <= maxDistance)
+                    .sorted()
+                    .limit(MAX_EXPANSIONS)
+                    .forEach(term -> expansions.putIfAbsent(term, FUZZY_WEIGHT));
+        }
+        return expansions;
+    }
+
+    private void removeDocument(Long id) {
+        Document document = documents.remove(id);
+        if (document == null) {
+            return;
+        }
+        totalLength -= document.length();
+        for (String term : document.frequencies().keySet()) {
+            Map<Long, Integer> posting = postings.get(term);
+            posting.remove(id);
+            if (posting.isEmpty()) {
+                postings.remove(term);
+                for (String trigram : trigrams(term)) {
+                    Set<String> terms = termsByTrigram.get(trigram);
+                    terms.remove(term);
+                    if (terms.isEmpty()) {
+                        termsByTrigram.remove(trigram);
+                    }
+                }
+            }
+        }
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        List<String> terms = new ArrayList<>();
+        for (String term : words(text)) {
+            if (term.length() > 1 && !STOP_WORDS.contains(term)) {
+                terms.add(term);
+            }
+        }
+        return terms;
+    }
+
+    // Lower-cased words without accents, split on anything that is not a letter or digit. SuggestionIndex
+    // folds names the same way, so search and suggestions agree on what matches.
+    static String[] words(String text) {
+        String folded = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("")
+                .toLowerCase(Locale.ROOT);
+        return Arrays.stream(SEPARATORS.split(folded)).filter(word -> !word.isEmpty()).toArray(String[]::new);
+    }
+
+    // Trigrams of the term padded with a space on both sides, so the first and last letters count too
+    static Set<String> trigrams(String term) {
+        String padded = " " + term + " ";
+        Set<String> trigrams = new HashSet<>();
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            trigrams.add(padded.substring(i, i + 3));
+        }
+        return trigrams;
+    }
+
+    // Levenshtein distance, stops early once every cell of a row is above the maximum
+    static int distance(String a, String b, int max) {
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > max) {
+                return max + 1;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()];
+    }
+}
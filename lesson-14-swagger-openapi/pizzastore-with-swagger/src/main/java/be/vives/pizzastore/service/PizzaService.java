@@ -2,19 +2,23 @@ package be.vives.pizzastore.service;
 
 import be.vives.pizzastore.domain.Pizza;
 import be.vives.pizzastore.dto.request.CreatePizzaRequest;
+import be.vives.pizzastore.dto.request.PizzaFilter;
 import be.vives.pizzastore.dto.request.UpdatePizzaRequest;
 import be.vives.pizzastore.dto.response.PizzaResponse;
+import be.vives.pizzastore.dto.response.PizzaSuggestionResponse;
+import be.vives.pizzastore.exception.BusinessException;
 import be.vives.pizzastore.mapper.PizzaMapper;
 import be.vives.pizzastore.repository.PizzaRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.math.BigDecimal;
 import java.util.List;
 import java.util.Optional;
 
@@ -24,44 +28,82 @@ public class PizzaService {
 
     private static final Logger log = LoggerFactory.getLogger(PizzaService.class);
 
+    static final int MAX_SEARCH_RESULTS = 100;
+    static final int MAX_SUGGESTIONS = 20;
+
     private final PizzaRepository pizzaRepository;
     private final PizzaMapper pizzaMapper;
     private final FileStorageService fileStorageService;
+    private final PizzaCatalog pizzaCatalog;
+    private final PizzaSuggestions pizzaSuggestions;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public PizzaService(PizzaRepository pizzaRepository, PizzaMapper pizzaMapper, FileStorageService fileStorageService) {
+    public PizzaService(PizzaRepository pizzaRepository,
+                        PizzaMapper pizzaMapper,
+                        FileStorageService fileStorageService,
+                        PizzaCatalog pizzaCatalog,
+                        PizzaSuggestions pizzaSuggestions,
+                        ApplicationEventPublisher eventPublisher) {
         this.pizzaRepository = pizzaRepository;
         this.pizzaMapper = pizzaMapper;
         this.fileStorageService = fileStorageService;
+        this.pizzaCatalog = pizzaCatalog;
+        this.pizzaSuggestions = pizzaSuggestions;
+        this.eventPublisher = eventPublisher;
     }
 
+    // Reads are served from the in-memory catalog: no transaction, no query and no entity
+    @Transactional(propagation = Propagation.SUPPORTS)
     public Page<PizzaResponse> findAll(Pageable pageable) {
         log.debug("Finding pizzas with pagination: {}", pageable);
-        Page<Pizza> pizzaPage = pizzaRepository.findAll(pageable);
-        return pizzaPage.map(pizzaMapper::toResponse);
+        return pizzaCatalog.snapshot().findAll(pageable);
+    }
+
+    // Validators for conditional requests, read before the body so a change in between only costs a 200
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public ResourceVersion catalogVersion() {
+        return pizzaCatalog.snapshot().version();
     }
 
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public Optional<ResourceVersion> findVersion(Long id) {
+        return pizzaCatalog.snapshot().version(id);
+    }
+
+    @Transactional(propagation = Propagation.SUPPORTS)
     public Optional<PizzaResponse> findById(Long id) {
         log.debug("Finding pizza with id: {}", id);
-        return pizzaRepository.findById(id)
-                .map(pizzaMapper::toResponse);
+        return pizzaCatalog.snapshot().findById(id);
     }
 
-    public List<PizzaResponse> findByPriceLessThan(BigDecimal maxPrice) {
-        log.debug("Finding pizzas with price less than: {}", maxPrice);
-        List<Pizza> pizzas = pizzaRepository.findByPriceLessThan(maxPrice);
-        return pizzaMapper.toResponseList(pizzas);
+    // Any combination of the filters, always paged
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public Page<PizzaResponse> find(PizzaFilter filter, Pageable pageable) {
+        log.debug("Finding pizzas matching {} with pagination: {}", filter, pageable);
+        return pizzaCatalog.snapshot().find(filter, pageable);
     }
 
-    public List<PizzaResponse> findByPriceBetween(BigDecimal minPrice, BigDecimal maxPrice) {
-        log.debug("Finding pizzas with price between {} and {}", minPrice, maxPrice);
-        List<Pizza> pizzas = pizzaRepository.findByPriceBetween(minPrice, maxPrice);
-        return pizzaMapper.toResponseList(pizzas);
+    // Ranked search over name and description, tolerant of typos, served from the in-memory index
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<PizzaResponse> search(String query, int limit) {
+        if (query == null || query.isBlank()) {
+            throw new BusinessException("Search query must not be empty");
+        }
+        if (limit < 1 || limit > MAX_SEARCH_RESULTS) {
+            throw new BusinessException("Limit must be between 1 and " + MAX_SEARCH_RESULTS);
+        }
+        log.debug("Searching pizzas for '{}'", query);
+        return pizzaCatalog.searchIndex().search(query, limit);
     }
 
-    public List<PizzaResponse> findByNameContaining(String name) {
-        log.debug("Finding pizzas with name containing: {}", name);
-        List<Pizza> pizzas = pizzaRepository.findByNameContainingIgnoreCase(name);
-        return pizzaMapper.toResponseList(pizzas);
+    // Type-ahead on the pizza names, an empty prefix has no suggestions
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<PizzaSuggestionResponse> suggest(String prefix, int limit) {
+        if (limit < 1 || limit > MAX_SUGGESTIONS) {
+            throw new BusinessException("Limit must be between 1 and " + MAX_SUGGESTIONS);
+        }
+        log.debug("Suggesting pizzas for '{}'", prefix);
+        return pizzaSuggestions.suggest(prefix == null ? "" : prefix, limit);
     }
 
     public PizzaResponse create(CreatePizzaRequest request) {
@@ -75,7 +117,7 @@ public class PizzaService {
         
         Pizza savedPizza = pizzaRepository.save(pizza);
         log.info("Created pizza with id: {}", savedPizza.getId());
-        return pizzaMapper.toResponse(savedPizza);
+        return publish(pizzaMapper.toResponse(savedPizza));
     }
 
     public Optional<PizzaResponse> update(Long id, UpdatePizzaRequest request) {
@@ -91,7 +133,7 @@ public class PizzaService {
                     
                     Pizza updatedPizza = pizzaRepository.save(pizza);
                     log.info("Updated pizza with id: {}", id);
-                    return pizzaMapper.toResponse(updatedPizza);
+                    return publish(pizzaMapper.toResponse(updatedPizza));
                 });
     }
 
@@ -100,6 +142,7 @@ public class PizzaService {
         if (pizzaRepository.existsById(id)) {
             pizzaRepository.deleteById(id);
             log.info("Deleted pizza with id: {}", id);
+            eventPublisher.publishEvent(new PizzaCatalog.Changed(id, null));
             return true;
         }
         log.warn("Pizza with id {} not found for deletion", id);
@@ -114,7 +157,13 @@ public class PizzaService {
                     pizza.setImageUrl(imageUrl);
                     Pizza updatedPizza = pizzaRepository.save(pizza);
                     log.info("Updated image URL for pizza with id: {}", id);
-                    return pizzaMapper.toResponse(updatedPizza);
+                    return publish(pizzaMapper.toResponse(updatedPizza));
                 });
     }
+
+    // Applied to the catalog after commit
+    private PizzaResponse publish(PizzaResponse pizza) {
+        eventPublisher.publishEvent(new PizzaCatalog.Changed(pizza.id(), pizza));
+        return pizza;
+    }
 }
@@ -0,0 +1,83 @@
+package be.vives.pizzastore.service;
+
+import be.vives.pizzastore.dto.response.PizzaResponse;
+import be.vives.pizzastore.dto.response.PizzaSuggestionResponse;
+import be.vives.pizzastore.repository.PizzaRepository;
+import be.vives.pizzastore.repository.SalesRollupRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+// Holds the SuggestionIndex behind the type-ahead endpoint, the same way PizzaCatalog holds the catalog:
+// loaded at startup, kept up to date from the committed Changed events of PizzaService, and reloaded on
+// a schedule. The reload also refreshes the popularity, the units sold per pizza over the last days
+// according to the sales rollups.
+@Component
+public class PizzaSuggestions {
+
+    private static final Logger log = LoggerFactory.getLogger(PizzaSuggestions.class);
+
+    private final PizzaRepository pizzaRepository;
+    private final SalesRollupRepository salesRollupRepository;
+    private final int popularityDays;
+    private volatile SuggestionIndex index = SuggestionIndex.EMPTY;
+    // Bumped on every applied change, so a reload that raced with a change does not overwrite it
+    private final AtomicLong changes = new AtomicLong();
+
+    public PizzaSuggestions(PizzaRepository pizzaRepository,
+                            SalesRollupRepository salesRollupRepository,
+                            @Value("${pizza-suggest.popularity-days:90}") int popularityDays) {
+        this.pizzaRepository = pizzaRepository;
+        this.salesRollupRepository = salesRollupRepository;
+        this.popularityDays = popularityDays;
+    }
+
+    public List<PizzaSuggestionResponse> suggest(String prefix, int limit) {
+        return index.suggest(prefix, limit);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void seed() {
+        reload();
+    }
+
+    // Returns whether the new index was swapped in
+    @Scheduled(fixedDelayString = "${pizza-suggest.reload-interval-ms:3600000}",
+            initialDelayString = "${pizza-suggest.reload-interval-ms:3600000}")
+    public boolean reload() {
+        long before = changes.get();
+        List<PizzaResponse> pizzas = pizzaRepository.findCatalog();
+        Map<Long, Long> popularity = salesRollupRepository
+                .sumQuantityPerPizzaFrom(LocalDate.now().minusDays(popularityDays)).stream()
+                .collect(Collectors.toMap(SalesRollupRepository.PizzaQuantity::getPizzaId,
+                        SalesRollupRepository.PizzaQuantity::getQuantity));
+        SuggestionIndex loaded = SuggestionIndex.of(pizzas, popularity);
+        synchronized (this) {
+            if (changes.get() != before) {
+                log.debug("Pizza catalog changed during reload, keeping the current suggestions");
+                return false;
+            }
+            index = loaded;
+        }
+        log.info("Pizza suggestions loaded with {} pizzas, {} with sales in the last {} days",
+                pizzas.size(), popularity.size(), popularityDays);
+        return true;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onPizzaChanged(PizzaCatalog.Changed event) {
+        index = event.pizza() == null ? index.without(event.pizzaId()) : index.with(event.pizza());
+        changes.incrementAndGet();
+    }
+}
@@ -0,0 +1,32 @@
+package be.vives.pizzastore.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
+
+// Validators of one representation for conditional GET requests: a strong ETag and, when known, the
+// Last-Modified time. The controllers compare them with If-None-Match / If-Modified-Since before the
+// body is built, so a 304 costs neither mapping nor serialization.
+public record ResourceVersion(String etag, Instant lastModified) {
+
+    // Strong ETag from the first 64 bits of a SHA-256 over the string form of the parts
+    public static ResourceVersion of(Instant lastModified, Object... parts) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (Object part : parts) {
+                digest.update(String.valueOf(part).getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) '\n');
+            }
+            return new ResourceVersion('"' + HexFormat.of().formatHex(digest.digest(), 0, 8) + '"', lastModified);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    // -1 tells WebRequest.checkNotModified that there is no Last-Modified to check
+    public long lastModifiedMillis() {
+        return lastModified == null ? -1 : lastModified.toEpochMilli();
+    }
+}
@@ -0,0 +1,192 @@
+package be.vives.pizzastore.service;
+
+import be.vives.pizzastore.archive.OrderArchive;
+import be.vives.pizzastore.domain.Money;
+import be.vives.pizzastore.domain.SalesGranularity;
+import be.vives.pizzastore.dto.response.SalesReportResponse;
+import be.vives.pizzastore.dto.response.SalesRollupRebuildResponse;
+import be.vives.pizzastore.exception.BusinessException;
+import be.vives.pizzastore.repository.SalesRollupRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcOperations;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Connection;
+import java.sql.Savepoint;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+// Keeps the hourly sales rollups in step with the orders. The record methods join the transaction of
+// the caller, so a rollup change commits or rolls back together with the order change behind it.
+// Reports read only the rollups, never orders or order lines.
+@Service
+@Transactional
+public class SalesRollupService {
+
+    private static final Logger log = LoggerFactory.getLogger(SalesRollupService.class);
+
+    static final int MAX_REPORT_DAYS = 366;
+    static final int DEFAULT_REPORT_DAYS = 7;
+    static final int MAX_MERGE_ATTEMPTS = 3;
+    static final long MERGE_RETRY_PAUSE_MILLIS = 5;
+
+    // Adds (sign 1) or subtracts (sign -1) the lines of the given orders in one statement: the lines are
+    // grouped per hour, pizza and slot in the database and merged into the existing buckets
+    static final String MERGE_ORDERS = """
+            MERGE INTO sales_rollups r
+            USING (SELECT sales_date, sales_hour, pizza_id, slot,
+                          :sign * SUM(quantity) AS quantity,
+                          :sign * SUM(subtotal_cents) AS revenue_cents
+                   FROM (SELECT CAST(o.order_date AS DATE) AS sales_date,
+                                EXTRACT(HOUR FROM o.order_date) AS sales_hour,
+                                l.pizza_id AS pizza_id,
+                                MOD(o.id, :slots) AS slot,
+                                l.quantity AS quantity,
+                                l.subtotal_cents AS subtotal_cents
+                         FROM orders o JOIN order_lines l ON l.order_id = o.id
+                         WHERE o.id IN (:orderIds)) sold
+                   GROUP BY sales_date, sales_hour, pizza_id, slot) s
+            ON (r.sales_date = s.sales_date AND r.sales_hour = s.sales_hour AND r.pizza_id = s.pizza_id AND r.slot = s.slot)
+            WHEN MATCHED THEN UPDATE SET quantity = r.quantity + s.quantity,
+                                         revenue_cents = r.revenue_cents + s.revenue_cents
+            WHEN NOT MATCHED THEN INSERT (sales_date, sales_hour, pizza_id, slot, quantity, revenue_cents)
+                                  VALUES (s.sales_date, s.sales_hour, s.pizza_id, s.slot, s.quantity, s.revenue_cents)
+            """;
+
+    private final SalesRollupRepository salesRollupRepository;
+    private final OrderArchive orderArchive;
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final int slots;
+
+    public SalesRollupService(SalesRollupRepository salesRollupRepository,
+                              OrderArchive orderArchive,
+                              NamedParameterJdbcTemplate jdbcTemplate,
+                              @Value("${sales-rollup.slots:8}") int slots) {
+        if (slots < 1) {
+            throw new IllegalArgumentException("sales-rollup.slots must be at least 1");
+        }
+        this.salesRollupRepository = salesRollupRepository;
+        this.orderArchive = orderArchive;
+        this.jdbcTemplate = jdbcTemplate;
+        this.slots = slots;
+    }
+
+    public void recordCreated(Collection<Long> orderIds) {
+        if (!orderIds.isEmpty()) {
+            merge(orderIds, 1);
+        }
+    }
+
+    public void recordCancelled(Collection<Long> orderIds) {
+        if (!orderIds.isEmpty()) {
+            merge(orderIds, -1);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public SalesReportResponse findSales(LocalDate from, LocalDate to, SalesGranularity granularity) {
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusDays(DEFAULT_REPORT_DAYS - 1);
+        if (start.isAfter(end)) {
+            throw new BusinessException("'from' must not be after 'to'");
+        }
+        if (ChronoUnit.DAYS.between(start, end) >= MAX_REPORT_DAYS) {
+            throw new BusinessException("A sales report can span at most " + MAX_REPORT_DAYS + " days");
+        }
+        log.debug("Finding {} sales from {} to {}", granularity, start, end);
+
+        List<? extends SalesRollupRepository.DailySales> rows = granularity == SalesGranularity.HOUR
+                ? salesRollupRepository.findHourly(start, end)
+                : salesRollupRepository.findDaily(start, end);
+
+        List<SalesReportResponse.Bucket> buckets = new ArrayList<>(rows.size());
+        long totalQuantity = 0;
+        Money totalRevenue = Money.ZERO;
+        for (SalesRollupRepository.DailySales row : rows) {
+            Integer hour = row instanceof SalesRollupRepository.HourlySales hourly ? hourly.getSalesHour() : null;
+            Money revenue = Money.ofCents(row.getRevenueCents());
+            buckets.add(new SalesReportResponse.Bucket(row.getSalesDate(), hour, row.getPizzaId(), row.getPizzaName(),
+                    row.getQuantity(), revenue.toBigDecimal()));
+            totalQuantity += row.getQuantity();
+            totalRevenue = totalRevenue.plus(revenue);
+        }
+        return new SalesReportResponse(start, end, granularity, totalQuantity, totalRevenue.toBigDecimal(), buckets);
+    }
+
+    // Recomputes the rollups from the raw orders, for after a data fix or when the rollups are suspected
+    // to have drifted. Orders committed while the rebuild runs may be missed, run it in a quiet period.
+    // Days that were archived keep their rollups: their orders are no longer in the hot tables.
+    public SalesRollupRebuildResponse rebuild() {
+        long start = System.nanoTime();
+        int buckets;
+        LocalDate firstHotDay = orderArchive.latestOrderDate()
+                .map(latest -> latest.toLocalDate().plusDays(1))
+                .orElse(null);
+        if (firstHotDay == null) {
+            salesRollupRepository.deleteAllRollups();
+            buckets = salesRollupRepository.insertFromOrders();
+        } else {
+            salesRollupRepository.deleteRollupsFrom(firstHotDay);
+            buckets = salesRollupRepository.insertFromOrdersFrom(firstHotDay.atStartOfDay());
+        }
+        long durationMillis = (System.nanoTime() - start) / 1_000_000;
+        log.info("Rebuilt {} sales rollups in {} ms", buckets, durationMillis);
+        return new SalesRollupRebuildResponse(buckets, durationMillis);
+    }
+
+    // A MERGE is not an atomic upsert: two transactions creating the same new bucket both take the insert
+    // branch and the second one fails on the unique key. Its statement is undone up to a savepoint and run
+    // again once the other transaction committed, then the bucket is there and is updated. Runs through JDBC:
+    // a failed statement in Hibernate would mark the whole transaction, and so the order, for rollback.
+    private void merge(Collection<Long> orderIds, int sign) {
+        // The statement reads the order lines from the database, so write out those saved in this transaction
+        salesRollupRepository.flush();
+        MapSqlParameterSource parameters = new MapSqlParameterSource()
+                .addValue("orderIds", orderIds)
+                .addValue("sign", sign)
+                .addValue("slots", slots);
+        JdbcOperations jdbc = jdbcTemplate.getJdbcOperations();
+        for (int attempt = 1; ; attempt++) {
+            Savepoint savepoint = jdbc.execute((ConnectionCallback<Savepoint>) Connection::setSavepoint);
+            try {
+                jdbcTemplate.update(MERGE_ORDERS, parameters);
+                return;
+            } catch (DataIntegrityViolationException | ConcurrencyFailureException e) {
+                if (attempt == MAX_MERGE_ATTEMPTS) {
+                    throw e;
+                }
+                log.debug("Sales rollup bucket is being created concurrently, merging {} orders again", orderIds.size());
+                jdbc.execute((ConnectionCallback<Void>) connection -> {
+                    connection.rollback(savepoint);
+                    return null;
+                });
+                pause(attempt);
+            } finally {
+                jdbc.execute((ConnectionCallback<Void>) connection -> {
+                    connection.releaseSavepoint(savepoint);
+                    return null;
+                });
+            }
+        }
+    }
+
+    // Gives the transaction that inserted the bucket first a moment to commit
+    private static void pause(int attempt) {
+        try {
+            Thread.sleep(MERGE_RETRY_PAUSE_MILLIS * attempt);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package be.vives.pizzastore.service;
+
+import be.vives.pizzastore.dto.response.PizzaResponse;
+import be.vives.pizzastore.dto.response.PizzaSuggestionResponse;
+
+import java.util.*;
+
+// Immutable, sorted-array prefix index over the pizza names for type-ahead suggestions. Every name is
+// folded like the search index does (lower case, no accents, single spaces) and stored once from each
+// word on, so "form" finds "Quattro Formaggi" as well as "quattro f". The keys with a given prefix are
+// one range of the array, found with a binary search; the most popular pizzas in that range are picked
+// with a small heap. A change produces a new index, like CatalogSnapshot.
+public final class SuggestionIndex {
+
+    // Most sold first, then alphabetical
+    private static final Comparator<Entry> RANK = Comparator.comparingLong(Entry::popularity).reversed()
+            .thenComparing(Entry::folded)
+            .thenComparing(entry -> entry.pizza().id());
+    private static final Comparator<Entry> BY_KEY = Comparator.comparing(Entry::key)
+            .thenComparing(entry -> entry.pizza().id());
+
+    public static final SuggestionIndex EMPTY = new SuggestionIndex(new Entry[0]);
+
+    private record Entry(String key, String folded, PizzaSuggestionResponse pizza, long popularity) {
+    }
+
+    private final Entry[] entries;
+    private final String[] keys;
+
+    private SuggestionIndex(Entry[] entries) {
+        this.entries = entries;
+        this.keys = new String[entries.length];
+        for (int i = 0; i < entries.length; i++) {
+            keys[i] = entries[i].key();
+        }
+    }
+
+    // Unavailable pizzas can not be ordered and are left out, pizzas without sales have popularity 0
+    public static SuggestionIndex of(Collection<PizzaResponse> pizzas, Map<Long, Long> popularity) {
+        List<Entry> entries = new ArrayList<>();
+        for (PizzaResponse pizza : pizzas) {
+            entries.addAll(entriesOf(pizza, popularity.getOrDefault(pizza.id(), 0L)));
+        }
+        Entry[] sorted = entries.toArray(Entry[]::new);
+        Arrays.sort(sorted, BY_KEY);
+        return new SuggestionIndex(sorted);
+    }
+
+    // Copy with the pizza added or replaced, a replaced pizza keeps its popularity
+    public SuggestionIndex with(PizzaResponse pizza) {
+        long popularity = 0;
+        for (Entry entry : entries) {
+            if (entry.pizza().id().equals(pizza.id())) {
+                popularity = entry.popularity();
+                break;
+            }
+        }
+        Entry[] added = entriesOf(pizza, popularity).toArray(Entry[]::new);
+        Arrays.sort(added, BY_KEY);
+        Entry[] kept = without(pizza.id()).entries;
+
+        // Merge the two sorted arrays
+        Entry[] merged = new Entry[kept.length + added.length];
+        int i = 0;
+        int j = 0;
+        for (int k = 0; k < merged.length; k++) {
+            if (j == added.length || (i < kept.length && BY_KEY.compare(kept[i], added[j]) <= 0)) {
+                merged[k] = kept[i++];
+            } else {
+                merged[k] = added[j++];
+            }
+        }
+        return new SuggestionIndex(merged);
+    }
+
+    public SuggestionIndex without(Long id) {
+        Entry[] kept = Arrays.stream(entries).filter(entry -> !entry.pizza().id().equals(id)).toArray(Entry[]::new);
+        return kept.length == entries.length ? this : new SuggestionIndex(kept);
+    }
+
+    // Distinct pizzas, best ranked first
+    public List<PizzaSuggestionResponse> suggest(String prefix, int limit) {
+        String folded = String.join(" ", PizzaSearchIndex.words(prefix));
+        if (folded.isEmpty()) {
+            return List.of();
+        }
+        // Worst of the best so far on top, so it is the one pushed out
+        PriorityQueue<Entry> best = new PriorityQueue<>(limit + 1, RANK.reversed());
+        Set<Long> ids = new HashSet<>();
+        for (int i = lowerBound(folded); i < keys.length && keys[i].startsWith(folded); i++) {
+            Entry entry = entries[i];
+            if (ids.contains(entry.pizza().id())) {
+                continue;
+            }
+            if (best.size() < limit) {
+                best.add(entry);
+                ids.add(entry.pizza().id());
+            } else if (RANK.compare(entry, best.peek()) < 0) {
+                ids.remove(best.poll().pizza().id());
+                best.add(entry);
+                ids.add(entry.pizza().id());
+            }
+        }
+        List<Entry> ranked = new ArrayList<>(best);
+        ranked.sort(RANK);
+        return ranked.stream().map(Entry::pizza).toList();
+    }
+
+    public int size() {
+        return entries.length;
+    }
+
+    private static List<Entry> entriesOf(PizzaResponse pizza, long popularity) {
+        if (Boolean.FALSE.equals(pizza.available()) || pizza.name() == null) {
+            return List.of();
+        }
+        String[] words = PizzaSearchIndex.words(pizza.name());
+        String folded = String.join(" ", words);
+        PizzaSuggestionResponse suggestion = new PizzaSuggestionResponse(pizza.id(), pizza.name(), pizza.price());
+        List<Entry> entries = new ArrayList<>(words.length);
+        for (int i = 0; i < words.length; i++) {
+            String key = String.join(" ", Arrays.asList(words).subList(i, words.length));
+            entries.add(new Entry(key, folded, suggestion, popularity));
+        }
+        return entries;
+    }
+
+    // First index whose key is not smaller than the prefix
+    private int lowerBound(String prefix) {
+        int low = 0;
+        int high = keys.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keys[mid].compareTo(prefix) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
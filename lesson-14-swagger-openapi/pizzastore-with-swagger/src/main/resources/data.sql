@@ -1,17 +1,17 @@
 -- Pizzas (with audit fields - will be set by JPA Auditing)
-INSERT INTO pizzas (name, description, price, image_url, available, created_at, updated_at) VALUES
-('Margherita', 'Classic tomato sauce, fresh mozzarella, basil, and extra virgin olive oil', 8.99, 'https://images.unsplash.com/photo-1574071318508-1cdbab80d002', true, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP),
-('Pepperoni', 'Tomato sauce, mozzarella, and spicy pepperoni slices', 10.99, 'https://images.unsplash.com/photo-1628840042765-356cda07504e', true, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP),
-('Quattro Formaggi', 'Four cheese blend: mozzarella, gorgonzola, parmesan, and fontina', 11.99, 'https://images.unsplash.com/photo-1571997478779-2adcbbe9ab2f', true, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP),
-('Vegetariana', 'Fresh vegetables: bell peppers, mushrooms, onions, tomatoes, and olives', 9.99, 'https://images.unsplash.com/photo-1627626775846-122c3f8e3e3b', true, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP),
-('Diavola', 'Spicy salami, hot peppers, tomato sauce, and mozzarella', 12.99, 'https://images.unsplash.com/photo-1593560708920-61dd98c46a4e', true, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP),
-('Hawaii', 'Ham, pineapple, tomato sauce, and mozzarella', 11.49, 'https://images.unsplash.com/photo-1565299624946-b28f40a0ae38', true, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP),
-('Funghi', 'Mushrooms, tomato sauce, mozzarella, and fresh herbs', 10.49, 'https://images.unsplash.com/photo-1513104890138-7c749659a591', true, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP),
-('Prosciutto', 'Italian prosciutto, arugula, parmesan shavings, and mozzarella', 13.99, 'https://images.unsplash.com/photo-1571407970349-bc81e7e96a47', true, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP),
-('Marinara', 'Tomato sauce, garlic, oregano, and extra virgin olive oil (no cheese)', 7.99, null, true, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP),
-('Capricciosa', 'Ham, mushrooms, artichokes, olives, tomato sauce, and mozzarella', 12.49, 'https://images.unsplash.com/photo-1595854341625-f33ee10dbf94', true, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP),
-('BBQ Chicken', 'Grilled chicken, BBQ sauce, red onions, and mozzarella', 13.49, null, true, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP),
-('Tonno', 'Tuna, red onions, capers, tomato sauce, and mozzarella', 11.99, null, true, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP);
+INSERT INTO pizzas (name, description, price_cents, image_url, available, created_at, updated_at) VALUES
+('Margherita', 'Classic tomato sauce, fresh mozzarella, basil, and extra virgin olive oil', 899, 'https://images.unsplash.com/photo-1574071318508-1cdbab80d002', true, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP),
+('Pepperoni', 'Tomato sauce, mozzarella, and spicy pepperoni slices', 1099, 'https://images.unsplash.com/photo-1628840042765-356cda07504e', true, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP),
+('Quattro Formaggi', 'Four cheese blend: mozzarella, gorgonzola, parmesan, and fontina', 1199, 'https://images.unsplash.com/photo-1571997478779-2adcbbe9ab2f', true, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP),
+('Vegetariana', 'Fresh vegetables: bell peppers, mushrooms, onions, tomatoes, and olives', 999, 'https://images.unsplash.com/photo-1627626775846-122c3f8e3e3b', true, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP),
+('Diavola', 'Spicy salami, hot peppers, tomato sauce, and mozzarella', 1299, 'https://images.unsplash.com/photo-1593560708920-61dd98c46a4e', true, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP),
+('Hawaii', 'Ham, pineapple, tomato sauce, and mozzarella', 1149, 'https://images.unsplash.com/photo-1565299624946-b28f40a0ae38', true, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP),
+('Funghi', 'Mushrooms, tomato sauce, mozzarella, and fresh herbs', 1049, 'https://images.unsplash.com/photo-1513104890138-7c749659a591', true, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP),
+('Prosciutto', 'Italian prosciutto, arugula, parmesan shavings, and mozzarella', 1399, 'https://images.unsplash.com/photo-1571407970349-bc81e7e96a47', true, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP),
+('Marinara', 'Tomato sauce, garlic, oregano, and extra virgin olive oil (no cheese)', 799, null, true, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP),
+('Capricciosa', 'Ham, mushrooms, artichokes, olives, tomato sauce, and mozzarella', 1249, 'https://images.unsplash.com/photo-1595854341625-f33ee10dbf94', true, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP),
+('BBQ Chicken', 'Grilled chicken, BBQ sauce, red onions, and mozzarella', 1349, null, true, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP),
+('Tonno', 'Tuna, red onions, capers, tomato sauce, and mozzarella', 1199, null, true, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP);
 
 -- Nutritional Info for Pizzas
 INSERT INTO nutritional_info (calories, protein, carbohydrates, fat, pizza_id) VALUES
@@ -32,13 +32,13 @@ INSERT INTO nutritional_info (calories, protein, carbohydrates, fat, pizza_id) V
 -- Password format: "password123" encoded with BCrypt
 -- For testing: email: emma.johnson@example.com, password: password123
 -- For admin: email: admin@pizzastore.be, password: password123
-INSERT INTO customers (name, email, password, phone, address, role, created_at, updated_at) VALUES
-('Emma Johnson', 'emma.johnson@example.com', '$2a$10$wvw30spxLOR1gV/NYh86ruw8J1rPa8MvkZwG0ru7VuRECMfARo0ri', '+32 470 12 34 56', 'Rue de la Loi 123, 1000 Brussels', 'CUSTOMER', CURRENT_TIMESTAMP, CURRENT_TIMESTAMP),
-('Liam Smith', 'liam.smith@example.com', '$2a$10$wvw30spxLOR1gV/NYh86ruw8J1rPa8MvkZwG0ru7VuRECMfARo0ri', '+32 471 23 45 67', 'Meir 45, 2000 Antwerp', 'CUSTOMER', CURRENT_TIMESTAMP, CURRENT_TIMESTAMP),
-('Olivia Brown', 'olivia.brown@example.com', '$2a$10$wvw30spxLOR1gV/NYh86ruw8J1rPa8MvkZwG0ru7VuRECMfARo0ri', '+32 472 34 56 78', 'Korenmarkt 12, 9000 Ghent', 'CUSTOMER', CURRENT_TIMESTAMP, CURRENT_TIMESTAMP),
-('Noah Davis', 'noah.davis@example.com', '$2a$10$wvw30spxLOR1gV/NYh86ruw8J1rPa8MvkZwG0ru7VuRECMfARo0ri', '+32 473 45 67 89', 'Grand Place 1, 7000 Mons', 'CUSTOMER', CURRENT_TIMESTAMP, CURRENT_TIMESTAMP),
-('Ava Wilson', 'ava.wilson@example.com', '$2a$10$wvw30spxLOR1gV/NYh86ruw8J1rPa8MvkZwG0ru7VuRECMfARo0ri', '+32 474 56 78 90', 'Boulevard Tirou 89, 6000 Charleroi', 'CUSTOMER', CURRENT_TIMESTAMP, CURRENT_TIMESTAMP),
-('Admin User', 'admin@pizzastore.be', '$2a$10$wvw30spxLOR1gV/NYh86ruw8J1rPa8MvkZwG0ru7VuRECMfARo0ri', '+32 475 67 89 01', 'Headquarters, 1000 Brussels', 'ADMIN', CURRENT_TIMESTAMP, CURRENT_TIMESTAMP);
+INSERT INTO customers (name, email, password, phone, address, role, order_count, total_spent_cents, created_at, updated_at) VALUES
+('Emma Johnson', 'emma.johnson@example.com', '$2a$10$wvw30spxLOR1gV/NYh86ruw8J1rPa8MvkZwG0ru7VuRECMfARo0ri', '+32 470 12 34 56', 'Rue de la Loi 123, 1000 Brussels', 'CUSTOMER', 0, 0, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP),
+('Liam Smith', 'liam.smith@example.com', '$2a$10$wvw30spxLOR1gV/NYh86ruw8J1rPa8MvkZwG0ru7VuRECMfARo0ri', '+32 471 23 45 67', 'Meir 45, 2000 Antwerp', 'CUSTOMER', 0, 0, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP),
+('Olivia Brown', 'olivia.brown@example.com', '$2a$10$wvw30spxLOR1gV/NYh86ruw8J1rPa8MvkZwG0ru7VuRECMfARo0ri', '+32 472 34 56 78', 'Korenmarkt 12, 9000 Ghent', 'CUSTOMER', 0, 0, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP),
+('Noah Davis', 'noah.davis@example.com', '$2a$10$wvw30spxLOR1gV/NYh86ruw8J1rPa8MvkZwG0ru7VuRECMfARo0ri', '+32 473 45 67 89', 'Grand Place 1, 7000 Mons', 'CUSTOMER', 0, 0, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP),
+('Ava Wilson', 'ava.wilson@example.com', '$2a$10$wvw30spxLOR1gV/NYh86ruw8J1rPa8MvkZwG0ru7VuRECMfARo0ri', '+32 474 56 78 90', 'Boulevard Tirou 89, 6000 Charleroi', 'CUSTOMER', 0, 0, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP),
+('Admin User', 'admin@pizzastore.be', '$2a$10$wvw30spxLOR1gV/NYh86ruw8J1rPa8MvkZwG0ru7VuRECMfARo0ri', '+32 475 67 89 01', 'Headquarters, 1000 Brussels', 'ADMIN', 0, 0, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP);
 
 -- Favorite Pizzas (Many-to-Many relationship)
 INSERT INTO customer_favorite_pizzas (customer_id, pizza_id) VALUES
@@ -49,64 +49,82 @@ INSERT INTO customer_favorite_pizzas (customer_id, pizza_id) VALUES
 (5, 3), (5, 7), (5, 10); -- Ava likes Quattro Formaggi, Funghi, Capricciosa
 
 -- Orders
-INSERT INTO orders (order_number, order_date, total_amount, status, customer_id, created_at, updated_at) VALUES
-('ORD-20240115-00001', '2024-01-15 12:30:00', 20.98, 'DELIVERED', 1, '2024-01-15 12:30:00', '2024-01-15 14:15:00'),
-('ORD-20240115-00002', '2024-01-15 14:00:00', 22.98, 'DELIVERED', 2, '2024-01-15 14:00:00', '2024-01-15 15:45:00'),
-('ORD-20240116-00003', '2024-01-16 10:15:00', 34.97, 'DELIVERED', 3, '2024-01-16 10:15:00', '2024-01-16 12:30:00'),
-('ORD-20240116-00004', '2024-01-16 18:45:00', 24.98, 'DELIVERED', 1, '2024-01-16 18:45:00', '2024-01-16 20:15:00'),
-('ORD-20240117-00005', '2024-01-17 11:00:00', 13.99, 'DELIVERED', 4, '2024-01-17 11:00:00', '2024-01-17 12:45:00'),
-('ORD-20240117-00006', '2024-01-17 19:30:00', 36.47, 'DELIVERED', 5, '2024-01-17 19:30:00', '2024-01-17 21:00:00'),
-('ORD-20240118-00007', '2024-01-18 12:00:00', 21.98, 'READY', 2, '2024-01-18 12:00:00', '2024-01-18 12:45:00'),
-('ORD-20240118-00008', '2024-01-18 13:15:00', 32.97, 'PREPARING', 3, '2024-01-18 13:15:00', '2024-01-18 13:30:00'),
-('ORD-20240118-00009', '2024-01-18 17:00:00', 25.48, 'CONFIRMED', 1, '2024-01-18 17:00:00', '2024-01-18 17:05:00'),
-('ORD-20240118-00010', '2024-01-18 19:00:00', 18.98, 'PENDING', 4, '2024-01-18 19:00:00', '2024-01-18 19:00:00');
+INSERT INTO orders (id, order_number, order_date, total_amount_cents, status, customer_id, created_at, updated_at) VALUES
+(1, 'ORD-20240115-00001', '2024-01-15 12:30:00', 2098, 'DELIVERED', 1, '2024-01-15 12:30:00', '2024-01-15 14:15:00'),
+(2, 'ORD-20240115-00002', '2024-01-15 14:00:00', 2298, 'DELIVERED', 2, '2024-01-15 14:00:00', '2024-01-15 15:45:00'),
+(3, 'ORD-20240116-00003', '2024-01-16 10:15:00', 3497, 'DELIVERED', 3, '2024-01-16 10:15:00', '2024-01-16 12:30:00'),
+(4, 'ORD-20240116-00004', '2024-01-16 18:45:00', 2498, 'DELIVERED', 1, '2024-01-16 18:45:00', '2024-01-16 20:15:00'),
+(5, 'ORD-20240117-00005', '2024-01-17 11:00:00', 1399, 'DELIVERED', 4, '2024-01-17 11:00:00', '2024-01-17 12:45:00'),
+(6, 'ORD-20240117-00006', '2024-01-17 19:30:00', 3647, 'DELIVERED', 5, '2024-01-17 19:30:00', '2024-01-17 21:00:00'),
+(7, 'ORD-20240118-00007', '2024-01-18 12:00:00', 2198, 'READY', 2, '2024-01-18 12:00:00', '2024-01-18 12:45:00'),
+(8, 'ORD-20240118-00008', '2024-01-18 13:15:00', 3297, 'PREPARING', 3, '2024-01-18 13:15:00', '2024-01-18 13:30:00'),
+(9, 'ORD-20240118-00009', '2024-01-18 17:00:00', 2548, 'CONFIRMED', 1, '2024-01-18 17:00:00', '2024-01-18 17:05:00'),
+(10, 'ORD-20240118-00010', '2024-01-18 19:00:00', 1898, 'PENDING', 4, '2024-01-18 19:00:00', '2024-01-18 19:00:00');
 
 -- Order Lines (linking orders to pizzas)
 -- Order 1: Emma - Margherita x2, Quattro Formaggi x1
-INSERT INTO order_lines (order_id, pizza_id, quantity, unit_price, subtotal) VALUES
-(1, 1, 2, 8.99, 17.98),
-(1, 3, 1, 11.99, 11.99);
+INSERT INTO order_lines (id, order_id, pizza_id, quantity, unit_price_cents, subtotal_cents) VALUES
+(1, 1, 1, 2, 899, 1798),
+(2, 1, 3, 1, 1199, 1199);
 
 -- Order 2: Liam - Pepperoni x1, Diavola x1
-INSERT INTO order_lines (order_id, pizza_id, quantity, unit_price, subtotal) VALUES
-(2, 2, 1, 10.99, 10.99),
-(2, 5, 1, 12.99, 12.99);
+INSERT INTO order_lines (id, order_id, pizza_id, quantity, unit_price_cents, subtotal_cents) VALUES
+(3, 2, 2, 1, 1099, 1099),
+(4, 2, 5, 1, 1299, 1299);
 
 -- Order 3: Olivia - Vegetariana x2, Marinara x2
-INSERT INTO order_lines (order_id, pizza_id, quantity, unit_price, subtotal) VALUES
-(3, 4, 2, 9.99, 19.98),
-(3, 9, 2, 7.99, 15.98);
+INSERT INTO order_lines (id, order_id, pizza_id, quantity, unit_price_cents, subtotal_cents) VALUES
+(5, 3, 4, 2, 999, 1998),
+(6, 3, 9, 2, 799, 1598);
 
 -- Order 4: Emma - Pepperoni x1, Diavola x1
-INSERT INTO order_lines (order_id, pizza_id, quantity, unit_price, subtotal) VALUES
-(4, 2, 1, 10.99, 10.99),
-(4, 5, 1, 12.99, 12.99);
+INSERT INTO order_lines (id, order_id, pizza_id, quantity, unit_price_cents, subtotal_cents) VALUES
+(7, 4, 2, 1, 1099, 1099),
+(8, 4, 5, 1, 1299, 1299);
 
 -- Order 5: Noah - Prosciutto x1
-INSERT INTO order_lines (order_id, pizza_id, quantity, unit_price, subtotal) VALUES
-(5, 8, 1, 13.99, 13.99);
+INSERT INTO order_lines (id, order_id, pizza_id, quantity, unit_price_cents, subtotal_cents) VALUES
+(9, 5, 8, 1, 1399, 1399);
 
 -- Order 6: Ava - Quattro Formaggi x2, Capricciosa x1
-INSERT INTO order_lines (order_id, pizza_id, quantity, unit_price, subtotal) VALUES
-(6, 3, 2, 11.99, 23.98),
-(6, 10, 1, 12.49, 12.49);
+INSERT INTO order_lines (id, order_id, pizza_id, quantity, unit_price_cents, subtotal_cents) VALUES
+(10, 6, 3, 2, 1199, 2398),
+(11, 6, 10, 1, 1249, 1249);
 
 -- Order 7: Liam - Pepperoni x2
-INSERT INTO order_lines (order_id, pizza_id, quantity, unit_price, subtotal) VALUES
-(7, 2, 2, 10.99, 21.98);
+INSERT INTO order_lines (id, order_id, pizza_id, quantity, unit_price_cents, subtotal_cents) VALUES
+(12, 7, 2, 2, 1099, 2198);
 
 -- Order 8: Olivia - Margherita x1, Funghi x1, Hawaii x1
-INSERT INTO order_lines (order_id, pizza_id, quantity, unit_price, subtotal) VALUES
-(8, 1, 1, 8.99, 8.99),
-(8, 7, 1, 10.49, 10.49),
-(8, 6, 1, 11.49, 11.49);
+INSERT INTO order_lines (id, order_id, pizza_id, quantity, unit_price_cents, subtotal_cents) VALUES
+(13, 8, 1, 1, 899, 899),
+(14, 8, 7, 1, 1049, 1049),
+(15, 8, 6, 1, 1149, 1149);
 
 -- Order 9: Emma - BBQ Chicken x1, Tonno x1
-INSERT INTO order_lines (order_id, pizza_id, quantity, unit_price, subtotal) VALUES
-(9, 11, 1, 13.49, 13.49),
-(9, 12, 1, 11.99, 11.99);
+INSERT INTO order_lines (id, order_id, pizza_id, quantity, unit_price_cents, subtotal_cents) VALUES
+(16, 9, 11, 1, 1349, 1349),
+(17, 9, 12, 1, 1199, 1199);
 
 -- Order 10: Noah - Margherita x1, Vegetariana x1
-INSERT INTO order_lines (order_id, pizza_id, quantity, unit_price, subtotal) VALUES
-(10, 1, 1, 8.99, 8.99),
-(10, 4, 1, 9.99, 9.99);
+INSERT INTO order_lines (id, order_id, pizza_id, quantity, unit_price_cents, subtotal_cents) VALUES
+(18, 10, 1, 1, 899, 899),
+(19, 10, 4, 1, 999, 999);
+
+-- Orders and order lines use pooled sequences (allocation size 50): move them past the ids used above
+ALTER SEQUENCE orders_seq RESTART WITH 100;
+ALTER SEQUENCE order_lines_seq RESTART WITH 100;
+
+-- Sales rollups for the orders above (same statement as the rebuild), cancelled orders excluded
+INSERT INTO sales_rollups (sales_date, sales_hour, pizza_id, slot, quantity, revenue_cents)
+SELECT CAST(o.order_date AS DATE), EXTRACT(HOUR FROM o.order_date), l.pizza_id, 0, SUM(l.quantity), SUM(l.subtotal_cents)
+FROM orders o JOIN order_lines l ON l.order_id = o.id
+WHERE o.status <> 'CANCELLED'
+GROUP BY CAST(o.order_date AS DATE), EXTRACT(HOUR FROM o.order_date), l.pizza_id;
+
+-- Customer order statistics for the orders above (same statement as the repair), cancelled orders excluded
+UPDATE customers c SET
+    order_count = (SELECT COUNT(*) FROM orders o WHERE o.customer_id = c.id AND o.status <> 'CANCELLED'),
+    total_spent_cents = (SELECT COALESCE(SUM(o.total_amount_cents), 0) FROM orders o
+                         WHERE o.customer_id = c.id AND o.status <> 'CANCELLED'),
+    last_order_date = (SELECT MAX(o.order_date) FROM orders o WHERE o.customer_id = c.id);
@@ -0,0 +1,188 @@
+package be.vives.pizzastore.archive;
+
+import be.vives.pizzastore.domain.Money;
+import be.vives.pizzastore.domain.OrderStatus;
+import be.vives.pizzastore.dto.response.OrderLineResponse;
+import be.vives.pizzastore.dto.response.OrderResponse;
+import be.vives.pizzastore.repository.ArchiveSegmentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class ArchiveScannerTest {
+
+    private static final Logger log = LoggerFactory.getLogger(ArchiveScannerTest.class);
+
+    private static final LocalDateTime START = LocalDateTime.of(2023, 1, 1, 11, 0);
+
+    @TempDir
+    Path directory;
+
+    private OrderArchive orderArchive;
+    private final List<OrderResponse> orders = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        orderArchive = new OrderArchive(directory, mock(ArchiveSegmentRepository.class));
+        orderArchive.load();
+    }
+
+    @Test
+    void scan_groupByPizzaAndMonth_shouldMatchSumsOverAllLines() throws Exception {
+        // Arrange
+        archive(6, 500);
+        ArchiveQuery query = new ArchiveQuery(null, null, null, null, Set.of(),
+                List.of(ArchiveDimension.PIZZA, ArchiveDimension.MONTH));
+
+        // Act
+        ArchiveScanner.Result result = scanner(4).scan(query);
+
+        // Assert
+        Map<String, long[]> expected = new TreeMap<>();
+        for (OrderResponse order : orders) {
+            YearMonth month = YearMonth.from(order.orderDate());
+            for (OrderLineResponse line : order.orderLines()) {
+                long[] sums = expected.computeIfAbsent(line.pizzaId() + "/" + month, k -> new long[2]);
+                sums[0] += line.quantity();
+                sums[1] += Money.of(line.subtotal()).cents();
+            }
+        }
+        Map<String, long[]> actual = new TreeMap<>();
+        result.groups().forEach((key, sums) -> actual.put(
+                ArchiveDimension.PIZZA.format(key.first()) + "/" + ArchiveDimension.MONTH.format(key.second()),
+                new long[]{sums[ArchiveScanner.QUANTITY], sums[ArchiveScanner.REVENUE_CENTS]}));
+        assertThat(actual).containsOnlyKeys(expected.keySet());
+        expected.forEach((key, sums) -> assertThat(actual.get(key)).as(key).containsExactly(sums));
+        assertThat(result.segmentsScanned()).isEqualTo(6);
+        assertThat(result.ordersScanned()).isEqualTo(orders.size());
+    }
+
+    @Test
+    void scan_groupByCustomerWithFilters_shouldCountOrdersOnce() throws Exception {
+        // Arrange
+        archive(3, 200);
+        LocalDateTime from = START.plusDays(10);
+        LocalDateTime to = START.plusDays(40);
+        ArchiveQuery query = new ArchiveQuery(from, to, null, null, Set.of(OrderStatus.DELIVERED),
+                List.of(ArchiveDimension.CUSTOMER));
+
+        // Act
+        ArchiveScanner.Result result = scanner(2).scan(query);
+
+        // Assert
+        Map<Long, long[]> expected = new HashMap<>();
+        for (OrderResponse order : orders) {
+            if (order.status() == OrderStatus.DELIVERED
+                    && !order.orderDate().isBefore(from) && !order.orderDate().isAfter(to)) {
+                long[] sums = expected.computeIfAbsent(order.customerId(), k -> new long[2]);
+                sums[0]++;
+                sums[1] += Money.of(order.totalAmount()).cents();
+            }
+        }
+        assertThat(result.groups()).hasSize(expected.size());
+        expected.forEach((customerId, sums) -> {
+            long[] actual = result.groups().get(new ArchiveScanner.GroupKey(customerId, 0));
+            assertThat(actual[ArchiveScanner.ORDERS]).isEqualTo(sums[0]);
+            assertThat(actual[ArchiveScanner.REVENUE_CENTS]).isEqualTo(sums[1]);
+        });
+    }
+
+    @Test
+    void scan_withCustomerFilter_shouldSkipSegmentsWithoutThatCustomer() throws Exception {
+        // Arrange
+        archive(2, 50);
+        orderArchive.append(List.of(order(1_000_000L, 999L, START, 1)));
+        ArchiveQuery query = new ArchiveQuery(null, null, 999L, null, Set.of(), List.of(ArchiveDimension.STATUS));
+
+        // Act
+        ArchiveScanner.Result result = scanner(2).scan(query);
+
+        // Assert
+        assertThat(result.segmentsScanned()).isEqualTo(1);
+        assertThat(result.groups()).hasSize(1);
+    }
+
+    @Test
+    void scan_benchmark_parallelMatchesSequentialAndReportsRowsPerSecondPerCore() throws Exception {
+        // Arrange
+        archive(16, 5_000);
+        ArchiveQuery query = new ArchiveQuery(null, null, null, null, Set.of(),
+                List.of(ArchiveDimension.PIZZA, ArchiveDimension.MONTH));
+        int cores = Runtime.getRuntime().availableProcessors();
+        ArchiveScanner sequential = scanner(1);
+        ArchiveScanner parallel = scanner(cores);
+
+        // Act: warm up, then keep the best of a few runs
+        ArchiveScanner.Result sequentialResult = best(sequential, query);
+        ArchiveScanner.Result parallelResult = best(parallel, query);
+
+        // Assert
+        assertThat(parallelResult.groups().keySet()).isEqualTo(sequentialResult.groups().keySet());
+        sequentialResult.groups().forEach((key, sums) ->
+                assertThat(parallelResult.groups().get(key)).containsExactly(sums));
+        log.info("Archive scan of {} lines: 1 thread {} lines/s, {} threads {} lines/s ({} lines/s per core)",
+                sequentialResult.linesScanned(),
+                linesPerSecond(sequentialResult),
+                cores, linesPerSecond(parallelResult), linesPerSecond(parallelResult) / cores);
+        sequential.shutdown();
+        parallel.shutdown();
+    }
+
+    private ArchiveScanner.Result best(ArchiveScanner scanner, ArchiveQuery query) {
+        ArchiveScanner.Result best = null;
+        for (int run = 0; run < 5; run++) {
+            ArchiveScanner.Result result = scanner.scan(query);
+            if (best == null || result.elapsedNanos() < best.elapsedNanos()) {
+                best = result;
+            }
+        }
+        return best;
+    }
+
+    private long linesPerSecond(ArchiveScanner.Result result) {
+        return result.linesScanned() * 1_000_000_000L / Math.max(1, result.elapsedNanos());
+    }
+
+    private ArchiveScanner scanner(int parallelism) {
+        return new ArchiveScanner(orderArchive, parallelism);
+    }
+
+    // Consecutive ids and dates, spread over a few months, customers and pizzas
+    private void archive(int segments, int ordersPerSegment) throws Exception {
+        long id = orders.size() + 1;
+        for (int segment = 0; segment < segments; segment++) {
+            List<OrderResponse> batch = new ArrayList<>();
+            for (int i = 0; i < ordersPerSegment; i++, id++) {
+                batch.add(order(id, id % 37, START.plusMinutes(id * 17), (int) (id % 3) + 1));
+            }
+            orderArchive.append(batch);
+            orders.addAll(batch);
+        }
+    }
+
+    private OrderResponse order(long id, long customerId, LocalDateTime orderDate, int lines) {
+        List<OrderLineResponse> orderLines = new ArrayList<>();
+        BigDecimal total = BigDecimal.ZERO.setScale(2);
+        for (int i = 0; i < lines; i++) {
+            long pizzaId = (id + i) % 12 + 1;
+            BigDecimal unitPrice = new BigDecimal("7.99").add(BigDecimal.valueOf(pizzaId));
+            int quantity = (int) (id % 4) + 1;
+            BigDecimal subtotal = unitPrice.multiply(BigDecimal.valueOf(quantity));
+            orderLines.add(new OrderLineResponse(id * 10 + i, pizzaId, "Pizza " + pizzaId, quantity, unitPrice, subtotal));
+            total = total.add(subtotal);
+        }
+        return new OrderResponse(id, "ORD-" + id, customerId, "Customer " + customerId, orderLines, total,
+                id % 5 == 0 ? OrderStatus.CANCELLED : OrderStatus.DELIVERED, orderDate);
+    }
+}
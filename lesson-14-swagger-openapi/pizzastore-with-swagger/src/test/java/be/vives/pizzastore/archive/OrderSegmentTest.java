@@ -0,0 +1,95 @@
+package be.vives.pizzastore.archive;
+
+import be.vives.pizzastore.domain.OrderStatus;
+import be.vives.pizzastore.dto.response.OrderLineResponse;
+import be.vives.pizzastore.dto.response.OrderResponse;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OrderSegmentTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void write_thenFindById_shouldReturnEqualOrder() throws Exception {
+        // Arrange
+        OrderResponse first = order(11L, 3L, LocalDateTime.of(2024, 1, 15, 12, 30, 5, 123_456_000), 2);
+        OrderResponse second = order(12L, 4L, LocalDateTime.of(2024, 1, 16, 18, 0), 0);
+        OrderResponse third = order(40L, 3L, LocalDateTime.of(2024, 1, 14, 9, 15), 3);
+        Path file = directory.resolve("orders-1.seg");
+
+        // Act
+        OrderSegment.write(file, List.of(third, first, second));
+        OrderSegment segment = OrderSegment.open(file);
+
+        // Assert
+        assertThat(segment.findById(11L)).contains(first);
+        assertThat(segment.findById(12L)).contains(second);
+        assertThat(segment.findById(40L)).contains(third);
+        assertThat(segment.findById(13L)).isEmpty();
+        assertThat(segment.findById(41L)).isEmpty();
+    }
+
+    @Test
+    void write_shouldStoreIndexInHeader() throws Exception {
+        // Arrange
+        Path file = directory.resolve("orders-1.seg");
+        OrderSegment.write(file, List.of(
+                order(5L, 9L, LocalDateTime.of(2024, 2, 1, 12, 0), 1),
+                order(7L, 2L, LocalDateTime.of(2024, 1, 31, 20, 0), 1)));
+
+        // Act
+        OrderSegment.Summary summary = OrderSegment.readSummary(file);
+
+        // Assert
+        assertThat(summary.orderCount()).isEqualTo(2);
+        assertThat(summary.lineCount()).isEqualTo(2);
+        assertThat(summary.minId()).isEqualTo(5L);
+        assertThat(summary.maxId()).isEqualTo(7L);
+        assertThat(summary.customerIds()).containsExactly(2L, 9L);
+        assertThat(summary.containsCustomer(9L)).isTrue();
+        assertThat(summary.containsCustomer(3L)).isFalse();
+        assertThat(summary.overlaps(LocalDateTime.of(2024, 2, 1, 0, 0), LocalDateTime.of(2024, 2, 2, 0, 0))).isTrue();
+        assertThat(summary.overlaps(LocalDateTime.of(2024, 2, 2, 0, 0), LocalDateTime.of(2024, 2, 3, 0, 0))).isFalse();
+    }
+
+    @Test
+    void write_shouldCompressRepetitiveColumns() throws Exception {
+        // Arrange
+        List<OrderResponse> orders = new ArrayList<>();
+        for (long id = 1; id <= 1_000; id++) {
+            orders.add(order(id, id % 20, LocalDateTime.of(2024, 1, 1, 12, 0).plusMinutes(id), 2));
+        }
+        Path file = directory.resolve("orders-1.seg");
+
+        // Act
+        OrderSegment.write(file, orders);
+
+        // Assert - under half of the ~170 bytes per order the raw columns take
+        assertThat(Files.size(file)).isLessThan(1_000L * 85);
+        assertThat(OrderSegment.open(file).findById(500L)).contains(orders.get(499));
+    }
+
+    private OrderResponse order(long id, long customerId, LocalDateTime orderDate, int lines) {
+        List<OrderLineResponse> orderLines = new ArrayList<>();
+        BigDecimal total = BigDecimal.ZERO.setScale(2);
+        for (int i = 0; i < lines; i++) {
+            BigDecimal unitPrice = new BigDecimal("8.99").add(BigDecimal.valueOf(i));
+            BigDecimal subtotal = unitPrice.multiply(BigDecimal.valueOf(i + 1));
+            orderLines.add(new OrderLineResponse(id * 10 + i, (long) i + 1, "Pizza " + i, i + 1, unitPrice, subtotal));
+            total = total.add(subtotal);
+        }
+        return new OrderResponse(id, "ORD-" + id, customerId, "Customer " + customerId, orderLines, total,
+                id % 2 == 0 ? OrderStatus.CANCELLED : OrderStatus.DELIVERED, orderDate);
+    }
+}
@@ -0,0 +1,214 @@
+package be.vives.pizzastore.controller;
+
+import be.vives.pizzastore.archive.ArchiveDimension;
+import be.vives.pizzastore.domain.SalesGranularity;
+import be.vives.pizzastore.dto.response.ArchiveReportResponse;
+import be.vives.pizzastore.dto.response.CustomerResponse;
+import be.vives.pizzastore.dto.response.CustomerStatsRepairResponse;
+import be.vives.pizzastore.dto.response.SalesReportResponse;
+import be.vives.pizzastore.dto.response.SalesRollupRebuildResponse;
+import be.vives.pizzastore.exception.BusinessException;
+import be.vives.pizzastore.exception.GlobalExceptionHandler;
+import be.vives.pizzastore.security.JwtUtil;
+import be.vives.pizzastore.security.SecurityConfig;
+import be.vives.pizzastore.service.ArchiveReportService;
+import be.vives.pizzastore.service.CustomerStatsService;
+import be.vives.pizzastore.service.SalesRollupService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(controllers = AnalyticsController.class)
+@Import({SecurityConfig.class, GlobalExceptionHandler.class})
+class AnalyticsControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private SalesRollupService salesRollupService;
+
+    @MockitoBean
+    private ArchiveReportService archiveReportService;
+
+    @MockitoBean
+    private CustomerStatsService customerStatsService;
+
+    @MockitoBean
+    private UserDetailsService userDetailsService;
+
+    @MockitoBean
+    private JwtUtil jwtUtil;
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void getSales_withHourGranularity_shouldReturnReport() throws Exception {
+        // Arrange
+        LocalDate day = LocalDate.of(2024, 1, 15);
+        SalesReportResponse report = new SalesReportResponse(day, day, SalesGranularity.HOUR, 3, new BigDecimal("26.97"),
+                List.of(new SalesReportResponse.Bucket(day, 12, 1L, "Margherita", 3, new BigDecimal("26.97"))));
+        when(salesRollupService.findSales(day, day, SalesGranularity.HOUR)).thenReturn(report);
+
+        // Act & Assert
+        mockMvc.perform(get("/api/analytics/sales")
+                        .param("from", "2024-01-15")
+                        .param("to", "2024-01-15")
+                        .param("granularity", "HOUR"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalQuantity", is(3)))
+                .andExpect(jsonPath("$.buckets", hasSize(1)))
+                .andExpect(jsonPath("$.buckets[0].hour", is(12)))
+                .andExpect(jsonPath("$.buckets[0].revenue", is(26.97)));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void getSales_withoutParameters_shouldDefaultToDays() throws Exception {
+        // Arrange
+        LocalDate day = LocalDate.of(2024, 1, 15);
+        when(salesRollupService.findSales(null, null, SalesGranularity.DAY)).thenReturn(
+                new SalesReportResponse(day, day, SalesGranularity.DAY, 0, BigDecimal.ZERO, List.of()));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/analytics/sales"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.granularity", is("DAY")));
+
+        verify(salesRollupService).findSales(null, null, SalesGranularity.DAY);
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void getSales_withInvalidRange_returnsUnprocessableEntity() throws Exception {
+        // Arrange
+        when(salesRollupService.findSales(any(), any(), any()))
+                .thenThrow(new BusinessException("'from' must not be after 'to'"));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/analytics/sales")
+                        .param("from", "2024-01-16")
+                        .param("to", "2024-01-15"))
+                .andExpect(status().isUnprocessableEntity());
+    }
+
+    @Test
+    @WithMockUser(roles = "CUSTOMER")
+    void getSales_withCustomerRole_returnsForbidden() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get("/api/analytics/sales"))
+                .andExpect(status().isForbidden());
+
+        verifyNoInteractions(salesRollupService);
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void rebuildSales_shouldReturnBucketCount() throws Exception {
+        // Arrange
+        when(salesRollupService.rebuild()).thenReturn(new SalesRollupRebuildResponse(19, 4));
+
+        // Act & Assert
+        mockMvc.perform(post("/api/analytics/sales/rebuild"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.buckets", is(19)));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void getArchiveReport_shouldReturnRowsPerGroup() throws Exception {
+        // Arrange
+        List<ArchiveDimension> groupBy = List.of(ArchiveDimension.PIZZA, ArchiveDimension.MONTH);
+        when(archiveReportService.report(groupBy, LocalDate.of(2023, 1, 1), LocalDate.of(2023, 12, 31), null, null, null))
+                .thenReturn(new ArchiveReportResponse(groupBy, 3, 1500, 2900, 12, List.of(
+                        new ArchiveReportResponse.Row(List.of("1", "2023-01"), 40, 41, 55, new BigDecimal("494.45")))));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/analytics/archive")
+                        .param("groupBy", "PIZZA,MONTH")
+                        .param("from", "2023-01-01")
+                        .param("to", "2023-12-31"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.segmentsScanned", is(3)))
+                .andExpect(jsonPath("$.rows[0].group[1]", is("2023-01")))
+                .andExpect(jsonPath("$.rows[0].revenue", is(494.45)));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void getArchiveReport_withoutGroupBy_returnsBadRequest() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get("/api/analytics/archive"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(archiveReportService);
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void getTopCustomers_shouldReturnCustomersWithStatistics() throws Exception {
+        // Arrange
+        when(customerStatsService.findTop(2)).thenReturn(List.of(
+                new CustomerResponse(3L, "Olivia Brown", "olivia.brown@example.com", null, null, "CUSTOMER",
+                        2L, new BigDecimal("67.94"), LocalDateTime.of(2024, 1, 18, 13, 15)),
+                new CustomerResponse(1L, "Emma Johnson", "emma.johnson@example.com", null, null, "CUSTOMER",
+                        3L, new BigDecimal("71.44"), LocalDateTime.of(2024, 1, 18, 17, 0))));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/analytics/customers/top").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].orderCount", is(2)))
+                .andExpect(jsonPath("$[0].totalSpent", is(67.94)));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void getTopCustomers_withLimitOutOfRange_returnsUnprocessableEntity() throws Exception {
+        // Arrange
+        when(customerStatsService.findTop(1000)).thenThrow(new BusinessException("Limit must be between 1 and 100"));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/analytics/customers/top").param("limit", "1000"))
+                .andExpect(status().isUnprocessableEntity());
+    }
+
+    @Test
+    @WithMockUser(roles = "CUSTOMER")
+    void repairCustomerStats_withCustomerRole_returnsForbidden() throws Exception {
+        // Act & Assert
+        mockMvc.perform(post("/api/analytics/customers/stats/repair"))
+                .andExpect(status().isForbidden());
+
+        verifyNoInteractions(customerStatsService);
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void repairCustomerStats_shouldReturnCustomerCount() throws Exception {
+        // Arrange
+        when(customerStatsService.repair()).thenReturn(new CustomerStatsRepairResponse(6, 0, 3));
+
+        // Act & Assert
+        mockMvc.perform(post("/api/analytics/customers/stats/repair"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.customers", is(6)));
+    }
+}
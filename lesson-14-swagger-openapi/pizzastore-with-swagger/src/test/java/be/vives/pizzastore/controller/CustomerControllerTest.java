@@ -65,8 +65,8 @@ class CustomerControllerTest {
     @WithMockUser(roles = "ADMIN")
     void getAllCustomers_shouldReturnPageOfCustomers() throws Exception {
         // Arrange
-        CustomerResponse customer1 = new CustomerResponse(1L, "John Doe", "john@example.com", "1234567890", "123 Main St", "CUSTOMER");
-        CustomerResponse customer2 = new CustomerResponse(2L, "Jane Smith", "jane@example.com", "0987654321", "456 Oak Ave", "CUSTOMER");
+        CustomerResponse customer1 = new CustomerResponse(1L, "John Doe", "john@example.com", "1234567890", "123 Main St", "CUSTOMER", 0L, BigDecimal.ZERO, null);
+        CustomerResponse customer2 = new CustomerResponse(2L, "Jane Smith", "jane@example.com", "0987654321", "456 Oak Ave", "CUSTOMER", 0L, BigDecimal.ZERO, null);
         Page<CustomerResponse> page = new PageImpl<>(Arrays.asList(customer1, customer2));
 
         when(customerService.findAll(any(Pageable.class))).thenReturn(page);
@@ -88,7 +88,7 @@ class CustomerControllerTest {
     @WithMockUser(roles = "CUSTOMER")
     void getCustomer_whenExists_shouldReturnCustomer() throws Exception {
         // Arrange
-        CustomerResponse customer = new CustomerResponse(1L, "John Doe", "john@example.com", "1234567890", "123 Main St", "CUSTOMER");
+        CustomerResponse customer = new CustomerResponse(1L, "John Doe", "john@example.com", "1234567890", "123 Main St", "CUSTOMER", 0L, BigDecimal.ZERO, null);
 
         when(customerService.findById(1L)).thenReturn(customer);
 
@@ -156,7 +156,7 @@ class CustomerControllerTest {
         // Arrange
         CreateCustomerRequest request = new CreateCustomerRequest(
                 "John Doe", "john@example.com", "password123", "1234567890", "123 Main St");
-        CustomerResponse response = new CustomerResponse(1L, "John Doe", "john@example.com", "1234567890", "123 Main St", "CUSTOMER");
+        CustomerResponse response = new CustomerResponse(1L, "John Doe", "john@example.com", "1234567890", "123 Main St", "CUSTOMER", 0L, BigDecimal.ZERO, null);
 
         when(customerService.create(any(CreateCustomerRequest.class))).thenReturn(response);
 
@@ -181,7 +181,7 @@ class CustomerControllerTest {
         // Arrange
         UpdateCustomerRequest request = new UpdateCustomerRequest(
                 "John Doe Updated", "john@example.com", "9998887777", "456 New St");
-        CustomerResponse response = new CustomerResponse(1L, "John Doe Updated", "john@example.com", "9998887777", "456 New St", "CUSTOMER");
+        CustomerResponse response = new CustomerResponse(1L, "John Doe Updated", "john@example.com", "9998887777", "456 New St", "CUSTOMER", 0L, BigDecimal.ZERO, null);
 
         when(customerService.update(eq(1L), any(UpdateCustomerRequest.class))).thenReturn(response);
 
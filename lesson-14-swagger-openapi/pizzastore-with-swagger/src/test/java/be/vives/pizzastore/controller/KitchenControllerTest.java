@@ -0,0 +1,87 @@
+package be.vives.pizzastore.controller;
+
+import be.vives.pizzastore.domain.OrderStatus;
+import be.vives.pizzastore.dto.response.KitchenOrderResponse;
+import be.vives.pizzastore.exception.GlobalExceptionHandler;
+import be.vives.pizzastore.security.JwtUtil;
+import be.vives.pizzastore.security.SecurityConfig;
+import be.vives.pizzastore.service.KitchenQueue;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(controllers = KitchenController.class)
+@Import({SecurityConfig.class, GlobalExceptionHandler.class})
+class KitchenControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private KitchenQueue kitchenQueue;
+
+    @MockitoBean
+    private UserDetailsService userDetailsService;
+
+    @MockitoBean
+    private JwtUtil jwtUtil;
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void getQueue_shouldReturnPendingAndPreparingOrdersByDefault() throws Exception {
+        // Arrange
+        LocalDateTime noon = LocalDateTime.of(2024, 1, 1, 12, 0);
+        when(kitchenQueue.findByStatus(OrderStatus.PENDING)).thenReturn(List.of(
+                new KitchenOrderResponse(1L, "ORD-2024-000001", OrderStatus.PENDING, noon),
+                new KitchenOrderResponse(2L, "ORD-2024-000002", OrderStatus.PENDING, noon.plusMinutes(1))));
+        when(kitchenQueue.findByStatus(OrderStatus.PREPARING)).thenReturn(List.of(
+                new KitchenOrderResponse(3L, "ORD-2024-000003", OrderStatus.PREPARING, noon)));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/kitchen/queue"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.PENDING", hasSize(2)))
+                .andExpect(jsonPath("$.PENDING[0].orderNumber", is("ORD-2024-000001")))
+                .andExpect(jsonPath("$.PREPARING", hasSize(1)));
+
+        verify(kitchenQueue, times(2)).findByStatus(any());
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void getQueue_withStatus_shouldReturnOnlyThatStatus() throws Exception {
+        // Arrange
+        when(kitchenQueue.findByStatus(OrderStatus.READY)).thenReturn(List.of());
+
+        // Act & Assert
+        mockMvc.perform(get("/api/kitchen/queue").param("status", "READY"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.READY", hasSize(0)))
+                .andExpect(jsonPath("$.PENDING").doesNotExist());
+    }
+
+    @Test
+    @WithMockUser(roles = "CUSTOMER")
+    void getQueue_withCustomerRole_returnsForbidden() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get("/api/kitchen/queue"))
+                .andExpect(status().isForbidden());
+
+        verifyNoInteractions(kitchenQueue);
+    }
+}
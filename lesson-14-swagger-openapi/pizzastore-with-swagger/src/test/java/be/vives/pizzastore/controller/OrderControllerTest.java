@@ -1,14 +1,26 @@
 package be.vives.pizzastore.controller;
 
 import be.vives.pizzastore.domain.OrderStatus;
+import be.vives.pizzastore.dto.request.BulkUpdateOrderStatusRequest;
 import be.vives.pizzastore.dto.request.CreateOrderRequest;
 import be.vives.pizzastore.dto.request.UpdateOrderStatusRequest;
+import be.vives.pizzastore.dto.response.BatchOrderResponse;
+import be.vives.pizzastore.dto.response.BulkStatusUpdateResponse;
+import be.vives.pizzastore.dto.response.CursorPageResponse;
+import be.vives.pizzastore.dto.response.OrderIntakeResponse;
 import be.vives.pizzastore.dto.response.OrderLineResponse;
 import be.vives.pizzastore.dto.response.OrderResponse;
+import be.vives.pizzastore.dto.response.OrderStatusEvent;
 import be.vives.pizzastore.exception.GlobalExceptionHandler;
+import be.vives.pizzastore.exception.ServiceUnavailableException;
 import be.vives.pizzastore.security.JwtUtil;
 import be.vives.pizzastore.security.SecurityConfig;
+import be.vives.pizzastore.service.OrderBatchService;
+import be.vives.pizzastore.service.OrderExportService;
+import be.vives.pizzastore.service.OrderIntakeQueue;
 import be.vives.pizzastore.service.OrderService;
+import be.vives.pizzastore.service.OrderStatusStream;
+import be.vives.pizzastore.service.ResourceVersion;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -16,18 +28,34 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.context.annotation.Import;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.ByteArrayInputStream;
+import java.io.OutputStream;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Optional;
+import java.util.zip.GZIPInputStream;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.any;
@@ -50,6 +78,18 @@ class OrderControllerTest {
     @MockitoBean
     private OrderService orderService;
 
+    @MockitoBean
+    private OrderBatchService orderBatchService;
+
+    @MockitoBean
+    private OrderIntakeQueue orderIntakeQueue;
+
+    @MockitoBean
+    private OrderStatusStream orderStatusStream;
+
+    @MockitoBean
+    private OrderExportService orderExportService;
+
     @MockitoBean
     private UserDetailsService userDetailsService;
 
@@ -132,6 +172,121 @@ class OrderControllerTest {
         verify(orderService, never()).findByCustomerId(any(), any());
     }
 
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void getOrders_withCursor_shouldReturnCursorPage() throws Exception {
+        // Arrange
+        OrderResponse order1 = new OrderResponse(1L, "ORD-2024-000001", 1L, "John Doe", 
+                List.of(), BigDecimal.valueOf(25.50), OrderStatus.PENDING, LocalDateTime.now());
+        CursorPageResponse<OrderResponse> cursorPage = new CursorPageResponse<>(List.of(order1), 1, true, "next");
+
+        when(orderService.findAllAfterCursor(eq(""), eq(1))).thenReturn(cursorPage);
+
+        // Act & Assert
+        mockMvc.perform(get("/api/orders")
+                        .param("cursor", "")
+                        .param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(1)))
+                .andExpect(jsonPath("$.hasNext", is(true)))
+                .andExpect(jsonPath("$.nextCursor", is("next")));
+
+        verify(orderService).findAllAfterCursor(eq(""), eq(1));
+        verify(orderService, never()).findAll(any());
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void getOrders_withCursorAndFilter_shouldReturnUnprocessableEntity() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get("/api/orders")
+                        .param("cursor", "")
+                        .param("status", "PENDING"))
+                .andExpect(status().isUnprocessableEntity());
+
+        verifyNoInteractions(orderService);
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void getOrders_withStatusAndCountDisabled_shouldReturnSlice() throws Exception {
+        // Arrange
+        OrderResponse order1 = new OrderResponse(1L, "ORD-2024-000001", 1L, "John Doe", 
+                List.of(), BigDecimal.valueOf(25.50), OrderStatus.PENDING, LocalDateTime.now());
+        Slice<OrderResponse> slice = new SliceImpl<>(List.of(order1), PageRequest.of(0, 1), true);
+
+        when(orderService.findSliceByStatus(eq(OrderStatus.PENDING), any(Pageable.class))).thenReturn(slice);
+
+        // Act & Assert
+        mockMvc.perform(get("/api/orders")
+                        .param("status", "PENDING")
+                        .param("count", "false")
+                        .param("page", "0")
+                        .param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(1)))
+                .andExpect(jsonPath("$.last", is(false)))
+                .andExpect(jsonPath("$.totalElements").doesNotExist());
+
+        verify(orderService).findSliceByStatus(eq(OrderStatus.PENDING), any(Pageable.class));
+        verify(orderService, never()).findByStatus(any(), any());
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void streamOrders_withAdminRole_shouldOpenEventStream() throws Exception {
+        // Arrange
+        when(orderStatusStream.subscribeAll()).thenReturn(new SseEmitter());
+
+        // Act & Assert
+        mockMvc.perform(get("/api/orders/stream")
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted());
+
+        verify(orderStatusStream).subscribeAll();
+    }
+
+    @Test
+    @WithMockUser(username = "john@example.com", roles = "CUSTOMER")
+    void streamOrder_asOwner_shouldOpenEventStream() throws Exception {
+        // Arrange
+        OrderStatusEvent current = new OrderStatusEvent(1L, OrderStatus.PREPARING, LocalDateTime.now());
+        when(orderService.findStatusForViewer(1L, "john@example.com", false)).thenReturn(current);
+        when(orderStatusStream.subscribe(current)).thenReturn(new SseEmitter());
+
+        // Act & Assert
+        mockMvc.perform(get("/api/orders/1/stream")
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted());
+
+        verify(orderStatusStream).subscribe(current);
+    }
+
+    @Test
+    @WithMockUser(username = "jane@example.com", roles = "CUSTOMER")
+    void streamOrder_ofOtherCustomer_returnsForbidden() throws Exception {
+        // Arrange
+        when(orderService.findStatusForViewer(1L, "jane@example.com", false))
+                .thenThrow(new AccessDeniedException("Order 1 belongs to another customer"));
+
+        // Act & Assert - no Accept header, so the error body can be rendered as JSON
+        mockMvc.perform(get("/api/orders/1/stream"))
+                .andExpect(status().isForbidden());
+
+        verify(orderStatusStream, never()).subscribe(any());
+    }
+
+    @Test
+    @WithMockUser(roles = "CUSTOMER")
+    void streamOrders_withCustomerRole_returnsForbidden() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get("/api/orders/stream")
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(status().isForbidden());
+
+        verify(orderStatusStream, never()).subscribeAll();
+    }
+
     @Test
     @WithMockUser(roles = "ADMIN")
     void getOrder_whenExists_shouldReturnOrder() throws Exception {
@@ -171,6 +326,59 @@ class OrderControllerTest {
         verify(orderService).findById(999L);
     }
 
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void getOrder_withMatchingETag_shouldReturnNotModifiedWithoutLoadingTheOrder() throws Exception {
+        // Arrange
+        when(orderService.findVersion(1L)).thenReturn(Optional.of(
+                new ResourceVersion("\"a1b2\"", Instant.parse("2025-01-15T10:00:00Z"))));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/orders/1").header(HttpHeaders.IF_NONE_MATCH, "\"a1b2\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"a1b2\""))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache, private"))
+                .andExpect(content().string(""));
+
+        verify(orderService, never()).findById(any());
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void getOrder_withStaleETag_shouldReturnOrderWithCurrentETag() throws Exception {
+        // Arrange
+        OrderResponse order = new OrderResponse(1L, "ORD-2024-000001", 1L, "John Doe",
+                List.of(), BigDecimal.valueOf(27.00), OrderStatus.PENDING, LocalDateTime.now());
+        when(orderService.findVersion(1L)).thenReturn(Optional.of(
+                new ResourceVersion("\"a1b2\"", Instant.parse("2025-01-15T10:00:00Z"))));
+        when(orderService.findById(1L)).thenReturn(order);
+
+        // Act & Assert
+        mockMvc.perform(get("/api/orders/1").header(HttpHeaders.IF_NONE_MATCH, "\"0ld\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"a1b2\""))
+                .andExpect(header().string(HttpHeaders.LAST_MODIFIED, "Wed, 15 Jan 2025 10:00:00 GMT"))
+                .andExpect(jsonPath("$.id", is(1)));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void getOrder_whenArchived_shouldValidateOnContent() throws Exception {
+        // Arrange
+        OrderResponse order = new OrderResponse(1L, "ORD-2024-000001", 1L, "John Doe",
+                List.of(), BigDecimal.valueOf(27.00), OrderStatus.DELIVERED, LocalDateTime.of(2024, 1, 1, 12, 0));
+        when(orderService.findById(1L)).thenReturn(order);
+        String etag = ResourceVersion.of(null, order).etag();
+
+        // Act & Assert
+        mockMvc.perform(get("/api/orders/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, etag));
+        mockMvc.perform(get("/api/orders/1").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
     @Test
     @WithMockUser(roles = "CUSTOMER")
     void createOrder_shouldReturnCreatedOrder() throws Exception {
@@ -202,6 +410,94 @@ class OrderControllerTest {
         verify(orderService).create(any(CreateOrderRequest.class));
     }
 
+    @Test
+    @WithMockUser(username = "john@example.com", roles = "CUSTOMER")
+    void createOrder_withAsync_shouldReturnAcceptedWithTrackingId() throws Exception {
+        // Arrange
+        CreateOrderRequest request = new CreateOrderRequest(1L, List.of(new CreateOrderRequest.OrderLineRequest(1L, 2)));
+        OrderIntakeResponse queued = new OrderIntakeResponse("abc-123", OrderIntakeResponse.State.QUEUED, null, null);
+
+        when(orderIntakeQueue.submit(any(CreateOrderRequest.class), eq("john@example.com"))).thenReturn(queued);
+
+        // Act & Assert
+        mockMvc.perform(post("/api/orders")
+                        .param("async", "true")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", org.hamcrest.Matchers.endsWith("/api/orders/intake/abc-123")))
+                .andExpect(jsonPath("$.trackingId", is("abc-123")))
+                .andExpect(jsonPath("$.state", is("QUEUED")));
+
+        verify(orderService, never()).create(any());
+    }
+
+    @Test
+    @WithMockUser(roles = "CUSTOMER")
+    void createOrder_withAsyncAndFullQueue_shouldReturnServiceUnavailable() throws Exception {
+        // Arrange
+        CreateOrderRequest request = new CreateOrderRequest(1L, List.of(new CreateOrderRequest.OrderLineRequest(1L, 2)));
+
+        when(orderIntakeQueue.submit(any(CreateOrderRequest.class), any()))
+                .thenThrow(new ServiceUnavailableException("Order intake queue is full, please retry later", 2));
+
+        // Act & Assert
+        mockMvc.perform(post("/api/orders")
+                        .param("async", "true")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "2"));
+    }
+
+    @Test
+    @WithMockUser(username = "john@example.com", roles = "CUSTOMER")
+    void getIntakeStatus_withCustomerRole_shouldReturnStatus() throws Exception {
+        // Arrange
+        OrderIntakeResponse rejected = new OrderIntakeResponse("abc-123", OrderIntakeResponse.State.REJECTED,
+                null, "Pizza with id 999 not found");
+
+        when(orderIntakeQueue.findByTrackingId("abc-123", "john@example.com", false)).thenReturn(rejected);
+
+        // Act & Assert
+        mockMvc.perform(get("/api/orders/intake/abc-123"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.state", is("REJECTED")))
+                .andExpect(jsonPath("$.error", is("Pizza with id 999 not found")));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void createOrders_shouldReturnPerOrderResults() throws Exception {
+        // Arrange
+        List<CreateOrderRequest> requests = List.of(
+                new CreateOrderRequest(1L, List.of(new CreateOrderRequest.OrderLineRequest(1L, 2))),
+                new CreateOrderRequest(1L, List.of(new CreateOrderRequest.OrderLineRequest(999L, 1))));
+        OrderResponse created = new OrderResponse(1L, "ORD-2024-000001", 1L, "John Doe",
+                List.of(), BigDecimal.valueOf(17.00), OrderStatus.PENDING, LocalDateTime.now());
+        BatchOrderResponse response = new BatchOrderResponse(2, 1, 1, List.of(
+                new BatchOrderResponse.ItemResult(0, true, created, null),
+                new BatchOrderResponse.ItemResult(1, false, null, "Pizza with id 999 not found")));
+
+        when(orderBatchService.createAll(anyList())).thenReturn(response);
+
+        // Act & Assert
+        mockMvc.perform(post("/api/orders/batch")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(requests)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total", is(2)))
+                .andExpect(jsonPath("$.created", is(1)))
+                .andExpect(jsonPath("$.rejected", is(1)))
+                .andExpect(jsonPath("$.results[0].order.orderNumber", is("ORD-2024-000001")))
+                .andExpect(jsonPath("$.results[1].error", is("Pizza with id 999 not found")));
+
+        verify(orderBatchService).createAll(anyList());
+    }
+
     @Test
     @WithMockUser(roles = "ADMIN")
     void updateOrderStatus_whenExists_shouldReturnUpdatedOrder() throws Exception {
@@ -241,6 +537,29 @@ class OrderControllerTest {
         verify(orderService).updateStatus(eq(999L), eq(OrderStatus.PREPARING));
     }
 
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void updateOrderStatuses_shouldReturnUpdatedAndRejectedIds() throws Exception {
+        // Arrange
+        BulkUpdateOrderStatusRequest request = new BulkUpdateOrderStatusRequest(List.of(1L, 2L, 3L), OrderStatus.DELIVERED);
+        BulkStatusUpdateResponse response = new BulkStatusUpdateResponse(OrderStatus.DELIVERED, List.of(1L, 2L),
+                List.of(new BulkStatusUpdateResponse.Rejected(3L, "Cannot change order status from CANCELLED to DELIVERED")));
+
+        when(orderService.updateStatuses(List.of(1L, 2L, 3L), OrderStatus.DELIVERED)).thenReturn(response);
+
+        // Act & Assert
+        mockMvc.perform(patch("/api/orders/status")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status", is("DELIVERED")))
+                .andExpect(jsonPath("$.updated", hasSize(2)))
+                .andExpect(jsonPath("$.rejected[0].id", is(3)));
+
+        verify(orderService).updateStatuses(List.of(1L, 2L, 3L), OrderStatus.DELIVERED);
+    }
+
     @Test
     @WithMockUser(roles = "ADMIN")
     void cancelOrder_shouldReturnNoContent() throws Exception {
@@ -274,6 +593,23 @@ class OrderControllerTest {
         verify(orderService, never()).create(any());
     }
 
+    @Test
+    @WithMockUser(roles = "CUSTOMER")
+    void createOrders_withCustomerRole_returnsForbidden() throws Exception {
+        // Arrange
+        List<CreateOrderRequest> requests = List.of(
+                new CreateOrderRequest(1L, List.of(new CreateOrderRequest.OrderLineRequest(1L, 2))));
+
+        // Act & Assert - Bulk ingestion is reserved for admin integrations
+        mockMvc.perform(post("/api/orders/batch")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(requests)))
+                .andExpect(status().isForbidden());
+
+        verify(orderBatchService, never()).createAll(any());
+    }
+
     @Test
     @WithMockUser(roles = "CUSTOMER")
     void getOrders_withCustomerRole_returnsForbidden() throws Exception {
@@ -322,4 +658,93 @@ class OrderControllerTest {
 
         verify(orderService, never()).cancel(any());
     }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void exportOrders_withCsvFormat_shouldStreamAttachment() throws Exception {
+        // Arrange
+        LocalDate day = LocalDate.of(2025, 3, 1);
+        doAnswer(invocation -> {
+            OutputStream out = invocation.getArgument(3);
+            out.write("id,orderNumber\n1,ORD-1\n".getBytes(StandardCharsets.UTF_8));
+            return 1L;
+        }).when(orderExportService).export(eq(OrderExportService.Format.CSV), eq(day), eq(day), any(OutputStream.class));
+
+        // Act
+        MvcResult result = mockMvc.perform(get("/api/orders/export")
+                        .param("from", "2025-03-01")
+                        .param("to", "2025-03-01"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Assert
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", containsString("text/csv")))
+                .andExpect(header().string("Content-Disposition",
+                        "attachment; filename=\"orders-2025-03-01-to-2025-03-01.csv\""))
+                .andExpect(content().string("id,orderNumber\n1,ORD-1\n"));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void exportOrders_withGzip_shouldCompressBody() throws Exception {
+        // Arrange
+        doAnswer(invocation -> {
+            OutputStream out = invocation.getArgument(3);
+            out.write("{\"id\":1}\n".getBytes(StandardCharsets.UTF_8));
+            return 1L;
+        }).when(orderExportService).export(eq(OrderExportService.Format.NDJSON), any(), any(), any(OutputStream.class));
+
+        // Act
+        MvcResult result = mockMvc.perform(get("/api/orders/export")
+                        .param("format", "ndjson")
+                        .param("from", "2025-03-01")
+                        .param("to", "2025-03-31")
+                        .param("gzip", "true"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        byte[] body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", "application/gzip"))
+                .andExpect(header().string("Content-Disposition",
+                        "attachment; filename=\"orders-2025-03-01-to-2025-03-31.ndjson.gz\""))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        // Assert
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            assertThat(new String(in.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo("{\"id\":1}\n");
+        }
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void exportOrders_withUnknownFormat_returnsUnprocessableEntity() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get("/api/orders/export")
+                        .param("format", "xml")
+                        .param("from", "2025-03-01")
+                        .param("to", "2025-03-31"))
+                .andExpect(status().isUnprocessableEntity());
+
+        verify(orderExportService, never()).export(any(), any(), any(), any());
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void exportOrders_withoutDates_returnsBadRequest() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get("/api/orders/export"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @WithMockUser(roles = "CUSTOMER")
+    void exportOrders_withCustomerRole_returnsForbidden() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get("/api/orders/export")
+                        .param("from", "2025-03-01")
+                        .param("to", "2025-03-31"))
+                .andExpect(status().isForbidden());
+    }
 }
@@ -1,20 +1,28 @@
 package be.vives.pizzastore.controller;
 
 import be.vives.pizzastore.dto.request.CreatePizzaRequest;
+import be.vives.pizzastore.dto.request.PizzaFilter;
 import be.vives.pizzastore.dto.request.UpdatePizzaRequest;
 import be.vives.pizzastore.dto.response.PizzaResponse;
+import be.vives.pizzastore.dto.response.PizzaSuggestionResponse;
+import be.vives.pizzastore.exception.BusinessException;
 import be.vives.pizzastore.exception.GlobalExceptionHandler;
 import be.vives.pizzastore.security.JwtUtil;
 import be.vives.pizzastore.security.SecurityConfig;
 import be.vives.pizzastore.service.PizzaService;
+import be.vives.pizzastore.service.ResourceVersion;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.context.annotation.Import;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.security.core.userdetails.UserDetailsService;
@@ -23,6 +31,7 @@ import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
@@ -30,6 +39,7 @@ import java.util.Optional;
 import static org.hamcrest.Matchers.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
@@ -55,12 +65,20 @@ class PizzaControllerTest {
     @MockitoBean
     private JwtUtil jwtUtil;
 
+    private static final ResourceVersion CATALOG_VERSION =
+            new ResourceVersion("\"c0ffee\"", Instant.parse("2025-01-15T10:00:00Z"));
+
+    @BeforeEach
+    void setUp() {
+        when(pizzaService.catalogVersion()).thenReturn(CATALOG_VERSION);
+    }
+
     @Test
     @WithMockUser
     void getPizzas_NoPizzas_ReturnsEmptyPage() throws Exception {
         // Given
         Page<PizzaResponse> emptyPage = Page.empty();
-        when(pizzaService.findAll(any(Pageable.class))).thenReturn(emptyPage);
+        when(pizzaService.find(any(PizzaFilter.class), any(Pageable.class))).thenReturn(emptyPage);
 
         // When / Then
         mockMvc.perform(get("/api/pizzas"))
@@ -69,7 +87,7 @@ class PizzaControllerTest {
                 .andExpect(jsonPath("$.content", hasSize(0)))
                 .andExpect(jsonPath("$.totalElements", is(0)));
 
-        verify(pizzaService).findAll(any(Pageable.class));
+        verify(pizzaService).find(any(PizzaFilter.class), any(Pageable.class));
     }
 
     @Test
@@ -81,7 +99,7 @@ class PizzaControllerTest {
                 new PizzaResponse(2L, "Marinara", new BigDecimal("7.50"), "Simple", null, true, null)
         );
         Page<PizzaResponse> page = new PageImpl<>(pizzas);
-        when(pizzaService.findAll(any(Pageable.class))).thenReturn(page);
+        when(pizzaService.find(any(PizzaFilter.class), any(Pageable.class))).thenReturn(page);
 
         // When / Then
         mockMvc.perform(get("/api/pizzas"))
@@ -93,7 +111,106 @@ class PizzaControllerTest {
                 .andExpect(jsonPath("$.content[1].id", is(2)))
                 .andExpect(jsonPath("$.content[1].name", is("Marinara")));
 
-        verify(pizzaService).findAll(any(Pageable.class));
+        verify(pizzaService).find(any(PizzaFilter.class), any(Pageable.class));
+    }
+
+    @Test
+    void getPizzas_ReturnsValidators() throws Exception {
+        // Given
+        when(pizzaService.find(any(PizzaFilter.class), any(Pageable.class))).thenReturn(Page.empty());
+
+        // When / Then
+        mockMvc.perform(get("/api/pizzas"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"c0ffee\""))
+                .andExpect(header().string(HttpHeaders.LAST_MODIFIED, "Wed, 15 Jan 2025 10:00:00 GMT"))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache"));
+    }
+
+    @Test
+    void getPizzas_MatchingETag_Returns304WithoutReadingTheCatalog() throws Exception {
+        // When / Then
+        mockMvc.perform(get("/api/pizzas").header(HttpHeaders.IF_NONE_MATCH, "\"c0ffee\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        verify(pizzaService, never()).find(any(PizzaFilter.class), any(Pageable.class));
+    }
+
+    @Test
+    void getPizzas_StaleETag_ReturnsPizzas() throws Exception {
+        // Given
+        when(pizzaService.find(any(PizzaFilter.class), any(Pageable.class))).thenReturn(Page.empty());
+
+        // When / Then
+        mockMvc.perform(get("/api/pizzas").header(HttpHeaders.IF_NONE_MATCH, "\"0ld\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"c0ffee\""));
+
+        verify(pizzaService).find(any(PizzaFilter.class), any(Pageable.class));
+    }
+
+    @Test
+    void getPizzas_NotModifiedSince_Returns304() throws Exception {
+        // When / Then
+        mockMvc.perform(get("/api/pizzas").header(HttpHeaders.IF_MODIFIED_SINCE, "Wed, 15 Jan 2025 10:00:00 GMT"))
+                .andExpect(status().isNotModified());
+
+        verify(pizzaService, never()).find(any(PizzaFilter.class), any(Pageable.class));
+    }
+
+    @Test
+    void getPizza_MatchingETag_Returns304WithoutReadingThePizza() throws Exception {
+        // Given
+        when(pizzaService.findVersion(1L)).thenReturn(Optional.of(new ResourceVersion("\"beef\"", null)));
+
+        // When / Then
+        mockMvc.perform(get("/api/pizzas/1").header(HttpHeaders.IF_NONE_MATCH, "\"beef\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"beef\""));
+
+        verify(pizzaService, never()).findById(any());
+    }
+
+    @Test
+    void searchPizzas_ReturnsRankedResults() throws Exception {
+        // Given
+        PizzaResponse pizza = new PizzaResponse(1L, "Margherita", new BigDecimal("8.50"), "Classic", null, true, null);
+        when(pizzaService.search("margarita", 5)).thenReturn(List.of(pizza));
+
+        // When / Then
+        mockMvc.perform(get("/api/pizzas/search").param("q", "margarita").param("limit", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].name", is("Margherita")))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"c0ffee\""));
+
+        verify(pizzaService).search("margarita", 5);
+    }
+
+    @Test
+    void searchPizzas_InvalidQuery_Returns422() throws Exception {
+        // Given
+        when(pizzaService.search(" ", 20)).thenThrow(new BusinessException("Search query must not be empty"));
+
+        // When / Then
+        mockMvc.perform(get("/api/pizzas/search").param("q", " "))
+                .andExpect(status().isUnprocessableEntity());
+    }
+
+    @Test
+    void suggestPizzas_WithoutAuthentication_ReturnsSuggestions() throws Exception {
+        // Given
+        when(pizzaService.suggest("mar", 8)).thenReturn(List.of(
+                new PizzaSuggestionResponse(1L, "Margherita", new BigDecimal("8.50"))));
+
+        // When / Then
+        mockMvc.perform(get("/api/pizzas/suggest").param("prefix", "mar"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].name", is("Margherita")));
+
+        verify(pizzaService).suggest("mar", 8);
     }
 
     @Test
@@ -267,64 +384,71 @@ class PizzaControllerTest {
 
     @Test
     @WithMockUser
-    void getPizzas_WithPriceRangeFilter_ReturnsFilteredList() throws Exception {
+    void getPizzas_WithPriceRangeFilter_ReturnsFilteredPage() throws Exception {
         // Given
         List<PizzaResponse> pizzas = Arrays.asList(
                 new PizzaResponse(1L, "Margherita", new BigDecimal("8.50"), "Classic", null, true, null),
                 new PizzaResponse(2L, "Marinara", new BigDecimal("9.00"), "Simple", null, true, null)
         );
-        when(pizzaService.findByPriceBetween(new BigDecimal("8.00"), new BigDecimal("10.00"))).thenReturn(pizzas);
+        PizzaFilter filter = new PizzaFilter(new BigDecimal("8.00"), new BigDecimal("10.00"),
+                null, null, null, null, null, null, null);
+        when(pizzaService.find(eq(filter), any(Pageable.class))).thenReturn(new PageImpl<>(pizzas));
 
         // When / Then
         mockMvc.perform(get("/api/pizzas")
                         .param("minPrice", "8.00")
                         .param("maxPrice", "10.00"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$", hasSize(2)))
-                .andExpect(jsonPath("$[0].name", is("Margherita")))
-                .andExpect(jsonPath("$[1].name", is("Marinara")));
+                .andExpect(jsonPath("$.content", hasSize(2)))
+                .andExpect(jsonPath("$.content[0].name", is("Margherita")))
+                .andExpect(jsonPath("$.content[1].name", is("Marinara")));
 
-        verify(pizzaService).findByPriceBetween(new BigDecimal("8.00"), new BigDecimal("10.00"));
+        verify(pizzaService).find(eq(filter), any(Pageable.class));
     }
 
     @Test
     @WithMockUser
-    void getPizzas_WithMaxPriceFilter_ReturnsFilteredList() throws Exception {
+    void getPizzas_WithCombinedFilters_AppliesAllOfThemAndKeepsThePage() throws Exception {
         // Given
-        List<PizzaResponse> pizzas = Arrays.asList(
-                new PizzaResponse(1L, "Margherita", new BigDecimal("8.50"), "Classic", null, true, null)
-        );
-        when(pizzaService.findByPriceLessThan(new BigDecimal("10.00"))).thenReturn(pizzas);
+        PizzaFilter filter = new PizzaFilter(new BigDecimal("9.00"), null, "MAR", true,
+                null, 900, null, null, new BigDecimal("30"));
+        when(pizzaService.find(eq(filter), any(Pageable.class))).thenReturn(Page.empty());
 
         // When / Then
         mockMvc.perform(get("/api/pizzas")
-                        .param("maxPrice", "10.00"))
-                .andExpect(status().isOk())
-                .andExpect(jsonPath("$", hasSize(1)))
-                .andExpect(jsonPath("$[0].name", is("Margherita")));
+                        .param("minPrice", "9.00")
+                        .param("name", "MAR")
+                        .param("available", "true")
+                        .param("maxCalories", "900")
+                        .param("maxFat", "30")
+                        .param("page", "2")
+                        .param("size", "5")
+                        .param("sort", "price,desc"))
+                .andExpect(status().isOk());
 
-        verify(pizzaService).findByPriceLessThan(new BigDecimal("10.00"));
+        verify(pizzaService).find(eq(filter), eq(PageRequest.of(2, 5, Sort.by(Sort.Direction.DESC, "price"))));
     }
 
     @Test
     @WithMockUser
-    void getPizzas_WithNameFilter_ReturnsFilteredList() throws Exception {
+    void getPizzas_WithNameFilter_ReturnsFilteredPage() throws Exception {
         // Given
         List<PizzaResponse> pizzas = Arrays.asList(
                 new PizzaResponse(1L, "Margherita", new BigDecimal("8.50"), "Classic", null, true, null),
                 new PizzaResponse(2L, "Marinara", new BigDecimal("7.50"), "Simple", null, true, null)
         );
-        when(pizzaService.findByNameContaining("mar")).thenReturn(pizzas);
+        PizzaFilter filter = new PizzaFilter(null, null, "mar", null, null, null, null, null, null);
+        when(pizzaService.find(eq(filter), any(Pageable.class))).thenReturn(new PageImpl<>(pizzas));
 
         // When / Then
         mockMvc.perform(get("/api/pizzas")
                         .param("name", "mar"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$", hasSize(2)))
-                .andExpect(jsonPath("$[0].name", is("Margherita")))
-                .andExpect(jsonPath("$[1].name", is("Marinara")));
+                .andExpect(jsonPath("$.content", hasSize(2)))
+                .andExpect(jsonPath("$.content[0].name", is("Margherita")))
+                .andExpect(jsonPath("$.content[1].name", is("Marinara")));
 
-        verify(pizzaService).findByNameContaining("mar");
+        verify(pizzaService).find(eq(filter), any(Pageable.class));
     }
 
     @Test
@@ -429,7 +553,7 @@ class PizzaControllerTest {
                 new PizzaResponse(1L, "Margherita", new BigDecimal("8.50"), "Classic", null, true, null)
         );
         Page<PizzaResponse> page = new PageImpl<>(pizzas);
-        when(pizzaService.findAll(any(Pageable.class))).thenReturn(page);
+        when(pizzaService.find(any(PizzaFilter.class), any(Pageable.class))).thenReturn(page);
 
         // When / Then
         mockMvc.perform(get("/api/pizzas"))
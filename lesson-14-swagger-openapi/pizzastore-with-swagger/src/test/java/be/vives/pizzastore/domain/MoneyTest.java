@@ -0,0 +1,57 @@
+package be.vives.pizzastore.domain;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MoneyTest {
+
+    @Test
+    void of_TwoDecimals_StoresCents() {
+        // Act
+        Money money = Money.of(new BigDecimal("12.99"));
+
+        // Assert
+        assertThat(money.cents()).isEqualTo(1299);
+        assertThat(money.toBigDecimal()).isEqualTo(new BigDecimal("12.99"));
+    }
+
+    @Test
+    void of_MoreThanTwoDecimals_RoundsHalfUp() {
+        // Act & Assert
+        assertThat(Money.of(new BigDecimal("8.995")).cents()).isEqualTo(900);
+        assertThat(Money.of(new BigDecimal("8.994")).cents()).isEqualTo(899);
+        assertThat(Money.of(new BigDecimal("10")).cents()).isEqualTo(1000);
+    }
+
+    @Test
+    void arithmetic_MatchesBigDecimal() {
+        // Arrange
+        Money price = Money.of(new BigDecimal("10.99"));
+
+        // Act
+        Money total = price.times(3).plus(Money.ofCents(1)).minus(Money.of(new BigDecimal("0.98")));
+
+        // Assert
+        assertThat(total.toBigDecimal())
+                .isEqualByComparingTo(new BigDecimal("10.99").multiply(BigDecimal.valueOf(3))
+                        .add(new BigDecimal("0.01")).subtract(new BigDecimal("0.98")));
+    }
+
+    @Test
+    void times_Overflow_ThrowsArithmeticException() {
+        // Act & Assert
+        assertThatThrownBy(() -> Money.ofCents(Long.MAX_VALUE / 2).times(3))
+                .isInstanceOf(ArithmeticException.class);
+    }
+
+    @Test
+    void compareTo_OrdersByCents() {
+        // Act & Assert
+        assertThat(Money.ofCents(899)).isLessThan(Money.ofCents(900));
+        assertThat(Money.ofCents(0)).isEqualTo(Money.ZERO);
+    }
+}
@@ -0,0 +1,111 @@
+package be.vives.pizzastore.domain;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OrderTest {
+
+    @Test
+    void addAndRemoveOrderLine_KeepsRunningTotal() {
+        // Arrange
+        Order order = new Order("ORD-1", new Customer(), OrderStatus.PENDING);
+        OrderLine margherita = new OrderLine(new Pizza("Margherita", new BigDecimal("8.99"), null), 2);
+        OrderLine diavola = new OrderLine(new Pizza("Diavola", new BigDecimal("12.99"), null), 1);
+
+        // Act
+        order.addOrderLine(margherita);
+        order.addOrderLine(diavola);
+        order.removeOrderLine(margherita);
+
+        // Assert
+        assertThat(order.getTotalAmount()).isEqualByComparingTo("12.99");
+    }
+
+    @Test
+    void setQuantity_AttachedLine_AdjustsOrderTotal() {
+        // Arrange
+        Order order = new Order("ORD-1", new Customer(), OrderStatus.PENDING);
+        OrderLine line = new OrderLine(new Pizza("Margherita", new BigDecimal("8.99"), null), 1);
+        order.addOrderLine(line);
+
+        // Act
+        line.setQuantity(3);
+
+        // Assert
+        assertThat(line.getSubtotal()).isEqualByComparingTo("26.97");
+        assertThat(order.getTotalAmount()).isEqualByComparingTo("26.97");
+    }
+
+    @Test
+    void addOrderLine_ManyLines_TotalIsExactSumOfSubtotals() {
+        // Arrange
+        Order order = new Order("ORD-1", new Customer(), OrderStatus.PENDING);
+        Pizza pizza = new Pizza("Margherita", new BigDecimal("8.99"), null);
+        BigDecimal expected = BigDecimal.ZERO;
+
+        // Act
+        for (int i = 0; i < 2_000; i++) {
+            OrderLine line = new OrderLine(pizza, 1 + i % 3);
+            order.addOrderLine(line);
+            expected = expected.add(line.getSubtotal());
+        }
+
+        // Assert
+        assertThat(order.getTotalAmount()).isEqualByComparingTo(expected);
+        assertThat(order.getTotalAmount()).isEqualByComparingTo("35951.01");
+        assertThat(order.getTotalAmount().scale()).isEqualTo(2);
+    }
+
+    @Test
+    void addOrderLine_PriceWithMoreThanTwoDecimals_RoundsToCentsHalfUp() {
+        // Arrange
+        Order order = new Order("ORD-1", new Customer(), OrderStatus.PENDING);
+        OrderLine roundedUp = new OrderLine(new Pizza("Margherita", new BigDecimal("8.995"), null), 2);
+        OrderLine roundedDown = new OrderLine(new Pizza("Diavola", new BigDecimal("12.994"), null), 1);
+
+        // Act
+        order.addOrderLine(roundedUp);
+        order.addOrderLine(roundedDown);
+
+        // Assert
+        assertThat(roundedUp.getUnitPrice()).isEqualByComparingTo("9.00");
+        assertThat(roundedUp.getSubtotal()).isEqualByComparingTo("18.00");
+        assertThat(roundedDown.getSubtotal()).isEqualByComparingTo("12.99");
+        assertThat(order.getTotalAmount()).isEqualByComparingTo("30.99");
+    }
+
+    @Test
+    void removeOrderLine_AfterQuantityChange_SubtractsCurrentSubtotal() {
+        // Arrange
+        Order order = new Order("ORD-1", new Customer(), OrderStatus.PENDING);
+        OrderLine margherita = new OrderLine(new Pizza("Margherita", new BigDecimal("8.99"), null), 1);
+        OrderLine diavola = new OrderLine(new Pizza("Diavola", new BigDecimal("12.99"), null), 1);
+        order.addOrderLine(margherita);
+        order.addOrderLine(diavola);
+        diavola.setQuantity(2);
+
+        // Act
+        order.removeOrderLine(diavola);
+
+        // Assert
+        assertThat(order.getTotalAmount()).isEqualByComparingTo("8.99");
+        assertThat(order.getOrderLines()).containsExactly(margherita);
+    }
+
+    @Test
+    void removeOrderLine_LineOfAnotherOrder_LeavesTotalUnchanged() {
+        // Arrange
+        Order order = new Order("ORD-1", new Customer(), OrderStatus.PENDING);
+        order.addOrderLine(new OrderLine(new Pizza("Margherita", new BigDecimal("8.99"), null), 1));
+        OrderLine foreign = new OrderLine(new Pizza("Diavola", new BigDecimal("12.99"), null), 1);
+
+        // Act
+        order.removeOrderLine(foreign);
+
+        // Assert
+        assertThat(order.getTotalAmount()).isEqualByComparingTo("8.99");
+    }
+}
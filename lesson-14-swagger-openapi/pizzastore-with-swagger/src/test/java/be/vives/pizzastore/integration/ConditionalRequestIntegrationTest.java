@@ -0,0 +1,154 @@
+package be.vives.pizzastore.integration;
+
+import be.vives.pizzastore.domain.Customer;
+import be.vives.pizzastore.domain.OrderStatus;
+import be.vives.pizzastore.dto.request.CreateOrderRequest;
+import be.vives.pizzastore.dto.response.PizzaResponse;
+import be.vives.pizzastore.repository.CustomerRepository;
+import be.vives.pizzastore.repository.OrderRepository;
+import be.vives.pizzastore.service.OrderService;
+import be.vives.pizzastore.service.PizzaCatalog;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@Transactional
+@WithMockUser(roles = "ADMIN")
+class ConditionalRequestIntegrationTest {
+
+    private static final int ROUNDS = 5;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private PizzaCatalog pizzaCatalog;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Long orderId;
+    private List<String> pizzaTrace;
+
+    @BeforeEach
+    void setUp() {
+        // The seeded catalog, pizzas saved in this transaction only reach it after a commit
+        PizzaResponse first = pizzaCatalog.snapshot().findAll(Pageable.unpaged()).getContent().get(0);
+
+        Customer customer = new Customer("Conditional Customer", "conditional@example.com");
+        customer.setPassword("test123");
+        Long customerId = customerRepository.save(customer).getId();
+        orderId = orderService.create(new CreateOrderRequest(customerId,
+                List.of(new CreateOrderRequest.OrderLineRequest(first.id(), 2)))).id();
+        entityManager.flush();
+        entityManager.clear();
+
+        pizzaTrace = List.of("/api/pizzas", "/api/pizzas?page=0&size=5&sort=name", "/api/pizzas?maxPrice=10.00",
+                "/api/pizzas/" + first.id());
+    }
+
+    @Test
+    void replayedTrace_shouldRevalidatePizzasWithoutStatementsAndWithoutBodies() throws Exception {
+        // Arrange: the first round fills the client cache
+        Map<String, String> etags = new HashMap<>();
+        long fullBytes = 0;
+        for (String uri : pizzaTrace) {
+            MvcResult result = mockMvc.perform(get(uri)).andReturn();
+            assertThat(result.getResponse().getStatus()).isEqualTo(200);
+            etags.put(uri, result.getResponse().getHeader(HttpHeaders.ETAG));
+            fullBytes += result.getResponse().getContentAsByteArray().length;
+        }
+        SqlStatementCounter.reset();
+
+        // Act: replay the trace as a client that revalidates its copies
+        long revalidatedBytes = 0;
+        List<Integer> statuses = new ArrayList<>();
+        for (int round = 0; round < ROUNDS; round++) {
+            for (String uri : pizzaTrace) {
+                MvcResult result = mockMvc.perform(get(uri).header(HttpHeaders.IF_NONE_MATCH, etags.get(uri)))
+                        .andReturn();
+                statuses.add(result.getResponse().getStatus());
+                revalidatedBytes += result.getResponse().getContentAsByteArray().length;
+            }
+        }
+
+        // Assert: every replayed request is a bodiless 304 answered from the catalog
+        assertThat(statuses).hasSize(ROUNDS * pizzaTrace.size()).containsOnly(304);
+        assertThat(fullBytes).isPositive();
+        assertThat(revalidatedBytes).isZero();
+        assertThat(SqlStatementCounter.selects()).isZero();
+    }
+
+    @Test
+    void replayedTrace_shouldRevalidateAnOrderWithOneProjectionQuery() throws Exception {
+        // Arrange
+        MvcResult full = mockMvc.perform(get("/api/orders/" + orderId)).andReturn();
+        assertThat(full.getResponse().getStatus()).isEqualTo(200);
+        String etag = full.getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(etag).isNotNull();
+        assertThat(full.getResponse().getHeader(HttpHeaders.LAST_MODIFIED)).isNotNull();
+        entityManager.clear();
+        SqlStatementCounter.reset();
+
+        // Act
+        long revalidatedBytes = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            MvcResult result = mockMvc.perform(get("/api/orders/" + orderId).header(HttpHeaders.IF_NONE_MATCH, etag))
+                    .andReturn();
+            assertThat(result.getResponse().getStatus()).isEqualTo(304);
+            revalidatedBytes += result.getResponse().getContentAsByteArray().length;
+        }
+
+        // Assert: one timestamp query per request, the order and its lines are never loaded
+        assertThat(revalidatedBytes).isZero();
+        assertThat(SqlStatementCounter.selects()).isEqualTo(ROUNDS);
+    }
+
+    @Test
+    void changedOrder_shouldBeServedAgainWithANewETag() throws Exception {
+        // Arrange
+        String etag = mockMvc.perform(get("/api/orders/" + orderId)).andReturn()
+                .getResponse().getHeader(HttpHeaders.ETAG);
+        orderRepository.updateStatusIfIn(orderId, Set.of(OrderStatus.PENDING), OrderStatus.CONFIRMED,
+                LocalDateTime.now().plusSeconds(1), "admin@example.com");
+
+        // Act
+        MvcResult result = mockMvc.perform(get("/api/orders/" + orderId).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andReturn();
+
+        // Assert
+        assertThat(result.getResponse().getStatus()).isEqualTo(200);
+        assertThat(result.getResponse().getHeader(HttpHeaders.ETAG)).isNotEqualTo(etag);
+        assertThat(result.getResponse().getContentAsString()).contains("CONFIRMED");
+    }
+}
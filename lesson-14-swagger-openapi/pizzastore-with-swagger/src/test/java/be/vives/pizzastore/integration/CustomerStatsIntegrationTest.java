@@ -0,0 +1,159 @@
+package be.vives.pizzastore.integration;
+
+import be.vives.pizzastore.domain.Customer;
+import be.vives.pizzastore.domain.OrderStatus;
+import be.vives.pizzastore.domain.Pizza;
+import be.vives.pizzastore.dto.request.CreateOrderRequest;
+import be.vives.pizzastore.dto.response.CustomerResponse;
+import be.vives.pizzastore.dto.response.OrderResponse;
+import be.vives.pizzastore.repository.CustomerRepository;
+import be.vives.pizzastore.repository.PizzaRepository;
+import be.vives.pizzastore.service.CustomerService;
+import be.vives.pizzastore.service.CustomerStatsService;
+import be.vives.pizzastore.service.OrderService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+@SpringBootTest
+@Transactional
+class CustomerStatsIntegrationTest {
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private CustomerStatsService customerStatsService;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private PizzaRepository pizzaRepository;
+
+    private Long bigSpenderId;
+    private Long regularId;
+    private Long pizzaId;
+
+    @BeforeEach
+    void setUp() {
+        bigSpenderId = saveCustomer("Big Spender", "big.spender@example.com");
+        regularId = saveCustomer("Regular", "regular@example.com");
+        pizzaId = pizzaRepository.save(new Pizza("Stats Pizza", new BigDecimal("10.00"), "Test pizza")).getId();
+    }
+
+    @Test
+    void create_shouldIncrementCountersOfCustomer() {
+        // Act
+        OrderResponse first = order(bigSpenderId, 2);
+        OrderResponse second = order(bigSpenderId, 1);
+
+        // Assert
+        CustomerResponse customer = responseOf(bigSpenderId);
+        assertThat(customer.orderCount()).isEqualTo(2);
+        assertThat(customer.totalSpent()).isEqualByComparingTo("30.00");
+        // The column keeps microseconds
+        assertThat(customer.lastOrderDate()).isCloseTo(second.orderDate(), within(1, ChronoUnit.MILLIS));
+        assertThat(first.orderDate()).isBeforeOrEqualTo(second.orderDate());
+    }
+
+    @Test
+    void cancel_shouldSubtractOrderButKeepLastOrderDate() {
+        // Arrange
+        order(bigSpenderId, 2);
+        OrderResponse cancelled = order(bigSpenderId, 5);
+        OrderResponse updatedToCancelled = order(bigSpenderId, 3);
+
+        // Act
+        orderService.cancel(cancelled.id());
+        orderService.updateStatus(updatedToCancelled.id(), OrderStatus.CANCELLED);
+
+        // Assert
+        CustomerResponse customer = responseOf(bigSpenderId);
+        assertThat(customer.orderCount()).isEqualTo(1);
+        assertThat(customer.totalSpent()).isEqualByComparingTo("20.00");
+        assertThat(customer.lastOrderDate()).isCloseTo(updatedToCancelled.orderDate(), within(1, ChronoUnit.MILLIS));
+    }
+
+    @Test
+    void findTop_shouldRankBySpendFromCounters() {
+        // Arrange
+        order(regularId, 1);
+        order(regularId, 1);
+        order(bigSpenderId, 6);
+
+        // Act
+        List<CustomerResponse> top = customerStatsService.findTop(2);
+
+        // Assert
+        assertThat(top).extracting(CustomerResponse::id).containsExactly(bigSpenderId, regularId);
+        assertThat(top.get(1).orderCount()).isEqualTo(2);
+    }
+
+    @Test
+    void findAll_shouldSortByOrderStatistics() {
+        // Arrange
+        order(regularId, 1);
+        order(regularId, 1);
+        order(bigSpenderId, 6);
+
+        // Act
+        List<CustomerResponse> byOrders = customerService.findAll(
+                PageRequest.of(0, 2, Sort.by(Sort.Direction.DESC, "orderCount"))).getContent();
+        List<CustomerResponse> bySpend = customerService.findAll(
+                PageRequest.of(0, 2, Sort.by(Sort.Direction.DESC, "totalSpent"))).getContent();
+
+        // Assert
+        assertThat(byOrders.get(0).id()).isEqualTo(regularId);
+        assertThat(bySpend.get(0).id()).isEqualTo(bigSpenderId);
+    }
+
+    @Test
+    void repair_shouldReproduceIncrementalCounters() {
+        // Arrange
+        OrderResponse cancelled = order(bigSpenderId, 4);
+        order(bigSpenderId, 1);
+        order(regularId, 2);
+        orderService.cancel(cancelled.id());
+        CustomerResponse bigSpenderBefore = responseOf(bigSpenderId);
+        CustomerResponse regularBefore = responseOf(regularId);
+
+        // Act
+        customerStatsService.repair();
+
+        // Assert
+        assertThat(responseOf(bigSpenderId)).isEqualTo(bigSpenderBefore);
+        assertThat(responseOf(regularId)).isEqualTo(regularBefore);
+        assertThat(bigSpenderBefore.orderCount()).isEqualTo(1);
+    }
+
+    private Long saveCustomer(String name, String email) {
+        Customer customer = new Customer(name, email);
+        customer.setPassword("test123");
+        return customerRepository.save(customer).getId();
+    }
+
+    private OrderResponse order(Long customerId, int quantity) {
+        return orderService.create(new CreateOrderRequest(customerId,
+                List.of(new CreateOrderRequest.OrderLineRequest(pizzaId, quantity))));
+    }
+
+    // Read through the list query: the customer entity in the persistence context does not see the counter updates
+    private CustomerResponse responseOf(Long customerId) {
+        return customerRepository.findKeysetResponsesAfter(customerId - 1, PageRequest.ofSize(1)).getFirst();
+    }
+}
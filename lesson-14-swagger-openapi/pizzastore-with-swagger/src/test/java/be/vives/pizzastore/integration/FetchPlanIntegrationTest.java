@@ -0,0 +1,202 @@
+package be.vives.pizzastore.integration;
+
+import be.vives.pizzastore.domain.Customer;
+import be.vives.pizzastore.domain.NutritionalInfo;
+import be.vives.pizzastore.domain.Order;
+import be.vives.pizzastore.domain.OrderLine;
+import be.vives.pizzastore.domain.OrderStatus;
+import be.vives.pizzastore.domain.Pizza;
+import be.vives.pizzastore.dto.response.OrderLineResponse;
+import be.vives.pizzastore.dto.response.OrderResponse;
+import be.vives.pizzastore.dto.response.PizzaResponse;
+import be.vives.pizzastore.repository.CustomerRepository;
+import be.vives.pizzastore.repository.OrderRepository;
+import be.vives.pizzastore.repository.PizzaRepository;
+import be.vives.pizzastore.service.CustomerService;
+import be.vives.pizzastore.service.OrderService;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Every read path is checked twice: with an empty association, which an inner fetch join would hide,
+// and with a filled one, where a missing fetch plan shows up as extra selects.
+@SpringBootTest
+@Transactional
+class FetchPlanIntegrationTest {
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private PizzaRepository pizzaRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Customer customer;
+    private Pizza margherita;
+    private Pizza funghi;
+
+    @BeforeEach
+    void setUp() {
+        customer = new Customer("Fetch Plan", "fetchplan@example.com");
+        customer.setPassword("test123");
+        customer = customerRepository.save(customer);
+
+        margherita = withNutrition(new Pizza("Fetch Margherita", new BigDecimal("8.50"), "Test pizza"));
+        funghi = withNutrition(new Pizza("Fetch Funghi", new BigDecimal("9.50"), "Test pizza"));
+    }
+
+    private Pizza withNutrition(Pizza pizza) {
+        NutritionalInfo nutritionalInfo = new NutritionalInfo(850, BigDecimal.TEN, BigDecimal.TEN, BigDecimal.TEN);
+        nutritionalInfo.setPizza(pizza);
+        pizza.setNutritionalInfo(nutritionalInfo);
+        return pizzaRepository.save(pizza);
+    }
+
+    private Order saveOrder(String orderNumber, Pizza... pizzas) {
+        Order order = new Order(orderNumber, customer, OrderStatus.PENDING);
+        for (Pizza pizza : pizzas) {
+            order.addOrderLine(new OrderLine(pizza, 2));
+        }
+        return orderRepository.save(order);
+    }
+
+    // Start from an empty persistence context, as a new request would
+    private void startRequest() {
+        entityManager.flush();
+        entityManager.clear();
+        SqlStatementCounter.reset();
+    }
+
+    @Test
+    void findOrderById_withoutLines_shouldStillFindTheOrder() {
+        // Arrange
+        Long id = saveOrder("ORD-FETCH-1").getId();
+        startRequest();
+
+        // Act
+        OrderResponse order = orderService.findById(id);
+
+        // Assert
+        assertThat(order).isNotNull();
+        assertThat(order.orderLines()).isEmpty();
+        assertThat(order.customerName()).isEqualTo("Fetch Plan");
+        assertThat(SqlStatementCounter.selects()).isEqualTo(1);
+    }
+
+    @Test
+    void findOrderById_withLines_shouldLoadOrderCustomerLinesAndPizzasInOneSelect() {
+        // Arrange
+        Long id = saveOrder("ORD-FETCH-2", margherita, funghi, margherita).getId();
+        startRequest();
+
+        // Act
+        OrderResponse order = orderService.findById(id);
+
+        // Assert: three lines, not one order per joined row
+        assertThat(order.orderLines()).hasSize(3);
+        assertThat(order.orderLines()).extracting(OrderLineResponse::pizzaName)
+                .containsExactlyInAnyOrder("Fetch Margherita", "Fetch Funghi", "Fetch Margherita");
+        assertThat(SqlStatementCounter.selects()).isEqualTo(1);
+    }
+
+    @Test
+    void findFavoritePizzas_withoutFavorites_shouldReturnEmptyList() {
+        // Arrange
+        startRequest();
+
+        // Act
+        List<PizzaResponse> favorites = customerService.findFavoritePizzas(customer.getId());
+
+        // Assert
+        assertThat(favorites).isEmpty();
+        assertThat(SqlStatementCounter.selects()).isEqualTo(1);
+    }
+
+    @Test
+    void findFavoritePizzas_withFavorites_shouldLoadPizzasAndNutritionInOneSelect() {
+        // Arrange
+        customer.addFavoritePizza(margherita);
+        customer.addFavoritePizza(funghi);
+        startRequest();
+
+        // Act
+        List<PizzaResponse> favorites = customerService.findFavoritePizzas(customer.getId());
+
+        // Assert
+        assertThat(favorites).hasSize(2).allSatisfy(pizza -> assertThat(pizza.nutritionalInfo()).isNotNull());
+        assertThat(SqlStatementCounter.selects()).isEqualTo(1);
+    }
+
+    @Test
+    void findCustomerWithOrders_withoutOrders_shouldStillFindTheCustomer() {
+        // Arrange
+        startRequest();
+
+        // Act
+        Optional<Customer> found = customerRepository.findByIdWithOrders(customer.getId());
+
+        // Assert
+        assertThat(found).isPresent();
+        assertThat(found.get().getOrders()).isEmpty();
+        assertThat(SqlStatementCounter.selects()).isEqualTo(1);
+    }
+
+    // PizzaService serves reads from the in-memory catalog, these are the repository queries behind the order intake
+    @Test
+    void findPizzasById_withAndWithoutNutrition_shouldUseOneSelect() {
+        // Arrange
+        Long plainId = pizzaRepository.save(new Pizza("Fetch Plain", new BigDecimal("7.00"), "No nutrition")).getId();
+        startRequest();
+
+        // Act
+        Map<Long, Pizza> pizzas = pizzaRepository.findAllByIdWithNutritionalInfo(List.of(plainId, margherita.getId()))
+                .stream()
+                .collect(Collectors.toMap(Pizza::getId, Function.identity()));
+
+        // Assert
+        assertThat(pizzas).containsOnlyKeys(plainId, margherita.getId());
+        assertThat(pizzas.get(plainId).getNutritionalInfo()).isNull();
+        assertThat(pizzas.get(margherita.getId()).getNutritionalInfo().getCalories()).isEqualTo(850);
+        assertThat(SqlStatementCounter.selects()).isEqualTo(1);
+    }
+
+    @Test
+    void findOrdersOfCustomer_shouldLoadLinesOfAllOrdersInOneBatch() {
+        // Arrange
+        for (int i = 0; i < 5; i++) {
+            saveOrder("ORD-FETCH-B" + i, margherita, funghi);
+        }
+        startRequest();
+
+        // Act: lines are outside the Order.withCustomer plan, default_batch_fetch_size loads them together
+        List<Order> orders = orderRepository.findByCustomerIdWithCustomer(customer.getId());
+        int lines = orders.stream().mapToInt(order -> order.getOrderLines().size()).sum();
+
+        // Assert
+        assertThat(lines).isEqualTo(10);
+        assertThat(SqlStatementCounter.selects()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,196 @@
+package be.vives.pizzastore.integration;
+
+import be.vives.pizzastore.config.IdempotencyFilter;
+import be.vives.pizzastore.domain.Customer;
+import be.vives.pizzastore.domain.Pizza;
+import be.vives.pizzastore.dto.request.CreateOrderRequest;
+import be.vives.pizzastore.repository.CustomerRepository;
+import be.vives.pizzastore.repository.IdempotencyRecordRepository;
+import be.vives.pizzastore.repository.OrderRepository;
+import be.vives.pizzastore.repository.PizzaRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@Transactional
+@WithMockUser(roles = "CUSTOMER")
+class IdempotencyIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private PizzaRepository pizzaRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    private String orderJson;
+    private String otherOrderJson;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        Customer customer = new Customer("Retry Customer", "retry@example.com");
+        customer.setPassword("test123");
+        Long customerId = customerRepository.save(customer).getId();
+        Long pizzaId = pizzaRepository.save(new Pizza("Retry Pizza", new BigDecimal("11.00"), "Test pizza")).getId();
+
+        orderJson = objectMapper.writeValueAsString(new CreateOrderRequest(customerId,
+                List.of(new CreateOrderRequest.OrderLineRequest(pizzaId, 2))));
+        otherOrderJson = objectMapper.writeValueAsString(new CreateOrderRequest(customerId,
+                List.of(new CreateOrderRequest.OrderLineRequest(pizzaId, 3))));
+    }
+
+    @Test
+    void createOrder_retriedWithSameKey_shouldCreateOneOrderAndReplayTheResponse() throws Exception {
+        // Act
+        MvcResult first = mockMvc.perform(post("/api/orders")
+                        .header(IdempotencyFilter.HEADER, "retry-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(orderJson))
+                .andExpect(status().isCreated())
+                .andExpect(header().doesNotExist(IdempotencyFilter.REPLAYED_HEADER))
+                .andReturn();
+        MvcResult retry = mockMvc.perform(post("/api/orders")
+                        .header(IdempotencyFilter.HEADER, "retry-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(orderJson))
+                .andExpect(status().isCreated())
+                .andExpect(header().string(IdempotencyFilter.REPLAYED_HEADER, "true"))
+                .andReturn();
+
+        // Assert
+        assertThat(orderRepository.count()).isEqualTo(1);
+        assertThat(retry.getResponse().getContentAsString()).isEqualTo(first.getResponse().getContentAsString());
+        assertThat(retry.getResponse().getHeader("Location")).isEqualTo(first.getResponse().getHeader("Location"));
+        assertThat(idempotencyRecordRepository.findById("user:retry-1")).isPresent();
+    }
+
+    @Test
+    void createOrder_withSameKeyAndDifferentBody_returnsUnprocessableEntity() throws Exception {
+        // Arrange
+        mockMvc.perform(post("/api/orders")
+                        .header(IdempotencyFilter.HEADER, "retry-2")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(orderJson))
+                .andExpect(status().isCreated());
+
+        // Act & Assert
+        mockMvc.perform(post("/api/orders")
+                        .header(IdempotencyFilter.HEADER, "retry-2")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(otherOrderJson))
+                .andExpect(status().isUnprocessableEntity())
+                .andExpect(jsonPath("$.message").value("Idempotency-Key was already used for a different request"));
+        assertThat(orderRepository.count()).isEqualTo(1);
+    }
+
+    @Test
+    void createOrder_withDifferentKeys_shouldCreateTwoOrders() throws Exception {
+        // Act
+        for (String key : List.of("retry-3", "retry-4")) {
+            mockMvc.perform(post("/api/orders")
+                            .header(IdempotencyFilter.HEADER, key)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(orderJson))
+                    .andExpect(status().isCreated());
+        }
+
+        // Assert
+        assertThat(orderRepository.count()).isEqualTo(2);
+    }
+
+    @Test
+    void createOrder_withoutKey_shouldNotBeDeduplicated() throws Exception {
+        // Act
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(post("/api/orders")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(orderJson))
+                    .andExpect(status().isCreated());
+        }
+
+        // Assert
+        assertThat(orderRepository.count()).isEqualTo(2);
+        assertThat(idempotencyRecordRepository.count()).isZero();
+    }
+
+    @Test
+    void createOrder_withTooLongKey_returnsBadRequest() throws Exception {
+        // Act & Assert
+        mockMvc.perform(post("/api/orders")
+                        .header(IdempotencyFilter.HEADER, "k".repeat(101))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(orderJson))
+                .andExpect(status().isBadRequest());
+        assertThat(orderRepository.count()).isZero();
+    }
+
+    @Test
+    void createOrder_withBodyOverTheLimit_returnsContentTooLarge() throws Exception {
+        // Arrange - valid JSON padded with whitespace past the 1 MB default
+        byte[] padding = new byte[1024 * 1024];
+        Arrays.fill(padding, (byte) ' ');
+        byte[] body = (new String(padding) + orderJson).getBytes();
+
+        // Act & Assert
+        mockMvc.perform(post("/api/orders")
+                        .header(IdempotencyFilter.HEADER, "retry-large")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().is(HttpStatus.CONTENT_TOO_LARGE.value()));
+        assertThat(orderRepository.count()).isZero();
+        assertThat(idempotencyRecordRepository.count()).isZero();
+    }
+
+    @Test
+    void login_withKey_shouldNotStoreTheToken() throws Exception {
+        // Arrange
+        Customer customer = new Customer("Login Customer", "login@example.com");
+        customer.setPassword(passwordEncoder.encode("test123"));
+        customerRepository.save(customer);
+
+        // Act
+        mockMvc.perform(post("/api/auth/login")
+                        .header(IdempotencyFilter.HEADER, "login-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"email\":\"login@example.com\",\"password\":\"test123\"}"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(IdempotencyFilter.REPLAYED_HEADER));
+
+        // Assert
+        assertThat(idempotencyRecordRepository.count()).isZero();
+    }
+}
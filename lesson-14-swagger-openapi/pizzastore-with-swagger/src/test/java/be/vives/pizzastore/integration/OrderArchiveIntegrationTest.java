@@ -0,0 +1,159 @@
+package be.vives.pizzastore.integration;
+
+import be.vives.pizzastore.archive.OrderArchive;
+import be.vives.pizzastore.archive.OrderSegment;
+import be.vives.pizzastore.domain.Customer;
+import be.vives.pizzastore.domain.OrderStatus;
+import be.vives.pizzastore.domain.Pizza;
+import be.vives.pizzastore.dto.request.CreateOrderRequest;
+import be.vives.pizzastore.dto.response.OrderResponse;
+import be.vives.pizzastore.repository.CustomerRepository;
+import be.vives.pizzastore.repository.OrderRepository;
+import be.vives.pizzastore.repository.PizzaRepository;
+import be.vives.pizzastore.service.OrderArchiver;
+import be.vives.pizzastore.service.OrderService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Small batches, so one run writes several segments
+@SpringBootTest
+@TestPropertySource(properties = {"order-archive.batch-size=2", "order-archive.retention-days=28"})
+class OrderArchiveIntegrationTest {
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderArchiver orderArchiver;
+
+    @Autowired
+    private OrderArchive orderArchive;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private PizzaRepository pizzaRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${order-archive.directory}")
+    private Path archiveDirectory;
+
+    private Long customerId;
+    private Long pizzaId;
+
+    @BeforeEach
+    void setUp() {
+        Customer customer = new Customer("Archive Customer", "archive@example.com");
+        customer.setPassword("test123");
+        customerId = customerRepository.save(customer).getId();
+        pizzaId = pizzaRepository.save(new Pizza("Archive Pizza", new BigDecimal("10.50"), "Test pizza")).getId();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        // Not @Transactional: every archive batch commits on its own
+        jdbcTemplate.update("DELETE FROM sales_rollups");
+        jdbcTemplate.update("DELETE FROM order_lines");
+        jdbcTemplate.update("DELETE FROM orders");
+        jdbcTemplate.update("DELETE FROM order_archive_segments");
+        customerRepository.deleteAll();
+        pizzaRepository.deleteAll();
+    }
+
+    @Test
+    void archive_shouldMoveOldFinishedOrdersAndKeepThemReadable() {
+        // Arrange
+        LocalDateTime old = LocalDateTime.now().minusDays(60);
+        List<OrderResponse> oldFinished = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            OrderResponse order = createOrder(i + 1);
+            age(order.id(), old.plusMinutes(i), i % 2 == 0 ? OrderStatus.DELIVERED : OrderStatus.CANCELLED);
+            oldFinished.add(orderService.findById(order.id()));
+        }
+        OrderResponse oldPending = createOrder(1);
+        age(oldPending.id(), old, OrderStatus.PENDING);
+        OrderResponse recentDelivered = createOrder(1);
+        age(recentDelivered.id(), LocalDateTime.now().minusDays(1), OrderStatus.DELIVERED);
+        int segmentsBefore = orderArchive.segments().size();
+
+        // Act
+        int archived = orderArchiver.archive();
+
+        // Assert
+        assertThat(archived).isEqualTo(5);
+        assertThat(orderArchive.segments()).hasSize(segmentsBefore + 3);
+        for (OrderResponse order : oldFinished) {
+            assertThat(orderRepository.existsById(order.id())).isFalse();
+            assertThat(orderService.findById(order.id())).isEqualTo(order);
+        }
+        assertThat(orderRepository.existsById(oldPending.id())).isTrue();
+        assertThat(orderRepository.existsById(recentDelivered.id())).isTrue();
+        assertThat(orderArchive.findSegments(customerId, old.minusDays(1), old.plusDays(1))).isNotEmpty();
+        assertThat(orderArchive.findSegments(customerId, old.plusDays(2), old.plusDays(3))).isEmpty();
+    }
+
+    @Test
+    void archive_withNothingOld_shouldNotWriteSegments() {
+        // Arrange
+        createOrder(2);
+        int segmentsBefore = orderArchive.segments().size();
+
+        // Act
+        int archived = orderArchiver.archive();
+
+        // Assert
+        assertThat(archived).isZero();
+        assertThat(orderArchive.segments()).hasSize(segmentsBefore);
+    }
+
+    @Test
+    void load_shouldDropSegmentsOfAnotherDatabase() throws Exception {
+        // Arrange - an archived order, and a segment left behind by an earlier database with the same id
+        OrderResponse order = createOrder(1);
+        age(order.id(), LocalDateTime.now().minusDays(60), OrderStatus.DELIVERED);
+        OrderResponse archived = orderService.findById(order.id());
+        orderArchiver.archive();
+        Path foreign = archiveDirectory.resolve("orders-999999999999.seg");
+        OrderSegment.write(foreign, List.of(new OrderResponse(order.id(), "ORD-OLD", customerId + 1000,
+                "Someone Else", order.orderLines(), order.totalAmount(), OrderStatus.DELIVERED, archived.orderDate())));
+
+        // Act
+        orderArchive.load();
+
+        // Assert
+        assertThat(foreign).doesNotExist();
+        assertThat(orderArchive.segments()).noneMatch(summary -> summary.path().equals(foreign));
+        assertThat(orderService.findById(order.id())).isEqualTo(archived);
+    }
+
+    private OrderResponse createOrder(int quantity) {
+        return orderService.create(new CreateOrderRequest(customerId,
+                List.of(new CreateOrderRequest.OrderLineRequest(pizzaId, quantity))));
+    }
+
+    private void age(Long orderId, LocalDateTime orderDate, OrderStatus status) {
+        jdbcTemplate.update("UPDATE orders SET order_date = ?, status = ? WHERE id = ?",
+                Timestamp.valueOf(orderDate), status.name(), orderId);
+    }
+}
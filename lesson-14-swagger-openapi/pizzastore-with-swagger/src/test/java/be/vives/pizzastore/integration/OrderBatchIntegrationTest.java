@@ -0,0 +1,124 @@
+package be.vives.pizzastore.integration;
+
+import be.vives.pizzastore.domain.Customer;
+import be.vives.pizzastore.domain.Pizza;
+import be.vives.pizzastore.dto.request.CreateOrderRequest;
+import be.vives.pizzastore.dto.response.BatchOrderResponse;
+import be.vives.pizzastore.repository.CustomerRepository;
+import be.vives.pizzastore.repository.PizzaRepository;
+import be.vives.pizzastore.service.OrderBatchService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class OrderBatchIntegrationTest {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderBatchIntegrationTest.class);
+
+    // order-batch.chunk-size and hibernate.jdbc.batch_size of the test configuration
+    private static final int CHUNK_SIZE = 100;
+    private static final int JDBC_BATCH_SIZE = 50;
+
+    @Autowired
+    private OrderBatchService orderBatchService;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private PizzaRepository pizzaRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long customerId;
+    private final List<Long> pizzaIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        Customer customer = new Customer("Kiosk", "kiosk@example.com");
+        customer.setPassword("test123");
+        customerId = customerRepository.save(customer).getId();
+        for (int i = 1; i <= 3; i++) {
+            pizzaIds.add(pizzaRepository.save(new Pizza("Pizza " + i, BigDecimal.valueOf(8 + i), "Test pizza")).getId());
+        }
+    }
+
+    @AfterEach
+    void cleanUp() {
+        // Not @Transactional: the batch commits every chunk on its own
+        jdbcTemplate.update("DELETE FROM sales_rollups");
+        jdbcTemplate.update("DELETE FROM order_lines");
+        jdbcTemplate.update("DELETE FROM orders");
+        customerRepository.deleteAll();
+        pizzaRepository.deleteAll();
+    }
+
+    @Test
+    void createAll_shouldPersistValidOrdersAndRejectInvalidOnes() {
+        // Arrange
+        List<CreateOrderRequest> requests = new ArrayList<>(orders(250));
+        requests.add(100, new CreateOrderRequest(customerId,
+                List.of(new CreateOrderRequest.OrderLineRequest(-1L, 1))));
+
+        // Act
+        BatchOrderResponse result = orderBatchService.createAll(requests);
+
+        // Assert
+        assertThat(result.created()).isEqualTo(250);
+        assertThat(result.rejected()).isEqualTo(1);
+        assertThat(result.results().get(100).error()).isEqualTo("Pizza with id -1 not found");
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM orders", Long.class)).isEqualTo(250);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM order_lines", Long.class)).isEqualTo(750);
+    }
+
+    @Test
+    void createAll_shouldInsertEveryChunkInJdbcBatches() {
+        // Arrange
+        int orderCount = 500;
+        int linesPerOrder = pizzaIds.size();
+        List<CreateOrderRequest> requests = orders(orderCount);
+        SqlStatementCounter.reset();
+
+        // Act
+        long start = System.nanoTime();
+        BatchOrderResponse result = orderBatchService.createAll(requests);
+        long nanos = System.nanoTime() - start;
+
+        // Assert: per chunk the orders and their lines go out in batches of JDBC_BATCH_SIZE rows,
+        // one statement per row would be orderCount * (1 + linesPerOrder) inserts
+        log.info("{} orders in batch: {} orders/s, {} insert statements", orderCount,
+                orderCount * 1_000_000_000L / Math.max(nanos, 1), SqlStatementCounter.inserts());
+        int chunks = Math.ceilDiv(orderCount, CHUNK_SIZE);
+        long maxInserts = (long) chunks * (Math.ceilDiv(CHUNK_SIZE, JDBC_BATCH_SIZE)
+                + Math.ceilDiv(CHUNK_SIZE * linesPerOrder, JDBC_BATCH_SIZE));
+        assertThat(result.created()).isEqualTo(orderCount);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM order_lines", Long.class))
+                .isEqualTo((long) orderCount * linesPerOrder);
+        assertThat(SqlStatementCounter.inserts()).isLessThanOrEqualTo(maxInserts);
+    }
+
+    private List<CreateOrderRequest> orders(int count) {
+        List<CreateOrderRequest> requests = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            List<CreateOrderRequest.OrderLineRequest> lines = new ArrayList<>();
+            for (Long pizzaId : pizzaIds) {
+                lines.add(new CreateOrderRequest.OrderLineRequest(pizzaId, 1 + i % 3));
+            }
+            requests.add(new CreateOrderRequest(customerId, lines));
+        }
+        return requests;
+    }
+}
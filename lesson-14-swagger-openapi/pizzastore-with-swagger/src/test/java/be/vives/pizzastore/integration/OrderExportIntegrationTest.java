@@ -0,0 +1,147 @@
+package be.vives.pizzastore.integration;
+
+import be.vives.pizzastore.archive.OrderArchive;
+import be.vives.pizzastore.archive.OrderSegment;
+import be.vives.pizzastore.domain.Customer;
+import be.vives.pizzastore.domain.OrderStatus;
+import be.vives.pizzastore.dto.response.OrderResponse;
+import be.vives.pizzastore.repository.CustomerRepository;
+import be.vives.pizzastore.service.OrderExportService;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+class OrderExportIntegrationTest {
+
+    private static final LocalDate DAY = LocalDate.of(2021, 6, 1);
+
+    @Autowired
+    private OrderExportService orderExportService;
+
+    @Autowired
+    private OrderArchive orderArchive;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long customerId;
+
+    @BeforeEach
+    void setUp() {
+        Customer customer = new Customer("Export, \"The\" Customer", "export@example.com");
+        customer.setPassword("test123");
+        customerId = customerRepository.saveAndFlush(customer).getId();
+    }
+
+    // Bulk insert orders through JDBC, one minute apart starting at the given time
+    private void seedOrders(int count, LocalDateTime start) {
+        List<Object[]> rows = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Timestamp orderDate = Timestamp.valueOf(start.plusMinutes(i));
+            rows.add(new Object[]{
+                    String.format("EXP-%07d-%d", i, start.getDayOfYear()), orderDate, 1250L, "DELIVERED", customerId, orderDate
+            });
+        }
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO orders (id, order_number, order_date, total_amount_cents, status, customer_id, created_at) " +
+                        "VALUES (NEXT VALUE FOR orders_seq, ?, ?, ?, ?, ?, ?)",
+                rows);
+    }
+
+    @Test
+    void export_shouldWriteOneCsvLinePerOrderInRange() throws Exception {
+        // Arrange
+        seedOrders(3, DAY.atTime(10, 0));
+        seedOrders(2, DAY.plusDays(1).atTime(0, 0));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        long rows = orderExportService.export(OrderExportService.Format.CSV, DAY, DAY, out);
+
+        // Assert
+        List<String> lines = out.toString(StandardCharsets.UTF_8).lines().toList();
+        assertThat(rows).isEqualTo(3);
+        assertThat(lines).hasSize(4);
+        assertThat(lines.get(0)).isEqualTo("id,orderNumber,orderDate,customerId,customerName,status,totalAmount");
+        assertThat(lines.get(1)).endsWith(",2021-06-01T10:00:00," + customerId
+                + ",\"Export, \"\"The\"\" Customer\",DELIVERED,12.50");
+    }
+
+    @Test
+    void export_shouldWriteOneJsonObjectPerLine() throws Exception {
+        // Arrange
+        seedOrders(2, DAY.atTime(10, 0));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        orderExportService.export(OrderExportService.Format.NDJSON, DAY, DAY, out);
+
+        // Assert
+        List<String> lines = out.toString(StandardCharsets.UTF_8).lines().toList();
+        assertThat(lines).hasSize(2);
+        assertThat(lines.get(0)).startsWith("{").endsWith("}")
+                .contains("\"orderDate\":\"2021-06-01T10:00:00\"")
+                .contains("\"totalAmount\":12.50");
+    }
+
+    @Test
+    void export_shouldIncludeArchivedOrdersFirst() throws Exception {
+        // Arrange
+        seedOrders(1, DAY.atTime(12, 0));
+        OrderResponse archived = new OrderResponse(900_000L, "ARC-1", customerId, "Archived Customer", List.of(),
+                new BigDecimal("8.00"), OrderStatus.DELIVERED, DAY.atTime(9, 0));
+        OrderSegment.Summary segment = orderArchive.append(List.of(archived));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        try {
+            orderExportService.export(OrderExportService.Format.CSV, DAY, DAY, out);
+        } finally {
+            orderArchive.discard(segment);
+        }
+
+        // Assert
+        List<String> lines = out.toString(StandardCharsets.UTF_8).lines().toList();
+        assertThat(lines).hasSize(3);
+        assertThat(lines.get(1)).startsWith("900000,ARC-1,");
+    }
+
+    @Test
+    void export_shouldKeepThePersistenceContextSmall() throws Exception {
+        // Arrange
+        seedOrders(2_500, DAY.atTime(0, 0));
+        entityManager.clear();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        long rows = orderExportService.export(OrderExportService.Format.CSV, DAY, DAY.plusDays(1), out);
+
+        // Assert - cleared every 1000 rows, so at most one block of orders (plus their customer) stays managed
+        assertThat(rows).isEqualTo(2_500);
+        assertThat(entityManager.unwrap(Session.class).getStatistics().getEntityCount()).isLessThanOrEqualTo(1_001);
+    }
+}
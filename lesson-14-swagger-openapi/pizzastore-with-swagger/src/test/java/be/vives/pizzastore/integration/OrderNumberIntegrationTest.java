@@ -0,0 +1,85 @@
+package be.vives.pizzastore.integration;
+
+import be.vives.pizzastore.domain.Customer;
+import be.vives.pizzastore.domain.Pizza;
+import be.vives.pizzastore.dto.request.CreateOrderRequest;
+import be.vives.pizzastore.repository.CustomerRepository;
+import be.vives.pizzastore.repository.PizzaRepository;
+import be.vives.pizzastore.service.OrderService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.Year;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class OrderNumberIntegrationTest {
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private PizzaRepository pizzaRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanUp() {
+        // Not @Transactional: the creates run on worker threads and commit on their own
+        jdbcTemplate.update("DELETE FROM sales_rollups");
+        jdbcTemplate.update("DELETE FROM order_lines");
+        jdbcTemplate.update("DELETE FROM orders");
+        customerRepository.deleteAll();
+        pizzaRepository.deleteAll();
+    }
+
+    @Test
+    void concurrentCreates_shouldNeverProduceDuplicateOrderNumbers() throws Exception {
+        // Arrange
+        Customer customer = new Customer("John Doe", "john@example.com");
+        customer.setPassword("test123");
+        customer = customerRepository.save(customer);
+        Pizza pizza = pizzaRepository.save(new Pizza("Margherita", BigDecimal.valueOf(8.50), "Classic pizza"));
+
+        CreateOrderRequest request = new CreateOrderRequest(customer.getId(),
+                List.of(new CreateOrderRequest.OrderLineRequest(pizza.getId(), 1)));
+        int orderCount = 10_000;
+
+        // Act
+        List<Future<String>> results = new ArrayList<>(orderCount);
+        ExecutorService executor = Executors.newFixedThreadPool(32);
+        try {
+            for (int i = 0; i < orderCount; i++) {
+                results.add(executor.submit(() -> orderService.create(request).orderNumber()));
+            }
+            Set<String> orderNumbers = new HashSet<>();
+            for (Future<String> result : results) {
+                orderNumbers.add(result.get());
+            }
+
+            // Assert
+            assertThat(orderNumbers).hasSize(orderCount);
+            assertThat(orderNumbers).allMatch(number -> number.startsWith("ORD-" + Year.now().getValue() + "-"));
+            assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM orders", Long.class))
+                    .isEqualTo(orderCount);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package be.vives.pizzastore.integration;
+
+import be.vives.pizzastore.domain.Customer;
+import be.vives.pizzastore.domain.NutritionalInfo;
+import be.vives.pizzastore.domain.OrderStatus;
+import be.vives.pizzastore.domain.Pizza;
+import be.vives.pizzastore.dto.request.CreateOrderRequest;
+import be.vives.pizzastore.dto.request.PizzaFilter;
+import be.vives.pizzastore.dto.response.CustomerResponse;
+import be.vives.pizzastore.dto.response.OrderResponse;
+import be.vives.pizzastore.dto.response.PizzaResponse;
+import be.vives.pizzastore.repository.CustomerRepository;
+import be.vives.pizzastore.repository.PizzaRepository;
+import be.vives.pizzastore.service.CustomerService;
+import be.vives.pizzastore.service.OrderService;
+import be.vives.pizzastore.service.PizzaCatalog;
+import be.vives.pizzastore.service.PizzaService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.transaction.AfterTransaction;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+class OrderStatementCountIntegrationTest {
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private PizzaService pizzaService;
+
+    @Autowired
+    private PizzaCatalog pizzaCatalog;
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private PizzaRepository pizzaRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private Long customerId;
+    private final List<Long> pizzaIds = new ArrayList<>();
+
+    @AfterTransaction
+    void reloadCatalog() {
+        // Drop the rolled back pizzas from the catalog again
+        pizzaCatalog.reload();
+    }
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        Customer customer = new Customer("Statement Counter", "statements@example.com");
+        customer.setPassword("test123");
+        customerId = customerRepository.save(customer).getId();
+        for (int i = 1; i <= 20; i++) {
+            Pizza pizza = new Pizza("Pizza " + i, BigDecimal.valueOf(8 + i), "Test pizza " + i);
+            pizzaIds.add(pizzaRepository.save(pizza).getId());
+        }
+    }
+
+    @Test
+    void create_shouldUseFixedNumberOfStatementsRegardlessOfLineCount() {
+        // Act
+        createOrderAndFlush(1);
+        long singleLineSelects = SqlStatementCounter.selects();
+        long singleLineInserts = SqlStatementCounter.inserts();
+
+        createOrderAndFlush(20);
+
+        // Assert: select customer, select pizzas, insert order, one batched insert for all order lines
+        assertThat(singleLineSelects).isEqualTo(2);
+        assertThat(singleLineInserts).isEqualTo(2);
+        assertThat(SqlStatementCounter.selects()).isEqualTo(2);
+        assertThat(SqlStatementCounter.inserts()).isEqualTo(2);
+        assertThat(SqlStatementCounter.updates()).isZero();
+    }
+
+    @Test
+    void create_shouldLoadEachEntityOnceAndInsertEveryLine() {
+        // Act
+        createOrderAndFlush(20);
+
+        // Assert
+        assertThat(statistics.getEntityLoadCount()).isEqualTo(21);
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(21);
+    }
+
+    @Test
+    void findAll_shouldReadAPageOfOrdersWithTwoQueriesPlusCount() {
+        // Arrange
+        for (int i = 0; i < 20; i++) {
+            createOrderAndFlush(3);
+        }
+        resetCounters();
+
+        // Act
+        Page<OrderResponse> page = orderService.findAll(PageRequest.of(0, 20, Sort.by("orderDate")));
+
+        // Assert: orders with their customer, the count, then all lines of the page with their pizza
+        assertThat(page.getContent()).hasSize(20)
+                .allSatisfy(order -> assertThat(order.orderLines()).hasSize(3));
+        assertThat(SqlStatementCounter.selects()).isEqualTo(3);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    void findSliceByStatus_shouldReadAPageOfOrdersWithTwoQueries() {
+        // Arrange
+        for (int i = 0; i < 20; i++) {
+            createOrderAndFlush(3);
+        }
+        resetCounters();
+
+        // Act
+        Slice<OrderResponse> slice = orderService.findSliceByStatus(OrderStatus.PENDING, PageRequest.of(0, 10));
+
+        // Assert
+        assertThat(slice.getContent()).hasSize(10);
+        assertThat(slice.getContent().get(0).customerName()).isEqualTo("Statement Counter");
+        assertThat(SqlStatementCounter.selects()).isEqualTo(2);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    void findCatalog_shouldNotLoadNutritionalInfoPerPizza() {
+        // Arrange
+        for (Pizza pizza : pizzaRepository.findAllById(pizzaIds)) {
+            NutritionalInfo nutritionalInfo = new NutritionalInfo(800, BigDecimal.TEN, BigDecimal.TEN, BigDecimal.TEN);
+            nutritionalInfo.setPizza(pizza);
+            pizza.setNutritionalInfo(nutritionalInfo);
+        }
+        resetCounters();
+
+        // Act
+        List<PizzaResponse> catalog = pizzaRepository.findCatalog();
+
+        // Assert: the pizza rows with a left join on nutritional info, no count and no entities
+        assertThat(catalog).filteredOn(pizza -> pizzaIds.contains(pizza.id())).hasSize(20)
+                .allSatisfy(pizza -> assertThat(pizza.nutritionalInfo()).isNotNull());
+        assertThat(SqlStatementCounter.selects()).isEqualTo(1);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    void findAllPizzas_shouldBeServedFromTheCatalogWithoutStatements() {
+        // Arrange: the test transaction is never committed, load the catalog inside it
+        pizzaCatalog.reload();
+        resetCounters();
+
+        // Act
+        Page<PizzaResponse> page = pizzaService.findAll(PageRequest.of(0, 10, Sort.by("price")));
+        List<PizzaResponse> cheap = pizzaService.find(
+                new PizzaFilter(null, new BigDecimal("12.00"), null, null, null, null, null, null, null),
+                PageRequest.of(0, 50)).getContent();
+
+        // Assert
+        assertThat(page.getContent()).hasSize(10);
+        assertThat(cheap).extracting(PizzaResponse::id).containsAll(pizzaIds.subList(0, 3));
+        assertThat(SqlStatementCounter.selects()).isZero();
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    void findAllCustomers_shouldReadOnlyTheResponseColumns() {
+        // Arrange
+        resetCounters();
+
+        // Act
+        Page<CustomerResponse> page = customerService.findAll(PageRequest.of(0, 10));
+
+        // Assert
+        assertThat(page.getContent()).extracting(CustomerResponse::role).containsOnly("CUSTOMER");
+        assertThat(SqlStatementCounter.selects()).isEqualTo(1);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    // Start from an empty persistence context, as a new request would
+    private void resetCounters() {
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+        SqlStatementCounter.reset();
+    }
+
+    private void createOrderAndFlush(int lineCount) {
+        List<CreateOrderRequest.OrderLineRequest> lines = new ArrayList<>();
+        for (int i = 0; i < lineCount; i++) {
+            lines.add(new CreateOrderRequest.OrderLineRequest(pizzaIds.get(i), 1));
+        }
+        CreateOrderRequest request = new CreateOrderRequest(customerId, lines);
+
+        resetCounters();
+
+        orderService.create(request);
+        entityManager.flush();
+    }
+}
@@ -3,16 +3,20 @@ package be.vives.pizzastore.integration;
 import be.vives.pizzastore.dto.request.CreatePizzaRequest;
 import be.vives.pizzastore.dto.request.UpdatePizzaRequest;
 import be.vives.pizzastore.dto.response.PizzaResponse;
+import be.vives.pizzastore.service.PizzaCatalog;
+import be.vives.pizzastore.service.PizzaSuggestions;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 
@@ -21,9 +25,9 @@ import static org.hamcrest.Matchers.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
+// Not transactional: pizza reads come from the in-memory catalog, which only picks up committed changes
 @SpringBootTest
 @AutoConfigureMockMvc
-@Transactional
 class PizzaIntegrationTest {
 
     @Autowired
@@ -32,6 +36,29 @@ class PizzaIntegrationTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PizzaCatalog pizzaCatalog;
+
+    @Autowired
+    private PizzaSuggestions pizzaSuggestions;
+
+    private Long lastIdBefore;
+
+    @BeforeEach
+    void setUp() {
+        lastIdBefore = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM pizzas", Long.class);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM pizzas WHERE id > ?", lastIdBefore);
+        pizzaCatalog.reload();
+        pizzaSuggestions.reload();
+    }
+
     @Test
     @WithMockUser(roles = "ADMIN")
     void createAndRetrievePizza_Success() throws Exception {
@@ -66,6 +93,46 @@ class PizzaIntegrationTest {
                 .andExpect(jsonPath("$.description", containsString("integration test")));
     }
 
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void searchAndSuggest_FollowCreateAndDelete() throws Exception {
+        // Given - Create pizza
+        CreatePizzaRequest request = new CreatePizzaRequest(
+                "Tartufo Nero",
+                new BigDecimal("16.50"),
+                "Black truffle cream, mozzarella and wild mushrooms",
+                true,
+                null
+        );
+        MvcResult createResult = mockMvc.perform(post("/api/pizzas")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated())
+                .andReturn();
+        Long pizzaId = objectMapper.readValue(createResult.getResponse().getContentAsString(), PizzaResponse.class).id();
+
+        // When / Then - Misspelled search finds it right after the commit
+        mockMvc.perform(get("/api/pizzas/search").param("q", "truffel"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id", is(pizzaId.intValue())));
+
+        // When / Then - Suggested while typing, ignoring case
+        mockMvc.perform(get("/api/pizzas/suggest").param("prefix", "TART"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id", is(pizzaId.intValue())))
+                .andExpect(jsonPath("$[0].name", is("Tartufo Nero")));
+
+        // When / Then - Gone from the results once deleted
+        mockMvc.perform(delete("/api/pizzas/" + pizzaId))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(get("/api/pizzas/search").param("q", "tartufo"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].id", not(hasItem(pizzaId.intValue()))));
+        mockMvc.perform(get("/api/pizzas/suggest").param("prefix", "tart"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].id", not(hasItem(pizzaId.intValue()))));
+    }
+
     @Test
     @WithMockUser(roles = "ADMIN")
     void fullCrudFlow_Success() throws Exception {
@@ -130,11 +197,24 @@ class PizzaIntegrationTest {
 
         // When / Then - Filter by max price
         mockMvc.perform(get("/api/pizzas")
-                        .param("maxPrice", "12.00"))
+                        .param("maxPrice", "12.00")
+                        .param("size", "100"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(greaterThanOrEqualTo(2))))
+                .andExpect(jsonPath("$.content[*].name", hasItem("Cheap Pizza")))
+                .andExpect(jsonPath("$.content[*].name", hasItem("Medium Pizza")));
+
+        // When / Then - Price range and name combined, one pizza per page
+        mockMvc.perform(get("/api/pizzas")
+                        .param("minPrice", "5.00")
+                        .param("maxPrice", "12.00")
+                        .param("name", "pizza")
+                        .param("size", "1")
+                        .param("sort", "price,desc"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$", hasSize(greaterThanOrEqualTo(2))))
-                .andExpect(jsonPath("$[*].name", hasItem("Cheap Pizza")))
-                .andExpect(jsonPath("$[*].name", hasItem("Medium Pizza")));
+                .andExpect(jsonPath("$.content", hasSize(1)))
+                .andExpect(jsonPath("$.content[0].name", is("Medium Pizza")))
+                .andExpect(jsonPath("$.totalElements", is(2)));
     }
 
     @Test
@@ -0,0 +1,92 @@
+package be.vives.pizzastore.integration;
+
+import be.vives.pizzastore.domain.Customer;
+import be.vives.pizzastore.domain.Pizza;
+import be.vives.pizzastore.dto.request.CreateOrderRequest;
+import be.vives.pizzastore.repository.CustomerRepository;
+import be.vives.pizzastore.repository.PizzaRepository;
+import be.vives.pizzastore.service.OrderService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// One slot per bucket, so every order for the pizza competes for the same new rollup row
+@SpringBootTest(properties = "sales-rollup.slots=1")
+class SalesRollupConcurrencyIntegrationTest {
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private PizzaRepository pizzaRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanUp() {
+        // Not @Transactional: the creates run on worker threads and commit on their own
+        jdbcTemplate.update("DELETE FROM sales_rollups");
+        jdbcTemplate.update("DELETE FROM order_lines");
+        jdbcTemplate.update("DELETE FROM orders");
+        customerRepository.deleteAll();
+        pizzaRepository.deleteAll();
+    }
+
+    @Test
+    void concurrentCreates_forANewBucket_shouldAllSucceedAndAllCount() throws Exception {
+        // Arrange - a new pizza has no rollup rows yet
+        Customer customer = new Customer("Jane Doe", "jane@example.com");
+        customer.setPassword("test123");
+        customer = customerRepository.save(customer);
+        Pizza pizza = pizzaRepository.save(new Pizza("Rollup Race", BigDecimal.valueOf(9.00), "Test pizza"));
+
+        CreateOrderRequest request = new CreateOrderRequest(customer.getId(),
+                List.of(new CreateOrderRequest.OrderLineRequest(pizza.getId(), 1)));
+        int threads = 16;
+        int orderCount = 400;
+        CountDownLatch start = new CountDownLatch(1);
+
+        // Act
+        List<Future<Long>> results = new ArrayList<>(orderCount);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            for (int i = 0; i < orderCount; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return orderService.create(request).id();
+                }));
+            }
+            start.countDown();
+            for (Future<Long> result : results) {
+                // Throws if a create was rolled back on the unique key of the rollups
+                assertThat(result.get()).isNotNull();
+            }
+
+            // Assert
+            assertThat(jdbcTemplate.queryForObject(
+                    "SELECT SUM(quantity) FROM sales_rollups WHERE pizza_id = ?", Long.class, pizza.getId()))
+                    .isEqualTo(orderCount);
+            assertThat(jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM orders WHERE customer_id = ?", Long.class, customer.getId()))
+                    .isEqualTo(orderCount);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package be.vives.pizzastore.integration;
+
+import be.vives.pizzastore.domain.Customer;
+import be.vives.pizzastore.domain.OrderStatus;
+import be.vives.pizzastore.domain.Pizza;
+import be.vives.pizzastore.domain.SalesGranularity;
+import be.vives.pizzastore.dto.request.CreateOrderRequest;
+import be.vives.pizzastore.dto.response.OrderResponse;
+import be.vives.pizzastore.dto.response.SalesReportResponse;
+import be.vives.pizzastore.repository.CustomerRepository;
+import be.vives.pizzastore.repository.PizzaRepository;
+import be.vives.pizzastore.service.OrderService;
+import be.vives.pizzastore.service.SalesRollupService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+class SalesRollupIntegrationTest {
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private SalesRollupService salesRollupService;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private PizzaRepository pizzaRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long customerId;
+    private Long pizzaId;
+    private final LocalDate today = LocalDate.now();
+
+    @BeforeEach
+    void setUp() {
+        Customer customer = new Customer("Rollup Customer", "rollups@example.com");
+        customer.setPassword("test123");
+        customerId = customerRepository.save(customer).getId();
+        pizzaId = pizzaRepository.save(new Pizza("Rollup Pizza", new BigDecimal("9.50"), "Test pizza")).getId();
+    }
+
+    @Test
+    void create_shouldAddOrderLinesToTodaysRollup() {
+        // Act
+        orderService.create(new CreateOrderRequest(customerId, List.of(new CreateOrderRequest.OrderLineRequest(pizzaId, 3))));
+        orderService.create(new CreateOrderRequest(customerId, List.of(new CreateOrderRequest.OrderLineRequest(pizzaId, 1))));
+
+        // Assert
+        SalesReportResponse.Bucket bucket = bucketOf(salesRollupService.findSales(today, today, SalesGranularity.DAY));
+        assertThat(bucket.quantity()).isEqualTo(4);
+        assertThat(bucket.revenue()).isEqualByComparingTo("38.00");
+        assertThat(bucket.hour()).isNull();
+    }
+
+    @Test
+    void cancel_shouldSubtractOrderLinesAgain() {
+        // Arrange
+        OrderResponse kept = orderService.create(new CreateOrderRequest(customerId,
+                List.of(new CreateOrderRequest.OrderLineRequest(pizzaId, 2))));
+        OrderResponse cancelled = orderService.create(new CreateOrderRequest(customerId,
+                List.of(new CreateOrderRequest.OrderLineRequest(pizzaId, 5))));
+        OrderResponse updatedToCancelled = orderService.create(new CreateOrderRequest(customerId,
+                List.of(new CreateOrderRequest.OrderLineRequest(pizzaId, 7))));
+
+        // Act
+        orderService.cancel(cancelled.id());
+        orderService.updateStatus(updatedToCancelled.id(), OrderStatus.CANCELLED);
+
+        // Assert
+        SalesReportResponse.Bucket bucket = bucketOf(salesRollupService.findSales(today, today, SalesGranularity.HOUR));
+        assertThat(kept.id()).isNotNull();
+        assertThat(bucket.quantity()).isEqualTo(2);
+        assertThat(bucket.revenue()).isEqualByComparingTo("19.00");
+        assertThat(bucket.hour()).isNotNull();
+    }
+
+    @Test
+    void findSales_shouldMatchAggregateOverRawOrders() {
+        // Arrange
+        orderService.create(new CreateOrderRequest(customerId, List.of(new CreateOrderRequest.OrderLineRequest(pizzaId, 2))));
+        LocalDate from = today.minusDays(365);
+        LocalDate to = today;
+        Long[] expected = jdbcTemplate.queryForObject("""
+                SELECT COALESCE(SUM(l.quantity), 0), COALESCE(SUM(l.subtotal_cents), 0)
+                FROM orders o JOIN order_lines l ON l.order_id = o.id
+                WHERE o.status <> 'CANCELLED' AND CAST(o.order_date AS DATE) BETWEEN ? AND ?
+                """, (rs, rowNum) -> new Long[]{rs.getLong(1), rs.getLong(2)}, from, to);
+
+        // Act
+        SalesReportResponse report = salesRollupService.findSales(from, to, SalesGranularity.DAY);
+
+        // Assert
+        assertThat(report.totalQuantity()).isEqualTo(expected[0]);
+        assertThat(report.totalRevenue()).isEqualByComparingTo(BigDecimal.valueOf(expected[1], 2));
+    }
+
+    @Test
+    void rebuild_shouldReproduceIncrementalRollups() {
+        // Arrange
+        OrderResponse order = orderService.create(new CreateOrderRequest(customerId,
+                List.of(new CreateOrderRequest.OrderLineRequest(pizzaId, 4))));
+        orderService.create(new CreateOrderRequest(customerId, List.of(new CreateOrderRequest.OrderLineRequest(pizzaId, 1))));
+        orderService.cancel(order.id());
+        SalesReportResponse before = salesRollupService.findSales(today.minusDays(365), today, SalesGranularity.HOUR);
+
+        // Act
+        salesRollupService.rebuild();
+
+        // Assert
+        SalesReportResponse after = salesRollupService.findSales(today.minusDays(365), today, SalesGranularity.HOUR);
+        assertThat(after).isEqualTo(before);
+        assertThat(bucketOf(after).quantity()).isEqualTo(1);
+    }
+
+    private SalesReportResponse.Bucket bucketOf(SalesReportResponse report) {
+        return report.buckets().stream()
+                .filter(bucket -> bucket.pizzaId().equals(pizzaId))
+                .findFirst()
+                .orElseThrow();
+    }
+}
@@ -0,0 +1,62 @@
+package be.vives.pizzastore.integration;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Registered through hibernate.session_factory.statement_inspector in the test properties.
+// Counts every statement Hibernate prepares (a JDBC batch counts once), except id sequence calls,
+// which only happen once per pooled block and would make counts depend on earlier tests.
+public class SqlStatementCounter implements StatementInspector {
+
+    private static final AtomicLong selects = new AtomicLong();
+    private static final AtomicLong inserts = new AtomicLong();
+    private static final AtomicLong updates = new AtomicLong();
+    private static final AtomicLong deletes = new AtomicLong();
+
+    @Override
+    public String inspect(String sql) {
+        String statement = sql.stripLeading().toLowerCase(Locale.ROOT);
+        if (statement.contains("next value for")) {
+            return sql;
+        }
+        if (statement.startsWith("select")) {
+            selects.incrementAndGet();
+        } else if (statement.startsWith("insert")) {
+            inserts.incrementAndGet();
+        } else if (statement.startsWith("update")) {
+            updates.incrementAndGet();
+        } else if (statement.startsWith("delete")) {
+            deletes.incrementAndGet();
+        }
+        return sql;
+    }
+
+    public static void reset() {
+        selects.set(0);
+        inserts.set(0);
+        updates.set(0);
+        deletes.set(0);
+    }
+
+    public static long selects() {
+        return selects.get();
+    }
+
+    public static long inserts() {
+        return inserts.get();
+    }
+
+    public static long updates() {
+        return updates.get();
+    }
+
+    public static long deletes() {
+        return deletes.get();
+    }
+
+    public static long total() {
+        return selects() + inserts() + updates() + deletes();
+    }
+}
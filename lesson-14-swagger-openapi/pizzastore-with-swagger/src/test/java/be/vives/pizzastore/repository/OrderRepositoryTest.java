@@ -1,15 +1,26 @@
 package be.vives.pizzastore.repository;
 
 import be.vives.pizzastore.domain.*;
+import be.vives.pizzastore.dto.response.OrderResponse;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
 
 import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -38,6 +49,37 @@ class OrderRepositoryTest {
     @Autowired
     private OrderRepository orderRepository;
 
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Bulk insert orders through JDBC, persisting 100k entities one by one would dominate the test
+    private void seedOrders(Long customerId, int count, int offset) {
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 12, 0);
+        List<Object[]> rows = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int number = offset + i + 1;
+            Timestamp orderDate = Timestamp.valueOf(start.plusMinutes(number));
+            rows.add(new Object[]{
+                    String.format("ORD-2024-%07d", number), orderDate, 1000L, "DELIVERED", customerId, orderDate
+            });
+        }
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO orders (id, order_number, order_date, total_amount_cents, status, customer_id, created_at) " +
+                        "VALUES (NEXT VALUE FOR orders_seq, ?, ?, ?, ?, ?, ?)",
+                rows);
+    }
+
+    private long bestOfRuns(Runnable query) {
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < 20; i++) {
+            long start = System.nanoTime();
+            query.run();
+            best = Math.min(best, System.nanoTime() - start);
+            entityManager.clear();
+        }
+        return best;
+    }
+
     @Test
     void findByCustomerId_shouldReturnCustomerOrders() {
         // Arrange
@@ -63,6 +105,62 @@ class OrderRepositoryTest {
                 .containsExactlyInAnyOrder("ORD-2024-000001", "ORD-2024-000002");
     }
 
+    @Test
+    void findResponsesByCustomerId_shouldReturnOnlyCustomerOrdersWithCorrectTotal() {
+        // Arrange
+        Customer customer1 = createTestCustomer("John Doe", "john@example.com");
+        Customer customer2 = createTestCustomer("Jane Smith", "jane@example.com");
+        entityManager.persist(customer1);
+        entityManager.persist(customer2);
+        entityManager.flush();
+
+        seedOrders(customer2.getId(), 30, 0);
+        seedOrders(customer1.getId(), 5, 30);
+        seedOrders(customer2.getId(), 30, 35);
+
+        Pageable pageable = PageRequest.of(0, 3, Sort.by("orderDate").descending());
+
+        // Act
+        Page<OrderResponse> page = orderRepository.findResponsesByCustomerId(customer1.getId(), pageable);
+
+        // Assert
+        assertThat(page.getTotalElements()).isEqualTo(5);
+        assertThat(page.getTotalPages()).isEqualTo(2);
+        assertThat(page.getContent()).hasSize(3);
+        assertThat(page.getContent()).extracting(OrderResponse::customerId)
+                .containsOnly(customer1.getId());
+        assertThat(page.getContent()).extracting(OrderResponse::orderNumber)
+                .containsExactly("ORD-2024-0000035", "ORD-2024-0000034", "ORD-2024-0000033");
+    }
+
+    @Test
+    void findResponsesByCustomerId_latencyShouldStayFlatAsOrdersTableGrows() {
+        // Arrange
+        Customer customer = createTestCustomer("John Doe", "john@example.com");
+        Customer otherCustomer = createTestCustomer("Jane Smith", "jane@example.com");
+        entityManager.persist(customer);
+        entityManager.persist(otherCustomer);
+        entityManager.flush();
+
+        seedOrders(customer.getId(), 50, 0);
+        seedOrders(otherCustomer.getId(), 10_000, 50);
+        Pageable pageable = PageRequest.of(0, 20, Sort.by("orderDate").descending());
+
+        long smallTableNanos = bestOfRuns(() -> orderRepository.findResponsesByCustomerId(customer.getId(), pageable));
+
+        seedOrders(otherCustomer.getId(), 90_000, 10_050);
+
+        // Act
+        long largeTableNanos = bestOfRuns(() -> orderRepository.findResponsesByCustomerId(customer.getId(), pageable));
+
+        // Assert
+        assertThat(orderRepository.count()).isEqualTo(100_050);
+        assertThat(orderRepository.findResponsesByCustomerId(customer.getId(), pageable).getTotalElements()).isEqualTo(50);
+        // Ten times more rows must not make the indexed lookup meaningfully slower
+        assertThat(largeTableNanos)
+                .isLessThan(Math.max(smallTableNanos * 5, TimeUnit.MILLISECONDS.toNanos(20)));
+    }
+
     @Test
     void findByStatus_shouldReturnOrdersWithStatus() {
         // Arrange
@@ -86,6 +184,181 @@ class OrderRepositoryTest {
                 .containsOnly(OrderStatus.PENDING);
     }
 
+    @Test
+    void findResponsesByStatus_shouldReturnRequestedPageWithTotal() {
+        // Arrange
+        Customer customer = createTestCustomer("John Doe", "john@example.com");
+        entityManager.persist(customer);
+
+        for (int i = 1; i <= 5; i++) {
+            entityManager.persist(new Order("ORD-2024-00000" + i, customer, OrderStatus.PENDING));
+        }
+        entityManager.persist(new Order("ORD-2024-000006", customer, OrderStatus.DELIVERED));
+        entityManager.flush();
+
+        // Act
+        Page<OrderResponse> page = orderRepository.findResponsesByStatus(OrderStatus.PENDING, PageRequest.of(1, 2));
+
+        // Assert
+        assertThat(page.getContent()).hasSize(2);
+        assertThat(page.getTotalElements()).isEqualTo(5);
+        assertThat(page.getTotalPages()).isEqualTo(3);
+        assertThat(page.getContent()).extracting(OrderResponse::status)
+                .containsOnly(OrderStatus.PENDING);
+    }
+
+    @Test
+    void findResponseSliceByStatus_shouldReturnSliceWithNextFlag() {
+        // Arrange
+        Customer customer = createTestCustomer("John Doe", "john@example.com");
+        entityManager.persist(customer);
+
+        for (int i = 1; i <= 3; i++) {
+            entityManager.persist(new Order("ORD-2024-00000" + i, customer, OrderStatus.PREPARING));
+        }
+        entityManager.flush();
+
+        // Act
+        Slice<OrderResponse> first = orderRepository.findResponseSliceByStatus(OrderStatus.PREPARING, PageRequest.of(0, 2));
+        Slice<OrderResponse> last = orderRepository.findResponseSliceByStatus(OrderStatus.PREPARING, PageRequest.of(1, 2));
+
+        // Assert
+        assertThat(first.getContent()).hasSize(2);
+        assertThat(first.hasNext()).isTrue();
+        assertThat(last.getContent()).hasSize(1);
+        assertThat(last.hasNext()).isFalse();
+    }
+
+    @Test
+    void findKeysetResponsesAfter_shouldContinueAfterLastOrderNewestFirst() {
+        // Arrange
+        Customer customer = createTestCustomer("John Doe", "john@example.com");
+        entityManager.persist(customer);
+        entityManager.flush();
+        seedOrders(customer.getId(), 5, 0);
+
+        // Act
+        List<OrderResponse> first = orderRepository.findFirstKeysetResponses(PageRequest.ofSize(2));
+        OrderResponse last = first.get(first.size() - 1);
+        List<OrderResponse> second = orderRepository.findKeysetResponsesAfter(last.orderDate(), last.id(), PageRequest.ofSize(2));
+
+        // Assert
+        assertThat(first).extracting(OrderResponse::orderNumber)
+                .containsExactly("ORD-2024-0000005", "ORD-2024-0000004");
+        assertThat(second).extracting(OrderResponse::orderNumber)
+                .containsExactly("ORD-2024-0000003", "ORD-2024-0000002");
+    }
+
+    @Test
+    void findKeysetResponsesAfter_deepPageShouldCostTheSameAsFirstPage() {
+        // Arrange
+        Customer customer = createTestCustomer("John Doe", "john@example.com");
+        entityManager.persist(customer);
+        entityManager.flush();
+        seedOrders(customer.getId(), 200_020, 0);
+        Pageable limit = PageRequest.ofSize(20);
+
+        // Page 10,000 at 20 orders per page starts after the 200,000th newest order
+        Order deepCursor = orderRepository.findByOrderNumber("ORD-2024-0000021").orElseThrow();
+        LocalDateTime deepOrderDate = deepCursor.getOrderDate();
+        Long deepId = deepCursor.getId();
+
+        // Act
+        long firstPageNanos = bestOfRuns(() -> orderRepository.findFirstKeysetResponses(limit));
+        long deepPageNanos = bestOfRuns(() -> orderRepository.findKeysetResponsesAfter(deepOrderDate, deepId, limit));
+
+        // Assert
+        assertThat(orderRepository.findKeysetResponsesAfter(deepOrderDate, deepId, limit))
+                .hasSize(20)
+                .first()
+                .extracting(OrderResponse::orderNumber)
+                .isEqualTo("ORD-2024-0000020");
+        assertThat(deepPageNanos)
+                .isLessThan(Math.max(firstPageNanos * 5, TimeUnit.MILLISECONDS.toNanos(20)));
+    }
+
+    @Test
+    void updateStatusIfIn_shouldOnlyUpdateWhileStatusIsExpected() {
+        // Arrange
+        Customer customer = createTestCustomer("John Doe", "john@example.com");
+        entityManager.persist(customer);
+        Order order = new Order("ORD-2024-000001", customer, OrderStatus.PENDING);
+        entityManager.persist(order);
+        entityManager.flush();
+
+        // Act - two updates both expect PENDING, only the first one can win
+        int kitchen = orderRepository.updateStatusIfIn(order.getId(),
+                OrderStatus.PREPARING.previousStatuses(), OrderStatus.PREPARING, LocalDateTime.now(), "kitchen@example.com");
+        int admin = orderRepository.updateStatusIfIn(order.getId(),
+                List.of(OrderStatus.PENDING), OrderStatus.CONFIRMED, LocalDateTime.now(), "admin@example.com");
+
+        // Assert
+        assertThat(kitchen).isEqualTo(1);
+        assertThat(admin).isZero();
+        assertThat(orderRepository.findStatusById(order.getId())).contains(OrderStatus.PREPARING);
+        assertThat(orderRepository.findById(order.getId())).get()
+                .extracting(Order::getUpdatedBy).isEqualTo("kitchen@example.com");
+    }
+
+    @Test
+    void updateStatusesIfIn_shouldMoveOnlyOrdersInExpectedStatuses() {
+        // Arrange
+        Customer customer = createTestCustomer("John Doe", "john@example.com");
+        entityManager.persist(customer);
+        Order ready1 = new Order("ORD-2024-000001", customer, OrderStatus.READY);
+        Order ready2 = new Order("ORD-2024-000002", customer, OrderStatus.READY);
+        Order cancelled = new Order("ORD-2024-000003", customer, OrderStatus.CANCELLED);
+        entityManager.persist(ready1);
+        entityManager.persist(ready2);
+        entityManager.persist(cancelled);
+        entityManager.flush();
+        List<Long> ids = List.of(ready1.getId(), ready2.getId(), cancelled.getId());
+
+        // Act
+        int updated = orderRepository.updateStatusesIfIn(ids,
+                OrderStatus.DELIVERED.previousStatuses(), OrderStatus.DELIVERED, LocalDateTime.now(), "admin@example.com");
+
+        // Assert
+        assertThat(updated).isEqualTo(2);
+        assertThat(orderRepository.findStatusesByIdIn(ids))
+                .extracting(OrderRepository.IdAndStatus::getId, OrderRepository.IdAndStatus::getStatus)
+                .containsExactlyInAnyOrder(
+                        org.assertj.core.groups.Tuple.tuple(ready1.getId(), OrderStatus.DELIVERED),
+                        org.assertj.core.groups.Tuple.tuple(ready2.getId(), OrderStatus.DELIVERED),
+                        org.assertj.core.groups.Tuple.tuple(cancelled.getId(), OrderStatus.CANCELLED));
+    }
+
+    @Test
+    void findKitchenOrdersByStatusIn_shouldProjectOnlyRequestedStatuses() {
+        // Arrange
+        Customer customer = createTestCustomer("John Doe", "john@example.com");
+        entityManager.persist(customer);
+        Order pending = new Order("ORD-2024-000001", customer, OrderStatus.PENDING);
+        Order preparing = new Order("ORD-2024-000002", customer, OrderStatus.PREPARING);
+        Order delivered = new Order("ORD-2024-000003", customer, OrderStatus.DELIVERED);
+        entityManager.persist(pending);
+        entityManager.persist(preparing);
+        entityManager.persist(delivered);
+        entityManager.flush();
+
+        // Act
+        List<be.vives.pizzastore.dto.response.KitchenOrderResponse> orders = orderRepository.findKitchenOrdersByStatusIn(
+                List.of(OrderStatus.PENDING, OrderStatus.PREPARING));
+
+        // Assert
+        assertThat(orders).extracting(be.vives.pizzastore.dto.response.KitchenOrderResponse::orderNumber)
+                .containsExactlyInAnyOrder("ORD-2024-000001", "ORD-2024-000002");
+    }
+
+    @Test
+    void findStatusById_whenNotExists_shouldReturnEmpty() {
+        // Act
+        Optional<OrderStatus> status = orderRepository.findStatusById(999L);
+
+        // Assert
+        assertThat(status).isEmpty();
+    }
+
     @Test
     void findByOrderNumber_whenExists_shouldReturnOrder() {
         // Arrange
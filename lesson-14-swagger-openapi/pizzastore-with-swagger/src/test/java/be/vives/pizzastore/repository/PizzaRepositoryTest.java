@@ -47,42 +47,6 @@ class PizzaRepositoryTest {
         assertThat(result).isEmpty();
     }
 
-    @Test
-    void findByPriceLessThan_MultipleResults_ReturnsFilteredList() {
-        // Given
-        entityManager.persist(new Pizza("Cheap Pizza", new BigDecimal("5.00"), "Budget option"));
-        entityManager.persist(new Pizza("Mid Pizza", new BigDecimal("10.00"), "Medium price"));
-        entityManager.persist(new Pizza("Expensive Pizza", new BigDecimal("15.00"), "Premium"));
-        entityManager.flush();
-
-        // When
-        List<Pizza> result = pizzaRepository.findByPriceLessThan(new BigDecimal("12.00"));
-
-        // Then
-        assertThat(result).hasSize(2);
-        assertThat(result)
-                .extracting(Pizza::getName)
-                .containsExactlyInAnyOrder("Cheap Pizza", "Mid Pizza");
-    }
-
-    @Test
-    void findByNameContainingIgnoreCase_PartialMatch_ReturnsMatches() {
-        // Given
-        entityManager.persist(new Pizza("Margherita", new BigDecimal("8.50"), "Classic"));
-        entityManager.persist(new Pizza("Marinara", new BigDecimal("7.50"), "Simple"));
-        entityManager.persist(new Pizza("Quattro Formaggi", new BigDecimal("11.00"), "Cheese"));
-        entityManager.flush();
-
-        // When
-        List<Pizza> result = pizzaRepository.findByNameContainingIgnoreCase("mar");
-
-        // Then
-        assertThat(result).hasSize(2);
-        assertThat(result)
-                .extracting(Pizza::getName)
-                .containsExactlyInAnyOrder("Margherita", "Marinara");
-    }
-
     @Test
     void save_NewPizza_GeneratesId() {
         // Given
@@ -134,40 +98,6 @@ class PizzaRepositoryTest {
         assertThat(result).isEmpty();
     }
 
-    @Test
-    void findByPriceGreaterThanEqual_MultipleResults_ReturnsFilteredList() {
-        // Given
-        entityManager.persist(new Pizza("Cheap Pizza", new BigDecimal("5.00"), "Budget"));
-        entityManager.persist(new Pizza("Mid Pizza", new BigDecimal("10.00"), "Medium"));
-        entityManager.persist(new Pizza("Expensive Pizza", new BigDecimal("15.00"), "Premium"));
-        entityManager.flush();
-
-        // When
-        List<Pizza> result = pizzaRepository.findByPriceGreaterThanEqual(new BigDecimal("10.00"));
-
-        // Then
-        assertThat(result).hasSize(2);
-        assertThat(result)
-                .extracting(Pizza::getName)
-                .containsExactlyInAnyOrder("Mid Pizza", "Expensive Pizza");
-    }
-
-    @Test
-    void findByPriceBetween_MultipleResults_ReturnsFilteredList() {
-        // Given
-        entityManager.persist(new Pizza("Cheap Pizza", new BigDecimal("5.00"), "Budget"));
-        entityManager.persist(new Pizza("Mid Pizza", new BigDecimal("10.00"), "Medium"));
-        entityManager.persist(new Pizza("Expensive Pizza", new BigDecimal("15.00"), "Premium"));
-        entityManager.flush();
-
-        // When
-        List<Pizza> result = pizzaRepository.findByPriceBetween(new BigDecimal("8.00"), new BigDecimal("12.00"));
-
-        // Then
-        assertThat(result).hasSize(1);
-        assertThat(result.get(0).getName()).isEqualTo("Mid Pizza");
-    }
-
     @Test
     void searchByKeyword_MatchesNameOrDescription_ReturnsMatches() {
         // Given
@@ -201,22 +131,6 @@ class PizzaRepositoryTest {
                 .containsExactlyInAnyOrder("Margherita", "Marinara");
     }
 
-    @Test
-    void findByIdWithNutritionalInfo_ExistingPizza_ReturnsWithEagerlyLoadedInfo() {
-        // Given
-        Pizza pizza = new Pizza("Margherita", new BigDecimal("8.50"), "Classic");
-        entityManager.persist(pizza);
-        entityManager.flush();
-        Long id = pizza.getId();
-
-        // When
-        Optional<Pizza> result = pizzaRepository.findByIdWithNutritionalInfo(id);
-
-        // Then
-        assertThat(result).isPresent();
-        assertThat(result.get().getId()).isEqualTo(id);
-    }
-
     @Test
     void findAll_ReturnsAllPizzas() {
         // Given
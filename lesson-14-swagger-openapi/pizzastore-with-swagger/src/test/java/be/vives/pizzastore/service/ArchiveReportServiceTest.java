@@ -0,0 +1,81 @@
+package be.vives.pizzastore.service;
+
+import be.vives.pizzastore.archive.ArchiveDimension;
+import be.vives.pizzastore.archive.ArchiveQuery;
+import be.vives.pizzastore.archive.ArchiveScanner;
+import be.vives.pizzastore.domain.OrderStatus;
+import be.vives.pizzastore.dto.response.ArchiveReportResponse;
+import be.vives.pizzastore.exception.BusinessException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ArchiveReportServiceTest {
+
+    @Mock
+    private ArchiveScanner archiveScanner;
+
+    @InjectMocks
+    private ArchiveReportService archiveReportService;
+
+    @Test
+    void report_shouldTurnGroupsIntoSortedRows() {
+        // Arrange
+        Map<ArchiveScanner.GroupKey, long[]> groups = new LinkedHashMap<>();
+        groups.put(new ArchiveScanner.GroupKey(2, 2023 * 12L + 1), new long[]{3, 3, 4, 3596});
+        groups.put(new ArchiveScanner.GroupKey(1, 2023 * 12L), new long[]{2, 2, 2, 1798});
+        when(archiveScanner.scan(any())).thenReturn(new ArchiveScanner.Result(1, 5, 5, 2_000_000, 4, groups));
+
+        // Act
+        ArchiveReportResponse report = archiveReportService.report(
+                List.of(ArchiveDimension.PIZZA, ArchiveDimension.MONTH),
+                LocalDate.of(2023, 1, 1), LocalDate.of(2023, 12, 31), null, null, List.of(OrderStatus.DELIVERED));
+
+        // Assert
+        assertThat(report.rows()).hasSize(2);
+        assertThat(report.rows().get(0).group()).containsExactly("1", "2023-01");
+        assertThat(report.rows().get(0).revenue()).isEqualByComparingTo("17.98");
+        assertThat(report.rows().get(1).group()).containsExactly("2", "2023-02");
+        assertThat(report.elapsedMillis()).isEqualTo(2);
+
+        ArgumentCaptor<ArchiveQuery> query = ArgumentCaptor.forClass(ArchiveQuery.class);
+        verify(archiveScanner).scan(query.capture());
+        assertThat(query.getValue().from()).isEqualTo(LocalDateTime.of(2023, 1, 1, 0, 0));
+        assertThat(query.getValue().to()).isAfter(LocalDateTime.of(2023, 12, 31, 23, 59));
+        assertThat(query.getValue().statuses()).isEqualTo(Set.of(OrderStatus.DELIVERED));
+    }
+
+    @Test
+    void report_withThreeDimensions_shouldThrowException() {
+        // Act & Assert
+        assertThatThrownBy(() -> archiveReportService.report(
+                List.of(ArchiveDimension.PIZZA, ArchiveDimension.MONTH, ArchiveDimension.CUSTOMER),
+                null, null, null, null, null))
+                .isInstanceOf(BusinessException.class);
+        verifyNoInteractions(archiveScanner);
+    }
+
+    @Test
+    void report_whenFromAfterTo_shouldThrowException() {
+        // Act & Assert
+        assertThatThrownBy(() -> archiveReportService.report(List.of(ArchiveDimension.DAY),
+                LocalDate.of(2023, 2, 1), LocalDate.of(2023, 1, 1), null, null, null))
+                .isInstanceOf(BusinessException.class);
+        verifyNoInteractions(archiveScanner);
+    }
+}
@@ -0,0 +1,169 @@
+package be.vives.pizzastore.service;
+
+import be.vives.pizzastore.dto.request.PizzaFilter;
+import be.vives.pizzastore.dto.response.NutritionalInfoResponse;
+import be.vives.pizzastore.dto.response.PizzaResponse;
+import be.vives.pizzastore.exception.BusinessException;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CatalogSnapshotTest {
+
+    private static final Instant CHANGED = Instant.parse("2024-05-01T10:00:00Z");
+
+    private final PizzaResponse margherita = pizza(1L, "Margherita", "8.50");
+    private final PizzaResponse pepperoni = pizza(2L, "Pepperoni", "9.50");
+    private final PizzaResponse marinara = pizza(3L, "Marinara", "7.50");
+    private final PizzaResponse diavola = pizza(4L, "Diavola", "9.50");
+
+    private final CatalogSnapshot snapshot = CatalogSnapshot.of(List.of(diavola, marinara, pepperoni, margherita));
+
+    @Test
+    void findById_shouldFindEveryPizza() {
+        // Act & Assert
+        assertThat(snapshot.findById(3L)).contains(marinara);
+        assertThat(snapshot.findById(5L)).isEmpty();
+        assertThat(snapshot.size()).isEqualTo(4);
+    }
+
+    @Test
+    void findAll_shouldPageInIdOrderByDefault() {
+        // Act
+        Page<PizzaResponse> page = snapshot.findAll(PageRequest.of(1, 3));
+
+        // Assert
+        assertThat(page.getContent()).containsExactly(diavola);
+        assertThat(page.getTotalElements()).isEqualTo(4);
+        assertThat(page.getTotalPages()).isEqualTo(2);
+    }
+
+    @Test
+    void findAll_shouldSortByNameAndByPriceDescending() {
+        // Act
+        Page<PizzaResponse> byName = snapshot.findAll(PageRequest.of(0, 2, Sort.by("name")));
+        Page<PizzaResponse> byPrice = snapshot.findAll(PageRequest.of(0, 4, Sort.by(Sort.Direction.DESC, "price")));
+
+        // Assert
+        assertThat(byName.getContent()).containsExactly(diavola, margherita);
+        assertThat(byPrice.getContent()).extracting(PizzaResponse::name)
+                .containsExactly("Pepperoni", "Diavola", "Margherita", "Marinara");
+    }
+
+    @Test
+    void findAll_withUnknownSortProperty_shouldThrowException() {
+        // Act & Assert
+        assertThatThrownBy(() -> snapshot.findAll(PageRequest.of(0, 10, Sort.by("calories"))))
+                .isInstanceOf(BusinessException.class)
+                .hasMessageContaining("calories");
+    }
+
+    @Test
+    void withAndWithout_shouldReturnNewSnapshotsAndLeaveTheOriginal() {
+        // Arrange
+        PizzaResponse cheaperMargherita = pizza(1L, "Margherita", "6.00");
+
+        // Act
+        CatalogSnapshot updated = snapshot.with(cheaperMargherita, CHANGED).with(pizza(10L, "Funghi", "9.00"), CHANGED);
+        CatalogSnapshot removed = updated.without(3L);
+
+        // Assert
+        assertThat(updated.find(new PizzaFilter(null, new BigDecimal("7.00"), null, null, null, null, null, null, null),
+                PageRequest.of(0, 10)).getContent()).containsExactly(cheaperMargherita);
+        assertThat(removed.size()).isEqualTo(4);
+        assertThat(removed.findById(3L)).isEmpty();
+        assertThat(removed.findById(10L)).isPresent();
+        assertThat(snapshot.findById(1L)).contains(margherita);
+        assertThat(snapshot.without(99L)).isSameAs(snapshot);
+    }
+
+    @Test
+    void find_shouldApplyEveryCriterionAndKeepTheIdOrder() {
+        // Arrange
+        PizzaFilter filter = new PizzaFilter(new BigDecimal("8.00"), null, "A", true, null, null, null, null, null);
+
+        // Act
+        Page<PizzaResponse> page = snapshot.find(filter, PageRequest.of(0, 10));
+
+        // Assert - Marinara is too cheap, Pepperoni has no 'a' in its name
+        assertThat(page.getContent()).containsExactly(margherita, diavola);
+        assertThat(page.getTotalElements()).isEqualTo(2);
+    }
+
+    @Test
+    void find_shouldPageAndSortTheMatches() {
+        // Arrange
+        PizzaFilter filter = new PizzaFilter(null, new BigDecimal("9.50"), null, null, null, null, null, null, null);
+
+        // Act
+        Page<PizzaResponse> page = snapshot.find(filter, PageRequest.of(1, 2, Sort.by("name")));
+
+        // Assert - Diavola, Margherita | Marinara, Pepperoni
+        assertThat(page.getContent()).containsExactly(marinara, pepperoni);
+        assertThat(page.getTotalElements()).isEqualTo(4);
+    }
+
+    @Test
+    void find_withNutritionalBounds_shouldSkipPizzasWithoutNutritionalInfo() {
+        // Arrange
+        PizzaResponse light = new PizzaResponse(5L, "Light", new BigDecimal("8.00"), null, null, false,
+                new NutritionalInfoResponse(650, new BigDecimal("30"), new BigDecimal("80"), new BigDecimal("18")));
+        PizzaResponse heavy = new PizzaResponse(6L, "Heavy", new BigDecimal("12.00"), null, null, true,
+                new NutritionalInfoResponse(1200, new BigDecimal("45"), new BigDecimal("110"), new BigDecimal("52")));
+        CatalogSnapshot withNutrition = snapshot.with(light, CHANGED).with(heavy, CHANGED);
+
+        // Act & Assert
+        assertThat(withNutrition.find(new PizzaFilter(null, null, null, null, null, 800, null, null, null),
+                PageRequest.of(0, 10)).getContent()).containsExactly(light);
+        assertThat(withNutrition.find(new PizzaFilter(null, null, null, true, null, null, new BigDecimal("40"), null, null),
+                PageRequest.of(0, 10)).getContent()).containsExactly(heavy);
+        assertThat(withNutrition.find(PizzaFilter.NONE, PageRequest.of(0, 10)).getTotalElements()).isEqualTo(6);
+    }
+
+    @Test
+    void version_shouldOnlyChangeWithTheContent() {
+        // Arrange
+        PizzaResponse cheaperMarinara = pizza(3L, "Marinara", "6.50");
+
+        // Act
+        CatalogSnapshot same = CatalogSnapshot.of(List.of(margherita, pepperoni, marinara, diavola));
+        CatalogSnapshot changed = snapshot.with(cheaperMarinara, CHANGED);
+
+        // Assert
+        assertThat(same.version().etag()).isEqualTo(snapshot.version().etag());
+        assertThat(changed.version().etag()).isNotEqualTo(snapshot.version().etag());
+        assertThat(changed.version(3L)).isNotEqualTo(snapshot.version(3L));
+        assertThat(changed.version(1L).orElseThrow().etag()).isEqualTo(snapshot.version(1L).orElseThrow().etag());
+        assertThat(snapshot.version(5L)).isEmpty();
+    }
+
+    @Test
+    void version_ofAPizza_shouldUseItsOwnLastChange() {
+        // Arrange
+        Instant created = Instant.parse("2024-01-15T09:30:00Z");
+        CatalogSnapshot loaded = CatalogSnapshot.of(List.of(margherita, pepperoni), Map.of(1L, created));
+
+        // Act
+        CatalogSnapshot changed = loaded.with(pizza(2L, "Pepperoni", "9.00"), CHANGED);
+
+        // Assert - the list keeps the build time, a pizza its own change
+        assertThat(changed.version(1L).orElseThrow().lastModified()).isEqualTo(created);
+        assertThat(changed.version(2L).orElseThrow().lastModified()).isEqualTo(CHANGED);
+        assertThat(loaded.version(2L).orElseThrow().lastModified()).isNull();
+        assertThat(changed.version().lastModified()).isAfter(CHANGED);
+        assertThat(changed.without(1L).version(2L).orElseThrow().lastModified()).isEqualTo(CHANGED);
+    }
+
+    private static PizzaResponse pizza(Long id, String name, String price) {
+        return new PizzaResponse(id, name, new BigDecimal(price), null, null, true, null);
+    }
+}
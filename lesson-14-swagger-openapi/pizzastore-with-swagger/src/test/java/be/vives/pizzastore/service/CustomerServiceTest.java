@@ -4,6 +4,7 @@ import be.vives.pizzastore.domain.Customer;
 import be.vives.pizzastore.domain.Pizza;
 import be.vives.pizzastore.dto.request.CreateCustomerRequest;
 import be.vives.pizzastore.dto.request.UpdateCustomerRequest;
+import be.vives.pizzastore.dto.response.CursorPageResponse;
 import be.vives.pizzastore.dto.response.CustomerResponse;
 import be.vives.pizzastore.dto.response.PizzaResponse;
 import be.vives.pizzastore.exception.ResourceNotFoundException;
@@ -52,21 +53,11 @@ class CustomerServiceTest {
     @Test
     void findAll_shouldReturnPageOfCustomers() {
         // Arrange
-        Customer customer1 = new Customer("John Doe", "john@example.com");
-        customer1.setPhone("1234567890");
-        customer1.setAddress("123 Main St");
-        Customer customer2 = new Customer("Jane Smith", "jane@example.com");
-        customer2.setPhone("0987654321");
-        customer2.setAddress("456 Oak Ave");
-        Page<Customer> page = new PageImpl<>(Arrays.asList(customer1, customer2));
         Pageable pageable = PageRequest.of(0, 10);
+        CustomerResponse response1 = new CustomerResponse(1L, "John Doe", "john@example.com", "1234567890", "123 Main St", "CUSTOMER", 0L, BigDecimal.ZERO, null);
+        CustomerResponse response2 = new CustomerResponse(2L, "Jane Smith", "jane@example.com", "0987654321", "456 Oak Ave", "CUSTOMER", 0L, BigDecimal.ZERO, null);
 
-        CustomerResponse response1 = new CustomerResponse(1L, "John Doe", "john@example.com", "1234567890", "123 Main St", "CUSTOMER");
-        CustomerResponse response2 = new CustomerResponse(2L, "Jane Smith", "jane@example.com", "0987654321", "456 Oak Ave", "CUSTOMER");
-
-        when(customerRepository.findAll(pageable)).thenReturn(page);
-        when(customerMapper.toResponse(customer1)).thenReturn(response1);
-        when(customerMapper.toResponse(customer2)).thenReturn(response2);
+        when(customerRepository.findAllResponses(pageable)).thenReturn(new PageImpl<>(Arrays.asList(response1, response2)));
 
         // Act
         Page<CustomerResponse> result = customerService.findAll(pageable);
@@ -75,14 +66,37 @@ class CustomerServiceTest {
         assertThat(result).hasSize(2);
         assertThat(result.getContent().get(0).name()).isEqualTo("John Doe");
         assertThat(result.getContent().get(1).name()).isEqualTo("Jane Smith");
-        verify(customerRepository).findAll(pageable);
+        verify(customerRepository).findAllResponses(pageable);
+        verify(customerRepository, never()).findAll(any(Pageable.class));
+    }
+
+    @Test
+    void findAllAfterCursor_shouldSeekPastLastCustomerId() {
+        // Arrange
+        CustomerResponse response1 = new CustomerResponse(1L, "John Doe", "john@example.com", null, null, "CUSTOMER", 0L, BigDecimal.ZERO, null);
+        CustomerResponse response2 = new CustomerResponse(2L, "Jane Smith", "jane@example.com", null, null, "CUSTOMER", 0L, BigDecimal.ZERO, null);
+
+        when(customerRepository.findKeysetResponsesAfter(0L, PageRequest.ofSize(2))).thenReturn(Arrays.asList(response1, response2));
+        when(customerRepository.findKeysetResponsesAfter(1L, PageRequest.ofSize(2))).thenReturn(List.of(response2));
+
+        // Act
+        CursorPageResponse<CustomerResponse> first = customerService.findAllAfterCursor("", 1);
+        CursorPageResponse<CustomerResponse> second = customerService.findAllAfterCursor(first.nextCursor(), 1);
+
+        // Assert
+        assertThat(first.content()).containsExactly(response1);
+        assertThat(first.hasNext()).isTrue();
+        assertThat(second.content()).containsExactly(response2);
+        assertThat(second.hasNext()).isFalse();
+        assertThat(second.nextCursor()).isNull();
+        verify(customerRepository, never()).findAll(any(Pageable.class));
     }
 
     @Test
     void findById_whenExists_shouldReturnCustomer() {
         // Arrange
         Customer customer = new Customer("John Doe", "john@example.com");
-        CustomerResponse response = new CustomerResponse(1L, "John Doe", "john@example.com", "1234567890", "123 Main St", "CUSTOMER");
+        CustomerResponse response = new CustomerResponse(1L, "John Doe", "john@example.com", "1234567890", "123 Main St", "CUSTOMER", 0L, BigDecimal.ZERO, null);
 
         when(customerRepository.findById(1L)).thenReturn(Optional.of(customer));
         when(customerMapper.toResponse(customer)).thenReturn(response);
@@ -143,7 +157,7 @@ class CustomerServiceTest {
         CreateCustomerRequest request = new CreateCustomerRequest("John Doe", "john@example.com", "password123", "1234567890", "123 Main St");
         Customer customer = new Customer("John Doe", "john@example.com");
         Customer savedCustomer = new Customer("John Doe", "john@example.com");
-        CustomerResponse response = new CustomerResponse(1L, "John Doe", "john@example.com", "1234567890", "123 Main St", "CUSTOMER");
+        CustomerResponse response = new CustomerResponse(1L, "John Doe", "john@example.com", "1234567890", "123 Main St", "CUSTOMER", 0L, BigDecimal.ZERO, null);
 
         when(customerMapper.toEntity(request)).thenReturn(customer);
         when(customerRepository.save(customer)).thenReturn(savedCustomer);
@@ -165,7 +179,7 @@ class CustomerServiceTest {
         UpdateCustomerRequest request = new UpdateCustomerRequest("John Doe Updated", "john@example.com", "9998887777", "456 New St");
         Customer customer = new Customer("John Doe", "john@example.com");
         Customer updatedCustomer = new Customer("John Doe Updated", "john@example.com");
-        CustomerResponse response = new CustomerResponse(1L, "John Doe Updated", "john@example.com", "9998887777", "456 New St", "CUSTOMER");
+        CustomerResponse response = new CustomerResponse(1L, "John Doe Updated", "john@example.com", "9998887777", "456 New St", "CUSTOMER", 0L, BigDecimal.ZERO, null);
 
         when(customerRepository.findById(1L)).thenReturn(Optional.of(customer));
         when(customerRepository.save(customer)).thenReturn(updatedCustomer);
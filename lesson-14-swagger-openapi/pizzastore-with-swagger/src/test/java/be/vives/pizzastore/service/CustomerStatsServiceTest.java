@@ -0,0 +1,98 @@
+package be.vives.pizzastore.service;
+
+import be.vives.pizzastore.archive.ArchiveDimension;
+import be.vives.pizzastore.archive.ArchiveQuery;
+import be.vives.pizzastore.archive.ArchiveScanner;
+import be.vives.pizzastore.domain.OrderStatus;
+import be.vives.pizzastore.dto.response.CustomerStatsRepairResponse;
+import be.vives.pizzastore.exception.BusinessException;
+import be.vives.pizzastore.repository.CustomerRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CustomerStatsServiceTest {
+
+    @Mock
+    private CustomerRepository customerRepository;
+
+    @Mock
+    private ArchiveScanner archiveScanner;
+
+    @InjectMocks
+    private CustomerStatsService customerStatsService;
+
+    @Test
+    void recordCreated_shouldMergeOrdersIntoCounters() {
+        // Act
+        customerStatsService.recordCreated(List.of(1L, 2L));
+
+        // Assert
+        verify(customerRepository).mergeOrderStats(List.of(1L, 2L), 1);
+    }
+
+    @Test
+    void recordCancelled_withoutOrders_shouldNotTouchCounters() {
+        // Act
+        customerStatsService.recordCancelled(List.of());
+
+        // Assert
+        verifyNoInteractions(customerRepository);
+    }
+
+    @Test
+    void findTop_shouldReadCountersWithLimit() {
+        // Arrange
+        when(customerRepository.findTopResponses(PageRequest.ofSize(5))).thenReturn(List.of());
+
+        // Act
+        customerStatsService.findTop(5);
+
+        // Assert
+        verify(customerRepository).findTopResponses(PageRequest.ofSize(5));
+    }
+
+    @Test
+    void findTop_withLimitOutOfRange_shouldThrowException() {
+        // Act & Assert
+        assertThatThrownBy(() -> customerStatsService.findTop(CustomerStatsService.MAX_TOP_CUSTOMERS + 1))
+                .isInstanceOf(BusinessException.class)
+                .hasMessageContaining("Limit");
+
+        verifyNoInteractions(customerRepository);
+    }
+
+    @Test
+    void repair_shouldAddDeliveredArchivedOrdersOnTopOfRecompute() {
+        // Arrange
+        when(customerRepository.recomputeStatsFromOrders()).thenReturn(6);
+        long[] sums = new long[4];
+        sums[ArchiveScanner.ORDERS] = 12;
+        sums[ArchiveScanner.REVENUE_CENTS] = 25_188;
+        when(archiveScanner.scan(any())).thenReturn(new ArchiveScanner.Result(1, 12, 20, 0, 1,
+                Map.of(new ArchiveScanner.GroupKey(3L, 0), sums)));
+
+        // Act
+        CustomerStatsRepairResponse response = customerStatsService.repair();
+
+        // Assert
+        assertThat(response.customers()).isEqualTo(6);
+        assertThat(response.customersWithArchivedOrders()).isEqualTo(1);
+        verify(customerRepository).addArchivedStats(3L, 12, 25_188);
+        verify(archiveScanner).scan(argThat((ArchiveQuery query) -> query.statuses().equals(Set.of(OrderStatus.DELIVERED))
+                && query.groupBy().equals(List.of(ArchiveDimension.CUSTOMER))));
+    }
+}
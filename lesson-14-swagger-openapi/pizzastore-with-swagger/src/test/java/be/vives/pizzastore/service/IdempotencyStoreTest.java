@@ -0,0 +1,150 @@
+package be.vives.pizzastore.service;
+
+import be.vives.pizzastore.domain.IdempotencyRecord;
+import be.vives.pizzastore.exception.BusinessException;
+import be.vives.pizzastore.exception.DuplicateResourceException;
+import be.vives.pizzastore.repository.IdempotencyRecordRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class IdempotencyStoreTest {
+
+    private static final byte[] BODY = "{\"id\":1}".getBytes(StandardCharsets.UTF_8);
+
+    @Mock
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    private IdempotencyStore idempotencyStore;
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        idempotencyStore = new IdempotencyStore(idempotencyRecordRepository, 60, 3, 2_000);
+        executor = Executors.newSingleThreadExecutor();
+        when(idempotencyRecordRepository.findById(any())).thenReturn(Optional.empty());
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void claim_afterComplete_shouldReplayFromMemory() {
+        // Arrange
+        assertThat(idempotencyStore.claim("jane:k1", "fp")).isEmpty();
+        idempotencyStore.complete("jane:k1", "fp", 201, "application/json", "/api/orders/1", BODY);
+
+        // Act
+        Optional<IdempotencyStore.StoredResponse> replay = idempotencyStore.claim("jane:k1", "fp");
+
+        // Assert
+        assertThat(replay).isPresent();
+        assertThat(replay.get().status()).isEqualTo(201);
+        assertThat(replay.get().location()).isEqualTo("/api/orders/1");
+        assertThat(replay.get().body()).isEqualTo(BODY);
+        verify(idempotencyRecordRepository, times(1)).findById("jane:k1");
+        verify(idempotencyRecordRepository).save(any(IdempotencyRecord.class));
+    }
+
+    @Test
+    void claim_withDifferentFingerprint_shouldThrowException() {
+        // Arrange
+        idempotencyStore.claim("jane:k1", "fp");
+        idempotencyStore.complete("jane:k1", "fp", 201, "application/json", null, BODY);
+
+        // Act & Assert
+        assertThatThrownBy(() -> idempotencyStore.claim("jane:k1", "other"))
+                .isInstanceOf(BusinessException.class);
+    }
+
+    @Test
+    void claim_whileFirstRequestRuns_shouldWaitForItsResponse() throws Exception {
+        // Arrange
+        assertThat(idempotencyStore.claim("jane:k1", "fp")).isEmpty();
+
+        // Act
+        Future<Optional<IdempotencyStore.StoredResponse>> duplicate = executor.submit(() -> idempotencyStore.claim("jane:k1", "fp"));
+        Thread.sleep(100);
+        boolean doneBeforeComplete = duplicate.isDone();
+        idempotencyStore.complete("jane:k1", "fp", 201, "application/json", null, BODY);
+
+        // Assert
+        assertThat(doneBeforeComplete).isFalse();
+        assertThat(duplicate.get(1, TimeUnit.SECONDS)).isPresent();
+        verify(idempotencyRecordRepository, times(1)).save(any(IdempotencyRecord.class));
+    }
+
+    @Test
+    void release_shouldLetAWaitingDuplicateRunTheRequest() throws Exception {
+        // Arrange
+        assertThat(idempotencyStore.claim("jane:k1", "fp")).isEmpty();
+        Future<Optional<IdempotencyStore.StoredResponse>> duplicate = executor.submit(() -> idempotencyStore.claim("jane:k1", "fp"));
+        Thread.sleep(100);
+
+        // Act
+        idempotencyStore.release("jane:k1");
+
+        // Assert: the duplicate now owns the key
+        assertThat(duplicate.get(1, TimeUnit.SECONDS)).isEmpty();
+        verify(idempotencyRecordRepository, never()).save(any());
+    }
+
+    @Test
+    void claim_whenFirstRequestTakesTooLong_shouldThrowException() {
+        // Arrange
+        IdempotencyStore impatient = new IdempotencyStore(idempotencyRecordRepository, 60, 3, 50);
+        impatient.claim("jane:k1", "fp");
+
+        // Act & Assert
+        assertThatThrownBy(() -> impatient.claim("jane:k1", "fp"))
+                .isInstanceOf(DuplicateResourceException.class);
+    }
+
+    @Test
+    void claim_whenNotCached_shouldReadTheTableAndIgnoreExpiredKeys() {
+        // Arrange
+        LocalDateTime now = LocalDateTime.now();
+        when(idempotencyRecordRepository.findById("jane:live")).thenReturn(Optional.of(
+                new IdempotencyRecord("jane:live", "fp", 200, null, null, BODY, now, now.plusMinutes(5))));
+        when(idempotencyRecordRepository.findById("jane:expired")).thenReturn(Optional.of(
+                new IdempotencyRecord("jane:expired", "fp", 200, null, null, BODY, now.minusDays(2), now.minusDays(1))));
+
+        // Act & Assert
+        assertThat(idempotencyStore.claim("jane:live", "fp")).isPresent();
+        assertThat(idempotencyStore.claim("jane:expired", "fp")).isEmpty();
+    }
+
+    @Test
+    void complete_shouldKeepOnlyTheMostRecentKeysInMemory() {
+        // Act
+        for (int i = 0; i < 5; i++) {
+            idempotencyStore.claim("jane:k" + i, "fp");
+            idempotencyStore.complete("jane:k" + i, "fp", 201, null, null, BODY);
+        }
+
+        // Assert
+        assertThat(idempotencyStore.cachedKeys()).isEqualTo(3);
+    }
+}
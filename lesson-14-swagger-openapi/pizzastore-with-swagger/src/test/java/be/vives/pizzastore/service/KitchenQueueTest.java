@@ -0,0 +1,156 @@
+package be.vives.pizzastore.service;
+
+import be.vives.pizzastore.domain.OrderStatus;
+import be.vives.pizzastore.dto.response.KitchenOrderResponse;
+import be.vives.pizzastore.dto.response.OrderStatusEvent;
+import be.vives.pizzastore.repository.OrderRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class KitchenQueueTest {
+
+    private static final LocalDateTime NOON = LocalDateTime.of(2024, 1, 1, 12, 0);
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    private KitchenQueue kitchenQueue;
+
+    @BeforeEach
+    void setUp() {
+        kitchenQueue = new KitchenQueue(orderRepository);
+    }
+
+    @Test
+    void seed_shouldPartitionOrdersByStatusOldestFirst() {
+        // Arrange
+        when(orderRepository.findKitchenOrdersByStatusIn(KitchenQueue.TRACKED)).thenReturn(List.of(
+                order(1L, OrderStatus.PENDING, NOON.plusMinutes(10)),
+                order(2L, OrderStatus.PENDING, NOON),
+                order(3L, OrderStatus.PREPARING, NOON.plusMinutes(5))));
+
+        // Act
+        kitchenQueue.seed();
+
+        // Assert
+        assertThat(kitchenQueue.findByStatus(OrderStatus.PENDING)).extracting(KitchenOrderResponse::id).containsExactly(2L, 1L);
+        assertThat(kitchenQueue.findByStatus(OrderStatus.PREPARING)).extracting(KitchenOrderResponse::id).containsExactly(3L);
+        assertThat(kitchenQueue.findByStatus(OrderStatus.DELIVERED)).isEmpty();
+    }
+
+    @Test
+    void onStatusChanged_shouldAddCreatedOrdersAndMoveThemThroughTheKitchen() {
+        // Act
+        kitchenQueue.onStatusChanged(new OrderStatusEvent(1L, "ORD-2024-000001", OrderStatus.PENDING, NOON, NOON));
+        kitchenQueue.onStatusChanged(new OrderStatusEvent(1L, OrderStatus.PREPARING, NOON.plusMinutes(1)));
+
+        // Assert
+        assertThat(kitchenQueue.findByStatus(OrderStatus.PENDING)).isEmpty();
+        assertThat(kitchenQueue.findByStatus(OrderStatus.PREPARING))
+                .containsExactly(order(1L, OrderStatus.PREPARING, NOON));
+        verifyNoInteractions(orderRepository);
+    }
+
+    @Test
+    void onStatusChanged_toFinalStatus_shouldRemoveOrder() {
+        // Arrange
+        kitchenQueue.onStatusChanged(new OrderStatusEvent(1L, "ORD-2024-000001", OrderStatus.PENDING, NOON, NOON));
+
+        // Act
+        kitchenQueue.onStatusChanged(new OrderStatusEvent(1L, OrderStatus.CANCELLED, NOON.plusMinutes(1)));
+
+        // Assert
+        assertThat(kitchenQueue.size()).isZero();
+        assertThat(kitchenQueue.findByStatus(OrderStatus.PENDING)).isEmpty();
+    }
+
+    @Test
+    void onStatusChanged_outOfOrder_shouldIgnoreBackwardTransition() {
+        // Arrange
+        kitchenQueue.onStatusChanged(new OrderStatusEvent(1L, "ORD-2024-000001", OrderStatus.READY, NOON, NOON));
+
+        // Act - a late PREPARING event arrives after READY
+        kitchenQueue.onStatusChanged(new OrderStatusEvent(1L, OrderStatus.PREPARING, NOON));
+
+        // Assert
+        assertThat(kitchenQueue.findByStatus(OrderStatus.READY)).extracting(KitchenOrderResponse::id).containsExactly(1L);
+        assertThat(kitchenQueue.findByStatus(OrderStatus.PREPARING)).isEmpty();
+    }
+
+    @Test
+    void onStatusChanged_forUnknownOrderWithoutDetails_shouldLoadItOnce() {
+        // Arrange
+        when(orderRepository.findKitchenOrderById(7L))
+                .thenReturn(Optional.of(order(7L, OrderStatus.PREPARING, NOON)));
+
+        // Act
+        kitchenQueue.onStatusChanged(new OrderStatusEvent(7L, OrderStatus.PREPARING, NOON));
+
+        // Assert
+        assertThat(kitchenQueue.findByStatus(OrderStatus.PREPARING)).extracting(KitchenOrderResponse::id).containsExactly(7L);
+        verify(orderRepository).findKitchenOrderById(7L);
+    }
+
+    @Test
+    void checkConsistency_whenOutOfSync_shouldReloadFromDatabase() {
+        // Arrange
+        kitchenQueue.onStatusChanged(new OrderStatusEvent(1L, "ORD-2024-000001", OrderStatus.PENDING, NOON, NOON));
+        when(orderRepository.findKitchenOrdersByStatusIn(any()))
+                .thenReturn(List.of(order(2L, OrderStatus.PREPARING, NOON)));
+
+        // Act
+        boolean consistent = kitchenQueue.checkConsistency();
+
+        // Assert
+        assertThat(consistent).isFalse();
+        assertThat(kitchenQueue.findByStatus(OrderStatus.PENDING)).isEmpty();
+        assertThat(kitchenQueue.findByStatus(OrderStatus.PREPARING)).extracting(KitchenOrderResponse::id).containsExactly(2L);
+    }
+
+    @Test
+    void checkConsistency_whenInSync_shouldReturnTrue() {
+        // Arrange
+        kitchenQueue.onStatusChanged(new OrderStatusEvent(1L, "ORD-2024-000001", OrderStatus.PENDING, NOON, NOON));
+        when(orderRepository.findKitchenOrdersByStatusIn(any()))
+                .thenReturn(List.of(order(1L, OrderStatus.PENDING, NOON)));
+
+        // Act & Assert
+        assertThat(kitchenQueue.checkConsistency()).isTrue();
+    }
+
+    @Test
+    void checkConsistency_shouldApplyEventsArrivingDuringTheCheckAfterTheSnapshot() throws Exception {
+        // Arrange - an order moves on while the database snapshot is being read
+        kitchenQueue.onStatusChanged(new OrderStatusEvent(1L, "ORD-2024-000001", OrderStatus.PENDING, NOON, NOON));
+        Thread[] concurrent = new Thread[1];
+        when(orderRepository.findKitchenOrdersByStatusIn(any())).thenAnswer(invocation -> {
+            concurrent[0] = Thread.startVirtualThread(() -> kitchenQueue.onStatusChanged(
+                    new OrderStatusEvent(1L, OrderStatus.PREPARING, NOON.plusMinutes(1))));
+            return List.of(order(1L, OrderStatus.PENDING, NOON), order(2L, OrderStatus.PENDING, NOON));
+        });
+
+        // Act
+        kitchenQueue.checkConsistency();
+        concurrent[0].join();
+
+        // Assert - the resync picked up order 2 and the event was not lost under the stale snapshot of order 1
+        assertThat(kitchenQueue.findByStatus(OrderStatus.PENDING)).extracting(KitchenOrderResponse::id).containsExactly(2L);
+        assertThat(kitchenQueue.findByStatus(OrderStatus.PREPARING)).extracting(KitchenOrderResponse::id).containsExactly(1L);
+    }
+
+    private KitchenOrderResponse order(Long id, OrderStatus status, LocalDateTime orderDate) {
+        return new KitchenOrderResponse(id, String.format("ORD-2024-%06d", id), status, orderDate);
+    }
+}
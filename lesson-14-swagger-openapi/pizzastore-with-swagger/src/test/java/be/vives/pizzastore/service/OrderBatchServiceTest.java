@@ -0,0 +1,203 @@
+package be.vives.pizzastore.service;
+
+import be.vives.pizzastore.domain.Customer;
+import be.vives.pizzastore.domain.Order;
+import be.vives.pizzastore.domain.Pizza;
+import be.vives.pizzastore.dto.request.CreateOrderRequest;
+import be.vives.pizzastore.dto.response.BatchOrderResponse;
+import be.vives.pizzastore.dto.response.OrderResponse;
+import be.vives.pizzastore.dto.response.OrderStatusEvent;
+import be.vives.pizzastore.exception.BusinessException;
+import be.vives.pizzastore.mapper.OrderMapper;
+import be.vives.pizzastore.repository.CustomerRepository;
+import be.vives.pizzastore.repository.OrderRepository;
+import be.vives.pizzastore.repository.PizzaRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OrderBatchServiceTest {
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private CustomerRepository customerRepository;
+
+    @Mock
+    private PizzaRepository pizzaRepository;
+
+    @Mock
+    private OrderMapper orderMapper;
+
+    @Mock
+    private OrderNumberAllocator orderNumberAllocator;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private SalesRollupService salesRollupService;
+
+    @Mock
+    private CustomerStatsService customerStatsService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private OrderBatchService orderBatchService;
+
+    private Customer customer;
+    private Pizza margherita;
+    private Pizza unavailable;
+
+    @BeforeEach
+    void setUp() {
+        // Chunks of two orders, so a batch of three runs in two transactions
+        orderBatchService = new OrderBatchService(orderRepository, customerRepository, pizzaRepository,
+                orderMapper, orderNumberAllocator, eventPublisher, salesRollupService, customerStatsService,
+                transactionManager, 2);
+
+        customer = new Customer("John Doe", "john@example.com");
+        customer.setId(1L);
+        margherita = new Pizza("Margherita", BigDecimal.valueOf(8.50), "Classic pizza");
+        margherita.setId(1L);
+        unavailable = new Pizza("Hawaii", BigDecimal.valueOf(10.00), "Seasonal pizza");
+        unavailable.setId(2L);
+        unavailable.setAvailable(false);
+    }
+
+    @Test
+    void createAll_shouldLookUpCustomersAndPizzasOncePerChunk() {
+        // Arrange
+        List<CreateOrderRequest> requests = List.of(order(1L, 1L), order(1L, 1L), order(1L, 1L));
+        when(customerRepository.findAllById(any())).thenReturn(List.of(customer));
+        when(pizzaRepository.findAllByIdWithNutritionalInfo(any())).thenReturn(List.of(margherita));
+        when(orderNumberAllocator.next()).thenReturn("ORD-2024-000001", "ORD-2024-000002", "ORD-2024-000003");
+        when(orderMapper.toResponse(any(Order.class))).thenReturn(response());
+
+        // Act
+        BatchOrderResponse result = orderBatchService.createAll(requests);
+
+        // Assert
+        assertThat(result.total()).isEqualTo(3);
+        assertThat(result.created()).isEqualTo(3);
+        assertThat(result.rejected()).isZero();
+        assertThat(result.results()).extracting(BatchOrderResponse.ItemResult::index).containsExactly(0, 1, 2);
+        verify(customerRepository, times(2)).findAllById(any());
+        verify(pizzaRepository, times(2)).findAllByIdWithNutritionalInfo(any());
+        verify(orderRepository, times(2)).saveAll(any());
+        verify(orderRepository, times(2)).flush();
+        verify(eventPublisher, times(3)).publishEvent(any(OrderStatusEvent.class));
+    }
+
+    @Test
+    void createAll_shouldRejectInvalidOrdersAndKeepTheRest() {
+        // Arrange
+        List<CreateOrderRequest> requests = List.of(
+                order(1L, 1L),
+                order(99L, 1L),
+                order(1L, 2L),
+                order(1L, 42L),
+                new CreateOrderRequest(1L, List.of()));
+        when(customerRepository.findAllById(any())).thenReturn(List.of(customer));
+        when(pizzaRepository.findAllByIdWithNutritionalInfo(any())).thenReturn(List.of(margherita, unavailable));
+        when(orderNumberAllocator.next()).thenReturn("ORD-2024-000001");
+        when(orderMapper.toResponse(any(Order.class))).thenReturn(response());
+
+        // Act
+        BatchOrderResponse result = orderBatchService.createAll(requests);
+
+        // Assert
+        assertThat(result.created()).isEqualTo(1);
+        assertThat(result.rejected()).isEqualTo(4);
+        assertThat(result.results()).extracting(BatchOrderResponse.ItemResult::error).containsExactly(
+                null,
+                "Customer with id 99 not found",
+                "Pizza 'Hawaii' is currently not available",
+                "Pizza with id 42 not found",
+                "Order must contain at least one pizza");
+        verify(orderNumberAllocator, times(1)).next();
+    }
+
+    @Test
+    void createAll_whenChunkFailsInDatabase_shouldRetryOrdersIndividually() {
+        // Arrange
+        List<CreateOrderRequest> requests = List.of(order(1L, 1L), order(1L, 1L));
+        when(customerRepository.findAllById(any())).thenReturn(List.of(customer));
+        when(pizzaRepository.findAllByIdWithNutritionalInfo(any())).thenReturn(List.of(margherita));
+        when(orderNumberAllocator.next()).thenReturn("ORD-2024-000001");
+        when(orderMapper.toResponse(any(Order.class))).thenReturn(response());
+        // The chunk insert fails, then the first order saves on its own and the second fails again
+        List<Integer> savedSizes = new ArrayList<>();
+        doAnswer(invocation -> {
+            Iterable<?> orders = invocation.getArgument(0);
+            int size = 0;
+            for (Object ignored : orders) {
+                size++;
+            }
+            savedSizes.add(size);
+            if (savedSizes.size() != 2) {
+                throw new DataIntegrityViolationException("Duplicate order number");
+            }
+            return Collections.emptyList();
+        }).when(orderRepository).saveAll(any());
+
+        // Act
+        BatchOrderResponse result = orderBatchService.createAll(requests);
+
+        // Assert
+        assertThat(savedSizes).containsExactly(2, 1, 1);
+        assertThat(result.created()).isEqualTo(1);
+        assertThat(result.results().get(0).created()).isTrue();
+        assertThat(result.results().get(1).error()).isEqualTo("Order could not be saved");
+    }
+
+    @Test
+    void createAll_withEmptyBatch_shouldThrowException() {
+        // Act & Assert
+        assertThatThrownBy(() -> orderBatchService.createAll(List.of()))
+                .isInstanceOf(BusinessException.class)
+                .hasMessageContaining("at least one order");
+
+        verifyNoInteractions(orderRepository);
+    }
+
+    @Test
+    void createAll_withTooManyOrders_shouldThrowException() {
+        // Arrange
+        List<CreateOrderRequest> requests = Collections.nCopies(OrderBatchService.MAX_ORDERS_PER_BATCH + 1, order(1L, 1L));
+
+        // Act & Assert
+        assertThatThrownBy(() -> orderBatchService.createAll(requests))
+                .isInstanceOf(BusinessException.class)
+                .hasMessageContaining("at most");
+
+        verifyNoInteractions(orderRepository);
+    }
+
+    private CreateOrderRequest order(Long customerId, Long pizzaId) {
+        return new CreateOrderRequest(customerId, List.of(new CreateOrderRequest.OrderLineRequest(pizzaId, 1)));
+    }
+
+    private OrderResponse response() {
+        return new OrderResponse(1L, "ORD-2024-000001", 1L, "John Doe",
+                List.of(), BigDecimal.valueOf(8.50), null, null);
+    }
+}
@@ -0,0 +1,102 @@
+package be.vives.pizzastore.service;
+
+import be.vives.pizzastore.archive.OrderArchive;
+import be.vives.pizzastore.domain.Customer;
+import be.vives.pizzastore.domain.Order;
+import be.vives.pizzastore.domain.OrderStatus;
+import be.vives.pizzastore.exception.BusinessException;
+import be.vives.pizzastore.repository.OrderRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OrderExportServiceTest {
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private OrderArchive orderArchive;
+
+    @Mock
+    private EntityManager entityManager;
+
+    private OrderExportService orderExportService;
+
+    private final LocalDate day = LocalDate.of(2025, 3, 1);
+
+    @BeforeEach
+    void setUp() {
+        orderExportService = new OrderExportService(orderRepository, orderArchive, entityManager,
+                new ObjectMapper().findAndRegisterModules());
+    }
+
+    private Order order(long id) {
+        Customer customer = new Customer("Jane", "jane@example.com");
+        customer.setId(1L);
+        Order order = new Order("ORD-" + id, customer, OrderStatus.DELIVERED);
+        order.setId(id);
+        order.setOrderDate(day.atTime(12, 0));
+        order.setTotalAmount(new BigDecimal("10.00"));
+        return order;
+    }
+
+    @Test
+    void export_shouldClearPersistenceContextEveryBlock() throws Exception {
+        // Arrange
+        when(orderArchive.findSegments(any(), any(), any())).thenReturn(List.of());
+        when(orderRepository.streamByOrderDateRange(day.atStartOfDay(), day.plusDays(1).atStartOfDay()))
+                .thenReturn(IntStream.rangeClosed(1, 2_500).mapToObj(this::order));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        long rows = orderExportService.export(OrderExportService.Format.CSV, day, day, out);
+
+        // Assert
+        assertThat(rows).isEqualTo(2_500);
+        assertThat(out.toString(StandardCharsets.UTF_8).lines()).hasSize(2_501);
+        verify(entityManager, times(2)).clear();
+    }
+
+    @Test
+    void export_whenFromAfterTo_shouldThrowException() {
+        // Act & Assert
+        assertThatThrownBy(() -> orderExportService.export(OrderExportService.Format.CSV,
+                day, day.minusDays(1), new ByteArrayOutputStream()))
+                .isInstanceOf(BusinessException.class);
+        verifyNoInteractions(orderRepository);
+    }
+
+    @Test
+    void csv_shouldQuoteFieldsWithSeparatorsOrQuotes() {
+        // Act & Assert
+        assertThat(OrderExportService.csv("plain")).isEqualTo("plain");
+        assertThat(OrderExportService.csv("Doe, Jane")).isEqualTo("\"Doe, Jane\"");
+        assertThat(OrderExportService.csv("say \"hi\"")).isEqualTo("\"say \"\"hi\"\"\"");
+        assertThat(OrderExportService.csv(null)).isEmpty();
+    }
+
+    @Test
+    void format_shouldParseCaseInsensitively() {
+        // Act & Assert
+        assertThat(OrderExportService.Format.of("NdJson")).isEqualTo(OrderExportService.Format.NDJSON);
+        assertThatThrownBy(() -> OrderExportService.Format.of("xml")).isInstanceOf(BusinessException.class);
+    }
+}
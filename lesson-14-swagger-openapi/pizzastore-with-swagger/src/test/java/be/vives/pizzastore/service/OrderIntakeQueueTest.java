@@ -0,0 +1,181 @@
+package be.vives.pizzastore.service;
+
+import be.vives.pizzastore.domain.OrderStatus;
+import be.vives.pizzastore.dto.request.CreateOrderRequest;
+import be.vives.pizzastore.dto.response.BatchOrderResponse;
+import be.vives.pizzastore.dto.response.OrderIntakeResponse;
+import be.vives.pizzastore.dto.response.OrderIntakeStatsResponse;
+import be.vives.pizzastore.dto.response.OrderResponse;
+import be.vives.pizzastore.exception.BusinessException;
+import be.vives.pizzastore.exception.ResourceNotFoundException;
+import be.vives.pizzastore.exception.ServiceUnavailableException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+// The writer thread is not started here: flushQueued() writes the queue on the test thread
+@ExtendWith(MockitoExtension.class)
+class OrderIntakeQueueTest {
+
+    private static final CreateOrderRequest REQUEST =
+            new CreateOrderRequest(1L, List.of(new CreateOrderRequest.OrderLineRequest(1L, 1)));
+    private static final String OWNER = "john@example.com";
+
+    @Mock
+    private OrderBatchService orderBatchService;
+
+    @Test
+    void submit_shouldQueueOrderAndReturnTrackingId() {
+        // Arrange
+        OrderIntakeQueue queue = new OrderIntakeQueue(orderBatchService, 10, 5, 600, 1);
+
+        // Act
+        OrderIntakeResponse response = queue.submit(REQUEST, OWNER);
+
+        // Assert
+        assertThat(response.trackingId()).isNotBlank();
+        assertThat(response.state()).isEqualTo(OrderIntakeResponse.State.QUEUED);
+        assertThat(queue.findByTrackingId(response.trackingId(), OWNER, false).state()).isEqualTo(OrderIntakeResponse.State.QUEUED);
+        assertThat(queue.stats().queueDepth()).isEqualTo(1);
+        verifyNoInteractions(orderBatchService);
+    }
+
+    @Test
+    void submit_whenQueueIsFull_shouldThrowServiceUnavailable() {
+        // Arrange
+        OrderIntakeQueue queue = new OrderIntakeQueue(orderBatchService, 2, 2, 600, 3);
+        queue.submit(REQUEST, OWNER);
+        queue.submit(REQUEST, OWNER);
+
+        // Act & Assert
+        assertThatThrownBy(() -> queue.submit(REQUEST, OWNER))
+                .isInstanceOf(ServiceUnavailableException.class)
+                .extracting(ex -> ((ServiceUnavailableException) ex).getRetryAfterSeconds())
+                .isEqualTo(3L);
+        assertThat(queue.stats().accepted()).isEqualTo(2);
+        assertThat(queue.stats().rejectedWhenFull()).isEqualTo(1);
+    }
+
+    @Test
+    void submit_withoutOrderLines_shouldThrowBusinessException() {
+        // Arrange
+        OrderIntakeQueue queue = new OrderIntakeQueue(orderBatchService, 10, 5, 600, 1);
+
+        // Act & Assert
+        assertThatThrownBy(() -> queue.submit(new CreateOrderRequest(1L, List.of()), OWNER))
+                .isInstanceOf(BusinessException.class)
+                .hasMessageContaining("at least one pizza");
+        assertThat(queue.stats().queueDepth()).isZero();
+    }
+
+    @Test
+    void flushQueued_shouldWriteOrdersInBatchesAndRecordResults() {
+        // Arrange
+        OrderIntakeQueue queue = new OrderIntakeQueue(orderBatchService, 10, 2, 600, 1);
+        String first = queue.submit(REQUEST, OWNER).trackingId();
+        String second = queue.submit(REQUEST, OWNER).trackingId();
+        String third = queue.submit(REQUEST, OWNER).trackingId();
+        OrderResponse order = new OrderResponse(1L, "ORD-2024-000001", 1L, "John Doe",
+                List.of(), BigDecimal.valueOf(8.50), OrderStatus.PENDING, LocalDateTime.now());
+        when(orderBatchService.createAll(any()))
+                .thenReturn(new BatchOrderResponse(2, 1, 1, List.of(
+                        new BatchOrderResponse.ItemResult(0, true, order, null),
+                        new BatchOrderResponse.ItemResult(1, false, null, "Pizza with id 1 not found"))))
+                .thenReturn(new BatchOrderResponse(1, 1, 0, List.of(
+                        new BatchOrderResponse.ItemResult(0, true, order, null))));
+
+        // Act
+        int firstBatch = queue.flushQueued();
+        int secondBatch = queue.flushQueued();
+
+        // Assert
+        assertThat(firstBatch).isEqualTo(2);
+        assertThat(secondBatch).isEqualTo(1);
+        assertThat(queue.findByTrackingId(first, OWNER, false).state()).isEqualTo(OrderIntakeResponse.State.CREATED);
+        assertThat(queue.findByTrackingId(first, OWNER, false).order().orderNumber()).isEqualTo("ORD-2024-000001");
+        assertThat(queue.findByTrackingId(second, OWNER, false).state()).isEqualTo(OrderIntakeResponse.State.REJECTED);
+        assertThat(queue.findByTrackingId(second, OWNER, false).error()).isEqualTo("Pizza with id 1 not found");
+        assertThat(queue.findByTrackingId(third, OWNER, false).state()).isEqualTo(OrderIntakeResponse.State.CREATED);
+
+        OrderIntakeStatsResponse stats = queue.stats();
+        assertThat(stats.queueDepth()).isZero();
+        assertThat(stats.flushes()).isEqualTo(2);
+        verify(orderBatchService, times(2)).createAll(any());
+    }
+
+    @Test
+    void flushQueued_whenWriteFails_shouldRejectTheWholeBatch() {
+        // Arrange
+        OrderIntakeQueue queue = new OrderIntakeQueue(orderBatchService, 10, 5, 600, 1);
+        String trackingId = queue.submit(REQUEST, OWNER).trackingId();
+        when(orderBatchService.createAll(any())).thenThrow(new IllegalStateException("Database down"));
+
+        // Act
+        queue.flushQueued();
+
+        // Assert
+        assertThat(queue.findByTrackingId(trackingId, OWNER, false).state()).isEqualTo(OrderIntakeResponse.State.REJECTED);
+        assertThat(queue.findByTrackingId(trackingId, OWNER, false).error()).isEqualTo("Order could not be saved");
+    }
+
+    @Test
+    void findByTrackingId_afterRetention_shouldThrowResourceNotFound() {
+        // Arrange
+        OrderIntakeQueue queue = new OrderIntakeQueue(orderBatchService, 10, 5, 0, 1);
+        String trackingId = queue.submit(REQUEST, OWNER).trackingId();
+        when(orderBatchService.createAll(any())).thenReturn(new BatchOrderResponse(1, 0, 1, List.of(
+                new BatchOrderResponse.ItemResult(0, false, null, "Customer with id 1 not found"))));
+
+        // Act
+        queue.flushQueued();
+
+        // Assert - results are evicted after each flush once the retention has passed
+        assertThatThrownBy(() -> queue.findByTrackingId(trackingId, OWNER, false))
+                .isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    @Test
+    void findByTrackingId_ofAnotherUser_shouldThrowResourceNotFoundUnlessAdmin() {
+        // Arrange
+        OrderIntakeQueue queue = new OrderIntakeQueue(orderBatchService, 10, 5, 600, 1);
+        String trackingId = queue.submit(REQUEST, OWNER).trackingId();
+
+        // Act & Assert
+        assertThatThrownBy(() -> queue.findByTrackingId(trackingId, "jane@example.com", false))
+                .isInstanceOf(ResourceNotFoundException.class);
+        assertThat(queue.findByTrackingId(trackingId, "admin@example.com", true).state())
+                .isEqualTo(OrderIntakeResponse.State.QUEUED);
+    }
+
+    @Test
+    void flushQueued_whenWriteThrowsError_shouldRejectTheBatchAndKeepGoing() {
+        // Arrange
+        OrderIntakeQueue queue = new OrderIntakeQueue(orderBatchService, 10, 1, 600, 1);
+        String first = queue.submit(REQUEST, OWNER).trackingId();
+        String second = queue.submit(REQUEST, OWNER).trackingId();
+        OrderResponse order = new OrderResponse(1L, "ORD-2024-000001", 1L, "John Doe",
+                List.of(), BigDecimal.valueOf(8.50), OrderStatus.PENDING, LocalDateTime.now());
+        when(orderBatchService.createAll(any()))
+                .thenThrow(new StackOverflowError())
+                .thenReturn(new BatchOrderResponse(1, 1, 0, List.of(
+                        new BatchOrderResponse.ItemResult(0, true, order, null))));
+
+        // Act
+        queue.flushQueued();
+        queue.flushQueued();
+
+        // Assert
+        assertThat(queue.findByTrackingId(first, OWNER, false).state()).isEqualTo(OrderIntakeResponse.State.REJECTED);
+        assertThat(queue.findByTrackingId(second, OWNER, false).state()).isEqualTo(OrderIntakeResponse.State.CREATED);
+    }
+}
@@ -0,0 +1,117 @@
+package be.vives.pizzastore.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OrderNumberAllocatorTest {
+
+    private static final String NEXT_2025 = "SELECT NEXT VALUE FOR order_number_seq_2025";
+    private static final String NEXT_2026 = "SELECT NEXT VALUE FOR order_number_seq_2026";
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void next_shouldClaimNumbersFromReservedBlocks() {
+        // Arrange
+        when(jdbcTemplate.queryForObject(NEXT_2025, Long.class)).thenReturn(1L, 2L);
+        OrderNumberAllocator allocator = new OrderNumberAllocator(jdbcTemplate, transactionManager, 3, "");
+
+        // Act
+        List<String> numbers = nextNumbers(allocator, 2025, 4);
+
+        // Assert
+        assertThat(numbers).containsExactly(
+                "ORD-2025-000001", "ORD-2025-000002", "ORD-2025-000003", "ORD-2025-000004");
+        // One sequence call per block of three numbers
+        verify(jdbcTemplate, times(2)).queryForObject(NEXT_2025, Long.class);
+        verify(jdbcTemplate, times(2)).execute("CREATE SEQUENCE IF NOT EXISTS order_number_seq_2025");
+    }
+
+    @Test
+    void next_shouldRestartNumberingInANewYear() {
+        // Arrange
+        when(jdbcTemplate.queryForObject(NEXT_2025, Long.class)).thenReturn(7L);
+        when(jdbcTemplate.queryForObject(NEXT_2026, Long.class)).thenReturn(1L);
+        OrderNumberAllocator allocator = new OrderNumberAllocator(jdbcTemplate, transactionManager, 10, "");
+
+        // Act
+        String lastOfYear = allocator.next(2025);
+        String firstOfYear = allocator.next(2026);
+
+        // Assert
+        assertThat(lastOfYear).isEqualTo("ORD-2025-000061");
+        assertThat(firstOfYear).isEqualTo("ORD-2026-000001");
+    }
+
+    @Test
+    void next_withNodeId_shouldIncludeNodeIdInNumber() {
+        // Arrange
+        when(jdbcTemplate.queryForObject(NEXT_2025, Long.class)).thenReturn(1L);
+        OrderNumberAllocator allocator = new OrderNumberAllocator(jdbcTemplate, transactionManager, 10, "node1");
+
+        // Act
+        String number = allocator.next(2025);
+
+        // Assert
+        assertThat(number).isEqualTo("ORD-2025-node1-000001");
+    }
+
+    @Test
+    void next_whenCalledConcurrently_shouldNeverReturnDuplicates() throws Exception {
+        // Arrange
+        AtomicLong sequence = new AtomicLong();
+        when(jdbcTemplate.queryForObject(eq(NEXT_2025), eq(Long.class)))
+                .thenAnswer(invocation -> sequence.incrementAndGet());
+        OrderNumberAllocator allocator = new OrderNumberAllocator(jdbcTemplate, transactionManager, 50, "");
+        int count = 10_000;
+
+        // Act
+        Set<String> numbers = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                results.add(executor.submit(() -> numbers.add(allocator.next(2025))));
+            }
+            for (Future<Boolean> result : results) {
+                assertThat(result.get()).isTrue();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Assert
+        assertThat(numbers).hasSize(count);
+        assertThat(sequence.get()).isEqualTo(count / 50);
+    }
+
+    private List<String> nextNumbers(OrderNumberAllocator allocator, int year, int count) {
+        List<String> numbers = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            numbers.add(allocator.next(year));
+        }
+        return numbers;
+    }
+}
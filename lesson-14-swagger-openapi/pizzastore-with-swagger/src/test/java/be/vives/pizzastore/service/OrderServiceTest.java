@@ -1,11 +1,16 @@
 package be.vives.pizzastore.service;
 
+import be.vives.pizzastore.archive.OrderArchive;
 import be.vives.pizzastore.domain.Customer;
 import be.vives.pizzastore.domain.Order;
 import be.vives.pizzastore.domain.OrderStatus;
 import be.vives.pizzastore.domain.Pizza;
 import be.vives.pizzastore.dto.request.CreateOrderRequest;
+import be.vives.pizzastore.dto.response.BulkStatusUpdateResponse;
+import be.vives.pizzastore.dto.response.CursorPageResponse;
+import be.vives.pizzastore.dto.response.OrderLineResponse;
 import be.vives.pizzastore.dto.response.OrderResponse;
+import be.vives.pizzastore.dto.response.OrderStatusEvent;
 import be.vives.pizzastore.exception.BusinessException;
 import be.vives.pizzastore.mapper.OrderMapper;
 import be.vives.pizzastore.repository.CustomerRepository;
@@ -16,20 +21,27 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.AuditorAware;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.security.access.AccessDeniedException;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -47,26 +59,51 @@ class OrderServiceTest {
     @Mock
     private OrderMapper orderMapper;
 
+    @Mock
+    private OrderNumberAllocator orderNumberAllocator;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private SalesRollupService salesRollupService;
+
+    @Mock
+    private CustomerStatsService customerStatsService;
+
+    @Mock
+    private OrderArchive orderArchive;
+
+    @Mock
+    private AuditorAware<String> auditorAware;
+
     @InjectMocks
     private OrderService orderService;
 
+    private static OrderRepository.OrderLineRow lineRow(long orderId, long lineId, int quantity, long unitPriceCents) {
+        return new OrderRepository.OrderLineRow() {
+            public Long getOrderId() { return orderId; }
+            public Long getId() { return lineId; }
+            public Long getPizzaId() { return 7L; }
+            public String getPizzaName() { return "Margherita"; }
+            public Integer getQuantity() { return quantity; }
+            public Long getUnitPriceCents() { return unitPriceCents; }
+            public Long getSubtotalCents() { return unitPriceCents * quantity; }
+        };
+    }
+
     @Test
-    void findAll_shouldReturnPageOfOrders() {
+    void findAll_shouldReturnPageOfOrdersWithTheirLines() {
         // Arrange
-        Customer customer = new Customer("John Doe", "john@example.com");
-        Order order1 = new Order("ORD-2024-000001", customer, OrderStatus.PENDING);
-        Order order2 = new Order("ORD-2024-000002", customer, OrderStatus.DELIVERED);
-        Page<Order> page = new PageImpl<>(Arrays.asList(order1, order2));
         Pageable pageable = PageRequest.of(0, 10);
+        OrderResponse response1 = new OrderResponse(1L, "ORD-2024-000001", 1L, "John Doe",
+                2550L, OrderStatus.PENDING, LocalDateTime.now());
+        OrderResponse response2 = new OrderResponse(2L, "ORD-2024-000002", 1L, "John Doe",
+                3000L, OrderStatus.PENDING, LocalDateTime.now());
 
-        OrderResponse response1 = new OrderResponse(1L, "ORD-2024-000001", 1L, "John Doe", 
-                List.of(), BigDecimal.valueOf(25.50), OrderStatus.PENDING, LocalDateTime.now());
-        OrderResponse response2 = new OrderResponse(2L, "ORD-2024-000002", 1L, "John Doe", 
-                List.of(), BigDecimal.valueOf(30.00), OrderStatus.PENDING, LocalDateTime.now());
-
-        when(orderRepository.findAll(pageable)).thenReturn(page);
-        when(orderMapper.toResponse(order1)).thenReturn(response1);
-        when(orderMapper.toResponse(order2)).thenReturn(response2);
+        when(orderRepository.findAllResponses(pageable)).thenReturn(new PageImpl<>(Arrays.asList(response1, response2)));
+        when(orderRepository.findLineRowsByOrderIdIn(List.of(1L, 2L)))
+                .thenReturn(List.of(lineRow(1L, 10L, 2, 850), lineRow(1L, 11L, 1, 850), lineRow(2L, 12L, 3, 1000)));
 
         // Act
         Page<OrderResponse> result = orderService.findAll(pageable);
@@ -74,60 +111,129 @@ class OrderServiceTest {
         // Assert
         assertThat(result).hasSize(2);
         assertThat(result.getContent().get(0).orderNumber()).isEqualTo("ORD-2024-000001");
-        assertThat(result.getContent().get(1).orderNumber()).isEqualTo("ORD-2024-000002");
-        verify(orderRepository).findAll(pageable);
+        assertThat(result.getContent().get(0).totalAmount()).isEqualByComparingTo("25.50");
+        assertThat(result.getContent().get(0).orderLines()).extracting(OrderLineResponse::id).containsExactly(10L, 11L);
+        assertThat(result.getContent().get(1).orderLines().get(0).subtotal()).isEqualByComparingTo("30.00");
+        verify(orderRepository).findLineRowsByOrderIdIn(List.of(1L, 2L));
+        verifyNoInteractions(orderMapper);
     }
 
     @Test
-    void findByCustomerId_shouldReturnCustomerOrders() {
+    void findAll_withEmptyPage_shouldNotQueryLines() {
         // Arrange
-        Customer customer = new Customer("John Doe", "john@example.com");
-        customer.setId(1L);
-        Order order1 = new Order("ORD-2024-000001", customer, OrderStatus.PENDING);
-        Order order2 = new Order("ORD-2024-000002", customer, OrderStatus.DELIVERED);
-        Page<Order> page = new PageImpl<>(Arrays.asList(order1, order2));
         Pageable pageable = PageRequest.of(0, 10);
+        when(orderRepository.findAllResponses(pageable)).thenReturn(Page.empty());
 
-        OrderResponse response1 = new OrderResponse(1L, "ORD-2024-000001", 1L, "John Doe", 
-                List.of(), BigDecimal.valueOf(25.50), OrderStatus.PENDING, LocalDateTime.now());
-        OrderResponse response2 = new OrderResponse(2L, "ORD-2024-000002", 1L, "John Doe", 
-                List.of(), BigDecimal.valueOf(30.00), OrderStatus.PENDING, LocalDateTime.now());
+        // Act
+        Page<OrderResponse> result = orderService.findAll(pageable);
 
-        when(orderRepository.findAll(pageable)).thenReturn(page);
-        when(orderMapper.toResponse(order1)).thenReturn(response1);
-        when(orderMapper.toResponse(order2)).thenReturn(response2);
+        // Assert
+        assertThat(result).isEmpty();
+        verify(orderRepository, never()).findLineRowsByOrderIdIn(any());
+    }
+
+    @Test
+    void findByCustomerId_shouldReturnCustomerOrders() {
+        // Arrange
+        Pageable pageable = PageRequest.of(0, 10);
+        OrderResponse response1 = new OrderResponse(1L, "ORD-2024-000001", 1L, "John Doe",
+                2550L, OrderStatus.PENDING, LocalDateTime.now());
+        OrderResponse response2 = new OrderResponse(2L, "ORD-2024-000002", 1L, "John Doe",
+                3000L, OrderStatus.PENDING, LocalDateTime.now());
+
+        when(orderRepository.findResponsesByCustomerId(1L, pageable)).thenReturn(new PageImpl<>(Arrays.asList(response1, response2)));
+        when(orderRepository.findLineRowsByOrderIdIn(List.of(1L, 2L))).thenReturn(List.of());
 
         // Act
         Page<OrderResponse> result = orderService.findByCustomerId(1L, pageable);
 
         // Assert
         assertThat(result).hasSize(2);
-        verify(orderRepository).findAll(pageable);
+        assertThat(result.getContent().get(0).orderLines()).isEmpty();
+        verify(orderRepository).findResponsesByCustomerId(1L, pageable);
+        verify(orderRepository, never()).findAllResponses(any(Pageable.class));
     }
 
     @Test
     void findByStatus_shouldReturnOrdersWithStatus() {
         // Arrange
-        Customer customer = new Customer("John Doe", "john@example.com");
-        Order order1 = new Order("ORD-2024-000001", customer, OrderStatus.PENDING);
-        Order order2 = new Order("ORD-2024-000002", customer, OrderStatus.PENDING);
-
-        OrderResponse response1 = new OrderResponse(1L, "ORD-2024-000001", 1L, "John Doe", 
-                List.of(), BigDecimal.valueOf(25.50), OrderStatus.PENDING, LocalDateTime.now());
-        OrderResponse response2 = new OrderResponse(2L, "ORD-2024-000002", 1L, "John Doe", 
-                List.of(), BigDecimal.valueOf(30.00), OrderStatus.PENDING, LocalDateTime.now());
+        Pageable pageable = PageRequest.of(0, 2);
+        OrderResponse response1 = new OrderResponse(1L, "ORD-2024-000001", 1L, "John Doe",
+                2550L, OrderStatus.PENDING, LocalDateTime.now());
+        OrderResponse response2 = new OrderResponse(2L, "ORD-2024-000002", 1L, "John Doe",
+                3000L, OrderStatus.PENDING, LocalDateTime.now());
 
-        when(orderRepository.findByStatus(OrderStatus.PENDING)).thenReturn(Arrays.asList(order1, order2));
-        when(orderMapper.toResponseList(Arrays.asList(order1, order2))).thenReturn(Arrays.asList(response1, response2));
+        when(orderRepository.findResponsesByStatus(OrderStatus.PENDING, pageable))
+                .thenReturn(new PageImpl<>(Arrays.asList(response1, response2), pageable, 5));
+        when(orderRepository.findLineRowsByOrderIdIn(List.of(1L, 2L))).thenReturn(List.of());
 
         // Act
-        Page<OrderResponse> result = orderService.findByStatus(OrderStatus.PENDING, PageRequest.of(0, 10));
+        Page<OrderResponse> result = orderService.findByStatus(OrderStatus.PENDING, pageable);
 
         // Assert
         assertThat(result).hasSize(2);
+        assertThat(result.getTotalElements()).isEqualTo(5);
         assertThat(result.getContent().get(0).status()).isEqualTo(OrderStatus.PENDING);
         assertThat(result.getContent().get(1).status()).isEqualTo(OrderStatus.PENDING);
-        verify(orderRepository).findByStatus(OrderStatus.PENDING);
+        verify(orderRepository).findResponsesByStatus(OrderStatus.PENDING, pageable);
+        verify(orderRepository, never()).findByStatus(OrderStatus.PENDING);
+    }
+
+    @Test
+    void findSliceByStatus_shouldReturnSliceWithoutCounting() {
+        // Arrange
+        Pageable pageable = PageRequest.of(0, 1);
+        OrderResponse response = new OrderResponse(1L, "ORD-2024-000001", 1L, "John Doe",
+                2550L, OrderStatus.PENDING, LocalDateTime.now());
+
+        when(orderRepository.findResponseSliceByStatus(OrderStatus.PENDING, pageable))
+                .thenReturn(new SliceImpl<>(List.of(response), pageable, true));
+        when(orderRepository.findLineRowsByOrderIdIn(List.of(1L))).thenReturn(List.of());
+
+        // Act
+        Slice<OrderResponse> result = orderService.findSliceByStatus(OrderStatus.PENDING, pageable);
+
+        // Assert
+        assertThat(result.getContent()).containsExactly(response);
+        assertThat(result.hasNext()).isTrue();
+        verify(orderRepository).findResponseSliceByStatus(OrderStatus.PENDING, pageable);
+        verify(orderRepository, never()).findResponsesByStatus(any(OrderStatus.class), any(Pageable.class));
+    }
+
+    @Test
+    void findAllAfterCursor_withoutCursor_shouldReturnFirstPageAndNextCursor() {
+        // Arrange
+        OrderResponse response1 = new OrderResponse(2L, "ORD-2024-000002", 1L, "John Doe",
+                2550L, OrderStatus.PENDING, LocalDateTime.of(2024, 1, 2, 12, 0));
+        OrderResponse response2 = new OrderResponse(1L, "ORD-2024-000001", 1L, "John Doe",
+                2550L, OrderStatus.PENDING, LocalDateTime.of(2024, 1, 1, 12, 0));
+
+        when(orderRepository.findFirstKeysetResponses(PageRequest.ofSize(2))).thenReturn(Arrays.asList(response1, response2));
+        when(orderRepository.findLineRowsByOrderIdIn(List.of(2L))).thenReturn(List.of(lineRow(2L, 20L, 1, 2550)));
+
+        // Act
+        CursorPageResponse<OrderResponse> result = orderService.findAllAfterCursor(null, 1);
+
+        // Assert
+        assertThat(result.content()).extracting(OrderResponse::id).containsExactly(2L);
+        assertThat(result.content().get(0).orderLines()).hasSize(1);
+        assertThat(result.hasNext()).isTrue();
+        assertThat(result.nextCursor()).isNotBlank();
+
+        // The cursor points past the last returned order
+        when(orderRepository.findKeysetResponsesAfter(response1.orderDate(), 2L, PageRequest.ofSize(2))).thenReturn(List.of(response2));
+        orderService.findAllAfterCursor(result.nextCursor(), 1);
+        verify(orderRepository).findKeysetResponsesAfter(response1.orderDate(), 2L, PageRequest.ofSize(2));
+    }
+
+    @Test
+    void findAllAfterCursor_withInvalidCursor_shouldThrowException() {
+        // Act & Assert
+        assertThatThrownBy(() -> orderService.findAllAfterCursor("not-a-cursor", 10))
+                .isInstanceOf(BusinessException.class)
+                .hasMessageContaining("Invalid cursor");
+
+        verifyNoInteractions(orderRepository);
     }
 
     @Test
@@ -154,6 +260,7 @@ class OrderServiceTest {
     void findById_whenNotExists_shouldReturnNull() {
         // Arrange
         when(orderRepository.findByIdWithOrderLines(999L)).thenReturn(Optional.empty());
+        when(orderArchive.findById(999L)).thenReturn(Optional.empty());
 
         // Act
         OrderResponse result = orderService.findById(999L);
@@ -163,13 +270,31 @@ class OrderServiceTest {
         verify(orderRepository).findByIdWithOrderLines(999L);
     }
 
+    @Test
+    void findById_whenArchived_shouldReturnOrderFromArchive() {
+        // Arrange
+        OrderResponse archived = new OrderResponse(7L, "ORD-2023-000007", 1L, "John Doe",
+                List.of(), BigDecimal.valueOf(12.50), OrderStatus.DELIVERED, LocalDateTime.of(2023, 5, 1, 12, 0));
+        when(orderRepository.findByIdWithOrderLines(7L)).thenReturn(Optional.empty());
+        when(orderArchive.findById(7L)).thenReturn(Optional.of(archived));
+
+        // Act
+        OrderResponse result = orderService.findById(7L);
+
+        // Assert
+        assertThat(result).isEqualTo(archived);
+        verifyNoInteractions(orderMapper);
+    }
+
     @Test
     void create_shouldCreateAndReturnOrder() {
         // Arrange
         Customer customer = new Customer("John Doe", "john@example.com");
         Pizza pizza1 = new Pizza("Margherita", BigDecimal.valueOf(8.50), "Classic pizza");
+        pizza1.setId(1L);
         pizza1.setAvailable(true);
         Pizza pizza2 = new Pizza("Pepperoni", BigDecimal.valueOf(10.00), "Spicy pizza");
+        pizza2.setId(2L);
         pizza2.setAvailable(true);
 
         CreateOrderRequest.OrderLineRequest lineRequest1 = new CreateOrderRequest.OrderLineRequest(1L, 2);
@@ -177,13 +302,13 @@ class OrderServiceTest {
         CreateOrderRequest request = new CreateOrderRequest(1L, Arrays.asList(lineRequest1, lineRequest2));
 
         Order order = new Order("ORD-2024-000001", customer, OrderStatus.PENDING);
+        order.setId(1L);
         OrderResponse response = new OrderResponse(1L, "ORD-2024-000001", 1L, "John Doe", 
                 List.of(), BigDecimal.valueOf(27.00), OrderStatus.PENDING, LocalDateTime.now());
 
         when(customerRepository.findById(1L)).thenReturn(Optional.of(customer));
-        when(pizzaRepository.findById(1L)).thenReturn(Optional.of(pizza1));
-        when(pizzaRepository.findById(2L)).thenReturn(Optional.of(pizza2));
-        when(orderRepository.count()).thenReturn(0L);
+        when(pizzaRepository.findAllByIdWithNutritionalInfo(Set.of(1L, 2L))).thenReturn(List.of(pizza1, pizza2));
+        when(orderNumberAllocator.next()).thenReturn("ORD-2024-000001");
         when(orderRepository.save(any(Order.class))).thenReturn(order);
         when(orderMapper.toResponse(order)).thenReturn(response);
 
@@ -194,9 +319,13 @@ class OrderServiceTest {
         assertThat(result).isNotNull();
         assertThat(result.orderNumber()).isEqualTo("ORD-2024-000001");
         verify(customerRepository).findById(1L);
-        verify(pizzaRepository).findById(1L);
-        verify(pizzaRepository).findById(2L);
+        verify(pizzaRepository).findAllByIdWithNutritionalInfo(Set.of(1L, 2L));
+        verify(pizzaRepository, never()).findById(any());
+        verify(orderNumberAllocator).next();
         verify(orderRepository).save(any(Order.class));
+        verify(orderRepository, never()).count();
+        verify(salesRollupService).recordCreated(List.of(1L));
+        verify(customerStatsService).recordCreated(List.of(1L));
     }
 
     @Test
@@ -223,7 +352,7 @@ class OrderServiceTest {
         CreateOrderRequest request = new CreateOrderRequest(1L, List.of(lineRequest));
 
         when(customerRepository.findById(1L)).thenReturn(Optional.of(customer));
-        when(pizzaRepository.findById(999L)).thenReturn(Optional.empty());
+        when(pizzaRepository.findAllByIdWithNutritionalInfo(Set.of(999L))).thenReturn(List.of());
 
         // Act & Assert
         assertThatThrownBy(() -> orderService.create(request))
@@ -232,7 +361,7 @@ class OrderServiceTest {
                 .hasMessageContaining("999");
 
         verify(customerRepository).findById(1L);
-        verify(pizzaRepository).findById(999L);
+        verify(pizzaRepository).findAllByIdWithNutritionalInfo(Set.of(999L));
         verify(orderRepository, never()).save(any());
     }
 
@@ -241,13 +370,14 @@ class OrderServiceTest {
         // Arrange
         Customer customer = new Customer("John Doe", "john@example.com");
         Pizza pizza = new Pizza("Margherita", BigDecimal.valueOf(8.50), "Classic pizza");
+        pizza.setId(1L);
         pizza.setAvailable(false);
 
         CreateOrderRequest.OrderLineRequest lineRequest = new CreateOrderRequest.OrderLineRequest(1L, 1);
         CreateOrderRequest request = new CreateOrderRequest(1L, List.of(lineRequest));
 
         when(customerRepository.findById(1L)).thenReturn(Optional.of(customer));
-        when(pizzaRepository.findById(1L)).thenReturn(Optional.of(pizza));
+        when(pizzaRepository.findAllByIdWithNutritionalInfo(Set.of(1L))).thenReturn(List.of(pizza));
 
         // Act & Assert
         assertThatThrownBy(() -> orderService.create(request))
@@ -255,20 +385,21 @@ class OrderServiceTest {
                 .hasMessageContaining("not available");
 
         verify(customerRepository).findById(1L);
-        verify(pizzaRepository).findById(1L);
+        verify(pizzaRepository).findAllByIdWithNutritionalInfo(Set.of(1L));
         verify(orderRepository, never()).save(any());
     }
 
     @Test
-    void updateStatus_whenExists_shouldUpdateAndReturnOrder() {
+    void updateStatus_whenTransitionAllowed_shouldUpdateAndReturnOrder() {
         // Arrange
         Customer customer = new Customer("John Doe", "john@example.com");
-        Order order = new Order("ORD-2024-000001", customer, OrderStatus.PENDING);
+        Order order = new Order("ORD-2024-000001", customer, OrderStatus.PREPARING);
         OrderResponse response = new OrderResponse(1L, "ORD-2024-000001", 1L, "John Doe", 
                 List.of(), BigDecimal.valueOf(25.50), OrderStatus.PREPARING, LocalDateTime.now());
 
+        when(orderRepository.updateStatusIfIn(eq(1L), eq(OrderStatus.PREPARING.previousStatuses()),
+                eq(OrderStatus.PREPARING), any(LocalDateTime.class), any())).thenReturn(1);
         when(orderRepository.findById(1L)).thenReturn(Optional.of(order));
-        when(orderRepository.save(order)).thenReturn(order);
         when(orderMapper.toResponse(order)).thenReturn(response);
 
         // Act
@@ -277,45 +408,136 @@ class OrderServiceTest {
         // Assert
         assertThat(result).isNotNull();
         assertThat(result.status()).isEqualTo(OrderStatus.PREPARING);
-        verify(orderRepository).findById(1L);
-        verify(orderRepository).save(order);
+        verify(orderRepository, never()).findStatusById(any());
+        verify(orderRepository, never()).save(any());
     }
 
     @Test
     void updateStatus_whenNotExists_shouldReturnNull() {
         // Arrange
-        when(orderRepository.findById(999L)).thenReturn(Optional.empty());
+        when(orderRepository.updateStatusIfIn(eq(999L), any(), eq(OrderStatus.PREPARING), any(LocalDateTime.class), any()))
+                .thenReturn(0);
+        when(orderRepository.findStatusById(999L)).thenReturn(Optional.empty());
 
         // Act
         OrderResponse result = orderService.updateStatus(999L, OrderStatus.PREPARING);
 
         // Assert
         assertThat(result).isNull();
-        verify(orderRepository).findById(999L);
+        verify(orderRepository, never()).findById(any());
+    }
+
+    @Test
+    void updateStatus_whenTransitionNotAllowed_shouldThrowExceptionWithCurrentStatus() {
+        // Arrange - another update moved the order to DELIVERED first
+        when(orderRepository.updateStatusIfIn(eq(1L), any(), eq(OrderStatus.PREPARING), any(LocalDateTime.class), any()))
+                .thenReturn(0);
+        when(orderRepository.findStatusById(1L)).thenReturn(Optional.of(OrderStatus.DELIVERED));
+
+        // Act & Assert
+        assertThatThrownBy(() -> orderService.updateStatus(1L, OrderStatus.PREPARING))
+                .isInstanceOf(BusinessException.class)
+                .hasMessageContaining("from DELIVERED to PREPARING");
+
+        verify(orderRepository, never()).findById(any());
+    }
+
+    @Test
+    void updateStatus_toPending_shouldNotRunUpdate() {
+        // Arrange - no status may move back to PENDING
+        when(orderRepository.findStatusById(1L)).thenReturn(Optional.of(OrderStatus.PREPARING));
+
+        // Act & Assert
+        assertThatThrownBy(() -> orderService.updateStatus(1L, OrderStatus.PENDING))
+                .isInstanceOf(BusinessException.class)
+                .hasMessageContaining("from PREPARING to PENDING");
+
+        verify(orderRepository, never()).updateStatusIfIn(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void updateStatuses_shouldUpdateEligibleOrdersInOneStatementAndReportRejected() {
+        // Arrange
+        when(orderRepository.findStatusesByIdIn(Set.of(1L, 2L, 3L, 4L))).thenReturn(List.of(
+                idAndStatus(1L, OrderStatus.READY),
+                idAndStatus(2L, OrderStatus.READY),
+                idAndStatus(3L, OrderStatus.CANCELLED)));
+        when(orderRepository.updateStatusesIfIn(eq(List.of(1L, 2L)), eq(OrderStatus.DELIVERED.previousStatuses()),
+                eq(OrderStatus.DELIVERED), any(LocalDateTime.class), any())).thenReturn(2);
+
+        // Act
+        BulkStatusUpdateResponse result = orderService.updateStatuses(List.of(1L, 2L, 3L, 4L, 1L), OrderStatus.DELIVERED);
+
+        // Assert
+        assertThat(result.updated()).containsExactly(1L, 2L);
+        assertThat(result.rejected()).containsExactly(
+                new BulkStatusUpdateResponse.Rejected(3L, "Cannot change order status from CANCELLED to DELIVERED"),
+                new BulkStatusUpdateResponse.Rejected(4L, "Order not found"));
+        verify(orderRepository, times(1)).findStatusesByIdIn(any());
+        verify(orderRepository, never()).findById(any());
         verify(orderRepository, never()).save(any());
     }
 
     @Test
-    void cancel_whenExists_shouldCancelOrder() {
+    void updateStatuses_whenConcurrentUpdateWins_shouldReportItAsRejected() {
         // Arrange
-        Customer customer = new Customer("John Doe", "john@example.com");
-        Order order = new Order("ORD-2024-000001", customer, OrderStatus.PENDING);
+        when(orderRepository.findStatusesByIdIn(Set.of(1L, 2L))).thenReturn(List.of(
+                idAndStatus(1L, OrderStatus.READY),
+                idAndStatus(2L, OrderStatus.READY)));
+        when(orderRepository.updateStatusesIfIn(eq(List.of(1L, 2L)), any(), eq(OrderStatus.DELIVERED),
+                any(LocalDateTime.class), any())).thenReturn(1);
+        // Order 2 was cancelled between the read and the update
+        when(orderRepository.findStatusesByIdIn(List.of(1L, 2L))).thenReturn(List.of(
+                idAndStatus(1L, OrderStatus.DELIVERED),
+                idAndStatus(2L, OrderStatus.CANCELLED)));
 
-        when(orderRepository.findById(1L)).thenReturn(Optional.of(order));
-        when(orderRepository.save(order)).thenReturn(order);
+        // Act
+        BulkStatusUpdateResponse result = orderService.updateStatuses(List.of(1L, 2L), OrderStatus.DELIVERED);
+
+        // Assert
+        assertThat(result.updated()).containsExactly(1L);
+        assertThat(result.rejected()).containsExactly(
+                new BulkStatusUpdateResponse.Rejected(2L, "Cannot change order status from CANCELLED to DELIVERED"));
+    }
+
+    @Test
+    void updateStatuses_withoutIds_shouldThrowException() {
+        // Act & Assert
+        assertThatThrownBy(() -> orderService.updateStatuses(List.of(), OrderStatus.DELIVERED))
+                .isInstanceOf(BusinessException.class)
+                .hasMessageContaining("At least one order id");
+
+        verifyNoInteractions(orderRepository);
+    }
+
+    @Test
+    void cancel_whenExists_shouldCancelOrder() {
+        // Arrange
+        when(auditorAware.getCurrentAuditor()).thenReturn(Optional.of("admin@example.com"));
+        when(orderRepository.updateStatusIfIn(eq(1L), eq(OrderStatus.CANCELLED.previousStatuses()),
+                eq(OrderStatus.CANCELLED), any(LocalDateTime.class), any())).thenReturn(1);
 
         // Act
         orderService.cancel(1L);
 
-        // Assert
-        verify(orderRepository).findById(1L);
-        verify(orderRepository).save(order);
+        // Assert - a single conditional update, no read, audited like a save
+        verify(orderRepository).updateStatusIfIn(eq(1L), any(), eq(OrderStatus.CANCELLED), any(LocalDateTime.class),
+                eq("admin@example.com"));
+        verify(orderRepository, never()).findById(any());
+        verify(orderRepository, never()).findStatusById(any());
+        verify(orderRepository, never()).save(any());
+        verify(eventPublisher).publishEvent(argThat((Object event) -> event instanceof OrderStatusEvent statusEvent
+                && statusEvent.orderId().equals(1L) && statusEvent.status() == OrderStatus.CANCELLED));
+        verify(salesRollupService).recordCancelled(List.of(1L));
+        verify(customerStatsService).recordCancelled(List.of(1L));
     }
 
     @Test
     void cancel_whenNotExists_shouldThrowException() {
         // Arrange
-        when(orderRepository.findById(999L)).thenReturn(Optional.empty());
+        when(orderRepository.updateStatusIfIn(eq(999L), any(), eq(OrderStatus.CANCELLED), any(LocalDateTime.class), any()))
+                .thenReturn(0);
+        when(orderRepository.findStatusById(999L)).thenReturn(Optional.empty());
 
         // Act & Assert
         assertThatThrownBy(() -> orderService.cancel(999L))
@@ -323,41 +545,97 @@ class OrderServiceTest {
                 .hasMessageContaining("Order")
                 .hasMessageContaining("999");
 
-        verify(orderRepository).findById(999L);
         verify(orderRepository, never()).save(any());
+        verifyNoInteractions(eventPublisher);
+        verifyNoInteractions(salesRollupService);
+        verifyNoInteractions(customerStatsService);
     }
 
     @Test
     void cancel_whenAlreadyDelivered_shouldThrowException() {
         // Arrange
-        Customer customer = new Customer("John Doe", "john@example.com");
-        Order order = new Order("ORD-2024-000001", customer, OrderStatus.DELIVERED);
-
-        when(orderRepository.findById(1L)).thenReturn(Optional.of(order));
+        when(orderRepository.updateStatusIfIn(eq(1L), any(), eq(OrderStatus.CANCELLED), any(LocalDateTime.class), any()))
+                .thenReturn(0);
+        when(orderRepository.findStatusById(1L)).thenReturn(Optional.of(OrderStatus.DELIVERED));
 
         // Act & Assert
         assertThatThrownBy(() -> orderService.cancel(1L))
                 .isInstanceOf(BusinessException.class)
                 .hasMessageContaining("Cannot cancel");
 
-        verify(orderRepository).findById(1L);
         verify(orderRepository, never()).save(any());
     }
 
     @Test
     void cancel_whenAlreadyCancelled_shouldThrowException() {
         // Arrange
-        Customer customer = new Customer("John Doe", "john@example.com");
-        Order order = new Order("ORD-2024-000001", customer, OrderStatus.CANCELLED);
-
-        when(orderRepository.findById(1L)).thenReturn(Optional.of(order));
+        when(orderRepository.updateStatusIfIn(eq(1L), any(), eq(OrderStatus.CANCELLED), any(LocalDateTime.class), any()))
+                .thenReturn(0);
+        when(orderRepository.findStatusById(1L)).thenReturn(Optional.of(OrderStatus.CANCELLED));
 
         // Act & Assert
         assertThatThrownBy(() -> orderService.cancel(1L))
                 .isInstanceOf(BusinessException.class)
                 .hasMessageContaining("already cancelled");
 
-        verify(orderRepository).findById(1L);
         verify(orderRepository, never()).save(any());
     }
+
+    @Test
+    void findStatusForViewer_whenOwner_shouldReturnCurrentStatus() {
+        // Arrange
+        when(orderRepository.findStatusAndOwnerById(1L))
+                .thenReturn(Optional.of(statusAndOwner(OrderStatus.PREPARING, "john@example.com")));
+
+        // Act
+        OrderStatusEvent result = orderService.findStatusForViewer(1L, "john@example.com", false);
+
+        // Assert
+        assertThat(result.orderId()).isEqualTo(1L);
+        assertThat(result.status()).isEqualTo(OrderStatus.PREPARING);
+    }
+
+    @Test
+    void findStatusForViewer_whenOtherCustomer_shouldThrowAccessDenied() {
+        // Arrange
+        when(orderRepository.findStatusAndOwnerById(1L))
+                .thenReturn(Optional.of(statusAndOwner(OrderStatus.PREPARING, "john@example.com")));
+
+        // Act & Assert
+        assertThatThrownBy(() -> orderService.findStatusForViewer(1L, "jane@example.com", false))
+                .isInstanceOf(AccessDeniedException.class);
+    }
+
+    private OrderRepository.StatusAndOwner statusAndOwner(OrderStatus status, String customerEmail) {
+        return new OrderRepository.StatusAndOwner() {
+            @Override
+            public OrderStatus getStatus() {
+                return status;
+            }
+
+            @Override
+            public LocalDateTime getUpdatedAt() {
+                return LocalDateTime.now();
+            }
+
+            @Override
+            public String getCustomerEmail() {
+                return customerEmail;
+            }
+        };
+    }
+
+    private OrderRepository.IdAndStatus idAndStatus(Long id, OrderStatus status) {
+        return new OrderRepository.IdAndStatus() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public OrderStatus getStatus() {
+                return status;
+            }
+        };
+    }
 }
@@ -0,0 +1,157 @@
+package be.vives.pizzastore.service;
+
+import be.vives.pizzastore.domain.OrderStatus;
+import be.vives.pizzastore.dto.response.OrderStatusEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OrderStatusStreamTest {
+
+    // Long heartbeat interval: heartbeats are triggered by hand in these tests
+    private final OrderStatusStream stream = new OrderStatusStream(60_000, 3600, 3);
+
+    @AfterEach
+    void tearDown() {
+        stream.shutdown();
+    }
+
+    @Test
+    void onStatusChanged_shouldReachAllOrdersSubscribersAndWatchersOfThatOrder() throws Exception {
+        // Arrange
+        RecordingEmitter kitchen = new RecordingEmitter();
+        RecordingEmitter watcherOfOrder1 = new RecordingEmitter();
+        RecordingEmitter watcherOfOrder2 = new RecordingEmitter();
+        stream.register(kitchen, null, null);
+        stream.register(watcherOfOrder1, 1L, null);
+        stream.register(watcherOfOrder2, 2L, null);
+
+        // Act
+        stream.onStatusChanged(event(1L, OrderStatus.READY));
+
+        // Assert
+        awaitUntil(() -> kitchen.sent.size() == 1 && watcherOfOrder1.sent.size() == 1);
+        assertThat(kitchen.sent.get(0)).contains("event:status").contains("orderId=1").contains("READY");
+        assertThat(watcherOfOrder1.sent.get(0)).contains("READY");
+        assertThat(watcherOfOrder2.sent).isEmpty();
+        assertThat(stream.subscriberCount()).isEqualTo(3);
+    }
+
+    @Test
+    void register_withCurrentStatus_shouldSendItFirst() throws Exception {
+        // Arrange
+        RecordingEmitter watcher = new RecordingEmitter();
+
+        // Act
+        stream.register(watcher, 1L, event(1L, OrderStatus.PREPARING));
+        stream.onStatusChanged(event(1L, OrderStatus.READY));
+
+        // Assert
+        awaitUntil(() -> watcher.sent.size() == 2);
+        assertThat(watcher.sent.get(0)).contains("PREPARING");
+        assertThat(watcher.sent.get(1)).contains("READY");
+    }
+
+    @Test
+    void sendHeartbeats_shouldWriteCommentToIdleSubscribers() throws Exception {
+        // Arrange
+        RecordingEmitter kitchen = new RecordingEmitter();
+        stream.register(kitchen, null, null);
+
+        // Act
+        stream.sendHeartbeats();
+
+        // Assert
+        awaitUntil(() -> kitchen.sent.size() == 1);
+        assertThat(kitchen.sent.get(0)).startsWith(":heartbeat");
+    }
+
+    @Test
+    void slowSubscriber_shouldBeDisconnectedWithoutBlockingOthers() throws Exception {
+        // Arrange - the slow client blocks on its first write
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingEmitter slow = new RecordingEmitter(release);
+        RecordingEmitter fast = new RecordingEmitter();
+        stream.register(slow, null, null);
+        stream.register(fast, null, null);
+
+        // Act - one event in flight plus three pending overflows the outbox of three
+        for (int i = 0; i < 5; i++) {
+            stream.onStatusChanged(event((long) i, OrderStatus.READY));
+        }
+
+        // Assert
+        awaitUntil(() -> fast.sent.size() == 5);
+        assertThat(stream.subscriberCount()).isEqualTo(1);
+        release.countDown();
+    }
+
+    @Test
+    void disconnectedSubscriber_shouldBeRemoved() throws Exception {
+        // Arrange
+        RecordingEmitter gone = new RecordingEmitter();
+        gone.failWrites = true;
+        stream.register(gone, 1L, null);
+
+        // Act
+        stream.onStatusChanged(event(1L, OrderStatus.READY));
+
+        // Assert
+        awaitUntil(() -> stream.subscriberCount() == 0);
+    }
+
+    private OrderStatusEvent event(Long orderId, OrderStatus status) {
+        return new OrderStatusEvent(orderId, status, LocalDateTime.of(2024, 1, 1, 12, 0));
+    }
+
+    private void awaitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("condition not met within 5 seconds").isLessThan(deadline);
+            Thread.sleep(10);
+        }
+    }
+
+    // Records what would be written to the client (event data is the unserialized object)
+    private static class RecordingEmitter extends SseEmitter {
+
+        private final List<String> sent = new CopyOnWriteArrayList<>();
+        private final CountDownLatch release;
+        private volatile boolean failWrites;
+
+        RecordingEmitter() {
+            this(null);
+        }
+
+        RecordingEmitter(CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            if (failWrites) {
+                throw new IOException("Broken pipe");
+            }
+            if (release != null) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            StringBuilder text = new StringBuilder();
+            builder.build().forEach(part -> text.append(part.getData()));
+            sent.add(text.toString());
+        }
+    }
+}
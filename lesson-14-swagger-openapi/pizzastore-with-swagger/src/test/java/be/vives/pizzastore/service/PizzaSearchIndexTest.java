@@ -0,0 +1,94 @@
+package be.vives.pizzastore.service;
+
+import be.vives.pizzastore.dto.response.PizzaResponse;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PizzaSearchIndexTest {
+
+    private final PizzaResponse margherita = pizza(1L, "Margherita", "Tomato sauce, fresh mozzarella and basil");
+    private final PizzaResponse pepperoni = pizza(2L, "Pepperoni", "Tomato sauce, mozzarella and spicy pepperoni");
+    private final PizzaResponse quattroFormaggi = pizza(3L, "Quattro Formaggi", "Mozzarella, gorgonzola, parmesan and fontina");
+    private final PizzaResponse funghi = pizza(4L, "Funghi", "Tomato sauce, mozzarella and mushrooms");
+
+    private final PizzaSearchIndex index = PizzaSearchIndex.of(List.of(margherita, pepperoni, quattroFormaggi, funghi));
+
+    @Test
+    void search_shouldRankNameMatchesAboveDescriptionMatches() {
+        // Act
+        List<PizzaResponse> results = index.search("pepperoni", 10);
+
+        // Assert - the name counts more, even though the description of Pepperoni mentions it too
+        assertThat(results).containsExactly(pepperoni);
+        assertThat(index.search("mozzarella basil", 10)).first().isEqualTo(margherita);
+    }
+
+    @Test
+    void search_shouldRankRareTermsAboveCommonOnes() {
+        // Act - every pizza has mozzarella, only one has gorgonzola
+        List<PizzaResponse> results = index.search("mozzarella gorgonzola", 10);
+
+        // Assert
+        assertThat(results).hasSize(4).first().isEqualTo(quattroFormaggi);
+    }
+
+    @Test
+    void search_shouldTolerateTyposAccentsAndCase() {
+        // Act & Assert
+        assertThat(index.search("margarita", 10)).containsExactly(margherita);
+        assertThat(index.search("FUNGHÍ", 10)).containsExactly(funghi);
+        assertThat(index.search("gorgonzolla", 10)).containsExactly(quattroFormaggi);
+    }
+
+    @Test
+    void search_shouldExpandUnfinishedWords() {
+        // Act & Assert
+        assertThat(index.search("pepp", 10)).containsExactly(pepperoni);
+        assertThat(index.search("mush", 10)).containsExactly(funghi);
+    }
+
+    @Test
+    void search_withUnknownWordsOrOnlyStopWords_shouldReturnNothing() {
+        // Act & Assert
+        assertThat(index.search("pineapple", 10)).isEmpty();
+        assertThat(index.search("and the", 10)).isEmpty();
+    }
+
+    @Test
+    void search_shouldStopAtTheLimit() {
+        // Act & Assert - the same term weighs more in a shorter description
+        assertThat(index.search("tomato", 2)).containsExactly(funghi, margherita);
+    }
+
+    @Test
+    void putAndRemove_shouldUpdateTheIndexInPlace() {
+        // Arrange
+        PizzaResponse renamed = pizza(4L, "Funghi e Tartufo", "Mozzarella, mushrooms and truffle");
+
+        // Act
+        index.put(renamed);
+        index.remove(1L);
+
+        // Assert
+        assertThat(index.search("truffle", 10)).containsExactly(renamed);
+        assertThat(index.search("tomato", 10)).containsExactly(pepperoni);
+        assertThat(index.search("margherita", 10)).isEmpty();
+        assertThat(index.size()).isEqualTo(3);
+    }
+
+    @Test
+    void distance_shouldCountEditsUpToTheMaximum() {
+        // Act & Assert
+        assertThat(PizzaSearchIndex.distance("margarita", "margherita", 2)).isEqualTo(2);
+        assertThat(PizzaSearchIndex.distance("funghi", "funghi", 2)).isZero();
+        assertThat(PizzaSearchIndex.distance("funghi", "pepperoni", 2)).isEqualTo(3);
+    }
+
+    private static PizzaResponse pizza(Long id, String name, String description) {
+        return new PizzaResponse(id, name, new BigDecimal("9.00"), description, null, true, null);
+    }
+}
@@ -4,6 +4,8 @@ import be.vives.pizzastore.domain.Pizza;
 import be.vives.pizzastore.dto.request.CreatePizzaRequest;
 import be.vives.pizzastore.dto.request.UpdatePizzaRequest;
 import be.vives.pizzastore.dto.response.PizzaResponse;
+import be.vives.pizzastore.dto.response.PizzaSuggestionResponse;
+import be.vives.pizzastore.exception.BusinessException;
 import be.vives.pizzastore.mapper.PizzaMapper;
 import be.vives.pizzastore.repository.PizzaRepository;
 import org.junit.jupiter.api.BeforeEach;
@@ -12,18 +14,18 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.math.BigDecimal;
-import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
@@ -49,6 +51,15 @@ class PizzaServiceTest {
     @Mock
     private FileStorageService fileStorageService;
 
+    @Mock
+    private PizzaCatalog pizzaCatalog;
+
+    @Mock
+    private PizzaSuggestions pizzaSuggestions;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks  // Injects the mocks above
     private PizzaService pizzaService;
 
@@ -71,8 +82,7 @@ class PizzaServiceTest {
     @Test
     void findById_ExistingPizza_ReturnsPizzaResponse() {
         // Given
-        when(pizzaRepository.findById(1L)).thenReturn(Optional.of(testPizza));
-        when(pizzaMapper.toResponse(testPizza)).thenReturn(testResponse);
+        when(pizzaCatalog.snapshot()).thenReturn(CatalogSnapshot.of(List.of(testResponse)));
 
         // When
         Optional<PizzaResponse> result = pizzaService.findById(1L);
@@ -83,50 +93,69 @@ class PizzaServiceTest {
         assertThat(result.get().name()).isEqualTo("Margherita");
         assertThat(result.get().price()).isEqualByComparingTo(new BigDecimal("8.50"));
 
-        verify(pizzaRepository).findById(1L);
-        verify(pizzaMapper).toResponse(testPizza);
+        verifyNoInteractions(pizzaRepository, pizzaMapper);
     }
 
     @Test
-    void findById_NonExistingPizza_ReturnsEmpty() {
+    void search_ReturnsRankedMatchesFromTheIndex() {
         // Given
-        when(pizzaRepository.findById(999L)).thenReturn(Optional.empty());
+        when(pizzaCatalog.searchIndex()).thenReturn(PizzaSearchIndex.of(List.of(testResponse)));
 
         // When
-        Optional<PizzaResponse> result = pizzaService.findById(999L);
+        List<PizzaResponse> result = pizzaService.search("margarita", 10);
 
         // Then
-        assertThat(result).isEmpty();
+        assertThat(result).containsExactly(testResponse);
+        verifyNoInteractions(pizzaRepository, pizzaMapper);
+    }
 
-        verify(pizzaRepository).findById(999L);
-        verify(pizzaMapper, never()).toResponse(any());
+    @Test
+    void search_BlankQueryOrLimitOutOfRange_ThrowsException() {
+        // When / Then
+        assertThatThrownBy(() -> pizzaService.search(" ", 10))
+                .isInstanceOf(BusinessException.class);
+        assertThatThrownBy(() -> pizzaService.search("margherita", PizzaService.MAX_SEARCH_RESULTS + 1))
+                .isInstanceOf(BusinessException.class)
+                .hasMessageContaining("Limit");
+        verifyNoInteractions(pizzaCatalog);
     }
 
     @Test
-    void findByPriceLessThan_MultiplePizzas_ReturnsListOfResponses() {
+    void suggest_ReturnsSuggestionsFromMemory() {
         // Given
-        Pizza pizza2 = new Pizza("Marinara", new BigDecimal("7.50"), "Simple");
-        pizza2.setId(2L);
+        List<PizzaSuggestionResponse> suggestions =
+                List.of(new PizzaSuggestionResponse(1L, "Margherita", new BigDecimal("8.50")));
+        when(pizzaSuggestions.suggest("mar", 8)).thenReturn(suggestions);
 
-        List<Pizza> pizzas = Arrays.asList(testPizza, pizza2);
-        List<PizzaResponse> responses = Arrays.asList(
-                testResponse,
-                new PizzaResponse(2L, "Marinara", new BigDecimal("7.50"), "Simple", null, true, null)
-        );
+        // When
+        List<PizzaSuggestionResponse> result = pizzaService.suggest("mar", 8);
 
-        when(pizzaRepository.findByPriceLessThan(new BigDecimal("10.00"))).thenReturn(pizzas);
-        when(pizzaMapper.toResponseList(pizzas)).thenReturn(responses);
+        // Then
+        assertThat(result).isEqualTo(suggestions);
+        verifyNoInteractions(pizzaRepository, pizzaMapper, pizzaCatalog);
+    }
+
+    @Test
+    void suggest_LimitOutOfRange_ThrowsException() {
+        // When / Then
+        assertThatThrownBy(() -> pizzaService.suggest("mar", PizzaService.MAX_SUGGESTIONS + 1))
+                .isInstanceOf(BusinessException.class)
+                .hasMessageContaining("Limit");
+        verifyNoInteractions(pizzaSuggestions);
+    }
+
+    @Test
+    void findById_NonExistingPizza_ReturnsEmpty() {
+        // Given
+        when(pizzaCatalog.snapshot()).thenReturn(CatalogSnapshot.of(List.of(testResponse)));
 
         // When
-        List<PizzaResponse> result = pizzaService.findByPriceLessThan(new BigDecimal("10.00"));
+        Optional<PizzaResponse> result = pizzaService.findById(999L);
 
         // Then
-        assertThat(result).hasSize(2);
-        assertThat(result).extracting(PizzaResponse::name)
-                .containsExactly("Margherita", "Marinara");
+        assertThat(result).isEmpty();
 
-        verify(pizzaRepository).findByPriceLessThan(new BigDecimal("10.00"));
-        verify(pizzaMapper).toResponseList(pizzas);
+        verifyNoInteractions(pizzaRepository, pizzaMapper);
     }
 
     @Test
@@ -146,6 +175,7 @@ class PizzaServiceTest {
         verify(pizzaMapper).toEntity(createRequest);
         verify(pizzaRepository).save(testPizza);
         verify(pizzaMapper).toResponse(testPizza);
+        verify(eventPublisher).publishEvent(new PizzaCatalog.Changed(1L, testResponse));
     }
 
     @Test
@@ -209,6 +239,7 @@ class PizzaServiceTest {
 
         verify(pizzaRepository).existsById(1L);
         verify(pizzaRepository).deleteById(1L);
+        verify(eventPublisher).publishEvent(new PizzaCatalog.Changed(1L, null));
     }
 
     @Test
@@ -224,17 +255,14 @@ class PizzaServiceTest {
 
         verify(pizzaRepository).existsById(999L);
         verify(pizzaRepository, never()).deleteById(any());
+        verifyNoInteractions(eventPublisher);
     }
 
     @Test
     void findAll_WithPageable_ReturnsPageOfPizzas() {
         // Given
         Pageable pageable = PageRequest.of(0, 10);
-        List<Pizza> pizzas = Arrays.asList(testPizza);
-        Page<Pizza> pizzaPage = new PageImpl<>(pizzas, pageable, 1);
-        
-        when(pizzaRepository.findAll(pageable)).thenReturn(pizzaPage);
-        when(pizzaMapper.toResponse(testPizza)).thenReturn(testResponse);
+        when(pizzaCatalog.snapshot()).thenReturn(CatalogSnapshot.of(List.of(testResponse)));
 
         // When
         Page<PizzaResponse> result = pizzaService.findAll(pageable);
@@ -245,17 +273,14 @@ class PizzaServiceTest {
         assertThat(result.getContent().get(0).name()).isEqualTo("Margherita");
         assertThat(result.getTotalElements()).isEqualTo(1);
 
-        verify(pizzaRepository).findAll(pageable);
-        verify(pizzaMapper).toResponse(testPizza);
+        verifyNoInteractions(pizzaRepository, pizzaMapper);
     }
 
     @Test
     void findAll_WithPageable_EmptyPage_ReturnsEmptyPage() {
         // Given
         Pageable pageable = PageRequest.of(0, 10);
-        Page<Pizza> emptyPage = Page.empty();
-        
-        when(pizzaRepository.findAll(pageable)).thenReturn(emptyPage);
+        when(pizzaCatalog.snapshot()).thenReturn(CatalogSnapshot.EMPTY);
 
         // When
         Page<PizzaResponse> result = pizzaService.findAll(pageable);
@@ -265,94 +290,7 @@ class PizzaServiceTest {
         assertThat(result.getContent()).isEmpty();
         assertThat(result.getTotalElements()).isEqualTo(0);
 
-        verify(pizzaRepository).findAll(pageable);
-        verify(pizzaMapper, never()).toResponse(any());
-    }
-
-    @Test
-    void findByPriceBetween_MultipleResults_ReturnsListOfResponses() {
-        // Given
-        Pizza pizza2 = new Pizza("Marinara", new BigDecimal("7.50"), "Simple");
-        pizza2.setId(2L);
-
-        List<Pizza> pizzas = Arrays.asList(testPizza, pizza2);
-        List<PizzaResponse> responses = Arrays.asList(
-                testResponse,
-                new PizzaResponse(2L, "Marinara", new BigDecimal("7.50"), "Simple", null, true, null)
-        );
-
-        when(pizzaRepository.findByPriceBetween(new BigDecimal("7.00"), new BigDecimal("9.00")))
-                .thenReturn(pizzas);
-        when(pizzaMapper.toResponseList(pizzas)).thenReturn(responses);
-
-        // When
-        List<PizzaResponse> result = pizzaService.findByPriceBetween(new BigDecimal("7.00"), new BigDecimal("9.00"));
-
-        // Then
-        assertThat(result).hasSize(2);
-        assertThat(result).extracting(PizzaResponse::name)
-                .containsExactly("Margherita", "Marinara");
-
-        verify(pizzaRepository).findByPriceBetween(new BigDecimal("7.00"), new BigDecimal("9.00"));
-        verify(pizzaMapper).toResponseList(pizzas);
-    }
-
-    @Test
-    void findByPriceBetween_NoResults_ReturnsEmptyList() {
-        // Given
-        when(pizzaRepository.findByPriceBetween(new BigDecimal("100.00"), new BigDecimal("200.00")))
-                .thenReturn(List.of());
-        when(pizzaMapper.toResponseList(List.of())).thenReturn(List.of());
-
-        // When
-        List<PizzaResponse> result = pizzaService.findByPriceBetween(new BigDecimal("100.00"), new BigDecimal("200.00"));
-
-        // Then
-        assertThat(result).isEmpty();
-
-        verify(pizzaRepository).findByPriceBetween(new BigDecimal("100.00"), new BigDecimal("200.00"));
-    }
-
-    @Test
-    void findByNameContaining_MultipleResults_ReturnsListOfResponses() {
-        // Given
-        Pizza pizza2 = new Pizza("Marinara", new BigDecimal("7.50"), "Simple");
-        pizza2.setId(2L);
-
-        List<Pizza> pizzas = Arrays.asList(testPizza, pizza2);
-        List<PizzaResponse> responses = Arrays.asList(
-                testResponse,
-                new PizzaResponse(2L, "Marinara", new BigDecimal("7.50"), "Simple", null, true, null)
-        );
-
-        when(pizzaRepository.findByNameContainingIgnoreCase("mar")).thenReturn(pizzas);
-        when(pizzaMapper.toResponseList(pizzas)).thenReturn(responses);
-
-        // When
-        List<PizzaResponse> result = pizzaService.findByNameContaining("mar");
-
-        // Then
-        assertThat(result).hasSize(2);
-        assertThat(result).extracting(PizzaResponse::name)
-                .containsExactly("Margherita", "Marinara");
-
-        verify(pizzaRepository).findByNameContainingIgnoreCase("mar");
-        verify(pizzaMapper).toResponseList(pizzas);
-    }
-
-    @Test
-    void findByNameContaining_NoResults_ReturnsEmptyList() {
-        // Given
-        when(pizzaRepository.findByNameContainingIgnoreCase("xyz")).thenReturn(List.of());
-        when(pizzaMapper.toResponseList(List.of())).thenReturn(List.of());
-
-        // When
-        List<PizzaResponse> result = pizzaService.findByNameContaining("xyz");
-
-        // Then
-        assertThat(result).isEmpty();
-
-        verify(pizzaRepository).findByNameContainingIgnoreCase("xyz");
+        verifyNoInteractions(pizzaRepository, pizzaMapper);
     }
 
     @Test
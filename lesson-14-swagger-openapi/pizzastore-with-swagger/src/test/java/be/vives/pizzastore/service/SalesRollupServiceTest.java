@@ -0,0 +1,146 @@
+package be.vives.pizzastore.service;
+
+import be.vives.pizzastore.archive.OrderArchive;
+import be.vives.pizzastore.domain.SalesGranularity;
+import be.vives.pizzastore.dto.response.SalesReportResponse;
+import be.vives.pizzastore.exception.BusinessException;
+import be.vives.pizzastore.repository.SalesRollupRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SalesRollupServiceTest {
+
+    @Mock
+    private SalesRollupRepository salesRollupRepository;
+
+    @Mock
+    private OrderArchive orderArchive;
+
+    @Mock
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    private SalesRollupService salesRollupService;
+
+    @BeforeEach
+    void setUp() {
+        salesRollupService = new SalesRollupService(salesRollupRepository, orderArchive, jdbcTemplate, 8);
+    }
+
+    @Test
+    void findSales_byDay_shouldSumBucketsIntoTotals() {
+        // Arrange
+        LocalDate day = LocalDate.of(2024, 1, 15);
+        SalesRollupRepository.DailySales margherita = daily(day, 1L, "Margherita", 2, 1798);
+        SalesRollupRepository.DailySales diavola = daily(day, 5L, "Diavola", 1, 1299);
+        when(salesRollupRepository.findDaily(day, day)).thenReturn(List.of(margherita, diavola));
+
+        // Act
+        SalesReportResponse report = salesRollupService.findSales(day, day, SalesGranularity.DAY);
+
+        // Assert
+        assertThat(report.buckets()).hasSize(2);
+        assertThat(report.buckets().get(0).hour()).isNull();
+        assertThat(report.buckets().get(0).revenue()).isEqualByComparingTo("17.98");
+        assertThat(report.totalQuantity()).isEqualTo(3);
+        assertThat(report.totalRevenue()).isEqualByComparingTo("30.97");
+        verify(salesRollupRepository, never()).findHourly(any(), any());
+    }
+
+    @Test
+    void findSales_withoutRange_shouldDefaultToLastSevenDays() {
+        // Arrange
+        LocalDate today = LocalDate.now();
+        when(salesRollupRepository.findHourly(today.minusDays(6), today)).thenReturn(List.of());
+
+        // Act
+        SalesReportResponse report = salesRollupService.findSales(null, null, SalesGranularity.HOUR);
+
+        // Assert
+        assertThat(report.from()).isEqualTo(today.minusDays(6));
+        assertThat(report.to()).isEqualTo(today);
+        assertThat(report.buckets()).isEmpty();
+    }
+
+    @Test
+    void findSales_whenFromAfterTo_shouldThrowException() {
+        // Act & Assert
+        assertThatThrownBy(() -> salesRollupService.findSales(
+                LocalDate.of(2024, 1, 16), LocalDate.of(2024, 1, 15), SalesGranularity.DAY))
+                .isInstanceOf(BusinessException.class);
+        verifyNoInteractions(salesRollupRepository);
+    }
+
+    @Test
+    void findSales_whenRangeTooLong_shouldThrowException() {
+        // Act & Assert
+        assertThatThrownBy(() -> salesRollupService.findSales(
+                LocalDate.of(2023, 1, 1), LocalDate.of(2024, 12, 31), SalesGranularity.DAY))
+                .isInstanceOf(BusinessException.class)
+                .hasMessageContaining(String.valueOf(SalesRollupService.MAX_REPORT_DAYS));
+    }
+
+    @Test
+    void recordCreated_withoutOrders_shouldNotRunStatement() {
+        // Act
+        salesRollupService.recordCreated(List.of());
+
+        // Assert
+        verifyNoInteractions(salesRollupRepository, jdbcTemplate);
+    }
+
+    @Test
+    void rebuild_withoutArchive_shouldRecomputeEverything() {
+        // Arrange
+        when(orderArchive.latestOrderDate()).thenReturn(Optional.empty());
+        when(salesRollupRepository.insertFromOrders()).thenReturn(19);
+
+        // Act
+        int buckets = salesRollupService.rebuild().buckets();
+
+        // Assert
+        assertThat(buckets).isEqualTo(19);
+        verify(salesRollupRepository).deleteAllRollups();
+        verify(salesRollupRepository, never()).deleteRollupsFrom(any());
+    }
+
+    @Test
+    void rebuild_withArchivedOrders_shouldKeepArchivedDays() {
+        // Arrange
+        when(orderArchive.latestOrderDate()).thenReturn(Optional.of(LocalDateTime.of(2024, 3, 31, 22, 15)));
+        when(salesRollupRepository.insertFromOrdersFrom(LocalDateTime.of(2024, 4, 1, 0, 0))).thenReturn(4);
+
+        // Act
+        int buckets = salesRollupService.rebuild().buckets();
+
+        // Assert
+        assertThat(buckets).isEqualTo(4);
+        verify(salesRollupRepository).deleteRollupsFrom(LocalDate.of(2024, 4, 1));
+        verify(salesRollupRepository, never()).deleteAllRollups();
+    }
+
+    private SalesRollupRepository.DailySales daily(LocalDate date, Long pizzaId, String pizzaName,
+                                                   long quantity, long revenueCents) {
+        SalesRollupRepository.DailySales row = mock(SalesRollupRepository.DailySales.class);
+        when(row.getSalesDate()).thenReturn(date);
+        when(row.getPizzaId()).thenReturn(pizzaId);
+        when(row.getPizzaName()).thenReturn(pizzaName);
+        when(row.getQuantity()).thenReturn(quantity);
+        when(row.getRevenueCents()).thenReturn(revenueCents);
+        return row;
+    }
+}
@@ -0,0 +1,69 @@
+package be.vives.pizzastore.service;
+
+import be.vives.pizzastore.dto.response.PizzaResponse;
+import be.vives.pizzastore.dto.response.PizzaSuggestionResponse;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SuggestionIndexTest {
+
+    private final PizzaResponse margherita = pizza(1L, "Margherita", true);
+    private final PizzaResponse marinara = pizza(2L, "Marinara", true);
+    private final PizzaResponse quattroFormaggi = pizza(3L, "Quattro Formaggi", true);
+    private final PizzaResponse cremeBrulee = pizza(4L, "Crème Brûlée", true);
+    private final PizzaResponse bianca = pizza(5L, "Margherita Bianca", false);
+
+    // Marinara sold best, Margherita second, the others not at all
+    private final SuggestionIndex index = SuggestionIndex.of(
+            List.of(margherita, marinara, quattroFormaggi, cremeBrulee, bianca), Map.of(2L, 50L, 1L, 10L));
+
+    @Test
+    void suggest_shouldRankByPopularityThenName() {
+        // Act & Assert
+        assertThat(names(index.suggest("mar", 10))).containsExactly("Marinara", "Margherita");
+        assertThat(names(index.suggest("m", 1))).containsExactly("Marinara");
+    }
+
+    @Test
+    void suggest_shouldMatchTheStartOfAnyWordIgnoringCaseAndAccents() {
+        // Act & Assert
+        assertThat(names(index.suggest("FORM", 10))).containsExactly("Quattro Formaggi");
+        assertThat(names(index.suggest("quattro  f", 10))).containsExactly("Quattro Formaggi");
+        assertThat(names(index.suggest("brulee", 10))).containsExactly("Crème Brûlée");
+    }
+
+    @Test
+    void suggest_shouldLeaveOutUnavailablePizzasAndEmptyPrefixes() {
+        // Act & Assert
+        assertThat(names(index.suggest("bianca", 10))).isEmpty();
+        assertThat(index.suggest("  ", 10)).isEmpty();
+        assertThat(index.suggest("pineapple", 10)).isEmpty();
+    }
+
+    @Test
+    void withAndWithout_shouldReturnNewIndexesAndKeepThePopularity() {
+        // Act
+        SuggestionIndex changed = index.with(pizza(2L, "Napoletana", true)).without(1L);
+
+        // Assert
+        assertThat(changed.suggest("nap", 10)).containsExactly(
+                new PizzaSuggestionResponse(2L, "Napoletana", new BigDecimal("9.00")));
+        assertThat(names(changed.suggest("mar", 10))).isEmpty();
+        assertThat(names(index.suggest("mar", 10))).containsExactly("Marinara", "Margherita");
+        assertThat(names(changed.with(pizza(6L, "Nduja", true)).suggest("n", 10)))
+                .containsExactly("Napoletana", "Nduja");
+    }
+
+    private static List<String> names(List<PizzaSuggestionResponse> suggestions) {
+        return suggestions.stream().map(PizzaSuggestionResponse::name).toList();
+    }
+
+    private static PizzaResponse pizza(Long id, String name, boolean available) {
+        return new PizzaResponse(id, name, new BigDecimal("9.00"), null, null, available, null);
+    }
+}